@@ -38,6 +38,11 @@ public class Problem {
         this.orders = ImmutableList.copyOf(orders);
         this.rolls = ImmutableList.copyOf(rolls);
         this.allowedCutsNumber = allowedCutsNumber;
+
+        // assign dense indices of the rolls
+        for (int i = 0; i < this.rolls.size(); i++) {
+            this.rolls.get(i).setIndex(i);
+        }
     }
 
     /**
@@ -206,7 +206,8 @@ public class ProblemBuilder {
     }
 
     /**
-     * <p>Create a Problem with the arguments supplied to this builder.<p/>
+     * <p>Create a Problem with the arguments supplied to this builder. Each roll gets dense index
+     * equal to its position in the list of rolls of the problem (see Roll.getIndex()).<p/>
      *
      * @param sortOrders Sort orders in ascending order of width.
      * @param sortRolls  Sort rolls in ascending order of width.
@@ -11,6 +11,7 @@ import com.google.common.base.Objects;
 public class Roll extends Strip {
     private static final String FORMAT_TEMPLATE = "Roll '%s', #%d:  W = %.2f  L = %.2f";
     private final int internalId;
+    private int index;
     private RollMetadata metadata;
 
     /**
@@ -48,6 +49,7 @@ public class Roll extends Strip {
         super(groupId, length, width);
 
         internalId = calculateInternalId(rollId);
+        index = -1;
     }
 
     private int calculateInternalId(int rollId) {
@@ -64,6 +66,31 @@ public class Roll extends Strip {
         return internalId;
     }
 
+    /**
+     * <p>Dense index of the roll, i.e. position of the roll in the list of rolls defined within
+     * problem. Index is assigned when problem is created (see ProblemBuilder.build()), it can be
+     * used to track usage of the rolls with plain arrays and bit sets instead of hash sets of
+     * internal ids.</p>
+     *
+     * <p>The same instance of Roll shouldn't be used in different problems, otherwise index is
+     * valid only for the problem created last.</p>
+     *
+     * @return The position of the roll in the list of rolls or -1 if roll wasn't added to any
+     *         problem.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * <p>Assigns dense index of the roll, called on creation of the problem.</p>
+     *
+     * @param index The position of the roll in the list of rolls.
+     */
+    void setIndex(int index) {
+        this.index = index;
+    }
+
     /**
      * {@inheritDoc}
      *
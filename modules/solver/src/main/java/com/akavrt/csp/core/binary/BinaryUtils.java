@@ -0,0 +1,131 @@
+package com.akavrt.csp.core.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Date;
+
+/**
+ * <p>Collection of utility methods used to write and read primitive values of the binary
+ * format.</p>
+ *
+ * <p>Non-negative integers (counts, indices and multipliers) are usually small and are written as
+ * variable length integers: 7 bits per byte, high bit tells whether more bytes follow. Strings
+ * and dates are nullable, absence of the value is encoded explicitly.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class BinaryUtils {
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * <p>Write non-negative integer as variable length integer.</p>
+     *
+     * @param value Value to write, must be non-negative.
+     * @param out   Output to use.
+     * @throws IOException If output can't be written.
+     */
+    public static void writeVarInt(int value, DataOutput out) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values can't be written as varint.");
+        }
+
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.writeByte(value);
+    }
+
+    /**
+     * <p>Read variable length integer. Input may come from untrusted source, so values longer than
+     * 5 bytes and values which don't fit into non-negative int are rejected.</p>
+     *
+     * @param in Input to use.
+     * @return Decoded non-negative value.
+     * @throws IOException If input can't be read or value is malformed.
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            if (shift == 28 && b > 0x07) {
+                // only 3 bits of non-negative value are left for the fifth byte
+                break;
+            }
+
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length integer.");
+    }
+
+    /**
+     * <p>Write nullable string: length increased by one (zero is used for null) followed by
+     * UTF-8 bytes.</p>
+     *
+     * @param value String to write, may be null.
+     * @param out   Output to use.
+     * @throws IOException If output can't be written.
+     */
+    public static void writeString(String value, DataOutput out) throws IOException {
+        if (value == null) {
+            writeVarInt(0, out);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(CHARSET);
+        writeVarInt(bytes.length + 1, out);
+        out.write(bytes);
+    }
+
+    /**
+     * <p>Read nullable string.</p>
+     *
+     * @param in Input to use.
+     * @return Decoded string or null.
+     * @throws IOException If input can't be read.
+     */
+    public static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * <p>Write nullable date as number of milliseconds since epoch.</p>
+     *
+     * @param value Date to write, may be null.
+     * @param out   Output to use.
+     * @throws IOException If output can't be written.
+     */
+    public static void writeDate(Date value, DataOutput out) throws IOException {
+        out.writeLong(value == null ? NO_DATE : value.getTime());
+    }
+
+    /**
+     * <p>Read nullable date.</p>
+     *
+     * @param in Input to use.
+     * @return Decoded date or null.
+     * @throws IOException If input can't be read.
+     */
+    public static Date readDate(DataInput in) throws IOException {
+        long time = in.readLong();
+
+        return time == NO_DATE ? null : new Date(time);
+    }
+
+}
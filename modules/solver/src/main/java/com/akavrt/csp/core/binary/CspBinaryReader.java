@@ -0,0 +1,287 @@
+package com.akavrt.csp.core.binary;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Pattern;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.ProblemBuilder;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.metadata.OrderMetadata;
+import com.akavrt.csp.core.metadata.ProblemMetadata;
+import com.akavrt.csp.core.metadata.RollMetadata;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.utils.Unit;
+import com.google.common.collect.Lists;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * <p>This class is a counterpart to CspBinaryWriter which provides reading capabilities. See
+ * CspBinaryWriter for the description of the format.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class CspBinaryReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private Problem loadedProblem;
+    private List<Solution> loadedSolutions;
+
+    /**
+     * <p>Read problem definition and list of solutions from a stream. Stream isn't closed
+     * afterwards and isn't read beyond the end of data, so it should be buffered by
+     * caller.</p>
+     *
+     * @param in InputStream to use.
+     * @throws IOException If any IO-related problem occurs while reading or data is malformed.
+     */
+    public void read(InputStream in) throws IOException {
+        loadedProblem = null;
+        loadedSolutions = null;
+
+        DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != CspBinaryWriter.MAGIC) {
+            throw new IOException("Data isn't written in binary CSP format.");
+        }
+
+        int version = dataIn.readUnsignedByte();
+        if (version != CspBinaryWriter.VERSION) {
+            throw new IOException("Unsupported version of binary CSP format: " + version);
+        }
+
+        Problem problem = readProblem(dataIn);
+        List<Solution> solutions = readSolutions(problem, dataIn);
+
+        loadedProblem = problem;
+        loadedSolutions = solutions;
+    }
+
+    /**
+     * <p>Read solutions written with CspBinaryWriter.writeSolutions(), patterns refer to the
+     * orders and rolls of the problem provided. Stream isn't closed afterwards.</p>
+     *
+     * @param problem Problem read by this reader earlier, rolls are referenced in the order they
+     *                were restored.
+     * @param in      InputStream to use.
+     * @return Extracted solutions.
+     * @throws IOException If any IO-related problem occurs while reading or data is malformed.
+     */
+    List<Solution> readSolutions(Problem problem, InputStream in) throws IOException {
+        DataInputStream dataIn = in instanceof DataInputStream
+                ? (DataInputStream) in
+                : new DataInputStream(in);
+
+        int solutionsSize = BinaryUtils.readVarInt(dataIn);
+        List<Solution> solutions = Lists.newArrayList();
+        for (int i = 0; i < solutionsSize; i++) {
+            solutions.add(readSolution(problem, dataIn));
+        }
+
+        return solutions;
+    }
+
+    /**
+     * <p>Read problem definition and list of solutions from a file.</p>
+     *
+     * @param file File to use.
+     * @throws IOException If any IO-related problem occurs while reading or data is malformed.
+     */
+    public void read(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * <p>Problem definition extracted from binary data.</p>
+     *
+     * @return Extracted problem.
+     */
+    public Problem getProblem() {
+        return loadedProblem;
+    }
+
+    /**
+     * <p>List of solutions extracted from binary data.</p>
+     *
+     * @return Extracted solutions.
+     */
+    public List<Solution> getSolutions() {
+        return loadedSolutions;
+    }
+
+    private Problem readProblem(DataInputStream in) throws IOException {
+        ProblemBuilder builder = new ProblemBuilder();
+
+        if (in.readBoolean()) {
+            ProblemMetadata metadata = new ProblemMetadata();
+            metadata.setName(BinaryUtils.readString(in));
+            metadata.setAuthor(BinaryUtils.readString(in));
+            metadata.setDescription(BinaryUtils.readString(in));
+            metadata.setDate(BinaryUtils.readDate(in));
+
+            String units = BinaryUtils.readString(in);
+            if (units != null) {
+                try {
+                    metadata.setUnits(Unit.valueOf(units));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown units: " + units, e);
+                }
+            }
+
+            builder.setMetadata(metadata);
+        }
+
+        builder.setAllowedCutsNumber(BinaryUtils.readVarInt(in));
+
+        int ordersSize = BinaryUtils.readVarInt(in);
+        String[] ids = readIds(ordersSize, in);
+        double[] lengths = readDoubles(ordersSize, in);
+        double[] widths = readDoubles(ordersSize, in);
+        boolean[] metadata = readFlags(ordersSize, in);
+        for (int i = 0; i < ordersSize; i++) {
+            Order order = new Order(ids[i], lengths[i], widths[i]);
+            if (metadata[i]) {
+                order.setMetadata(new OrderMetadata());
+            }
+
+            builder.addOrder(order);
+        }
+
+        int groupsSize = BinaryUtils.readVarInt(in);
+        ids = readIds(groupsSize, in);
+        int[] quantities = new int[groupsSize];
+        int rollsSize = 0;
+        for (int i = 0; i < groupsSize; i++) {
+            quantities[i] = BinaryUtils.readVarInt(in);
+            rollsSize += quantities[i];
+            if (quantities[i] == 0 || rollsSize < 0) {
+                throw new IOException("Malformed group of rolls: " + ids[i]);
+            }
+        }
+
+        lengths = readDoubles(rollsSize, in);
+        widths = readDoubles(rollsSize, in);
+        metadata = readFlags(groupsSize, in);
+
+        // rolls are numbered within group the same way ProblemBuilder.addRolls() does
+        int rollIndex = 0;
+        for (int i = 0; i < groupsSize; i++) {
+            for (int rollId = 1; rollId <= quantities[i]; rollId++) {
+                Roll roll = new Roll(ids[i], rollId, lengths[rollIndex], widths[rollIndex]);
+                if (metadata[i]) {
+                    roll.setMetadata(new RollMetadata());
+                }
+
+                builder.addRoll(roll);
+                rollIndex++;
+            }
+        }
+
+        return builder.build();
+    }
+
+    private Solution readSolution(Problem problem, DataInputStream in) throws IOException {
+        Solution solution = new Solution(problem);
+
+        if (in.readBoolean()) {
+            SolutionMetadata metadata = new SolutionMetadata();
+            metadata.setDescription(BinaryUtils.readString(in));
+            metadata.setDate(BinaryUtils.readDate(in));
+
+            solution.setMetadata(metadata);
+        }
+
+        List<Order> orders = problem.getOrders();
+        List<Roll> rolls = problem.getRolls();
+        List<int[]> vectors = Lists.newArrayList();
+
+        int patternsSize = BinaryUtils.readVarInt(in);
+        for (int i = 0; i < patternsSize; i++) {
+            int rollIndex = BinaryUtils.readVarInt(in);
+            if (rollIndex > rolls.size()) {
+                throw new IOException("Reference to unknown roll: " + rollIndex);
+            }
+
+            int vectorIndex = BinaryUtils.readVarInt(in);
+            if (vectorIndex == vectors.size()) {
+                vectors.add(readMultipliers(orders.size(), in));
+            } else if (vectorIndex > vectors.size()) {
+                throw new IOException("Reference to unknown pattern: " + vectorIndex);
+            }
+
+            int[] multipliers = vectors.get(vectorIndex);
+
+            Pattern pattern = new Pattern(problem);
+            for (int j = 0; j < multipliers.length; j++) {
+                if (multipliers[j] != 0) {
+                    pattern.setCut(orders.get(j), multipliers[j]);
+                }
+            }
+
+            if (rollIndex != CspBinaryWriter.NO_ROLL) {
+                pattern.setRoll(rolls.get(rollIndex - 1));
+            }
+
+            solution.addPattern(pattern);
+        }
+
+        return solution;
+    }
+
+    private int[] readMultipliers(int ordersSize, DataInputStream in) throws IOException {
+        int[] multipliers = new int[ordersSize];
+
+        int nonZero = BinaryUtils.readVarInt(in);
+        int index = -1;
+        for (int i = 0; i < nonZero; i++) {
+            index += BinaryUtils.readVarInt(in) + 1;
+            if (index >= ordersSize) {
+                throw new IOException("Reference to unknown order: " + index);
+            }
+
+            multipliers[index] = BinaryUtils.readVarInt(in);
+        }
+
+        return multipliers;
+    }
+
+    private String[] readIds(int size, DataInputStream in) throws IOException {
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = BinaryUtils.readString(in);
+        }
+
+        return ids;
+    }
+
+    private double[] readDoubles(int size, DataInputStream in) throws IOException {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readDouble();
+        }
+
+        return values;
+    }
+
+    private boolean[] readFlags(int size, DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(size + 7) / 8];
+        in.readFully(bytes);
+
+        boolean[] flags = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            flags[i] = (bytes[i / 8] & (1 << (i % 8))) != 0;
+        }
+
+        return flags;
+    }
+
+}
@@ -0,0 +1,421 @@
+package com.akavrt.csp.core.binary;
+
+import com.akavrt.csp.core.MultiCut;
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Pattern;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.metadata.ProblemMetadata;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Compact binary counterpart of CspWriter. Problem definition and any number of solutions are
+ * written in a single pass without any intermediate representation.</p>
+ *
+ * <p>File starts with a header: magic number and version of the format. Problem definition
+ * follows: metadata, constraints, orders and groups of rolls. Orders and groups of rolls are
+ * written column by column (all ids, then all lengths, then all widths and so on). Rolls are
+ * grouped by id exactly like in XML and restored with the same internal ids CspReader would
+ * assign. Unlike XML, length and width are written for each roll rather than for the group, so
+ * rolls of different size sharing the same id are restored as they are.</p>
+ *
+ * <p>Each solution is written as metadata followed by the list of patterns. Pattern refers to the
+ * roll by its index within problem and to the vector of multipliers by its index within table of
+ * distinct vectors of the solution. New vectors are added to the table as they appear and are
+ * written in sparse form: non-zero multipliers along with the distance to the previous non-zero
+ * multiplier. Order of patterns within solution is preserved.</p>
+ *
+ * <p>Metadata of orders and rolls carries no data, only its presence is stored. Parameter sets
+ * attached to solution metadata aren't stored, same as in XML.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class CspBinaryWriter {
+    static final int MAGIC = 0x43535042;
+    static final int VERSION = 2;
+    static final int NO_ROLL = 0;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private Problem exportedProblem;
+    private List<Solution> exportedSolutions;
+
+    /**
+     * <p>Set problem which will be written.</p>
+     *
+     * @param problem The Problem to write.
+     */
+    public void setProblem(Problem problem) {
+        this.exportedProblem = problem;
+    }
+
+    /**
+     * <p>Set list of solutions which will be written.</p>
+     *
+     * @param solutions The list of solutions to write.
+     */
+    public void setSolutions(List<Solution> solutions) {
+        if (exportedSolutions == null) {
+            exportedSolutions = Lists.newArrayList();
+        } else {
+            exportedSolutions.clear();
+        }
+
+        if (solutions != null) {
+            exportedSolutions.addAll(solutions);
+        }
+    }
+
+    /**
+     * <p>Add solution to the list of solutions which will be written.</p>
+     *
+     * @param solution The solution to write.
+     */
+    public void addSolution(Solution solution) {
+        if (exportedSolutions == null) {
+            exportedSolutions = Lists.newArrayList();
+        }
+
+        exportedSolutions.add(solution);
+    }
+
+    /**
+     * <p>Write problem definition and solutions into stream. Stream isn't closed afterwards.</p>
+     *
+     * @param out OutputStream to use.
+     * @throws IOException If any IO-related problem occurs while writing.
+     */
+    public void write(OutputStream out) throws IOException {
+        if (exportedProblem == null) {
+            throw new IllegalStateException("Problem has to be set before writing.");
+        }
+
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out,
+                                                                                 BUFFER_SIZE));
+        dataOut.writeInt(MAGIC);
+        dataOut.writeByte(VERSION);
+
+        List<Roll> rolls = writeProblem(exportedProblem, dataOut);
+
+        // rolls are referenced by their index in the restored problem
+        Map<Roll, Integer> rollIndices = Maps.newIdentityHashMap();
+        for (int i = 0; i < rolls.size(); i++) {
+            rollIndices.put(rolls.get(i), i + 1);
+        }
+
+        writeSolutions(rollIndices, getOrderIndices(exportedProblem), dataOut);
+        dataOut.flush();
+    }
+
+    /**
+     * <p>Write solutions without problem definition and header, see
+     * CspBinaryReader.readSolutions(). Patterns refer to the orders and rolls of the reference
+     * problem, which has to define the same orders and rolls as the problem set in writer (see
+     * ProblemFingerprint), but may enumerate them in a different order. Orders are matched by id,
+     * rolls are matched by id and size. Used by PlanArchive, which stores each problem once.</p>
+     *
+     * @param reference Problem patterns will refer to when read.
+     * @param out       OutputStream to use.
+     * @throws IOException If any IO-related problem occurs while writing.
+     */
+    void writeSolutions(Problem reference, OutputStream out) throws IOException {
+        if (exportedProblem == null) {
+            throw new IllegalStateException("Problem has to be set before writing.");
+        }
+
+        // interchangeable rolls of the reference problem in the order they will be restored
+        Map<List<Object>, Deque<Integer>> referenceRolls = Maps.newHashMap();
+        List<Roll> restored = getRestoredRolls(reference.getRolls());
+        for (int i = 0; i < restored.size(); i++) {
+            List<Object> key = getRollKey(restored.get(i));
+            Deque<Integer> indices = referenceRolls.get(key);
+            if (indices == null) {
+                indices = Lists.newLinkedList();
+                referenceRolls.put(key, indices);
+            }
+
+            indices.add(i + 1);
+        }
+
+        Map<Roll, Integer> rollIndices = Maps.newIdentityHashMap();
+        for (Roll roll : exportedProblem.getRolls()) {
+            Deque<Integer> indices = referenceRolls.get(getRollKey(roll));
+            if (indices == null || indices.isEmpty()) {
+                throw new IllegalArgumentException("Roll isn't defined in reference problem: "
+                                                           + roll.getId());
+            }
+
+            rollIndices.put(roll, indices.poll());
+        }
+
+        DataOutputStream dataOut = new DataOutputStream(out);
+        writeSolutions(rollIndices, getOrderIndices(reference), dataOut);
+        dataOut.flush();
+    }
+
+    /**
+     * <p>Write problem definition and solutions into file. Any previous data stored in this file
+     * will be lost.</p>
+     *
+     * @param file File to use.
+     * @throws IOException If any IO-related problem occurs while writing.
+     */
+    public void write(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file, false);
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * <p>Writes problem and returns rolls in the order they will be restored.</p>
+     */
+    private List<Roll> writeProblem(Problem problem, DataOutputStream out) throws IOException {
+        ProblemMetadata metadata = problem.getMetadata();
+        out.writeBoolean(metadata != null);
+        if (metadata != null) {
+            BinaryUtils.writeString(metadata.getName(), out);
+            BinaryUtils.writeString(metadata.getAuthor(), out);
+            BinaryUtils.writeString(metadata.getDescription(), out);
+            BinaryUtils.writeDate(metadata.getDate(), out);
+            BinaryUtils.writeString(metadata.getUnits() == null ? null
+                                                                : metadata.getUnits().name(), out);
+        }
+
+        BinaryUtils.writeVarInt(problem.getAllowedCutsNumber(), out);
+
+        List<Order> orders = problem.getOrders();
+        int ordersSize = orders.size();
+        BinaryUtils.writeVarInt(ordersSize, out);
+
+        boolean[] ordersMetadata = new boolean[ordersSize];
+        for (int i = 0; i < ordersSize; i++) {
+            BinaryUtils.writeString(orders.get(i).getId(), out);
+            ordersMetadata[i] = orders.get(i).getMetadata() != null;
+        }
+
+        for (Order order : orders) {
+            out.writeDouble(order.getLength());
+        }
+
+        for (Order order : orders) {
+            out.writeDouble(order.getWidth());
+        }
+
+        writeFlags(ordersMetadata, out);
+
+        return writeRolls(problem.getRolls(), out);
+    }
+
+    private List<Roll> writeRolls(List<Roll> rolls, DataOutputStream out) throws IOException {
+        Map<String, List<Roll>> groups = groupRolls(rolls);
+
+        int groupsSize = groups.size();
+        BinaryUtils.writeVarInt(groupsSize, out);
+
+        List<Roll> representatives = Lists.newArrayListWithCapacity(groupsSize);
+        List<Roll> restored = Lists.newArrayListWithCapacity(rolls.size());
+        for (List<Roll> group : groups.values()) {
+            representatives.add(group.get(0));
+            restored.addAll(group);
+        }
+
+        boolean[] rollsMetadata = new boolean[groupsSize];
+        for (int i = 0; i < groupsSize; i++) {
+            BinaryUtils.writeString(representatives.get(i).getId(), out);
+            rollsMetadata[i] = representatives.get(i).getMetadata() != null;
+        }
+
+        for (List<Roll> group : groups.values()) {
+            BinaryUtils.writeVarInt(group.size(), out);
+        }
+
+        // sizes of the rolls in the order they will be restored
+        for (Roll roll : restored) {
+            out.writeDouble(roll.getLength());
+        }
+
+        for (Roll roll : restored) {
+            out.writeDouble(roll.getWidth());
+        }
+
+        writeFlags(rollsMetadata, out);
+
+        return restored;
+    }
+
+    /**
+     * <p>Rolls with the same id are grouped, see ProblemConverter.</p>
+     */
+    private static Map<String, List<Roll>> groupRolls(List<Roll> rolls) {
+        Map<String, List<Roll>> groups = Maps.newLinkedHashMap();
+        for (Roll roll : rolls) {
+            List<Roll> group = groups.get(roll.getId());
+            if (group == null) {
+                group = Lists.newArrayList();
+                groups.put(roll.getId(), group);
+            }
+
+            group.add(roll);
+        }
+
+        return groups;
+    }
+
+    private static List<Roll> getRestoredRolls(List<Roll> rolls) {
+        List<Roll> restored = Lists.newArrayListWithCapacity(rolls.size());
+        for (List<Roll> group : groupRolls(rolls).values()) {
+            restored.addAll(group);
+        }
+
+        return restored;
+    }
+
+    private static List<Object> getRollKey(Roll roll) {
+        return Arrays.<Object>asList(roll.getId(), roll.getLength(), roll.getWidth());
+    }
+
+    private static Map<String, Integer> getOrderIndices(Problem problem) {
+        Map<String, Integer> orderIndices = Maps.newHashMap();
+        List<Order> orders = problem.getOrders();
+        for (int i = 0; i < orders.size(); i++) {
+            orderIndices.put(orders.get(i).getId(), i);
+        }
+
+        return orderIndices;
+    }
+
+    private void writeSolutions(Map<Roll, Integer> rollIndices, Map<String, Integer> orderIndices,
+                                DataOutputStream out) throws IOException {
+        List<Solution> solutions = Lists.newArrayList();
+        if (exportedSolutions != null) {
+            for (Solution solution : exportedSolutions) {
+                if (solution != null) {
+                    solutions.add(solution);
+                }
+            }
+        }
+
+        BinaryUtils.writeVarInt(solutions.size(), out);
+        for (Solution solution : solutions) {
+            writeSolution(solution, rollIndices, orderIndices, out);
+        }
+    }
+
+    private void writeSolution(Solution solution, Map<Roll, Integer> rollIndices,
+                               Map<String, Integer> orderIndices,
+                               DataOutputStream out) throws IOException {
+        SolutionMetadata metadata = solution.getMetadata();
+        out.writeBoolean(metadata != null);
+        if (metadata != null) {
+            BinaryUtils.writeString(metadata.getDescription(), out);
+            BinaryUtils.writeDate(metadata.getDate(), out);
+        }
+
+        List<Pattern> patterns = solution.getPatterns();
+        BinaryUtils.writeVarInt(patterns.size(), out);
+
+        // table of distinct vectors of multipliers met so far
+        Map<VectorKey, Integer> vectors = Maps.newHashMap();
+        for (Pattern pattern : patterns) {
+            Integer rollIndex = pattern.getRoll() == null ? null
+                                                          : rollIndices.get(pattern.getRoll());
+            BinaryUtils.writeVarInt(rollIndex == null ? NO_ROLL : rollIndex, out);
+
+            int[] multipliers = getMultipliers(pattern, orderIndices);
+            VectorKey key = new VectorKey(multipliers);
+            Integer vectorIndex = vectors.get(key);
+            if (vectorIndex != null) {
+                BinaryUtils.writeVarInt(vectorIndex, out);
+            } else {
+                int index = vectors.size();
+                vectors.put(key, index);
+
+                BinaryUtils.writeVarInt(index, out);
+                writeMultipliers(multipliers, out);
+            }
+        }
+    }
+
+    private int[] getMultipliers(Pattern pattern, Map<String, Integer> orderIndices) {
+        int[] multipliers = new int[orderIndices.size()];
+        for (MultiCut cut : pattern.getCuts()) {
+            Integer index = orderIndices.get(cut.getOrder().getId());
+            if (index == null) {
+                throw new IllegalArgumentException("Order isn't defined in problem: "
+                                                           + cut.getOrder().getId());
+            }
+
+            multipliers[index] = cut.getQuantity();
+        }
+
+        return multipliers;
+    }
+
+    private void writeMultipliers(int[] multipliers, DataOutputStream out) throws IOException {
+        int nonZero = 0;
+        for (int multiplier : multipliers) {
+            if (multiplier != 0) {
+                nonZero++;
+            }
+        }
+
+        BinaryUtils.writeVarInt(nonZero, out);
+
+        int previous = -1;
+        for (int i = 0; i < multipliers.length; i++) {
+            if (multipliers[i] != 0) {
+                BinaryUtils.writeVarInt(i - previous - 1, out);
+                BinaryUtils.writeVarInt(multipliers[i], out);
+                previous = i;
+            }
+        }
+    }
+
+    private void writeFlags(boolean[] flags, DataOutputStream out) throws IOException {
+        byte[] bytes = new byte[(flags.length + 7) / 8];
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                bytes[i / 8] |= 1 << (i % 8);
+            }
+        }
+
+        out.write(bytes);
+    }
+
+    private static class VectorKey {
+        private final int[] multipliers;
+        private final int hash;
+
+        private VectorKey(int[] multipliers) {
+            this.multipliers = multipliers;
+            this.hash = Arrays.hashCode(multipliers);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof VectorKey && Arrays.equals(multipliers,
+                                                           ((VectorKey) o).multipliers);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
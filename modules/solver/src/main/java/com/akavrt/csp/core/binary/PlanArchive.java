@@ -0,0 +1,592 @@
+package com.akavrt.csp.core.binary;
+
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Solution;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Append-only archive of solved plans. Each problem is stored once, in the record appended
+ * along with its first solution; records of the solutions refer to it by fingerprint (see
+ * ProblemFingerprint). Problem is encoded with CspBinaryWriter, solution is encoded without
+ * problem definition (see CspBinaryWriter.writeSolutions()), so problem may be passed in any
+ * enumeration of its orders and rolls. Records are never modified once written.</p>
+ *
+ * <p>Archive consists of two files: data file (header followed by records, each record is
+ * prefixed with its length, fingerprint of the problem and kind of the record) and index file
+ * next to it (extension '.idx') holding offset, length, fingerprint and kind of each record.
+ * Index is kept in memory, so any record can be located without touching data file, and records
+ * of the same problem can be found without decoding anything. If index is missing or lags behind
+ * data file (e.g. process was killed while appending), it's restored on open by scanning record
+ * headers, incomplete record at the end of data file is dropped.</p>
+ *
+ * <p>Data file is locked exclusively with FileLock while archive is opened and while record is
+ * appended. Records appended by other processes in the meantime are picked up before appending,
+ * so a number of processes can append to the same archive. File locks are held on behalf of the
+ * whole JVM, so archive shouldn't be opened more than once within the same process.</p>
+ *
+ * <p>Records are read from data file mapped into memory with FileChannel.map(), decoder reads
+ * directly from the mapped buffer. Mapping grows in chunks: region appended since the file was
+ * mapped as a whole is mapped separately, whole file is mapped again only when this region
+ * outgrows the rest of the file. Decoded problems are cached, records of the same problem share
+ * the same instance. Archive can be safely used from a number of threads at once.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class PlanArchive implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger(PlanArchive.class);
+    private static final int MAGIC = 0x43535041;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 5;
+    // length of the payload, fingerprint of the problem and kind of the record
+    private static final int RECORD_HEADER_SIZE = 13;
+    // offset, length of the payload, fingerprint of the problem and kind of the record
+    private static final int INDEX_ENTRY_SIZE = 21;
+    private static final byte PROBLEM_RECORD = 0;
+    private static final byte SOLUTION_RECORD = 1;
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final int INITIAL_CAPACITY = 64;
+    private final RandomAccessFile dataFile;
+    private final RandomAccessFile indexFile;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final Map<Long, StoredProblem> problems;
+    private long[] offsets;
+    private int[] lengths;
+    private long[] fingerprints;
+    private int size;
+    private int indexEntries;
+    private long dataEnd;
+    private ByteBuffer base;
+    private long baseEnd;
+    private ByteBuffer tail;
+    private long mappedEnd;
+
+    private PlanArchive(File file) throws IOException {
+        dataFile = new RandomAccessFile(file, "rw");
+        indexFile = new RandomAccessFile(new File(file.getPath() + INDEX_EXTENSION), "rw");
+        data = dataFile.getChannel();
+        index = indexFile.getChannel();
+
+        problems = Maps.newHashMap();
+        offsets = new long[INITIAL_CAPACITY];
+        lengths = new int[INITIAL_CAPACITY];
+        fingerprints = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * <p>Open archive stored in the file, new archive is created if file doesn't exist or is
+     * empty.</p>
+     *
+     * @param file Data file of the archive.
+     * @return Opened archive.
+     * @throws IOException If archive can't be opened or file isn't an archive.
+     */
+    public static PlanArchive open(File file) throws IOException {
+        PlanArchive archive = new PlanArchive(file);
+        try {
+            FileLock lock = archive.data.lock();
+            try {
+                archive.initialize();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            archive.close();
+            throw e;
+        }
+
+        return archive;
+    }
+
+    /**
+     * <p>Append solution to the archive. Problem is stored along with the solution only if
+     * archive doesn't hold it yet.</p>
+     *
+     * @param problem  Problem definition.
+     * @param solution Solution of the problem.
+     * @return Index of the new record.
+     * @throws IOException If record can't be written.
+     */
+    public synchronized int append(Problem problem, Solution solution) throws IOException {
+        FileLock lock = data.lock();
+        try {
+            // records appended by other processes since the last append
+            if (data.size() != dataEnd) {
+                recover();
+            }
+
+            long fingerprint = ProblemFingerprint.calculate(problem);
+
+            CspBinaryWriter writer = new CspBinaryWriter();
+            writer.setProblem(problem);
+
+            Problem reference;
+            if (problems.containsKey(fingerprint)) {
+                reference = getProblem(fingerprint);
+            } else {
+                ByteArrayOutputStream payload = new ByteArrayOutputStream();
+                writer.write(payload);
+                appendRecord(payload, fingerprint, PROBLEM_RECORD);
+
+                reference = problem;
+            }
+
+            writer.addSolution(solution);
+
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            writer.writeSolutions(reference, payload);
+            appendRecord(payload, fingerprint, SOLUTION_RECORD);
+        } finally {
+            lock.release();
+        }
+
+        return size - 1;
+    }
+
+    /**
+     * <p>Number of solutions in the archive.</p>
+     *
+     * @return Number of records.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * <p>Fingerprint of the problem solved in the record.</p>
+     *
+     * @param recordIndex Index of the record.
+     * @return Fingerprint of the problem.
+     */
+    public synchronized long getFingerprint(int recordIndex) {
+        checkIndex(recordIndex);
+
+        return fingerprints[recordIndex];
+    }
+
+    /**
+     * <p>Read and decode record.</p>
+     *
+     * @param recordIndex Index of the record.
+     * @return Decoded record.
+     * @throws IOException If record can't be read or decoded.
+     */
+    public Record read(int recordIndex) throws IOException {
+        ByteBuffer payload;
+        long fingerprint;
+        Problem problem;
+        synchronized (this) {
+            checkIndex(recordIndex);
+
+            payload = map(offsets[recordIndex] + RECORD_HEADER_SIZE, lengths[recordIndex]);
+            fingerprint = fingerprints[recordIndex];
+            problem = getProblem(fingerprint);
+        }
+
+        // decoding doesn't need the lock, buffer is private to the caller
+        CspBinaryReader reader = new CspBinaryReader();
+        List<Solution> solutions = reader.readSolutions(problem,
+                                                        new ByteBufferInputStream(payload));
+        Solution solution = solutions.isEmpty() ? null : solutions.get(0);
+
+        return new Record(recordIndex, fingerprint, problem, solution);
+    }
+
+    /**
+     * <p>Find records of the problem with specified fingerprint.</p>
+     *
+     * @param fingerprint Fingerprint of the problem.
+     * @return Indices of the records in the order of appending.
+     */
+    public synchronized List<Integer> find(long fingerprint) {
+        List<Integer> found = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            if (fingerprints[i] == fingerprint) {
+                found.add(i);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * <p>Read all records of the problem with specified fingerprint.</p>
+     *
+     * @param fingerprint Fingerprint of the problem.
+     * @return Decoded records in the order of appending.
+     * @throws IOException If any record can't be read or decoded.
+     */
+    public List<Record> scan(long fingerprint) throws IOException {
+        List<Record> records = Lists.newArrayList();
+        for (int recordIndex : find(fingerprint)) {
+            records.add(read(recordIndex));
+        }
+
+        return records;
+    }
+
+    /**
+     * <p>Read all records of the problem.</p>
+     *
+     * @param problem Problem definition.
+     * @return Decoded records in the order of appending.
+     * @throws IOException If any record can't be read or decoded.
+     */
+    public List<Record> scan(Problem problem) throws IOException {
+        return scan(ProblemFingerprint.calculate(problem));
+    }
+
+    /**
+     * <p>Flush all data to the storage device and close files of the archive.</p>
+     *
+     * @throws IOException If files can't be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        base = null;
+        tail = null;
+        try {
+            if (data.isOpen()) {
+                data.force(true);
+                index.force(true);
+            }
+        } finally {
+            dataFile.close();
+            indexFile.close();
+        }
+    }
+
+    private void initialize() throws IOException {
+        long dataSize = data.size();
+        if (dataSize == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.put((byte) VERSION);
+            header.flip();
+            writeFully(data, header, 0);
+
+            dataEnd = HEADER_SIZE;
+            index.truncate(0);
+
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (dataSize < HEADER_SIZE || readFully(data, header, 0) < HEADER_SIZE
+                || header.getInt(0) != MAGIC) {
+            throw new IOException("File isn't an archive of plans.");
+        }
+
+        if (header.get(4) != VERSION) {
+            throw new IOException("Unsupported version of archive: " + header.get(4));
+        }
+
+        loadIndex(dataSize);
+        recover();
+    }
+
+    private void loadIndex(long dataSize) throws IOException {
+        int entries = (int) (index.size() / INDEX_ENTRY_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(entries * INDEX_ENTRY_SIZE);
+        readFully(index, buffer, 0);
+        buffer.flip();
+
+        long expectedOffset = HEADER_SIZE;
+        for (int i = 0; i < entries; i++) {
+            long offset = buffer.getLong();
+            int length = buffer.getInt();
+            long fingerprint = buffer.getLong();
+            byte kind = buffer.get();
+
+            // index which doesn't match data file is trusted only up to the first mismatch
+            if (offset != expectedOffset || length < 0 || !isKnownKind(kind)
+                    || offset + RECORD_HEADER_SIZE + length > dataSize) {
+                break;
+            }
+
+            addEntry(offset, length, fingerprint, kind);
+            expectedOffset = offset + RECORD_HEADER_SIZE + length;
+        }
+
+        dataEnd = expectedOffset;
+    }
+
+    /**
+     * <p>Indexes records written after the last indexed one, drops incomplete record at the end
+     * of data file. Must be called while data file is locked.</p>
+     */
+    private void recover() throws IOException {
+        long dataSize = data.size();
+        int indexed = indexEntries;
+        index.truncate((long) indexed * INDEX_ENTRY_SIZE);
+
+        long position = dataEnd;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position + RECORD_HEADER_SIZE <= dataSize) {
+            recordHeader.clear();
+            readFully(data, recordHeader, position);
+
+            int length = recordHeader.getInt(0);
+            long fingerprint = recordHeader.getLong(4);
+            byte kind = recordHeader.get(12);
+            if (length < 0 || !isKnownKind(kind)
+                    || position + RECORD_HEADER_SIZE + length > dataSize) {
+                break;
+            }
+
+            addEntry(position, length, fingerprint, kind);
+            writeIndexEntry(indexEntries - 1, position, length, fingerprint, kind);
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        if (position < dataSize) {
+            LOGGER.warn("Incomplete record found at the end of archive, {} bytes dropped.",
+                        dataSize - position);
+            data.truncate(position);
+        }
+
+        dataEnd = position;
+
+        if (indexEntries > indexed) {
+            LOGGER.info("{} records were added to the index of archive.",
+                        indexEntries - indexed);
+        }
+    }
+
+    private void appendRecord(ByteArrayOutputStream payload, long fingerprint,
+                              byte kind) throws IOException {
+        int length = payload.size();
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record.putInt(length);
+        record.putLong(fingerprint);
+        record.put(kind);
+        record.put(payload.toByteArray());
+        record.flip();
+
+        long offset = dataEnd;
+        writeFully(data, record, offset);
+        dataEnd = offset + RECORD_HEADER_SIZE + length;
+
+        addEntry(offset, length, fingerprint, kind);
+        writeIndexEntry(indexEntries - 1, offset, length, fingerprint, kind);
+    }
+
+    private void addEntry(long offset, int length, long fingerprint, byte kind) {
+        indexEntries++;
+        if (kind == PROBLEM_RECORD) {
+            // the first record of the problem is used if problem was stored twice
+            if (!problems.containsKey(fingerprint)) {
+                problems.put(fingerprint, new StoredProblem(offset, length));
+            }
+
+            return;
+        }
+
+        if (size == offsets.length) {
+            int capacity = offsets.length * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            fingerprints = Arrays.copyOf(fingerprints, capacity);
+        }
+
+        offsets[size] = offset;
+        lengths[size] = length;
+        fingerprints[size] = fingerprint;
+        size++;
+    }
+
+    private void writeIndexEntry(int entry, long offset, int length, long fingerprint,
+                                 byte kind) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        buffer.putLong(offset);
+        buffer.putInt(length);
+        buffer.putLong(fingerprint);
+        buffer.put(kind);
+        buffer.flip();
+
+        writeFully(index, buffer, (long) entry * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * <p>Returns decoded problem, problem is decoded once and cached.</p>
+     */
+    private Problem getProblem(long fingerprint) throws IOException {
+        StoredProblem stored = problems.get(fingerprint);
+        if (stored == null) {
+            throw new IOException("Problem isn't stored in archive: " + fingerprint);
+        }
+
+        if (stored.problem == null) {
+            ByteBuffer payload = map(stored.offset + RECORD_HEADER_SIZE, stored.length);
+
+            CspBinaryReader reader = new CspBinaryReader();
+            reader.read(new ByteBufferInputStream(payload));
+            stored.problem = reader.getProblem();
+        }
+
+        return stored.problem;
+    }
+
+    private ByteBuffer map(long position, int length) throws IOException {
+        if (dataEnd > Integer.MAX_VALUE) {
+            // buffers can't address more than 2GB, each record is mapped separately
+            return data.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        if (position + length > mappedEnd) {
+            if (base == null || dataEnd - baseEnd > baseEnd) {
+                base = data.map(FileChannel.MapMode.READ_ONLY, 0, dataEnd);
+                baseEnd = dataEnd;
+                tail = null;
+            } else {
+                // only the region appended since the whole file was mapped
+                tail = data.map(FileChannel.MapMode.READ_ONLY, baseEnd, dataEnd - baseEnd);
+            }
+
+            mappedEnd = dataEnd;
+        }
+
+        // records never cross the end of the base, it is always the end of some record
+        ByteBuffer buffer = position < baseEnd ? base.duplicate() : tail.duplicate();
+        int start = (int) (position < baseEnd ? position : position - baseEnd);
+        buffer.position(start);
+        buffer.limit(start + length);
+
+        return buffer.slice();
+    }
+
+    private void checkIndex(int recordIndex) {
+        if (recordIndex < 0 || recordIndex >= size) {
+            throw new IndexOutOfBoundsException("Record index: " + recordIndex + ", size: "
+                                                        + size);
+        }
+    }
+
+    private static boolean isKnownKind(byte kind) {
+        return kind == PROBLEM_RECORD || kind == SOLUTION_RECORD;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer,
+                                   long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer,
+                                 long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+
+    /**
+     * <p>Location of the problem record and problem decoded from it.</p>
+     */
+    private static class StoredProblem {
+        private final long offset;
+        private final int length;
+        private Problem problem;
+
+        private StoredProblem(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * <p>Solution stored in the archive along with the problem it was obtained for.</p>
+     */
+    public static class Record {
+        private final int index;
+        private final long fingerprint;
+        private final Problem problem;
+        private final Solution solution;
+
+        private Record(int index, long fingerprint, Problem problem, Solution solution) {
+            this.index = index;
+            this.fingerprint = fingerprint;
+            this.problem = problem;
+            this.solution = solution;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public Problem getProblem() {
+            return problem;
+        }
+
+        public Solution getSolution() {
+            return solution;
+        }
+    }
+
+    /**
+     * <p>Stream reading directly from the buffer, no data is copied.</p>
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.akavrt.csp.core.binary;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+
+/**
+ * <p>64-bit fingerprint of the problem definition used to find archived solutions of the same
+ * problem. Fingerprint depends on ids and sizes of orders and rolls and on the constraints, but
+ * not on the order in which orders and rolls are enumerated (XML export sorts them by id, for
+ * example) and not on metadata.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ProblemFingerprint {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long ORDER_SEED = 0x9E3779B97F4A7C15L;
+    private static final long ROLL_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * <p>Calculate fingerprint of the problem.</p>
+     *
+     * @param problem Problem definition.
+     * @return 64-bit fingerprint.
+     */
+    public static long calculate(Problem problem) {
+        // hashes of strips are summed up, so the result doesn't depend on enumeration order
+        long orders = 0;
+        for (Order order : problem.getOrders()) {
+            orders += mix(hash(ORDER_SEED, order.getId(), order.getLength(), order.getWidth()));
+        }
+
+        long rolls = 0;
+        for (Roll roll : problem.getRolls()) {
+            long hash = hash(ROLL_SEED, roll.getId(), roll.getLength(), roll.getWidth());
+            rolls += mix(hash ^ roll.getInternalId());
+        }
+
+        long result = mix(problem.getAllowedCutsNumber());
+        result = mix(result ^ orders);
+        result = mix(result ^ rolls);
+
+        return result;
+    }
+
+    private static long hash(long seed, String id, double length, double width) {
+        long hash = FNV_OFFSET_BASIS ^ seed;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * FNV_PRIME;
+        }
+
+        hash = (hash ^ Double.doubleToLongBits(length)) * FNV_PRIME;
+        hash = (hash ^ Double.doubleToLongBits(width)) * FNV_PRIME;
+
+        return hash;
+    }
+
+    /**
+     * <p>Finalizer of the SplitMix64 generator, spreads bits of the value.</p>
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+
+        return value ^ (value >>> 31);
+    }
+
+}
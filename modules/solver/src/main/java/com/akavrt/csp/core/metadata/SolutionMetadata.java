@@ -17,9 +17,12 @@ import java.util.List;
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class SolutionMetadata implements XmlCompatible {
+    public static final long UNKNOWN_TIME = -1;
     private final List<ParameterSet> parameters;
     private String description;
     private Date date;
+    private String stopReason;
+    private long timeToBest = UNKNOWN_TIME;
 
     public SolutionMetadata() {
         parameters = Lists.newArrayList();
@@ -54,6 +57,38 @@ public class SolutionMetadata implements XmlCompatible {
         this.date = date;
     }
 
+    /**
+     * <p>Return textual name of the reason why the method which obtained solution was
+     * stopped.</p>
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * <p>Set textual name of the reason why the method which obtained solution was stopped, e.g.
+     * number of generations of evolutionary algorithm was reached or time limit was exceeded.</p>
+     */
+    public void setStopReason(String stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    /**
+     * <p>Return time in milliseconds elapsed from the start of the run to the moment when the best
+     * solution was found or UNKNOWN_TIME.</p>
+     */
+    public long getTimeToBest() {
+        return timeToBest;
+    }
+
+    /**
+     * <p>Set time in milliseconds elapsed from the start of the run to the moment when the best
+     * solution was found.</p>
+     */
+    public void setTimeToBest(long timeToBest) {
+        this.timeToBest = timeToBest;
+    }
+
     /**
      * <p>Sometimes it's useful to save which method and with what set of parameters was used to
      * obtain this particular solution. To make life more easier all important parameter classes
@@ -113,6 +148,18 @@ public class SolutionMetadata implements XmlCompatible {
             metadataElm.addContent(dateElm);
         }
 
+        if (!Utils.isEmpty(getStopReason())) {
+            Element stopReasonElm = new Element(XmlTags.STOP_REASON);
+            stopReasonElm.setText(getStopReason());
+            metadataElm.addContent(stopReasonElm);
+        }
+
+        if (getTimeToBest() != UNKNOWN_TIME) {
+            Element timeToBestElm = new Element(XmlTags.TIME_TO_BEST);
+            timeToBestElm.setText(Long.toString(getTimeToBest()));
+            metadataElm.addContent(timeToBestElm);
+        }
+
         if (parameters.size() > 0) {
             Element paramsElm = new Element(XmlTags.PARAMETERS);
             metadataElm.addContent(paramsElm);
@@ -143,12 +190,21 @@ public class SolutionMetadata implements XmlCompatible {
         if (dateElm != null) {
             setDate(XmlUtils.getDateFromText(dateElm));
         }
+
+        Element stopReasonElm = rootElm.getChild(XmlTags.STOP_REASON);
+        if (stopReasonElm != null) {
+            setStopReason(stopReasonElm.getText());
+        }
+
+        setTimeToBest(XmlUtils.getLongFromText(rootElm, XmlTags.TIME_TO_BEST, UNKNOWN_TIME));
     }
 
     private interface XmlTags {
         String METADATA = "metadata";
         String DESCRIPTION = "description";
         String DATE = "date";
+        String STOP_REASON = "stop-reason";
+        String TIME_TO_BEST = "time-to-best";
         String PARAMETERS = "parameters";
     }
 
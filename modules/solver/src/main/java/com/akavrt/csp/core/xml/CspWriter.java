@@ -2,19 +2,12 @@ package com.akavrt.csp.core.xml;
 
 import com.akavrt.csp.core.Problem;
 import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.xml.XmlStreamOutput;
 import com.akavrt.csp.xml.XmlWriter;
 import com.google.common.collect.Lists;
-import org.jdom2.Document;
 import org.jdom2.Element;
-import org.jdom2.JDOMException;
-import org.jdom2.output.DOMOutputter;
-import org.jdom2.output.Format;
-import org.jdom2.output.XMLOutputter;
-
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.OutputStream;
+
+import javax.xml.stream.XMLStreamException;
 import java.util.List;
 
 /**
@@ -30,6 +23,9 @@ import java.util.List;
  * problem can be converted to XML separately from solutions, but solutions can't be converted
  * to XML if corresponding problem wasn't set.</p>
  *
+ * <p>In streaming mode solutions are converted and written one by one, so memory footprint
+ * doesn't depend on the number of solutions.</p>
+ *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class CspWriter extends XmlWriter {
@@ -62,6 +58,42 @@ public class CspWriter extends XmlWriter {
         return cspElm;
     }
 
+    /**
+     * <p>Write problem definition and solutions incrementally: each solution is converted to XML
+     * only when it's about to be written.</p>
+     *
+     * @param output Output to use.
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    @Override
+    public void stream(XmlStreamOutput output) throws XMLStreamException {
+        output.startElement(XmlTags.CSP);
+
+        if (exportedProblem != null) {
+            output.element(new ProblemConverter().export(exportedProblem));
+
+            if (exportedSolutions != null && exportedSolutions.size() > 0) {
+                output.startElement(XmlTags.SOLUTIONS);
+
+                SolutionConverter converter = new SolutionConverter(exportedProblem);
+                int exported = 0;
+                for (Solution solution : exportedSolutions) {
+                    if (solution != null) {
+                        String solutionId = String.format(SOLUTION_ID_TEMPLATE, ++exported);
+
+                        Element solutionElm = converter.export(solution);
+                        solutionElm.setAttribute(XmlTags.ID, solutionId);
+                        output.element(solutionElm);
+                    }
+                }
+
+                output.endElement();
+            }
+        }
+
+        output.endElement();
+    }
+
     /**
      * <p>Set problem which will be converted to XML.</p>
      *
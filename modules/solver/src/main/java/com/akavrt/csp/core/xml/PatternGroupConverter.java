@@ -12,6 +12,7 @@ import org.jdom2.Element;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -61,7 +62,8 @@ import java.util.Map;
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class PatternGroupConverter implements XmlConverter<PatternGroup> {
-    private final List<Roll> rolls;
+    // rolls which weren't referenced yet, grouped by id in the order of definition
+    private final Map<String, LinkedList<Roll>> rolls;
     private final MultiCutConverter cutConverter;
 
     /**
@@ -74,8 +76,16 @@ public class PatternGroupConverter implements XmlConverter<PatternGroup> {
      * while extracting patterns from XML.</p>
      */
     public PatternGroupConverter(Problem problem) {
-        rolls = Lists.newArrayList();
-        rolls.addAll(problem.getRolls());
+        rolls = Maps.newHashMap();
+        for (Roll roll : problem.getRolls()) {
+            LinkedList<Roll> group = rolls.get(roll.getId());
+            if (group == null) {
+                group = Lists.newLinkedList();
+                rolls.put(roll.getId(), group);
+            }
+
+            group.add(roll);
+        }
 
         cutConverter = new MultiCutConverter(problem.getOrders());
     }
@@ -205,18 +215,10 @@ public class PatternGroupConverter implements XmlConverter<PatternGroup> {
     }
 
     private Roll findRoll(String rollId) {
-        Roll roll = null;
-        for (int i = 0; i < rolls.size(); i++) {
-            Roll rollToTest = rolls.get(i);
-            if (rollToTest.getId().equals(rollId)) {
-                // referenced roll found
-                roll = rollToTest;
-                rolls.remove(i);
-                break;
-            }
-        }
+        // each roll can be referenced only once, first unused roll with the same id is taken
+        LinkedList<Roll> group = rolls.get(rollId);
 
-        return roll;
+        return group == null ? null : group.poll();
     }
 
     private interface XmlTags {
@@ -0,0 +1,770 @@
+package com.akavrt.csp.core.xml;
+
+import com.akavrt.csp.core.MultiCut;
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Pattern;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.ProblemBuilder;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.Strip;
+import com.akavrt.csp.core.metadata.OrderMetadata;
+import com.akavrt.csp.core.metadata.ProblemMetadata;
+import com.akavrt.csp.core.metadata.RollMetadata;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.utils.Utils;
+import com.akavrt.csp.xml.XmlUtils;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Element;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Streaming counterpart of CspReader. Data is read in a single pass with StAX parser and
+ * converted directly into problem definition and solutions, full XML tree isn't built: only
+ * small metadata sections are converted to org.jdom2.Element to reuse existing metadata
+ * classes. Results are the same as the ones obtained with CspReader.</p>
+ *
+ * <p>Files with results may contain thousands of solutions. Reader can be configured to skip
+ * section with solutions altogether, or solutions can be iterated one by one (see
+ * iterate()) without keeping all of them in memory.</p>
+ *
+ * <p>Problem definition has to precede solutions when solutions are iterated, this is how files
+ * are written by CspWriter. When all solutions are loaded at once, this restriction isn't
+ * imposed.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class StreamingCspReader {
+    private static final Logger LOGGER = LogManager.getLogger(StreamingCspReader.class);
+    private final static String ORDER_ID_TEMPLATE = "order%d";
+    private final static String ROLL_ID_TEMPLATE = "roll%d";
+    private final XMLInputFactory factory;
+    private boolean isSolutionsSkipped;
+    private Problem loadedProblem;
+    private List<Solution> loadedSolutions;
+
+    public StreamingCspReader() {
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+
+    /**
+     * <p>Set whether section with solutions should be skipped by read(). Skipping is disabled by
+     * default.</p>
+     *
+     * @param isSolutionsSkipped true if solutions shouldn't be loaded.
+     */
+    public void setSolutionsSkipped(boolean isSolutionsSkipped) {
+        this.isSolutionsSkipped = isSolutionsSkipped;
+    }
+
+    /**
+     * <p>Read problem definition and list of solutions (unless skipped) from a stream. Stream is
+     * closed afterwards.</p>
+     *
+     * @param in InputStream to use.
+     * @throws CspParseException If problem occurs while reading or parsing data from a stream.
+     */
+    public void read(InputStream in) throws CspParseException {
+        loadedProblem = null;
+        loadedSolutions = null;
+
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            readDocument(reader);
+        } catch (XMLStreamException e) {
+            throw new CspParseException("Error related to XML parsing.", e);
+        } finally {
+            close(reader, in);
+        }
+    }
+
+    /**
+     * <p>Read problem definition and list of solutions (unless skipped) from a file.</p>
+     *
+     * @param file File to use.
+     * @throws CspParseException If problem occurs while reading or parsing data from a file.
+     */
+    public void read(File file) throws CspParseException {
+        read(open(file));
+    }
+
+    /**
+     * <p>Read problem definition from a stream and prepare iterator over solutions. Problem is
+     * available through getProblem() as soon as method returns, solutions are parsed one by one
+     * while iterating. Iterator has to be closed after use, it closes stream as well.</p>
+     *
+     * @param in InputStream to use.
+     * @return Iterator over solutions stored in a stream.
+     * @throws CspParseException If problem occurs while reading or parsing problem definition.
+     */
+    public SolutionIterator iterate(InputStream in) throws CspParseException {
+        loadedProblem = null;
+        loadedSolutions = null;
+
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            if (!nextChild(reader)) {
+                throw new CspParseException("Root element wasn't found.");
+            }
+
+            // looking for the problem first
+            while (loadedProblem == null && nextChild(reader)) {
+                if (XmlTags.PROBLEM.equals(reader.getLocalName())) {
+                    loadedProblem = readProblem(reader);
+                } else if (XmlTags.SOLUTIONS.equals(reader.getLocalName())) {
+                    throw new CspParseException("Solutions can't precede problem definition.");
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            if (loadedProblem == null) {
+                LOGGER.info("<{}> element wasn't found.", XmlTags.PROBLEM);
+                close(reader, in);
+
+                return new SolutionIterator(null, null, null);
+            }
+
+            return new SolutionIterator(reader, in, loadedProblem);
+        } catch (XMLStreamException e) {
+            close(reader, in);
+            throw new CspParseException("Error related to XML parsing.", e);
+        } catch (CspParseException e) {
+            close(reader, in);
+            throw e;
+        }
+    }
+
+    /**
+     * <p>Read problem definition from a file and prepare iterator over solutions.</p>
+     *
+     * @param file File to use.
+     * @return Iterator over solutions stored in a file.
+     * @throws CspParseException If problem occurs while reading or parsing problem definition.
+     */
+    public SolutionIterator iterate(File file) throws CspParseException {
+        return iterate(open(file));
+    }
+
+    /**
+     * <p>Problem definition extracted from XML.</p>
+     *
+     * @return Extracted problem.
+     */
+    public Problem getProblem() {
+        return loadedProblem;
+    }
+
+    /**
+     * <p>List of solutions extracted from XML, null if solutions were skipped or iterated.</p>
+     *
+     * @return Extracted solutions.
+     */
+    public List<Solution> getSolutions() {
+        return loadedSolutions;
+    }
+
+    private InputStream open(File file) throws CspParseException {
+        try {
+            return new BufferedInputStream(new FileInputStream(file));
+        } catch (IOException e) {
+            throw new CspParseException("IO-related error occurred while trying to parse data.", e);
+        }
+    }
+
+    private void readDocument(XMLStreamReader reader) throws XMLStreamException {
+        if (!nextChild(reader)) {
+            return;
+        }
+
+        // only the first occurrence of each section is taken into account, exactly like in
+        // CspReader, solutions preceding problem definition are kept as elements
+        boolean isSolutionsFound = false;
+        List<Element> pendingSolutions = null;
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if (XmlTags.PROBLEM.equals(name) && loadedProblem == null) {
+                loadedProblem = readProblem(reader);
+            } else if (XmlTags.SOLUTIONS.equals(name) && !isSolutionsFound) {
+                isSolutionsFound = true;
+
+                if (isSolutionsSkipped) {
+                    skipElement(reader);
+                } else if (loadedProblem != null) {
+                    loadedSolutions = readSolutions(reader, loadedProblem);
+                } else {
+                    pendingSolutions = Lists.newArrayList();
+                    while (nextChild(reader)) {
+                        if (XmlTags.SOLUTION.equals(reader.getLocalName())) {
+                            pendingSolutions.add(readElement(reader));
+                        } else {
+                            skipElement(reader);
+                        }
+                    }
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        if (loadedProblem == null) {
+            LOGGER.info("<{}> element wasn't found.", XmlTags.PROBLEM);
+            return;
+        }
+
+        if (pendingSolutions != null) {
+            loadedSolutions = Lists.newArrayList();
+            SolutionConverter converter = new SolutionConverter(loadedProblem);
+            for (Element solutionElm : pendingSolutions) {
+                loadedSolutions.add(converter.extract(solutionElm));
+            }
+        } else if (!isSolutionsFound) {
+            LOGGER.info("<{}> element wasn't found.", XmlTags.SOLUTIONS);
+        }
+    }
+
+    private Problem readProblem(XMLStreamReader reader) throws XMLStreamException {
+        ProblemBuilder builder = new ProblemBuilder();
+
+        boolean isMetadataFound = false;
+        boolean isConstraintsFound = false;
+        boolean isOrdersFound = false;
+        boolean isRollsFound = false;
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if (XmlTags.METADATA.equals(name) && !isMetadataFound) {
+                isMetadataFound = true;
+
+                ProblemMetadata metadata = new ProblemMetadata();
+                metadata.load(readElement(reader));
+                builder.setMetadata(metadata);
+            } else if (XmlTags.CONSTRAINTS.equals(name) && !isConstraintsFound) {
+                isConstraintsFound = true;
+
+                String allowedCuts = readChildText(reader, XmlTags.ALLOWED_CUTS);
+                builder.setAllowedCutsNumber(XmlUtils.parseInteger(allowedCuts, 0));
+            } else if (XmlTags.ORDERS.equals(name) && !isOrdersFound) {
+                isOrdersFound = true;
+                readOrders(reader, builder);
+            } else if (XmlTags.ROLLS.equals(name) && !isRollsFound) {
+                isRollsFound = true;
+                readRolls(reader, builder);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private void readOrders(XMLStreamReader reader, ProblemBuilder builder)
+            throws XMLStreamException {
+        int i = 0;
+        while (nextChild(reader)) {
+            if (!XmlTags.ORDER.equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            StripData data = readStrip(reader);
+            if (data.isValid()) {
+                String id = data.id;
+                Order order;
+                if (id == null) {
+                    id = String.format(ORDER_ID_TEMPLATE, ++i);
+                    order = new Order(id, data.length, data.width);
+                } else {
+                    order = new Order(id, data.length, data.width);
+                    if (data.metadata != null) {
+                        OrderMetadata metadata = new OrderMetadata();
+                        metadata.load(data.metadata);
+                        order.setMetadata(metadata);
+                    }
+                }
+
+                builder.addOrder(order);
+            }
+        }
+    }
+
+    private void readRolls(XMLStreamReader reader, ProblemBuilder builder)
+            throws XMLStreamException {
+        int i = 0;
+        while (nextChild(reader)) {
+            if (!XmlTags.ROLL.equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            String quantityValue = reader.getAttributeValue(null, XmlTags.QUANTITY);
+            StripData data = readStrip(reader);
+            if (data.isValid()) {
+                String id = data.id;
+                Roll roll;
+                if (id == null) {
+                    id = String.format(ROLL_ID_TEMPLATE, ++i);
+                    roll = new Roll(id, data.length, data.width);
+                } else {
+                    roll = new Roll(id, data.length, data.width);
+                    if (data.metadata != null) {
+                        RollMetadata metadata = new RollMetadata();
+                        metadata.load(data.metadata);
+                        roll.setMetadata(metadata);
+                    }
+                }
+
+                int quantity = XmlUtils.parseInteger(quantityValue, 1);
+                if (quantity > 1) {
+                    builder.addRolls(roll, quantity);
+                } else {
+                    builder.addRoll(roll);
+                }
+            }
+        }
+    }
+
+    private StripData readStrip(XMLStreamReader reader) throws XMLStreamException {
+        StripData data = new StripData();
+        data.id = reader.getAttributeValue(null, XmlTags.ID);
+
+        boolean isStripFound = false;
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if (XmlTags.STRIP.equals(name) && !isStripFound) {
+                isStripFound = true;
+
+                String length = null;
+                String width = null;
+                while (nextChild(reader)) {
+                    if (XmlTags.LENGTH.equals(reader.getLocalName()) && length == null) {
+                        length = readText(reader);
+                    } else if (XmlTags.WIDTH.equals(reader.getLocalName()) && width == null) {
+                        width = readText(reader);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+
+                data.length = XmlUtils.parseDouble(length, 0);
+                data.width = XmlUtils.parseDouble(width, 0);
+            } else if (XmlTags.METADATA.equals(name) && data.metadata == null) {
+                data.metadata = readElement(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return data;
+    }
+
+    private List<Solution> readSolutions(XMLStreamReader reader,
+                                         Problem problem) throws XMLStreamException {
+        List<Solution> solutions = Lists.newArrayList();
+        Solution solution;
+        while ((solution = readNextSolution(reader, problem)) != null) {
+            solutions.add(solution);
+        }
+
+        return solutions;
+    }
+
+    /**
+     * <p>Reads next solution from the section with solutions, returns null when the end of the
+     * section is reached.</p>
+     */
+    private Solution readNextSolution(XMLStreamReader reader,
+                                      Problem problem) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (XmlTags.SOLUTION.equals(reader.getLocalName())) {
+                return readSolution(reader, problem);
+            }
+
+            skipElement(reader);
+        }
+
+        return null;
+    }
+
+    private Solution readSolution(XMLStreamReader reader,
+                                  Problem problem) throws XMLStreamException {
+        Solution solution = new Solution(problem);
+
+        boolean isMetadataFound = false;
+        boolean isPatternsFound = false;
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if (XmlTags.METADATA.equals(name) && !isMetadataFound) {
+                isMetadataFound = true;
+
+                SolutionMetadata metadata = new SolutionMetadata();
+                metadata.load(readElement(reader));
+                solution.setMetadata(metadata);
+            } else if (XmlTags.PATTERNS.equals(name) && !isPatternsFound) {
+                isPatternsFound = true;
+                readPatterns(reader, problem, solution);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return solution;
+    }
+
+    private void readPatterns(XMLStreamReader reader, Problem problem,
+                              Solution solution) throws XMLStreamException {
+        Map<String, Order> orders = Maps.newHashMap();
+        for (Order order : problem.getOrders()) {
+            orders.put(order.getId(), order);
+        }
+
+        // each roll can be referenced only once within solution
+        Map<String, LinkedList<Roll>> availableRolls = Maps.newHashMap();
+        for (Roll roll : problem.getRolls()) {
+            LinkedList<Roll> rolls = availableRolls.get(roll.getId());
+            if (rolls == null) {
+                rolls = Lists.newLinkedList();
+                availableRolls.put(roll.getId(), rolls);
+            }
+
+            rolls.add(roll);
+        }
+
+        while (nextChild(reader)) {
+            if (!XmlTags.PATTERN.equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            List<MultiCut> cuts = Lists.newArrayList();
+            List<Roll> rolls = Lists.newArrayList();
+
+            boolean isCutsFound = false;
+            boolean isRollsFound = false;
+            while (nextChild(reader)) {
+                String name = reader.getLocalName();
+                if (XmlTags.CUTS.equals(name) && !isCutsFound) {
+                    isCutsFound = true;
+                    readCuts(reader, orders, cuts);
+                } else if (XmlTags.ROLLS.equals(name) && !isRollsFound) {
+                    isRollsFound = true;
+                    readRollReferences(reader, availableRolls, rolls);
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            for (Roll roll : rolls) {
+                Pattern pattern = new Pattern(problem);
+                pattern.setCuts(cuts);
+                pattern.setRoll(roll);
+
+                solution.addPattern(pattern);
+            }
+        }
+    }
+
+    private void readCuts(XMLStreamReader reader, Map<String, Order> orders,
+                          List<MultiCut> cuts) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (XmlTags.CUT.equals(reader.getLocalName())) {
+                int quantity = XmlUtils.parseInteger(
+                        reader.getAttributeValue(null, XmlTags.QUANTITY), 0);
+
+                String orderId = reader.getAttributeValue(null, XmlTags.REF);
+                Order order = orderId == null ? null : orders.get(orderId);
+                if (order != null) {
+                    cuts.add(new MultiCut(order, quantity));
+                }
+            }
+
+            skipElement(reader);
+        }
+    }
+
+    private void readRollReferences(XMLStreamReader reader,
+                                    Map<String, LinkedList<Roll>> availableRolls,
+                                    List<Roll> rolls) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (XmlTags.ROLL.equals(reader.getLocalName())) {
+                String rollId = reader.getAttributeValue(null, XmlTags.REF);
+                int quantity = XmlUtils.parseInteger(
+                        reader.getAttributeValue(null, XmlTags.QUANTITY), 0);
+
+                LinkedList<Roll> available = Utils.isEmpty(rollId) ? null
+                                                                   : availableRolls.get(rollId);
+                for (int i = 0; available != null && i < quantity && !available.isEmpty(); i++) {
+                    rolls.add(available.removeFirst());
+                }
+            }
+
+            skipElement(reader);
+        }
+    }
+
+    /**
+     * <p>Moves reader to the next child of the current element. Returns false and leaves reader
+     * at the end of the current element if there are no more children.</p>
+     */
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * <p>Moves reader from the start of the current element to its end.</p>
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) {
+            return;
+        }
+
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * <p>Returns text directly held under the current element, content of the nested elements
+     * is ignored (same as org.jdom2.Element.getText()).</p>
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder builder = new StringBuilder();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                    event == XMLStreamConstants.SPACE) {
+                builder.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * <p>Returns text held under the first child element with specified name (same as
+     * org.jdom2.Element.getChildText()) and moves reader to the end of the current element.</p>
+     */
+    private static String readChildText(XMLStreamReader reader,
+                                        String childName) throws XMLStreamException {
+        String text = null;
+        while (nextChild(reader)) {
+            if (text == null && childName.equals(reader.getLocalName())) {
+                text = readText(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return text;
+    }
+
+    /**
+     * <p>Converts the current element and its content into org.jdom2.Element.</p>
+     */
+    private static Element readElement(XMLStreamReader reader) throws XMLStreamException {
+        Element element = new Element(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                    event == XMLStreamConstants.SPACE) {
+                element.addContent(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                element.addContent(readElement(reader));
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+
+        return element;
+    }
+
+    private static void close(XMLStreamReader reader, InputStream in) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                LOGGER.catching(e);
+            }
+        }
+
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                LOGGER.catching(e);
+            }
+        }
+    }
+
+    /**
+     * <p>Lazily parses solutions one by one. Parsing errors are reported as unchecked
+     * IllegalStateException wrapping CspParseException.</p>
+     */
+    public static class SolutionIterator implements Iterator<Solution>, Closeable {
+        private final XMLStreamReader reader;
+        private final InputStream in;
+        private final Problem problem;
+        private final StreamingCspReader parser;
+        private boolean isInsideSolutions;
+        private boolean isFinished;
+        private Solution next;
+
+        private SolutionIterator(XMLStreamReader reader, InputStream in, Problem problem) {
+            this.reader = reader;
+            this.in = in;
+            this.problem = problem;
+            this.parser = new StreamingCspReader();
+            this.isFinished = reader == null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !isFinished) {
+                try {
+                    next = advance();
+                } catch (XMLStreamException e) {
+                    close();
+                    throw new IllegalStateException(
+                            new CspParseException("Error related to XML parsing.", e));
+                }
+
+                if (next == null) {
+                    close();
+                }
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public Solution next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Solution solution = next;
+            next = null;
+
+            return solution;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * <p>Releases underlying parser and closes stream.</p>
+         */
+        @Override
+        public void close() {
+            if (!isFinished) {
+                isFinished = true;
+                StreamingCspReader.close(reader, in);
+            }
+        }
+
+        private Solution advance() throws XMLStreamException {
+            while (true) {
+                if (isInsideSolutions) {
+                    Solution solution = parser.readNextSolution(reader, problem);
+                    if (solution != null) {
+                        return solution;
+                    }
+
+                    // only the first section with solutions is taken into account
+                    return null;
+                }
+
+                if (!nextChild(reader)) {
+                    return null;
+                }
+
+                if (XmlTags.SOLUTIONS.equals(reader.getLocalName())) {
+                    isInsideSolutions = true;
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+    }
+
+    private static class StripData {
+        private String id;
+        private double length;
+        private double width;
+        private Element metadata;
+
+        private boolean isValid() {
+            return length > 0 && width > 0;
+        }
+    }
+
+    private interface XmlTags {
+        String PROBLEM = "problem";
+        String SOLUTIONS = "solutions";
+        String SOLUTION = "solution";
+        String METADATA = "metadata";
+        String CONSTRAINTS = "constraints";
+        String ALLOWED_CUTS = "allowed-cuts";
+        String ORDERS = "orders";
+        String ORDER = "order";
+        String ROLLS = "rolls";
+        String ROLL = "roll";
+        String QUANTITY = "quantity";
+        String ID = "id";
+        String STRIP = "strip";
+        String LENGTH = "length";
+        String WIDTH = "width";
+        String PATTERNS = "patterns";
+        String PATTERN = "pattern";
+        String CUTS = "cuts";
+        String CUT = "cut";
+        String REF = "ref";
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.akavrt.csp.metrics;
+
+import com.akavrt.csp.core.Plan;
+
+/**
+ * <p>Metric which ordering of cutting plans can be expressed through a key of fixed length
+ * evaluated for each plan independently: given two plans, the one with lexicographically smaller
+ * key is better. Components of the keys are compared with relational operators, exactly the way
+ * compare() compares evaluated values, so ordering imposed by keys is the same as ordering
+ * imposed by compare().</p>
+ *
+ * <p>Sorting of n plans with comparator takes O(n log n) evaluations of the metric, while keys
+ * can be evaluated just once per plan and then compared as plain numbers.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public interface KeyedMetric extends Metric {
+    /**
+     * <p>Number of components in the key.</p>
+     *
+     * @return Length of the key.
+     */
+    int getKeyLength();
+
+    /**
+     * <p>Evaluate key for given cutting plan and write its components into the provided array.</p>
+     *
+     * @param plan   The cutting plan to evaluate.
+     * @param key    Array to write key to.
+     * @param offset Position of the first component of the key in array.
+     */
+    void evaluateKey(Plan plan, double[] key, int offset);
+}
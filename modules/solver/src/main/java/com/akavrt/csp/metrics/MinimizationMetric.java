@@ -11,7 +11,7 @@ import java.util.Comparator;
  *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
-public abstract class MinimizationMetric implements Metric {
+public abstract class MinimizationMetric implements KeyedMetric {
     /**
      * <p>We are dealing with minimization problem: given two solutions, solution with smaller
      * value of objective function will be better.</p>
@@ -26,6 +26,24 @@ public abstract class MinimizationMetric implements Metric {
         return s1eval > s2eval ? -1 : (s1eval < s2eval ? 1 : 0);
     }
 
+    /**
+     * <p>Key consists of the value of objective function only.</p>
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public int getKeyLength() {
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void evaluateKey(Plan plan, double[] key, int offset) {
+        key[offset] = evaluate(plan);
+    }
+
     /**
      * <p>Natural ordering defined in the following way: given two cutting plans p1 and p2, plan p2
      * will be preceded by plan p1 in a sorted collection if plan p2 is better than plan p1, i.e.
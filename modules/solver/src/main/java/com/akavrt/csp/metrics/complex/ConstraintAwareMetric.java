@@ -1,6 +1,7 @@
 package com.akavrt.csp.metrics.complex;
 
 import com.akavrt.csp.core.Plan;
+import com.akavrt.csp.metrics.KeyedMetric;
 import com.akavrt.csp.metrics.Metric;
 
 import java.util.Collections;
@@ -11,7 +12,7 @@ import java.util.Comparator;
  * Date: 20.04.13
  * Time: 19:35
  */
-public class ConstraintAwareMetric implements Metric {
+public class ConstraintAwareMetric implements KeyedMetric {
     private final Metric patternsMetric;
     private final ConstraintAwareMetricParameters params;
 
@@ -56,6 +57,25 @@ public class ConstraintAwareMetric implements Metric {
         return result;
     }
 
+    /**
+     * <p>Key is made of average under production ratio and value of the objective function (only
+     * for feasible plans, zero is used for infeasible ones). Feasible plans have zero under
+     * production and thus precede infeasible ones, feasible plans are ordered by the value of
+     * the objective function, infeasible plans - by the under production ratio.</p>
+     */
+    @Override
+    public int getKeyLength() {
+        return 2;
+    }
+
+    @Override
+    public void evaluateKey(Plan plan, double[] key, int offset) {
+        double underProduction = plan.getMetricProvider().getAverageUnderProductionRatio();
+
+        key[offset] = underProduction;
+        key[offset + 1] = underProduction == 0 ? evaluate(plan) : 0;
+    }
+
     @Override
     public Comparator<Plan> getComparator() {
         return new Comparator<Plan>() {
@@ -0,0 +1,21 @@
+package com.akavrt.csp.solver;
+
+/**
+ * <p>Most of the implemented algorithms keep some state during execution and thus can't be used to
+ * run a number of executions at once. Factory is used whenever independent instances of the same
+ * configured algorithm are needed, e.g. when executions are spread over a number of threads.</p>
+ *
+ * <p>Each call to createAlgorithm() should return new instance of the algorithm which doesn't share
+ * any mutable state (including pattern generators and auxiliary procedures) with previously
+ * created instances.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public interface AlgorithmFactory<T extends Algorithm> {
+    /**
+     * <p>Creates new independent instance of the algorithm.</p>
+     *
+     * @return New instance of the algorithm.
+     */
+    T createAlgorithm();
+}
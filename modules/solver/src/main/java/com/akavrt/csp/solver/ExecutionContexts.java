@@ -0,0 +1,67 @@
+package com.akavrt.csp.solver;
+
+/**
+ * <p>Collection of utility methods used to check whether execution within the given context have
+ * to be stopped.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ExecutionContexts {
+
+    /**
+     * <p>Returns deadline set by context, contexts which don't implement TimedExecutionContext
+     * aren't limited in time.</p>
+     *
+     * @param context The context to check.
+     * @return Deadline in milliseconds or NO_DEADLINE, if execution isn't limited in time.
+     */
+    public static long getDeadline(ExecutionContext context) {
+        return context instanceof TimedExecutionContext
+                ? ((TimedExecutionContext) context).getDeadline()
+                : TimedExecutionContext.NO_DEADLINE;
+    }
+
+    /**
+     * <p>Returns true if the deadline set by context has passed.</p>
+     *
+     * @param context The context to check.
+     * @return true if context has deadline and it has already passed.
+     */
+    public static boolean isDeadlinePassed(ExecutionContext context) {
+        long deadline = getDeadline(context);
+        return deadline != TimedExecutionContext.NO_DEADLINE
+                && System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * <p>Returns true if execution have to be stopped either due to the cancel request or because
+     * the deadline has passed. Should be used by all potentially long-running loops instead of
+     * plain check of the cancel request.</p>
+     *
+     * @param context The context to check.
+     * @return true if execution have to be stopped.
+     */
+    public static boolean isStopped(ExecutionContext context) {
+        return context.isCancelled() || isDeadlinePassed(context);
+    }
+
+    /**
+     * <p>Chooses the earliest one of two deadlines, absent deadlines are ignored.</p>
+     *
+     * @param first  Deadline in milliseconds or NO_DEADLINE.
+     * @param second Deadline in milliseconds or NO_DEADLINE.
+     * @return The earliest deadline or NO_DEADLINE, if neither deadline is set.
+     */
+    public static long getEarliestDeadline(long first, long second) {
+        if (first == TimedExecutionContext.NO_DEADLINE) {
+            return second;
+        }
+
+        if (second == TimedExecutionContext.NO_DEADLINE) {
+            return first;
+        }
+
+        return Math.min(first, second);
+    }
+
+}
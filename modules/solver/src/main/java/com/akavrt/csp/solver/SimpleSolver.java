@@ -18,6 +18,7 @@ public class SimpleSolver implements Solver {
     private Problem problem;
     private final Algorithm algorithm;
     private List<Solution> solutions;
+    private long timeLimit;
 
     public SimpleSolver(Algorithm algorithm) {
         this(null, algorithm);
@@ -29,7 +30,7 @@ public class SimpleSolver implements Solver {
     }
 
     protected List<Solution> run() {
-        return algorithm.execute(context);
+        return algorithm.execute(createContext());
     }
 
     /**
@@ -60,6 +61,25 @@ public class SimpleSolver implements Solver {
         this.problem = problem;
     }
 
+    /**
+     * <p>Wall-clock time in milliseconds each run of the algorithm is limited to, zero means that
+     * run isn't limited in time.</p>
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * <p>Limit each subsequent run of the algorithm in time, each run gets the whole limit.
+     * Deadline is exposed to the algorithm through execution context (see
+     * TimedExecutionContext).</p>
+     *
+     * @param timeLimit Time limit in milliseconds or zero, if run shouldn't be limited in time.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
     /**
      * <p>Implementation of the optimization routine associated with solver.</p>
      */
@@ -67,6 +87,19 @@ public class SimpleSolver implements Solver {
         return algorithm;
     }
 
+    /**
+     * <p>Creates context used to execute single run of the algorithm, provides access to the
+     * problem associated with solver. Deadline of the run is counted from the moment context is
+     * created, so it should be created right before the run starts.</p>
+     */
+    protected ExecutionContext createContext() {
+        long deadline = timeLimit > 0
+                ? System.currentTimeMillis() + timeLimit
+                : TimedExecutionContext.NO_DEADLINE;
+
+        return new RunContext(problem, deadline);
+    }
+
     /**
      * <p>Return all solutions found.</p>
      */
@@ -94,7 +127,14 @@ public class SimpleSolver implements Solver {
         return best;
     }
 
-    private final ExecutionContext context = new ExecutionContext() {
+    private static class RunContext implements TimedExecutionContext {
+        private final Problem problem;
+        private final long deadline;
+
+        private RunContext(Problem problem, long deadline) {
+            this.problem = problem;
+            this.deadline = deadline;
+        }
 
         @Override
         public Problem getProblem() {
@@ -105,6 +145,11 @@ public class SimpleSolver implements Solver {
         public boolean isCancelled() {
             return false;
         }
-    };
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+    }
 
 }
@@ -0,0 +1,233 @@
+package com.akavrt.csp.solver;
+
+import com.akavrt.csp.core.MultiCut;
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Pattern;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.solver.evo.ProblemIndex;
+import com.akavrt.csp.utils.Constants;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Adapts solution obtained for one problem to another, slightly different problem, e.g. to the
+ * revision of the problem with some orders and rolls added, removed or changed. Orders are matched
+ * by their identifiers. Rolls are matched by the id of the group and size: rolls of the same group
+ * with the same length and width are interchangeable, so the same roll is used if it's still
+ * available and any unused roll of the group with the same size otherwise.</p>
+ *
+ * <p>Repair is done in three steps:
+ *
+ * <ol>
+ * <li>Patterns are mapped to the rolls of the new problem, patterns which refer to the missing
+ * rolls or to the rolls already used are dropped, cuts of the missing orders are dropped.</li>
+ * <li>Strips are removed from the patterns which no longer fit into the roll (the widest strips
+ * go first) or exceed allowed number of cuts (the narrowest strips go first).</li>
+ * <li>Strips which aren't needed to meet demand are removed, patterns left without cuts are
+ * dropped.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>Repaired solution never violates constraints on patterns and roll usage, but it may not
+ * fulfill all orders. It's intended to be used as a starting point for an improvement method,
+ * e.g. to seed the population of evolutionary algorithm.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class SolutionRepair {
+    private final Problem problem;
+    private final Map<String, Integer> orderIndices;
+    private final ProblemIndex index;
+
+    /**
+     * <p>Creates repair procedure for the specified problem.</p>
+     *
+     * @param problem The problem solutions have to be adapted to.
+     */
+    public SolutionRepair(Problem problem) {
+        this.problem = problem;
+
+        orderIndices = Maps.newHashMap();
+        List<Order> orders = problem.getOrders();
+        for (int i = 0; i < orders.size(); i++) {
+            orderIndices.put(orders.get(i).getId(), i);
+        }
+
+        index = new ProblemIndex(problem);
+    }
+
+    /**
+     * <p>Adapts solution to the problem associated with repair procedure. Solution provided isn't
+     * changed.</p>
+     *
+     * @param solution Solution to repair, may be obtained for another problem.
+     * @return New solution for the problem associated with repair procedure.
+     */
+    public Solution repair(Solution solution) {
+        List<Roll> patternRolls = Lists.newArrayList();
+        List<int[]> patterns = Lists.newArrayList();
+
+        BitSet usedRolls = new BitSet(index.getRollsSize());
+        for (Pattern pattern : solution.getPatterns()) {
+            if (!pattern.isActive()) {
+                continue;
+            }
+
+            int rollIndex = findRoll(pattern.getRoll(), usedRolls);
+            if (rollIndex < 0) {
+                continue;
+            }
+
+            usedRolls.set(rollIndex);
+            Roll roll = problem.getRolls().get(rollIndex);
+
+            int[] multipliers = map(pattern);
+            fit(multipliers, roll);
+
+            patternRolls.add(roll);
+            patterns.add(multipliers);
+        }
+
+        removeOverproduction(patterns, patternRolls);
+
+        Solution repaired = new Solution(problem);
+        for (int i = 0; i < patterns.size(); i++) {
+            Pattern pattern = convert(patterns.get(i), patternRolls.get(i));
+            if (pattern.isActive()) {
+                repaired.addPattern(pattern);
+            }
+        }
+
+        return repaired;
+    }
+
+    /**
+     * @return Position of the matching roll or -1 if there is no unused roll left.
+     */
+    private int findRoll(Roll roll, BitSet usedRolls) {
+        List<Roll> rolls = problem.getRolls();
+        int same = roll.getIndex();
+        if (same >= 0 && same < rolls.size() && rolls.get(same) == roll && !usedRolls.get(same)) {
+            return same;
+        }
+
+        double[] lengths = index.getRollLengths();
+        double[] widths = index.getRollWidths();
+        for (int i : index.getRollIndices(roll.getId())) {
+            if (!usedRolls.get(i)
+                    && Math.abs(lengths[i] - roll.getLength()) < Constants.TOLERANCE
+                    && Math.abs(widths[i] - roll.getWidth()) < Constants.TOLERANCE) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int[] map(Pattern pattern) {
+        int[] multipliers = new int[problem.getOrders().size()];
+        for (MultiCut cut : pattern.getCuts()) {
+            Integer index = orderIndices.get(cut.getOrder().getId());
+            if (index != null) {
+                multipliers[index] += cut.getQuantity();
+            }
+        }
+
+        return multipliers;
+    }
+
+    private void fit(int[] multipliers, Roll roll) {
+        List<Order> orders = problem.getOrders();
+
+        // strips are removed one by one, the widest strip goes first
+        while (getWidth(multipliers) > roll.getWidth() + Constants.TOLERANCE) {
+            int widest = -1;
+            for (int i = 0; i < multipliers.length; i++) {
+                if (multipliers[i] > 0 && (widest == -1
+                        || orders.get(i).getWidth() > orders.get(widest).getWidth())) {
+                    widest = i;
+                }
+            }
+
+            multipliers[widest]--;
+        }
+
+        int allowedCuts = problem.getAllowedCutsNumber();
+        if (allowedCuts == 0) {
+            return;
+        }
+
+        // the narrowest strips contribute least to the usage of the roll
+        while (getCuts(multipliers) > allowedCuts) {
+            int narrowest = -1;
+            for (int i = 0; i < multipliers.length; i++) {
+                if (multipliers[i] > 0 && (narrowest == -1
+                        || orders.get(i).getWidth() < orders.get(narrowest).getWidth())) {
+                    narrowest = i;
+                }
+            }
+
+            multipliers[narrowest]--;
+        }
+    }
+
+    private void removeOverproduction(List<int[]> patterns, List<Roll> patternRolls) {
+        List<Order> orders = problem.getOrders();
+        for (int i = 0; i < orders.size(); i++) {
+            double production = 0;
+            for (int j = 0; j < patterns.size(); j++) {
+                production += patterns.get(j)[i] * patternRolls.get(j).getLength();
+            }
+
+            // patterns found later are trimmed first
+            double demand = orders.get(i).getLength();
+            for (int j = patterns.size() - 1; j >= 0; j--) {
+                int[] multipliers = patterns.get(j);
+                double rollLength = patternRolls.get(j).getLength();
+                while (multipliers[i] > 0
+                        && production - rollLength >= demand - Constants.TOLERANCE) {
+                    multipliers[i]--;
+                    production -= rollLength;
+                }
+            }
+        }
+    }
+
+    private Pattern convert(int[] multipliers, Roll roll) {
+        Pattern pattern = new Pattern(problem);
+        List<Order> orders = problem.getOrders();
+        for (int i = 0; i < multipliers.length; i++) {
+            pattern.setCut(orders.get(i), multipliers[i]);
+        }
+
+        pattern.setRoll(roll);
+
+        return pattern;
+    }
+
+    private double getWidth(int[] multipliers) {
+        double width = 0;
+        List<Order> orders = problem.getOrders();
+        for (int i = 0; i < multipliers.length; i++) {
+            width += multipliers[i] * orders.get(i).getWidth();
+        }
+
+        return width;
+    }
+
+    private int getCuts(int[] multipliers) {
+        int cuts = 0;
+        for (int multiplier : multipliers) {
+            cuts += multiplier;
+        }
+
+        return cuts;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.akavrt.csp.solver;
+
+/**
+ * <p>Execution context which limits execution in time. Deadline is checked along with cancel
+ * request (see ExecutionContexts.isStopped()), but unlike the latter it's known in advance, so
+ * algorithm may use it to plan its work.</p>
+ *
+ * <p>Implementing this interface is optional: algorithms retrieve deadline through
+ * ExecutionContexts.getDeadline(), which treats any other context as the one not limited in
+ * time.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public interface TimedExecutionContext extends ExecutionContext {
+    /**
+     * <p>Value returned by getDeadline() when execution isn't limited in time.</p>
+     */
+    long NO_DEADLINE = 0;
+
+    /**
+     * <p>Wall-clock time (see System.currentTimeMillis()) by which execution have to be
+     * finished.</p>
+     *
+     * @return Deadline in milliseconds or NO_DEADLINE, if execution isn't limited in time.
+     */
+    long getDeadline();
+}
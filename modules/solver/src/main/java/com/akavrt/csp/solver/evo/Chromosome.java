@@ -4,13 +4,13 @@ import com.akavrt.csp.core.Pattern;
 import com.akavrt.csp.core.Plan;
 import com.akavrt.csp.core.Solution;
 import com.akavrt.csp.utils.Constants;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.akavrt.csp.core.Roll;
 import com.google.common.math.DoubleMath;
 
+import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * <p>All implemented evolutionary algorithms are based on a pretty straightforward representation
@@ -20,14 +20,31 @@ import java.util.Set;
  * <p>Chromosome mimics Solution and internally stores cutting plan as an ordered list of cutting
  * patterns (chain of genes in this case).</p>
  *
+ * <p>Genes are treated as immutable values, so chain is stored in a plain array shared between
+ * chromosome and its copies: copy constructor doesn't copy anything at all and array is copied
+ * (without genes it refers to) only when one of the chromosomes sharing it is about to be changed.
+ * Mutation operators always start with a copy of the parent chromosome and change just a few genes,
+ * which makes deep copying of the whole chain the dominant source of garbage otherwise.</p>
+ *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class Chromosome implements Plan {
-    private final List<Gene> genes;
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final Gene[] EMPTY_CHAIN = new Gene[0];
+    private Gene[] genes;
+    private int size;
+    // true if array of genes is referenced by another chromosome and has to be copied on write,
+    // set by copy constructor of another chromosome, possibly in a different thread
+    private volatile boolean isShared;
+    private List<Gene> genesView;
+    // dense indices of the rolls attached to genes, built on demand and updated with the chain
+    private BitSet usedRolls;
+    private boolean isRollUsageValid;
+    private boolean isRepeatedRollFound;
     private final EvolutionaryExecutionContext context;
     private final ChromosomeMetricProvider metricProvider;
-    private int cachedHashCode;
-    private boolean useCachedHashCode;
+    // sum of fingerprints of the genes, updated with the chain
+    private long fingerprint;
 
     /**
      * <p>Creates context-aware instance of Chromosome with empty chain of genes.</p>
@@ -47,12 +64,15 @@ public class Chromosome implements Plan {
     public Chromosome(EvolutionaryExecutionContext context, Solution solution) {
         this.context = context;
 
+        genes = EMPTY_CHAIN;
         metricProvider = new ChromosomeMetricProvider(context, this);
 
-        genes = Lists.newArrayList();
         if (solution != null) {
+            genes = new Gene[solution.getPatterns().size()];
             for (Pattern pattern : solution.getPatterns()) {
-                genes.add(new Gene(pattern));
+                Gene gene = new Gene(pattern);
+                genes[size++] = gene;
+                geneAdded(gene);
             }
 
             commit();
@@ -67,17 +87,18 @@ public class Chromosome implements Plan {
     public Chromosome(Chromosome chromosome) {
         this.context = chromosome.context;
 
-        metricProvider = new ChromosomeMetricProvider(context, this);
-
-        genes = Lists.newArrayList();
-        for (Gene gene : chromosome.genes) {
-            // create a deep copy for each gene
-            // and add copy to the chain
-            Gene copy = new Gene(gene);
-            genes.add(copy);
+        // genes are immutable, so both chromosomes can safely share the same chain
+        // until one of them is changed
+        genes = chromosome.genes;
+        size = chromosome.size;
+        fingerprint = chromosome.fingerprint;
+        if (genes.length > 0) {
+            isShared = true;
+            chromosome.isShared = true;
         }
 
-        commit();
+        // running totals are inherited from the original chromosome
+        metricProvider = new ChromosomeMetricProvider(this, chromosome.metricProvider);
     }
 
     /**
@@ -87,8 +108,8 @@ public class Chromosome implements Plan {
      */
     public Solution convert() {
         Solution solution = new Solution(context.getProblem());
-        for (Gene gene : genes) {
-            solution.addPattern(gene.convert(context));
+        for (int i = 0; i < size; i++) {
+            solution.addPattern(genes[i].convert(context));
         }
 
         return solution;
@@ -109,16 +130,35 @@ public class Chromosome implements Plan {
      * @return Length of the chain of genes.
      */
     public int size() {
-        return genes.size();
+        return size;
     }
 
     /**
-     * <p>Returns list of genes added to the chromosome's chain.</p>
+     * <p>Returns unmodifiable view of the chromosome's chain of genes. View reflects subsequent
+     * changes of the chain.</p>
      *
      * @return List of genes.
      */
     public List<Gene> getGenes() {
-        return genes;
+        if (genesView == null) {
+            genesView = new AbstractList<Gene>() {
+                @Override
+                public Gene get(int index) {
+                    if (index >= size) {
+                        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                    }
+
+                    return genes[index];
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        return genesView;
     }
 
     /**
@@ -128,7 +168,7 @@ public class Chromosome implements Plan {
      * @return The gene at the specified position in this chain.
      */
     public Gene getGene(int index) {
-        return index < genes.size() ? genes.get(index) : null;
+        return index < size ? genes[index] : null;
     }
 
     /**
@@ -139,8 +179,11 @@ public class Chromosome implements Plan {
      * @param gene  Gene to be stored at the specified position.
      */
     public void setGene(int index, Gene gene) {
-        if (index < genes.size()) {
-            genes.set(index, gene);
+        if (index < size) {
+            prepareWrite(size);
+            geneRemoved(genes[index]);
+            genes[index] = gene;
+            geneAdded(gene);
             commit();
         }
     }
@@ -151,7 +194,9 @@ public class Chromosome implements Plan {
      * @param gene Gene to be appended to the chain.
      */
     public void addGene(Gene gene) {
-        genes.add(gene);
+        prepareWrite(size + 1);
+        genes[size++] = gene;
+        geneAdded(gene);
         commit();
     }
 
@@ -164,8 +209,12 @@ public class Chromosome implements Plan {
      * @param gene  Gene to be inserted.
      */
     public void addGene(int index, Gene gene) {
-        if (index <= genes.size()) {
-            genes.add(index, gene);
+        if (index <= size) {
+            prepareWrite(size + 1);
+            System.arraycopy(genes, index, genes, index + 1, size - index);
+            genes[index] = gene;
+            size++;
+            geneAdded(gene);
             commit();
         }
     }
@@ -180,8 +229,12 @@ public class Chromosome implements Plan {
      */
     public Gene removeGene(int index) {
         Gene gene = null;
-        if (index < genes.size()) {
-            gene = genes.remove(index);
+        if (index < size) {
+            prepareWrite(size);
+            gene = genes[index];
+            System.arraycopy(genes, index + 1, genes, index, size - index - 1);
+            genes[--size] = null;
+            geneRemoved(gene);
             commit();
         }
 
@@ -196,13 +249,7 @@ public class Chromosome implements Plan {
      * @return The length of produced strip.
      */
     public double getProductionLengthForOrder(int index) {
-        double productionLength = 0;
-
-        for (Gene gene : genes) {
-            productionLength += gene.getProductionLengthForOrder(index);
-        }
-
-        return productionLength;
+        return metricProvider.getProductionLength(index);
     }
 
     /**
@@ -215,8 +262,8 @@ public class Chromosome implements Plan {
         boolean isPatternFeasible = true;
 
         // exit on the first infeasible pattern
-        for (Gene gene : genes) {
-            if (!gene.isFeasible(context)) {
+        for (int i = 0; i < size; i++) {
+            if (!genes[i].isFeasible(context)) {
                 isPatternFeasible = false;
                 break;
             }
@@ -233,17 +280,78 @@ public class Chromosome implements Plan {
      *         more than once, false otherwise.
      */
     private boolean isRollUsageFeasible() {
-        Set<Integer> rollIds = Sets.newHashSet();
-        boolean isRepeatedRollFound = false;
-        for (Gene gene : genes) {
-            if (gene.getRoll() != null && !rollIds.add(gene.getRoll().getInternalId())) {
+        updateRollUsage();
+
+        return !isRepeatedRollFound;
+    }
+
+    /**
+     * <p>Returns set of dense indices (see Roll.getIndex()) of the rolls attached to the genes of
+     * this chromosome. Set of the spare rolls is a complement of the returned set. Instance of
+     * BitSet is reused by chromosome and updated on each change of the chain, so it mustn't be
+     * modified.</p>
+     *
+     * @return Set of used rolls.
+     */
+    public BitSet getUsedRolls() {
+        updateRollUsage();
+
+        return usedRolls;
+    }
+
+    private void updateRollUsage() {
+        if (isRollUsageValid) {
+            return;
+        }
+
+        if (usedRolls == null) {
+            usedRolls = new BitSet(context.getProblemIndex().getRollsSize());
+        } else {
+            usedRolls.clear();
+        }
+
+        isRepeatedRollFound = false;
+        for (int i = 0; i < size; i++) {
+            markRollUsed(genes[i].getRoll());
+        }
+
+        isRollUsageValid = true;
+    }
+
+    private void markRollUsed(Roll roll) {
+        int rollIndex = roll == null ? -1 : context.getProblemIndex().getRollIndex(roll);
+        if (rollIndex >= 0) {
+            if (usedRolls.get(rollIndex)) {
                 // we can't use same roll twice
                 isRepeatedRollFound = true;
-                break;
+            } else {
+                usedRolls.set(rollIndex);
             }
         }
+    }
 
-        return !isRepeatedRollFound;
+    private void geneAdded(Gene gene) {
+        metricProvider.geneAdded(gene);
+        fingerprint += gene.getFingerprint();
+
+        if (isRollUsageValid) {
+            markRollUsed(gene.getRoll());
+        }
+    }
+
+    private void geneRemoved(Gene gene) {
+        metricProvider.geneRemoved(gene);
+        fingerprint -= gene.getFingerprint();
+
+        if (isRollUsageValid && gene.getRoll() != null) {
+            int rollIndex = context.getProblemIndex().getRollIndex(gene.getRoll());
+            if (isRepeatedRollFound) {
+                // roll may still be used by another gene
+                isRollUsageValid = false;
+            } else if (rollIndex >= 0) {
+                usedRolls.clear(rollIndex);
+            }
+        }
     }
 
     /**
@@ -254,13 +362,13 @@ public class Chromosome implements Plan {
      */
     public boolean isOrdersFulfilled() {
         boolean isOrderFulfilled = true;
+        double[] orderLengths = context.getProblemIndex().getOrderLengths();
 
         // exit on the first unfulfilled order
-        for (int i = 0; i < context.getProblem().getOrders().size(); i++) {
+        for (int i = 0; i < orderLengths.length; i++) {
             double production = getProductionLengthForOrder(i);
-            double orderLength = context.getProblem().getOrders().get(i).getLength();
 
-            isOrderFulfilled = DoubleMath.fuzzyCompare(production, orderLength,
+            isOrderFulfilled = DoubleMath.fuzzyCompare(production, orderLengths[i],
                                                        Constants.TOLERANCE) >= 0;
             if (!isOrderFulfilled) {
                 break;
@@ -281,12 +389,29 @@ public class Chromosome implements Plan {
     }
 
     /**
-     * <p>Commit changes, reset previously calculated (cached) values of the basic metrics and
-     * chromosome's hash code.</p>
+     * <p>Makes sure that array of genes isn't shared with other chromosomes and is able to hold the
+     * specified number of genes.</p>
+     *
+     * @param capacity Required capacity of the chain.
+     */
+    private void prepareWrite(int capacity) {
+        if (isShared || capacity > genes.length) {
+            int length = genes.length;
+            if (capacity > length) {
+                length = Math.max(Math.max(capacity, DEFAULT_CAPACITY), length + (length >> 1));
+            }
+
+            genes = Arrays.copyOf(genes, length);
+            isShared = false;
+        }
+    }
+
+    /**
+     * <p>Commit changes, reset previously calculated (cached) values of the basic metrics. Running
+     * totals of the metric provider have to be updated before commit.</p>
      */
     private void commit() {
-        useCachedHashCode = false;
-        metricProvider.resetCachedValues();
+        metricProvider.commit();
     }
 
     /**
@@ -298,44 +423,39 @@ public class Chromosome implements Plan {
     }
 
     /**
-     * <p>Hash code is extensively used to discover repeating cutting plans represented by a
-     * different chromosomes, eliminate them and preserve diversity in the population.</p>
+     * <p>64-bit fingerprint of the cutting plan represented by this chromosome. Fingerprint is a
+     * sum of fingerprints of the genes (see Gene.getFingerprint()), so it doesn't depend on the
+     * order of genes in the chain and is updated in constant time on each change of the
+     * chain.</p>
      *
-     * <p>Calculation of the hash code intentionally designed to ignore the order of genes in the
-     * chain. This way we can ensure that original chromosome and chromosome obtained by applying
-     * any number of permutations to the chain of genes stored within original chromosome will have
-     * same hash code.</p>
+     * <p>Fingerprint is extensively used to discover repeating cutting plans represented by a
+     * different chromosomes, eliminate them and preserve diversity in the population (see
+     * DiversityManager).</p>
      *
-     * <p>To speed up calculation of hash code simple caching is used: fresh hash code value is
-     * calculated only if there is no cached value or chromosome structure has been changed since
-     * last calculation.</p>
+     * @return Fingerprint of the chromosome, zero if chain of genes is empty.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * <p>Hash code is derived from the fingerprint of the chromosome, so it ignores the order of
+     * genes in the chain as well: original chromosome and chromosome obtained by applying any
+     * number of permutations to the chain of genes stored within original chromosome will have
+     * same hash code.</p>
      *
      * {@inheritDoc}
      */
     @Override
     public int hashCode() {
-        if (!useCachedHashCode) {
-            useCachedHashCode = true;
-
-            if (genes.size() == 0) {
-                cachedHashCode = 0;
-            } else {
-                int[] geneHashes = new int[genes.size()];
-                int i = 0;
-                for (Gene gene : genes) {
-                    geneHashes[i++] = gene.hashCode();
-                }
-
-                Arrays.sort(geneHashes);
-
-                cachedHashCode = Arrays.hashCode(geneHashes);
-            }
-        }
-
-        return cachedHashCode;
+        return (int) (fingerprint ^ (fingerprint >>> 32));
     }
 
     /**
+     * <p>Chromosomes are equal if their chains contain the same genes (see Gene.equals()) with the
+     * same multiplicity, order of genes in the chain is ignored. Fingerprints are compared first,
+     * so genes are compared only if fingerprints match.</p>
+     *
      * {@inheritDoc}
      */
     @Override
@@ -349,8 +469,27 @@ public class Chromosome implements Plan {
         }
 
         Chromosome lhs = (Chromosome) obj;
+        if (size != lhs.size || fingerprint != lhs.fingerprint) {
+            return false;
+        }
+
+        // chains are short, so simple matching is used
+        boolean[] isMatched = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            boolean isFound = false;
+            for (int j = 0; j < size && !isFound; j++) {
+                if (!isMatched[j] && genes[i].equals(lhs.genes[j])) {
+                    isMatched[j] = true;
+                    isFound = true;
+                }
+            }
+
+            if (!isFound) {
+                return false;
+            }
+        }
 
-        return hashCode() == lhs.hashCode();
+        return true;
     }
 
 }
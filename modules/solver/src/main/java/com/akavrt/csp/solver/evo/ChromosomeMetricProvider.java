@@ -1,33 +1,48 @@
 package com.akavrt.csp.solver.evo;
 
+import com.akavrt.csp.core.Roll;
 import com.akavrt.csp.metrics.MetricProvider;
+import com.akavrt.csp.utils.Constants;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * <p>Implements all base metrics defined within MetricProvider interface for Chromosome.</p>
  *
- * <p>Simple caching strategy is used to speed up evaluations: metric value is recalculated only if
+ * <p>Provider maintains running totals of the chromosome: production length for each order, trim
+ * area, total area of the rolls used and number of active patterns. Totals are updated by
+ * Chromosome every time when gene is added to or removed from the chain, which takes O(orders)
+ * time, so evaluation of any metric takes no more than O(orders) time instead of O(orders x genes)
+ * time. Copy of the chromosome inherits totals of the original one. To prevent accumulation of
+ * rounding errors totals are recalculated from scratch after every REFRESH_INTERVAL updates,
+ * production within tolerance of the demand is treated as an exact match.</p>
+ *
+ * <p>Values of the metrics derived from totals are cached: metric value is recalculated only if
  * there is no cached value or chromosome structure has been changed since last evaluation.</p>
  *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class ChromosomeMetricProvider implements MetricProvider {
+    private static final int REFRESH_INTERVAL = 256;
     private final EvolutionaryExecutionContext context;
     private final Chromosome chromosome;
-    private double cachedTrimArea;
-    private double cachedTrimRatio;
-    private int cachedActivePatternsCount;
+    private final double[] orderWidths;
+    private final double[] orderLengths;
+    private final double[] production;
+    private double trimArea;
+    private double rollArea;
+    private int activePatternsCount;
+    private int updateCount;
     private int cachedUniquePatternsCount;
     private double cachedAverageUnderProductionRatio;
     private double cachedMaxUnderProductionRatio;
     private double cachedAverageOverProductionRatio;
     private double cachedMaxOverProductionRatio;
     private double cachedAggregatedTrimArea;
-    private double cachedAggregatedTrimRatio;
 
     /**
      * <p>Creates context-aware instance of ChromosomeMetricProvider tied with specific instance of
@@ -41,44 +56,149 @@ public class ChromosomeMetricProvider implements MetricProvider {
         this.context = context;
         this.chromosome = chromosome;
 
+        orderWidths = context.getProblemIndex().getOrderWidths();
+        orderLengths = context.getProblemIndex().getOrderLengths();
+        production = new double[orderLengths.length];
+        recalculateTotals();
         resetCachedValues();
     }
 
     /**
-     * {@inheritDoc}
+     * <p>Creates provider tied with a copy of the chromosome evaluated by another provider. Running
+     * totals are copied from the provider of the original chromosome.</p>
+     *
+     * @param chromosome The copy of the chromosome.
+     * @param provider   Provider of the original chromosome.
      */
-    @Override
-    public double getTrimArea() {
-        if (cachedTrimArea < 0) {
-            cachedTrimArea = 0;
-            for (Gene gene : chromosome.getGenes()) {
-                cachedTrimArea += gene.getTrimArea(context);
-            }
+    ChromosomeMetricProvider(Chromosome chromosome, ChromosomeMetricProvider provider) {
+        this.context = provider.context;
+        this.chromosome = chromosome;
+
+        orderWidths = provider.orderWidths;
+        orderLengths = provider.orderLengths;
+        production = provider.production.clone();
+        trimArea = provider.trimArea;
+        rollArea = provider.rollArea;
+        activePatternsCount = provider.activePatternsCount;
+        updateCount = provider.updateCount;
+
+        resetCachedValues();
+    }
+
+    /**
+     * <p>Updates running totals when gene is added to the chain.</p>
+     *
+     * @param gene The added gene.
+     */
+    void geneAdded(Gene gene) {
+        update(gene, 1);
+    }
+
+    /**
+     * <p>Updates running totals when gene is removed from the chain.</p>
+     *
+     * @param gene The removed gene.
+     */
+    void geneRemoved(Gene gene) {
+        update(gene, -1);
+    }
+
+    private void update(Gene gene, int sign) {
+        Roll roll = gene.getRoll();
+        if (roll == null) {
+            // inactive genes don't affect metrics
+            return;
+        }
+
+        int[] pattern = gene.getPattern();
+        for (int i = 0; i < production.length; i++) {
+            production[i] += sign * roll.getLength() * pattern[i];
         }
 
-        return cachedTrimArea;
+        trimArea += sign * gene.getTrimArea(context);
+        rollArea += sign * roll.getArea();
+        activePatternsCount += sign;
+        updateCount++;
     }
 
     /**
-     * {@inheritDoc}
+     * <p>Commits changes of the chain made since last commit, should be called by chromosome after
+     * each change of its structure.</p>
      */
-    @Override
-    public double getTrimRatio() {
-        if (cachedTrimRatio < 0) {
-            double trimArea = 0;
-            double totalArea = 0;
+    void commit() {
+        if (updateCount >= REFRESH_INTERVAL || activePatternsCount == 0) {
+            recalculateTotals();
+        }
 
-            for (Gene gene : chromosome.getGenes()) {
-                if (gene.getRoll() != null) {
-                    trimArea += gene.getTrimArea(context);
-                    totalArea += gene.getRoll().getArea();
+        resetCachedValues();
+    }
+
+    /**
+     * <p>Recalculates running totals from scratch.</p>
+     */
+    private void recalculateTotals() {
+        Arrays.fill(production, 0);
+        trimArea = 0;
+        rollArea = 0;
+        activePatternsCount = 0;
+        updateCount = 0;
+
+        for (Gene gene : chromosome.getGenes()) {
+            Roll roll = gene.getRoll();
+            if (roll != null) {
+                int[] pattern = gene.getPattern();
+                for (int i = 0; i < production.length; i++) {
+                    production[i] += roll.getLength() * pattern[i];
                 }
-            }
 
-            cachedTrimRatio = totalArea == 0 ? 0 : trimArea / totalArea;
+                trimArea += gene.getTrimArea(context);
+                rollArea += roll.getArea();
+                activePatternsCount++;
+            }
         }
+    }
+
+    /**
+     * <p>Production length which differs from the demand by no more than Constants.TOLERANCE is
+     * treated as an exact match, so the order is considered fulfilled (the same way as
+     * Chromosome.isOrdersFulfilled() does) regardless of the rounding errors accumulated by
+     * running totals. Otherwise constraint-aware metrics comparing underproduction with zero
+     * could treat the same plan as feasible or infeasible depending on the history of
+     * updates.</p>
+     */
+    private double getAlignedProduction(int index) {
+        double orderLength = orderLengths[index];
 
-        return cachedTrimRatio;
+        return Math.abs(production[index] - orderLength) <= Constants.TOLERANCE
+                ? orderLength
+                : production[index];
+    }
+
+    /**
+     * <p>Returns the length of the finished product we will get for specific order after
+     * executing cutting plan represented by chromosome. Measured in abstract units.</p>
+     *
+     * @param index Position of the order in the list of orders provided by problem definition.
+     * @return The length of produced strip.
+     */
+    public double getProductionLength(int index) {
+        return production[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTrimArea() {
+        return trimArea;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTrimRatio() {
+        return rollArea == 0 ? 0 : trimArea / rollArea;
     }
 
     /**
@@ -86,15 +206,7 @@ public class ChromosomeMetricProvider implements MetricProvider {
      */
     @Override
     public int getActivePatternsCount() {
-        if (cachedActivePatternsCount < 0) {
-            cachedActivePatternsCount = 0;
-            for (Gene gene : chromosome.getGenes()) {
-                if (gene.getRoll() != null) {
-                    cachedActivePatternsCount++;
-                }
-            }
-        }
-        return cachedActivePatternsCount;
+        return activePatternsCount;
     }
 
     /**
@@ -103,6 +215,8 @@ public class ChromosomeMetricProvider implements MetricProvider {
     @Override
     public int getUniquePatternsCount() {
         if (cachedUniquePatternsCount < 0) {
+            // the same chromosome may be evaluated by a number of threads at once,
+            // so only the final count is published
             Set<Integer> set = Sets.newHashSet();
 
             for (Gene gene : chromosome.getGenes()) {
@@ -125,16 +239,16 @@ public class ChromosomeMetricProvider implements MetricProvider {
         if (cachedAverageUnderProductionRatio < 0) {
             double underProductionRatio = 0;
 
-            for (int i = 0; i < context.getOrdersSize(); i++) {
-                double production = chromosome.getProductionLengthForOrder(i);
-                double orderLength = context.getOrderLength(i);
+            for (int i = 0; i < production.length; i++) {
+                double orderLength = orderLengths[i];
+                double productionLength = getAlignedProduction(i);
 
-                if (production < orderLength) {
-                    underProductionRatio += 1 - production / orderLength;
+                if (productionLength < orderLength) {
+                    underProductionRatio += 1 - productionLength / orderLength;
                 }
             }
 
-            cachedAverageUnderProductionRatio = underProductionRatio / context.getOrdersSize();
+            cachedAverageUnderProductionRatio = underProductionRatio / production.length;
         }
 
         return cachedAverageUnderProductionRatio;
@@ -147,10 +261,10 @@ public class ChromosomeMetricProvider implements MetricProvider {
     public double getMaximumUnderProductionRatio() {
         if (cachedMaxUnderProductionRatio < 0) {
             double maximum = 0;
-            for (int i = 0; i < context.getOrdersSize(); i++) {
-                double demand = context.getOrderLength(i);
-                double production = chromosome.getProductionLengthForOrder(i);
-                double ratio = production < demand ? (1 - production / demand) : 0;
+            for (int i = 0; i < production.length; i++) {
+                double demand = orderLengths[i];
+                double productionLength = getAlignedProduction(i);
+                double ratio = productionLength < demand ? (1 - productionLength / demand) : 0;
 
                 if (i == 0 || ratio > maximum) {
                     maximum = ratio;
@@ -171,16 +285,16 @@ public class ChromosomeMetricProvider implements MetricProvider {
         if (cachedAverageOverProductionRatio < 0) {
             double overProductionRatio = 0;
 
-            for (int i = 0; i < context.getOrdersSize(); i++) {
-                double production = chromosome.getProductionLengthForOrder(i);
-                double orderLength = context.getOrderLength(i);
+            for (int i = 0; i < production.length; i++) {
+                double orderLength = orderLengths[i];
+                double productionLength = getAlignedProduction(i);
 
-                if (production > orderLength) {
-                    overProductionRatio += production / orderLength - 1;
+                if (productionLength > orderLength) {
+                    overProductionRatio += productionLength / orderLength - 1;
                 }
             }
 
-            cachedAverageOverProductionRatio = overProductionRatio / context.getOrdersSize();
+            cachedAverageOverProductionRatio = overProductionRatio / production.length;
         }
 
         return cachedAverageOverProductionRatio;
@@ -193,10 +307,10 @@ public class ChromosomeMetricProvider implements MetricProvider {
     public double getMaximumOverProductionRatio() {
         if (cachedMaxOverProductionRatio < 0) {
             double maximum = 0;
-            for (int i = 0; i < context.getOrdersSize(); i++) {
-                double demand = context.getOrderLength(i);
-                double production = chromosome.getProductionLengthForOrder(i);
-                double ratio = production > demand ? (production / demand - 1) : 0;
+            for (int i = 0; i < production.length; i++) {
+                double demand = orderLengths[i];
+                double productionLength = getAlignedProduction(i);
+                double ratio = productionLength > demand ? (productionLength / demand - 1) : 0;
 
                 if (i == 0 || ratio > maximum) {
                     maximum = ratio;
@@ -217,12 +331,12 @@ public class ChromosomeMetricProvider implements MetricProvider {
         if (cachedAggregatedTrimArea < 0) {
             double overProducedArea = 0;
 
-            for (int i = 0; i < context.getOrdersSize(); i++) {
-                double production = chromosome.getProductionLengthForOrder(i);
-                double orderLength = context.getOrderLength(i);
+            for (int i = 0; i < production.length; i++) {
+                double orderLength = orderLengths[i];
+                double productionLength = getAlignedProduction(i);
 
-                if (production > orderLength) {
-                    overProducedArea += (production - orderLength) * context.getOrderWidth(i);
+                if (productionLength > orderLength) {
+                    overProducedArea += (productionLength - orderLength) * orderWidths[i];
                 }
             }
 
@@ -237,35 +351,20 @@ public class ChromosomeMetricProvider implements MetricProvider {
      */
     @Override
     public double getAggregatedTrimRatio() {
-        if (cachedAggregatedTrimRatio < 0) {
-            double totalArea = 0;
-            for (Gene gene : chromosome.getGenes()) {
-                if (gene.getRoll() != null) {
-                    totalArea += gene.getRoll().getArea();
-                }
-            }
-
-            cachedAggregatedTrimRatio = totalArea == 0 ? 0 : getAggregatedTrimArea() / totalArea;
-        }
-
-        return cachedAggregatedTrimRatio;
+        return rollArea == 0 ? 0 : getAggregatedTrimArea() / rollArea;
     }
 
     /**
-     * <p>Resets cached values, should be manually called every time when chromosome structure is
-     * changed.</p>
+     * <p>Resets cached values of the metrics derived from running totals, called every time when
+     * chromosome structure is changed.</p>
      */
     public void resetCachedValues() {
-        cachedTrimArea = -1;
-        cachedTrimRatio = -1;
-        cachedActivePatternsCount = -1;
         cachedUniquePatternsCount = -1;
         cachedAverageUnderProductionRatio = -1;
         cachedMaxUnderProductionRatio = -1;
         cachedAverageOverProductionRatio = -1;
         cachedMaxOverProductionRatio = -1;
         cachedAggregatedTrimArea = -1;
-        cachedAggregatedTrimRatio = -1;
     }
 
     public double getAverageGroupSize() {
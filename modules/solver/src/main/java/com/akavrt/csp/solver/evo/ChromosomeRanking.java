@@ -0,0 +1,232 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Plan;
+import com.akavrt.csp.metrics.KeyedMetric;
+import com.akavrt.csp.metrics.Metric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>Orders chromosomes from the best to the worst one according to the objective function. If
+ * metric is able to express ordering of plans through keys (see KeyedMetric), key of each
+ * chromosome is evaluated once into a plain array of doubles and chromosomes are ordered by their
+ * keys, otherwise reverse comparator defined by metric is used.</p>
+ *
+ * <p>Ties are broken by the position of chromosome in the list, so results are exactly the same
+ * as the results of stable sorting with reverse comparator (see Collections.sort()). When only a
+ * number of the best chromosomes is needed (truncation selection), quickselect is used to
+ * separate them from the rest of the list and only the selected part is sorted.</p>
+ *
+ * <p>Instance keeps scratch buffers between calls and isn't thread safe.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ChromosomeRanking {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private final KeyedMetric keyedMetric;
+    private final Comparator<Plan> comparator;
+    private final int keyLength;
+    private double[] keys;
+    private int[] order;
+    private Chromosome[] buffer;
+
+    /**
+     * <p>Creates ranking which orders chromosomes according to the provided objective
+     * function.</p>
+     *
+     * @param objectiveFunction Objective function used to order chromosomes.
+     */
+    public ChromosomeRanking(Metric objectiveFunction) {
+        if (objectiveFunction instanceof KeyedMetric) {
+            keyedMetric = (KeyedMetric) objectiveFunction;
+            keyLength = keyedMetric.getKeyLength();
+        } else {
+            keyedMetric = null;
+            keyLength = 0;
+        }
+
+        comparator = objectiveFunction.getReverseComparator();
+    }
+
+    /**
+     * <p>Sorts list of chromosomes, the best chromosome goes first.</p>
+     *
+     * @param chromosomes List of chromosomes to sort.
+     */
+    public void sort(List<Chromosome> chromosomes) {
+        select(chromosomes, chromosomes.size());
+    }
+
+    /**
+     * <p>Moves the specified number of the best chromosomes to the head of the list. Head of the
+     * list is sorted exactly the same way as it would be sorted by sort(), the rest of the list
+     * follows in unspecified order.</p>
+     *
+     * @param chromosomes List of chromosomes.
+     * @param count       Number of the best chromosomes to select.
+     */
+    public void select(List<Chromosome> chromosomes, int count) {
+        int size = chromosomes.size();
+        count = Math.min(count, size);
+        if (count <= 0 || size < 2) {
+            return;
+        }
+
+        if (keyedMetric == null) {
+            Collections.sort(chromosomes, comparator);
+            return;
+        }
+
+        prepare(chromosomes);
+
+        if (count < size) {
+            selectFirst(count, size);
+        }
+
+        sort(0, count - 1);
+
+        for (int i = 0; i < size; i++) {
+            chromosomes.set(i, buffer[order[i]]);
+        }
+
+        // references aren't kept between calls
+        Arrays.fill(buffer, 0, size, null);
+    }
+
+    private void prepare(List<Chromosome> chromosomes) {
+        int size = chromosomes.size();
+        if (order == null || order.length < size) {
+            order = new int[size];
+            buffer = new Chromosome[size];
+            keys = new double[size * keyLength];
+        }
+
+        for (int i = 0; i < size; i++) {
+            Chromosome chromosome = chromosomes.get(i);
+
+            buffer[i] = chromosome;
+            order[i] = i;
+            keyedMetric.evaluateKey(chromosome, keys, i * keyLength);
+        }
+    }
+
+    /**
+     * <p>Quickselect: rearranges order in a way that positions preceding the specified one hold
+     * the best chromosomes.</p>
+     */
+    private void selectFirst(int count, int size) {
+        int left = 0;
+        int right = size - 1;
+        while (right - left >= INSERTION_SORT_THRESHOLD) {
+            int pivot = partition(left, right);
+            if (pivot < count) {
+                left = pivot + 1;
+            } else if (pivot > count) {
+                right = pivot - 1;
+            } else {
+                return;
+            }
+        }
+
+        insertionSort(left, right);
+    }
+
+    private void sort(int left, int right) {
+        while (right - left >= INSERTION_SORT_THRESHOLD) {
+            int pivot = partition(left, right);
+
+            // recursion on the smaller part keeps depth of the stack logarithmic
+            if (pivot - left < right - pivot) {
+                sort(left, pivot - 1);
+                left = pivot + 1;
+            } else {
+                sort(pivot + 1, right);
+                right = pivot - 1;
+            }
+        }
+
+        insertionSort(left, right);
+    }
+
+    /**
+     * <p>Lomuto partition scheme with median of three used as a pivot.</p>
+     *
+     * @return Final position of the pivot.
+     */
+    private int partition(int left, int right) {
+        int middle = (left + right) >>> 1;
+        if (compare(order[middle], order[left]) < 0) {
+            swap(middle, left);
+        }
+
+        if (compare(order[right], order[left]) < 0) {
+            swap(right, left);
+        }
+
+        if (compare(order[right], order[middle]) < 0) {
+            swap(right, middle);
+        }
+
+        // median is moved to the end of the range
+        swap(middle, right);
+        int pivot = order[right];
+
+        int store = left;
+        for (int i = left; i < right; i++) {
+            if (compare(order[i], pivot) < 0) {
+                swap(i, store);
+                store++;
+            }
+        }
+
+        swap(store, right);
+
+        return store;
+    }
+
+    private void insertionSort(int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int current = order[i];
+
+            int j = i - 1;
+            while (j >= left && compare(current, order[j]) < 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+
+            order[j + 1] = current;
+        }
+    }
+
+    /**
+     * <p>Compares chromosomes by their keys, position in the list is used to break ties.</p>
+     *
+     * @return A negative integer if the first chromosome goes first, positive integer otherwise.
+     */
+    private int compare(int first, int second) {
+        int firstOffset = first * keyLength;
+        int secondOffset = second * keyLength;
+        for (int i = 0; i < keyLength; i++) {
+            double firstKey = keys[firstOffset + i];
+            double secondKey = keys[secondOffset + i];
+
+            if (firstKey < secondKey) {
+                return -1;
+            } else if (firstKey > secondKey) {
+                return 1;
+            }
+        }
+
+        return first < second ? -1 : (first > second ? 1 : 0);
+    }
+
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
+import com.akavrt.csp.solver.ExecutionContexts;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Runs constructive procedure concurrently to produce candidates for the initial population.
+ * Each worker creates its own instance of the procedure (sequential procedures keep state of the
+ * current run and can't be shared) and repeatedly takes the next run from the shared counter, so
+ * faster workers simply do more runs. Workers keep running until candidates are no longer needed
+ * or execution is stopped.</p>
+ *
+ * <p>Results are reproducible and don't depend on the number of workers or the scheduling of
+ * runs: seed of each run is derived from its index and a base seed drawn on the calling thread,
+ * candidates are handed out to the caller strictly in the order of runs. This way population may
+ * apply the same acceptance rules (e.g. rejection of duplicates, see DiversityManager) which are
+ * used in sequential initialization.</p>
+ *
+ * <p>Procedure factory has to create each procedure with its own pattern generator, sequential
+ * procedures initialize generator on every run and generators shipped with the solver aren't safe
+ * to initialize from a number of threads at once (see
+ * EvolutionaryComponentsFactory.createConcurrentInitializationFactory()).</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ConcurrentInitializer {
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+    private static final long POLL_TIMEOUT_MS = 10;
+    private final ExecutorService executor;
+    private final int workers;
+
+    /**
+     * <p>Creates initializer which dispatches workers to the provided executor. Life cycle of the
+     * executor isn't managed by initializer.</p>
+     *
+     * @param executor Executor service used to run workers.
+     * @param workers  Number of workers.
+     */
+    public ConcurrentInitializer(ExecutorService executor, int workers) {
+        this.executor = executor;
+        this.workers = Math.max(workers, 1);
+    }
+
+    /**
+     * <p>Starts workers, candidates produced have to be retrieved in order with Candidates.next().
+     * Workers have to be stopped with Candidates.close() once no more candidates are needed.</p>
+     *
+     * @param context          The context procedure is executed within.
+     * @param procedureFactory Factory used to create instance of the procedure for each worker.
+     * @return Ordered source of candidates.
+     */
+    public Candidates start(EvolutionaryExecutionContext context,
+                            AlgorithmFactory<? extends Algorithm> procedureFactory) {
+        Candidates candidates = new Candidates(context, procedureFactory,
+                                               ThreadConfinedRandom.getInstance().nextLong());
+        for (int i = 0; i < workers; i++) {
+            candidates.futures.add(executor.submit(candidates.createWorker()));
+        }
+
+        return candidates;
+    }
+
+    /**
+     * <p>Ordered source of candidates produced by workers. Isn't thread safe, should be used by the
+     * thread which started workers.</p>
+     */
+    public static class Candidates {
+        private final EvolutionaryExecutionContext context;
+        private final AlgorithmFactory<? extends Algorithm> procedureFactory;
+        private final long baseSeed;
+        private final AtomicInteger nextRun = new AtomicInteger();
+        private final BlockingQueue<Run> completed = new LinkedBlockingQueue<Run>();
+        private final Map<Integer, Run> pending = Maps.newHashMap();
+        private final List<Future<Void>> futures = Lists.newArrayList();
+        private volatile boolean isClosed;
+        private int nextIndex;
+
+        private Candidates(EvolutionaryExecutionContext context,
+                           AlgorithmFactory<? extends Algorithm> procedureFactory, long baseSeed) {
+            this.context = context;
+            this.procedureFactory = procedureFactory;
+            this.baseSeed = baseSeed;
+        }
+
+        /**
+         * <p>Waits for the next candidate in order of runs, runs which didn't produce any solution
+         * are skipped.</p>
+         *
+         * @return The next candidate or null, if execution was stopped.
+         */
+        public Chromosome next() {
+            while (true) {
+                Run run = pending.remove(nextIndex);
+                if (run != null) {
+                    nextIndex++;
+                    if (run.error != null) {
+                        close();
+                        throw Throwables.propagate(run.error);
+                    }
+
+                    if (run.chromosome != null) {
+                        return run.chromosome;
+                    }
+
+                    continue;
+                }
+
+                if (ExecutionContexts.isStopped(context)) {
+                    return null;
+                }
+
+                // stop is checked periodically, workers don't report runs they didn't start
+                Run polled = poll();
+                if (polled != null) {
+                    pending.put(polled.index, polled);
+                }
+            }
+        }
+
+        /**
+         * <p>Stops workers and waits for the runs already started to complete.</p>
+         */
+        public void close() {
+            isClosed = true;
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                } catch (ExecutionException e) {
+                    throw Throwables.propagate(e.getCause());
+                }
+            }
+        }
+
+        private Run poll() {
+            try {
+                return completed.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                isClosed = true;
+
+                throw Throwables.propagate(e);
+            }
+        }
+
+        private Callable<Void> createWorker() {
+            return new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Algorithm procedure;
+                    try {
+                        procedure = procedureFactory.createAlgorithm();
+                    } catch (Throwable e) {
+                        completed.add(new Run(nextRun.getAndIncrement(), null, e));
+                        return null;
+                    }
+
+                    while (!isClosed && !ExecutionContexts.isStopped(context)) {
+                        int index = nextRun.getAndIncrement();
+                        completed.add(execute(procedure, index));
+                    }
+
+                    return null;
+                }
+            };
+        }
+
+        private Run execute(Algorithm procedure, int index) {
+            long seed = baseSeed + index * SEED_INCREMENT;
+            Random previous = ThreadConfinedRandom.bind(new Random(seed));
+            try {
+                Chromosome chromosome = null;
+                List<Solution> solutions = procedure.execute(context);
+                if (solutions != null && solutions.size() > 0 && solutions.get(0) != null) {
+                    chromosome = new Chromosome(context, solutions.get(0));
+                }
+
+                return new Run(index, chromosome, null);
+            } catch (Throwable e) {
+                // error is rethrown on the calling thread
+                return new Run(index, null, e);
+            } finally {
+                ThreadConfinedRandom.bind(previous);
+            }
+        }
+    }
+
+    private static class Run {
+        private final int index;
+        private final Chromosome chromosome;
+        private final Throwable error;
+
+        private Run(int index, Chromosome chromosome, Throwable error) {
+            this.index = index;
+            this.chromosome = chromosome;
+            this.error = error;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.utils.ThreadConfinedRandom;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Produces a batch of offspring concurrently using provided executor. Each offspring is
+ * produced by an independent task which applies evolutionary operator to its own list of operands
+ * and retries application while result is already registered within diversity manager (with the
+ * same retry bound used in sequential generation).</p>
+ *
+ * <p>Results are reproducible and don't depend on the scheduling of tasks: before dispatching
+ * tasks a separate seed is drawn for each offspring on the calling thread, tasks are executed with
+ * generator seeded accordingly bound to the worker thread (see ThreadConfinedRandom). While tasks
+ * are running, diversity manager is used in a read-only mode, offspring are registered within it
+ * afterwards on the calling thread in the order of operands. If an offspring repeats one of the
+ * preceding offspring, it is regenerated on the calling thread using the generator of the same
+ * task.</p>
+ *
+ * <p>Evolutionary operators and pattern generators have to be safe to use from a number of
+ * threads at once (operators shipped with the solver are). Operands are only read by the
+ * tasks.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ConcurrentOffspringGenerator {
+    private final ExecutorService executor;
+
+    /**
+     * <p>Creates generator which dispatches tasks to the provided executor. Life cycle of the
+     * executor isn't managed by generator.</p>
+     *
+     * @param executor Executor service used to run tasks.
+     */
+    public ConcurrentOffspringGenerator(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * <p>Produces offspring by applying operator to each entry of the list of operands.</p>
+     *
+     * @param operator Evolutionary operator used to produce offspring.
+     * @param operands List of operands, i-th element is passed to the operator to produce i-th
+     *                 offspring.
+     * @param dm       Diversity manager, each offspring produced is registered within it.
+     * @return List of offspring in the order of operands.
+     */
+    public List<Chromosome> generate(EvolutionaryOperator operator, List<Chromosome[]> operands,
+                                     DiversityManager dm) {
+        List<EvolutionaryOperator> operators = Collections.nCopies(operands.size(), operator);
+
+        return generate(operators, operands, dm);
+    }
+
+    /**
+     * <p>Produces offspring by applying i-th operator to the i-th entry of the list of operands.
+     * This way different operators (e.g. mutation and crossover) can be applied within the same
+     * batch of tasks.</p>
+     *
+     * @param operators List of evolutionary operators, must be of the same size as list of
+     *                  operands.
+     * @param operands  List of operands.
+     * @param dm        Diversity manager, each offspring produced is registered within it.
+     * @return List of offspring in the order of operands.
+     */
+    public List<Chromosome> generate(List<EvolutionaryOperator> operators,
+                                     List<Chromosome[]> operands, final DiversityManager dm) {
+        Random rGen = ThreadConfinedRandom.getInstance();
+
+        List<Future<Offspring>> futures = Lists.newArrayListWithCapacity(operands.size());
+        for (int i = 0; i < operands.size(); i++) {
+            final EvolutionaryOperator operator = operators.get(i);
+            final Chromosome[] operand = operands.get(i);
+            final long seed = rGen.nextLong();
+            futures.add(executor.submit(new Callable<Offspring>() {
+                @Override
+                public Offspring call() throws Exception {
+                    Random random = new Random(seed);
+                    Chromosome chromosome = apply(operator, operand, dm, random);
+
+                    return new Offspring(chromosome, random);
+                }
+            }));
+        }
+
+        // all tasks have to be finished before the first offspring is registered,
+        // otherwise tasks still running would observe registration depending on scheduling
+        List<Offspring> results = Lists.newArrayListWithCapacity(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(await(futures, i));
+        }
+
+        List<Chromosome> offspring = Lists.newArrayListWithCapacity(operands.size());
+        for (int i = 0; i < results.size(); i++) {
+            Offspring result = results.get(i);
+
+            Chromosome chromosome = result.chromosome;
+            if (dm.isAdded(chromosome)) {
+                // offspring repeats one of the preceding offspring,
+                // regenerate it using generator of the same task
+                chromosome = apply(operators.get(i), operands.get(i), dm, result.random);
+            }
+
+            offspring.add(chromosome);
+            dm.add(chromosome);
+        }
+
+        return offspring;
+    }
+
+    private Chromosome apply(EvolutionaryOperator operator, Chromosome[] operand,
+                             DiversityManager dm, Random random) {
+        Random previous = ThreadConfinedRandom.bind(random);
+        try {
+            int stuck = 0;
+            Chromosome result = null;
+            while (result == null) {
+                Chromosome candidate = operator.apply(operand);
+                if (dm.isAdded(candidate) && stuck < dm.getRetryBound()) {
+                    dm.incRetryCount();
+                    stuck++;
+                } else {
+                    result = candidate;
+                }
+            }
+
+            return result;
+        } finally {
+            ThreadConfinedRandom.bind(previous);
+        }
+    }
+
+    private Offspring await(List<Future<Offspring>> futures, int index) {
+        try {
+            return futures.get(index).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(futures);
+
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private void cancel(List<Future<Offspring>> futures) {
+        for (Future<Offspring> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static class Offspring {
+        private final Chromosome chromosome;
+        private final Random random;
+
+        private Offspring(Chromosome chromosome, Random random) {
+            this.chromosome = chromosome;
+            this.random = random;
+        }
+    }
+
+}
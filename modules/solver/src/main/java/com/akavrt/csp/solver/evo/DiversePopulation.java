@@ -1,16 +1,17 @@
 package com.akavrt.csp.solver.evo;
 
-import com.akavrt.csp.core.Plan;
 import com.akavrt.csp.core.Solution;
 import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
+import com.akavrt.csp.solver.ExecutionContexts;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * User: akavrt
@@ -23,18 +24,36 @@ public abstract class DiversePopulation implements Population {
     private final EvolutionaryExecutionContext context;
     private final DiversityManager dm;
     private final EvolutionaryAlgorithmParameters parameters;
-    private final Comparator<Plan> comparator;
+    private final ChromosomeRanking ranking;
+    private final ExecutorService executor;
     private int age;
 
     public DiversePopulation(EvolutionaryExecutionContext context,
                              EvolutionaryAlgorithmParameters parameters, Metric objectiveFunction) {
+        this(context, parameters, objectiveFunction, null);
+    }
+
+    /**
+     * <p>Creates population which is able to run initialization procedure concurrently (see
+     * ConcurrentInitializer), the number of workers is defined by parameters.</p>
+     *
+     * @param context           Context is needed to create context-aware chromosomes.
+     * @param parameters        Parameters of evolutionary algorithm.
+     * @param objectiveFunction Metric used to compare chromosomes with each other.
+     * @param executor          Executor used to run initialization procedure, if null is provided
+     *                          initialization is done sequentially.
+     */
+    public DiversePopulation(EvolutionaryExecutionContext context,
+                             EvolutionaryAlgorithmParameters parameters, Metric objectiveFunction,
+                             ExecutorService executor) {
         this.context = context;
         this.parameters = parameters;
+        this.executor = executor;
 
         chromosomes = Lists.newArrayList();
         dm = new DiversityManager();
 
-        comparator = objectiveFunction.getReverseComparator();
+        ranking = new ChromosomeRanking(objectiveFunction);
     }
 
     /**
@@ -82,43 +101,157 @@ public abstract class DiversePopulation implements Population {
      */
     @Override
     public void initialize(Algorithm initProcedure, EvolutionProgressChangeListener listener) {
-        chromosomes.clear();
-        dm.reset();
+        initialize(initProcedure, Collections.<Solution>emptyList(), listener);
+    }
 
-        age = 0;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(Algorithm initProcedure, List<Solution> seeds,
+                           EvolutionProgressChangeListener listener) {
+        seed(seeds, listener);
 
         // fill population with solutions generated using auxiliary algorithm
         int stuck = 0;
-        while (!context.isCancelled() && chromosomes.size() < parameters.getPopulationSize()) {
+        // initialization stops on deadline as well, population may be left partially filled
+        while (!ExecutionContexts.isStopped(context)
+                && chromosomes.size() < parameters.getPopulationSize()) {
             // run auxiliary algorithm
             List<Solution> solutions = initProcedure.execute(context);
 
             if (solutions != null && solutions.size() > 0 && solutions.get(0) != null) {
                 // conversion from solution to chromosome is done automatically
                 Chromosome chromosome = new Chromosome(context, solutions.get(0));
-                if (dm.isAdded(chromosome) && stuck < getRetryBound()) {
-                    stuck++;
-                } else {
-                    chromosomes.add(chromosome);
-                    dm.add(chromosome);
-
-                    LOGGER.debug("Adding #{} chromosome to the population.", chromosomes.size());
+                stuck = offer(chromosome, stuck, listener);
+            } else {
+                LOGGER.debug("No solution was found by constructive algorithm.");
+            }
+        }
+    }
 
-                    stuck = 0;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AlgorithmFactory<? extends Algorithm> procedureFactory,
+                           List<Solution> seeds, EvolutionProgressChangeListener listener) {
+        if (executor == null) {
+            initialize(procedureFactory.createAlgorithm(), seeds, listener);
+            return;
+        }
 
-                    if (listener != null) {
-                        int progress = 100 * chromosomes.size() / parameters.getPopulationSize();
-                        progress = Math.min(progress, 100);
+        seed(seeds, listener);
+        if (ExecutionContexts.isStopped(context)
+                || chromosomes.size() >= parameters.getPopulationSize()) {
+            return;
+        }
 
-                        listener.onInitializationProgressChanged(progress);
-                    }
+        ConcurrentInitializer initializer =
+                new ConcurrentInitializer(executor, parameters.getWorkers());
+        ConcurrentInitializer.Candidates candidates = initializer.start(context, procedureFactory);
+        try {
+            // candidates come in the same order regardless of scheduling,
+            // so acceptance is the same as in sequential initialization
+            int stuck = 0;
+            while (chromosomes.size() < parameters.getPopulationSize()) {
+                Chromosome chromosome = candidates.next();
+                if (chromosome == null) {
+                    break;
                 }
-            } else {
-                LOGGER.debug("No solution was found by constructive algorithm.");
+
+                stuck = offer(chromosome, stuck, listener);
             }
+        } finally {
+            candidates.close();
+        }
+    }
+
+    /**
+     * <p>Resets population and fills it in with seeds.</p>
+     */
+    private void seed(List<Solution> seeds, EvolutionProgressChangeListener listener) {
+        chromosomes.clear();
+        dm.reset();
+
+        age = 0;
+
+        for (Solution seed : seeds) {
+            if (ExecutionContexts.isStopped(context)
+                    || chromosomes.size() >= parameters.getPopulationSize()) {
+                break;
+            }
+
+            Chromosome chromosome = new Chromosome(context, seed);
+            if (!dm.isAdded(chromosome)) {
+                addInitial(chromosome, listener);
+            }
+        }
+
+        LOGGER.debug("Population is seeded with {} chromosomes.", chromosomes.size());
+    }
+
+    /**
+     * <p>Adds constructed chromosome to the population unless it repeats one of the chromosomes
+     * already added, repeated chromosome is accepted anyway when retry bound is reached.</p>
+     *
+     * @return Updated number of the consecutive rejections.
+     */
+    private int offer(Chromosome chromosome, int stuck,
+                      EvolutionProgressChangeListener listener) {
+        if (dm.isAdded(chromosome) && stuck < getRetryBound()) {
+            return stuck + 1;
+        }
+
+        addInitial(chromosome, listener);
+
+        return 0;
+    }
+
+    private void addInitial(Chromosome chromosome, EvolutionProgressChangeListener listener) {
+        chromosomes.add(chromosome);
+        dm.add(chromosome);
+
+        LOGGER.debug("Adding #{} chromosome to the population.", chromosomes.size());
+
+        if (listener != null) {
+            int progress = 100 * chromosomes.size() / parameters.getPopulationSize();
+            progress = Math.min(progress, 100);
+
+            listener.onInitializationProgressChanged(progress);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void immigrate(List<Chromosome> migrants) {
+        sort();
+
+        DiversityManager present = new DiversityManager();
+        for (Chromosome chromosome : chromosomes) {
+            present.add(chromosome);
+        }
+
+        int replaced = 0;
+        for (Chromosome migrant : migrants) {
+            if (replaced >= chromosomes.size()) {
+                break;
+            }
+
+            if (!present.isAdded(migrant)) {
+                present.add(migrant);
+                // replace the worst chromosome not replaced yet
+                int index = chromosomes.size() - 1 - replaced;
+                chromosomes.set(index, new Chromosome(migrant));
+                replaced++;
+            }
+        }
+
+        LOGGER.debug("{} of {} migrants were accepted.", replaced, migrants.size());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -128,7 +261,18 @@ public abstract class DiversePopulation implements Population {
     }
 
     protected void sort(List<Chromosome> chromosomes) {
-        Collections.sort(chromosomes, comparator);
+        ranking.sort(chromosomes);
+    }
+
+    /**
+     * <p>Moves the specified number of the best chromosomes to the head of the list, head is
+     * ordered the same way as sort() would order it (see ChromosomeRanking.select()).</p>
+     *
+     * @param chromosomes List of chromosomes.
+     * @param count       Number of the best chromosomes to select.
+     */
+    protected void select(List<Chromosome> chromosomes, int count) {
+        ranking.select(chromosomes, count);
     }
 
     protected void incAge() {
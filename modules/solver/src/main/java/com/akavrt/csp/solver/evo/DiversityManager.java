@@ -1,50 +1,127 @@
 package com.akavrt.csp.solver.evo;
 
-import com.google.common.collect.Sets;
-
-import java.util.Set;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * <p>Keeps track of the chromosomes added to the population to reject offspring repeating them.
+ * Chromosomes are identified by 64-bit fingerprints (see Chromosome.getFingerprint()) stored in
+ * open-addressing hash set of primitive longs, so no boxing takes place on lookup. Fingerprints of
+ * different chromosomes collide rarely enough to be ignored, at worst a collision rejects a single
+ * offspring.</p>
+ *
+ * <p>Instance can be shared by a number of threads, methods of the set are synchronized.</p>
+ *
  * User: akavrt
  * Date: 27.04.13
  * Time: 01:22
  */
 public class DiversityManager {
     private static final int RETRY_BOUND = 10;
-    private final Set<Integer> hashes;
-    private int retryCount;
+    private static final int DEFAULT_CAPACITY = 64;
+    private final AtomicInteger retryCount;
+    private long[] fingerprints;
+    private boolean[] isOccupied;
+    private int size;
 
     public DiversityManager() {
-        hashes = Sets.newHashSet();
+        retryCount = new AtomicInteger();
+        allocate(DEFAULT_CAPACITY);
     }
 
-    public void reset() {
-        hashes.clear();
-        retryCount = 0;
+    public synchronized void reset() {
+        Arrays.fill(isOccupied, false);
+        size = 0;
+        retryCount.set(0);
     }
 
-    public void add(Chromosome chromosome) {
-        hashes.add(chromosome.hashCode());
+    public synchronized void add(Chromosome chromosome) {
+        long fingerprint = chromosome.getFingerprint();
+        if (find(fingerprint) >= 0) {
+            return;
+        }
+
+        // load factor is kept below 0.5
+        if (2 * (size + 1) > fingerprints.length) {
+            rehash(2 * fingerprints.length);
+        }
+
+        insert(fingerprint);
+        size++;
     }
 
-    public boolean isAdded(Chromosome chromosome) {
-        return hashes.contains(chromosome.hashCode());
+    public synchronized boolean isAdded(Chromosome chromosome) {
+        return find(chromosome.getFingerprint()) >= 0;
     }
 
-    public int getMeasure() {
-        return hashes.size();
+    public synchronized int getMeasure() {
+        return size;
     }
 
     public int getRetryCount() {
-        return retryCount;
+        return retryCount.get();
     }
 
     public void incRetryCount() {
-        retryCount++;
+        retryCount.incrementAndGet();
     }
 
     public int getRetryBound() {
         return RETRY_BOUND;
     }
 
+    /**
+     * <p>Linear probing is used.</p>
+     *
+     * @return Slot occupied by fingerprint or -1 if fingerprint wasn't added.
+     */
+    private int find(long fingerprint) {
+        int mask = fingerprints.length - 1;
+
+        int slot = getSlot(fingerprint, mask);
+        while (isOccupied[slot]) {
+            if (fingerprints[slot] == fingerprint) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void insert(long fingerprint) {
+        int mask = fingerprints.length - 1;
+
+        int slot = getSlot(fingerprint, mask);
+        while (isOccupied[slot]) {
+            slot = (slot + 1) & mask;
+        }
+
+        isOccupied[slot] = true;
+        fingerprints[slot] = fingerprint;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldFingerprints = fingerprints;
+        boolean[] oldOccupied = isOccupied;
+
+        allocate(capacity);
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            if (oldOccupied[i]) {
+                insert(oldFingerprints[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        fingerprints = new long[capacity];
+        isOccupied = new boolean[capacity];
+    }
+
+    private static int getSlot(long fingerprint, int mask) {
+        // fingerprints are already well mixed, high bits are folded just in case
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
 }
@@ -2,11 +2,21 @@ package com.akavrt.csp.solver.evo;
 
 import com.akavrt.csp.core.Solution;
 import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
 import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.ExecutionContexts;
+import com.akavrt.csp.solver.SolutionRepair;
+import com.akavrt.csp.solver.TimedExecutionContext;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
+import com.google.common.collect.Lists;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * <p>Generic (template) implementation of evolutionary algorithm which conforms to the contract
@@ -16,13 +26,41 @@ import java.util.List;
  */
 public abstract class EvolutionaryAlgorithm implements Algorithm {
     private final Algorithm initializationProcedure;
+    private final AlgorithmFactory<? extends Algorithm> procedureFactory;
     private final EvolutionaryAlgorithmParameters parameters;
     private EvolutionProgressChangeListener progressChangeListener;
+    private ExecutorService executor;
+    private ExecutorService runExecutor;
+    private boolean isExecutorOwned;
+    private TerminationMonitor monitor;
+    private List<Solution> seeds;
 
     public EvolutionaryAlgorithm(Algorithm initializationProcedure,
                                  EvolutionaryAlgorithmParameters parameters) {
+        this(initializationProcedure, null, parameters);
+    }
+
+    /**
+     * <p>Creates algorithm which takes initialization procedure from the components factory. When
+     * offspring are produced concurrently, population is initialized concurrently as well if
+     * components factory provides independent instances of the procedure, see
+     * EvolutionaryComponentsFactory.createConcurrentInitializationFactory().</p>
+     *
+     * @param componentsFactory Factory of the initialization procedure.
+     * @param parameters        Parameters of the algorithm.
+     */
+    public EvolutionaryAlgorithm(EvolutionaryComponentsFactory componentsFactory,
+                                 EvolutionaryAlgorithmParameters parameters) {
+        this(componentsFactory.createInitializationProcedure(),
+             componentsFactory.createConcurrentInitializationFactory(), parameters);
+    }
+
+    private EvolutionaryAlgorithm(Algorithm initializationProcedure,
+                                  AlgorithmFactory<? extends Algorithm> procedureFactory,
+                                  EvolutionaryAlgorithmParameters parameters) {
         this.parameters = parameters;
         this.initializationProcedure = initializationProcedure;
+        this.procedureFactory = procedureFactory;
     }
 
     protected abstract void initializeOperators(EvolutionaryExecutionContext evoContext);
@@ -33,6 +71,8 @@ public abstract class EvolutionaryAlgorithm implements Algorithm {
 
     protected abstract String getShortMethodName();
 
+    protected abstract Metric getObjectiveFunction();
+
     /**
      * {@inheritDoc}
      */
@@ -42,8 +82,7 @@ public abstract class EvolutionaryAlgorithm implements Algorithm {
             return null;
         }
 
-        EvolutionaryContext evolutionaryContext = new EvolutionaryContext(context);
-        List<Solution> solutions = search(evolutionaryContext);
+        List<Solution> solutions = search(createContext(context));
 
         for (Solution solution : solutions) {
             // create separate instance of metadata for each solution found
@@ -54,6 +93,20 @@ public abstract class EvolutionaryAlgorithm implements Algorithm {
         return solutions;
     }
 
+    /**
+     * <p>Creates context of the run, time limit defined by parameters may be tighter than the
+     * deadline set by the context provided.</p>
+     */
+    EvolutionaryContext createContext(ExecutionContext context) {
+        long deadline = parameters.getTimeLimit() > 0
+                ? System.currentTimeMillis() + parameters.getTimeLimit()
+                : TimedExecutionContext.NO_DEADLINE;
+        long parentDeadline = ExecutionContexts.getDeadline(context);
+        deadline = ExecutionContexts.getEarliestDeadline(parentDeadline, deadline);
+
+        return new EvolutionaryContext(context, deadline);
+    }
+
     /**
      * <p>Represents single run of the evolutionary algorithm. Supports early termination.</p>
      *
@@ -61,33 +114,126 @@ public abstract class EvolutionaryAlgorithm implements Algorithm {
      * @return Sorted list of solutions representing state of the population on the end of the run.
      */
     protected List<Solution> search(EvolutionaryExecutionContext evoContext) {
-        initializeOperators(evoContext);
+        // if seed is fixed, all random draws made by the current thread
+        // are delegated to the generator seeded accordingly
+        Random previous = null;
+        if (parameters.isSeeded()) {
+            previous = ThreadConfinedRandom.bind(new Random(parameters.getSeed()));
+        }
+
+        try {
+            Population population = startRun(evoContext);
+            try {
+                while (evolve(evoContext, population)) {
+                    // termination criteria are checked by evolve()
+                }
+
+                population.sort();
+
+                return population.getSolutions();
+            } finally {
+                finishRun();
+            }
+        } finally {
+            if (parameters.isSeeded()) {
+                ThreadConfinedRandom.bind(previous);
+            }
+        }
+    }
+
+    /**
+     * <p>Starts run: creates and initializes population. Runs split into steps are used by
+     * IslandModel to interleave evolution of a number of populations with migration, random
+     * numbers are drawn from the generator bound to the current thread (see
+     * ThreadConfinedRandom). Each started run must be finished with finishRun().</p>
+     *
+     * @param evoContext The context to run with.
+     * @return Initialized population.
+     */
+    Population startRun(EvolutionaryExecutionContext evoContext) {
+        monitor = new TerminationMonitor(parameters, getObjectiveFunction(),
+                                         System.currentTimeMillis());
 
-        Population population = createPopulation(evoContext);
+        isExecutorOwned = executor == null && parameters.getWorkers() > 1;
+        runExecutor = isExecutorOwned
+                ? Executors.newFixedThreadPool(parameters.getWorkers())
+                : executor;
 
-        initializationPhase(population);
-        generationalPhase(evoContext, population);
+        boolean isStarted = false;
+        try {
+            initializeOperators(evoContext);
 
-        return population.getSolutions();
+            Population population = createPopulation(evoContext);
+            initializationPhase(evoContext, population);
+            monitor.update(population);
+
+            isStarted = true;
+
+            return population;
+        } finally {
+            if (!isStarted) {
+                finishRun();
+            }
+        }
     }
 
-    private void initializationPhase(Population population) {
-        population.initialize(initializationProcedure, progressChangeListener);
+    /**
+     * <p>Checks termination criteria and evolves population for a single generation if run
+     * shouldn't be stopped yet.</p>
+     *
+     * @param evoContext The context to run with.
+     * @param population Population of the started run.
+     * @return false if run have to be stopped, true otherwise.
+     */
+    boolean evolve(EvolutionaryExecutionContext evoContext, Population population) {
+        if (monitor.isTerminated(evoContext, population)) {
+            return false;
+        }
+
+        applyOperators(population);
+        monitor.update(population);
+
+        if (progressChangeListener != null) {
+            int progress = 100 * population.getAge() / parameters.getRunSteps();
+            progress = Math.min(progress, 100);
+
+            progressChangeListener.onGenerationProgressChanged(progress, population);
+        }
+
+        return true;
     }
 
-    private void generationalPhase(EvolutionaryExecutionContext evoContext, Population population) {
-        while (!evoContext.isCancelled() && population.getAge() < parameters.getRunSteps()) {
-            applyOperators(population);
+    /**
+     * <p>Releases resources acquired by the run (e.g. executor created for the run).</p>
+     */
+    void finishRun() {
+        if (isExecutorOwned) {
+            runExecutor.shutdownNow();
+        }
 
-            if (progressChangeListener != null) {
-                int progress = 100 * population.getAge() / parameters.getRunSteps();
-                progress = Math.min(progress, 100);
+        isExecutorOwned = false;
+        runExecutor = null;
+    }
 
-                progressChangeListener.onGenerationProgressChanged(progress, population);
+    private void initializationPhase(EvolutionaryExecutionContext evoContext,
+                                     Population population) {
+        // seeds may be obtained for the previous revision of the problem
+        List<Solution> repairedSeeds = Lists.newArrayList();
+        if (seeds != null) {
+            SolutionRepair repair = new SolutionRepair(evoContext.getProblem());
+            for (Solution seed : seeds) {
+                Solution repaired = repair.repair(seed);
+                if (repaired.getPatterns().size() > 0) {
+                    repairedSeeds.add(repaired);
+                }
             }
         }
 
-        population.sort();
+        if (procedureFactory != null && runExecutor != null) {
+            population.initialize(procedureFactory, repairedSeeds, progressChangeListener);
+        } else {
+            population.initialize(initializationProcedure, repairedSeeds, progressChangeListener);
+        }
     }
 
     public void setProgressChangeListener(EvolutionProgressChangeListener listener) {
@@ -98,16 +244,72 @@ public abstract class EvolutionaryAlgorithm implements Algorithm {
         this.progressChangeListener = null;
     }
 
+    /**
+     * <p>Set solutions used to seed initial population of each subsequent run (warm start), e.g.
+     * solutions of the previous revision of the problem. Seeds are adapted to the problem being
+     * solved (see SolutionRepair) and the rest of the population is filled in with a help of
+     * initialization procedure.</p>
+     *
+     * @param seeds List of solutions or null, if population shouldn't be seeded.
+     */
+    public void setSeedSolutions(List<Solution> seeds) {
+        this.seeds = seeds;
+    }
+
+    /**
+     * <p>Set executor used to produce offspring concurrently, any implementation of
+     * ExecutorService can be used (e.g. fixed thread pool or fork-join pool). Life cycle of the
+     * executor provided isn't managed by algorithm.</p>
+     *
+     * <p>If no executor is set and more than one worker is requested by parameters of the
+     * algorithm, fixed thread pool is created at the beginning of each run and shut down at its
+     * end.</p>
+     *
+     * @param executor Executor used to produce offspring or null.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * <p>Executor which should be used by population to produce offspring within current run.</p>
+     *
+     * @return Executor or null, if offspring should be produced sequentially.
+     */
+    protected ExecutorService getExecutor() {
+        return runExecutor;
+    }
+
+    protected EvolutionaryAlgorithmParameters getAlgorithmParameters() {
+        return parameters;
+    }
+
     protected Algorithm getInitializationProcedure() {
         return initializationProcedure;
     }
 
+    /**
+     * <p>Monitor used to check termination criteria within the last run.</p>
+     *
+     * @return Monitor which holds the reason of termination and time to the best solution or
+     *         null, if algorithm wasn't executed yet.
+     */
+    public TerminationMonitor getTerminationMonitor() {
+        return monitor;
+    }
+
     private SolutionMetadata prepareMetadata() {
         SolutionMetadata metadata = new SolutionMetadata();
         metadata.setDescription("Solution obtained with " + getShortMethodName() + ".");
         metadata.setDate(new Date());
         metadata.setParameters(getParameters());
 
+        if (monitor.getReason() != null) {
+            metadata.setStopReason(monitor.getReason().getName());
+        }
+
+        metadata.setTimeToBest(monitor.getTimeToBest());
+
         return metadata;
     }
 
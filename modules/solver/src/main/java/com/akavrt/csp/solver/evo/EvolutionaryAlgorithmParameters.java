@@ -5,6 +5,8 @@ import com.akavrt.csp.utils.Utils;
 import com.akavrt.csp.xml.XmlUtils;
 import org.jdom2.Element;
 
+import java.math.BigDecimal;
+
 /**
  * User: akavrt
  * Date: 25.04.13
@@ -13,8 +15,22 @@ import org.jdom2.Element;
 public class EvolutionaryAlgorithmParameters extends BaseParameters {
     private static final int DEFAULT_POPULATION_SIZE = 30;
     private static final int DEFAULT_RUN_STEPS = 1000;
+    private static final int DEFAULT_WORKERS = 1;
+    private static final long DEFAULT_SEED = 0;
+    private static final long DEFAULT_TIME_LIMIT = 0;
+    private static final int DEFAULT_STAGNATION_STEPS = 0;
+    private static final double DEFAULT_TARGET_VALUE = Double.NaN;
+    private static final double DEFAULT_LOWER_BOUND = Double.NaN;
+    private static final double DEFAULT_GAP = 0;
     private int populationSize = DEFAULT_POPULATION_SIZE;
     private int runSteps = DEFAULT_RUN_STEPS;
+    private int workers = DEFAULT_WORKERS;
+    private long seed = DEFAULT_SEED;
+    private long timeLimit = DEFAULT_TIME_LIMIT;
+    private int stagnationSteps = DEFAULT_STAGNATION_STEPS;
+    private double targetValue = DEFAULT_TARGET_VALUE;
+    private double lowerBound = DEFAULT_LOWER_BOUND;
+    private double gap = DEFAULT_GAP;
 
     public int getPopulationSize() {
         return populationSize;
@@ -32,6 +48,119 @@ public class EvolutionaryAlgorithmParameters extends BaseParameters {
         this.runSteps = runSteps;
     }
 
+    /**
+     * <p>Number of threads used to produce offspring within one generation. If only one worker is
+     * used, offspring are produced sequentially on the thread executing algorithm.</p>
+     *
+     * @return Number of worker threads.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * <p>Seed used to initialize random number generators employed in the run. Zero value means
+     * that no fixed seed is used and results aren't reproducible.</p>
+     *
+     * @return Seed of the run or zero.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public boolean isSeeded() {
+        return seed != DEFAULT_SEED;
+    }
+
+    /**
+     * <p>Wall-clock time the run is limited to, including initialization of the population. If
+     * context the algorithm is executed within has its own deadline, the earliest one is used.
+     * Zero value means that run isn't limited in time.</p>
+     *
+     * @return Time limit in milliseconds or zero.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * <p>Run is stopped if the best objective value wasn't improved for the given number of
+     * generations. Zero value means that stagnation isn't checked.</p>
+     *
+     * @return Number of generations without improvement or zero.
+     */
+    public int getStagnationSteps() {
+        return stagnationSteps;
+    }
+
+    public void setStagnationSteps(int stagnationSteps) {
+        this.stagnationSteps = stagnationSteps;
+    }
+
+    /**
+     * <p>Run is stopped as soon as the best solution which fulfills all orders reaches the given
+     * objective value (the lower the better). NaN means that no target is set.</p>
+     *
+     * @return Target objective value or NaN.
+     */
+    public double getTargetValue() {
+        return targetValue;
+    }
+
+    public void setTargetValue(double targetValue) {
+        this.targetValue = targetValue;
+    }
+
+    public boolean isTargetValueSet() {
+        return !Double.isNaN(targetValue);
+    }
+
+    /**
+     * <p>Lower bound on the objective value known for the problem being solved (e.g. obtained
+     * from LP relaxation). Used along with allowed gap (see getGap()) to stop the run once the
+     * best solution is proven to be good enough. NaN means that no lower bound is known.</p>
+     *
+     * @return Lower bound on the objective value or NaN.
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public void setLowerBound(double lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    public boolean isLowerBoundSet() {
+        return !Double.isNaN(lowerBound);
+    }
+
+    /**
+     * <p>Relative gap between the best objective value and the lower bound which is considered
+     * to be small enough to stop the run: (best - bound) / |best|. Used only if lower bound is
+     * set, zero value means that run is stopped when the best solution reaches the bound.</p>
+     *
+     * @return Allowed relative gap.
+     */
+    public double getGap() {
+        return gap;
+    }
+
+    public void setGap(double gap) {
+        this.gap = gap;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -54,6 +183,50 @@ public class EvolutionaryAlgorithmParameters extends BaseParameters {
         runStepsElm.setText(Integer.toString(getRunSteps()));
         paramsElm.addContent(runStepsElm);
 
+        // optional number of workers
+        if (getWorkers() != DEFAULT_WORKERS) {
+            Element workersElm = new Element(XmlTags.WORKERS);
+            workersElm.setText(Integer.toString(getWorkers()));
+            paramsElm.addContent(workersElm);
+        }
+
+        // optional seed
+        if (isSeeded()) {
+            Element seedElm = new Element(XmlTags.SEED);
+            seedElm.setText(Long.toString(getSeed()));
+            paramsElm.addContent(seedElm);
+        }
+
+        // optional termination criteria
+        if (getTimeLimit() > 0) {
+            Element timeLimitElm = new Element(XmlTags.TIME_LIMIT);
+            timeLimitElm.setText(Long.toString(getTimeLimit()));
+            paramsElm.addContent(timeLimitElm);
+        }
+
+        if (getStagnationSteps() > 0) {
+            Element stagnationElm = new Element(XmlTags.STAGNATION_STEPS);
+            stagnationElm.setText(Integer.toString(getStagnationSteps()));
+            paramsElm.addContent(stagnationElm);
+        }
+
+        // objective values are saved with full precision, exponent notation isn't parsed back
+        if (isTargetValueSet()) {
+            Element targetElm = new Element(XmlTags.TARGET_VALUE);
+            targetElm.setText(BigDecimal.valueOf(getTargetValue()).toPlainString());
+            paramsElm.addContent(targetElm);
+        }
+
+        if (isLowerBoundSet()) {
+            Element lowerBoundElm = new Element(XmlTags.LOWER_BOUND);
+            lowerBoundElm.setText(BigDecimal.valueOf(getLowerBound()).toPlainString());
+            paramsElm.addContent(lowerBoundElm);
+
+            Element gapElm = new Element(XmlTags.GAP);
+            gapElm.setText(BigDecimal.valueOf(getGap()).toPlainString());
+            paramsElm.addContent(gapElm);
+        }
+
         return paramsElm;
     }
 
@@ -73,6 +246,30 @@ public class EvolutionaryAlgorithmParameters extends BaseParameters {
 
         int runSteps = XmlUtils.getIntegerFromText(rootElm, XmlTags.RUN_STEPS, DEFAULT_RUN_STEPS);
         setRunSteps(runSteps);
+
+        int workers = XmlUtils.getIntegerFromText(rootElm, XmlTags.WORKERS, DEFAULT_WORKERS);
+        setWorkers(workers);
+
+        long seed = XmlUtils.getLongFromText(rootElm, XmlTags.SEED, DEFAULT_SEED);
+        setSeed(seed);
+
+        long timeLimit = XmlUtils.getLongFromText(rootElm, XmlTags.TIME_LIMIT, DEFAULT_TIME_LIMIT);
+        setTimeLimit(timeLimit);
+
+        int stagnationSteps = XmlUtils.getIntegerFromText(rootElm, XmlTags.STAGNATION_STEPS,
+                                                          DEFAULT_STAGNATION_STEPS);
+        setStagnationSteps(stagnationSteps);
+
+        double targetValue = XmlUtils.getDoubleFromText(rootElm, XmlTags.TARGET_VALUE,
+                                                        DEFAULT_TARGET_VALUE);
+        setTargetValue(targetValue);
+
+        double lowerBound = XmlUtils.getDoubleFromText(rootElm, XmlTags.LOWER_BOUND,
+                                                       DEFAULT_LOWER_BOUND);
+        setLowerBound(lowerBound);
+
+        double gap = XmlUtils.getDoubleFromText(rootElm, XmlTags.GAP, DEFAULT_GAP);
+        setGap(gap);
     }
 
     /**
@@ -92,6 +289,13 @@ public class EvolutionaryAlgorithmParameters extends BaseParameters {
         String POPULATION_SIZE = "population-size";
         String RUN_STEPS = "generations";
         String DESCRIPTION = "description";
+        String WORKERS = "workers";
+        String SEED = "seed";
+        String TIME_LIMIT = "time-limit";
+        String STAGNATION_STEPS = "stagnation-generations";
+        String TARGET_VALUE = "target-value";
+        String LOWER_BOUND = "lower-bound";
+        String GAP = "gap";
     }
 
 }
@@ -1,6 +1,7 @@
 package com.akavrt.csp.solver.evo;
 
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
 
 /**
  * <p>Factory provides concrete implementations for all base components of the evolutionary
@@ -29,4 +30,16 @@ public interface EvolutionaryComponentsFactory {
      */
     Algorithm createInitializationProcedure();
 
+    /**
+     * <p>When offspring are produced concurrently, population is initialized concurrently as well
+     * (see ConcurrentInitializer). Each procedure created by the returned factory is executed on
+     * its own thread, so procedures must not share any mutable state (e.g. pattern generator,
+     * which is initialized on every run).</p>
+     *
+     * @return Factory of independent initialization procedures or null if population has to be
+     *         initialized sequentially with the procedure returned by
+     *         createInitializationProcedure().
+     */
+    AlgorithmFactory<? extends Algorithm> createConcurrentInitializationFactory();
+
 }
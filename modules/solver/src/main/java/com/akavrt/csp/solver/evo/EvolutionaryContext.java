@@ -2,17 +2,36 @@ package com.akavrt.csp.solver.evo;
 
 import com.akavrt.csp.core.Problem;
 import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.ExecutionContexts;
+import com.akavrt.csp.solver.TimedExecutionContext;
 
 /**
- * <p>Implementation of the EvolutionaryExecutionContext used by evolutionary algorithms.</p>
+ * <p>Implementation of the EvolutionaryExecutionContext used by evolutionary algorithms. Index of
+ * the problem is compiled on creation, so context is expected to be created once per run.</p>
  *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
-public class EvolutionaryContext implements EvolutionaryExecutionContext {
+public class EvolutionaryContext implements EvolutionaryExecutionContext, TimedExecutionContext {
     private final ExecutionContext parentContext;
+    private final ProblemIndex problemIndex;
+    private final long deadline;
 
     public EvolutionaryContext(ExecutionContext parentContext) {
+        this(parentContext, ExecutionContexts.getDeadline(parentContext));
+    }
+
+    /**
+     * <p>Creates context with its own deadline, which may be tighter than the one set by the
+     * parent context.</p>
+     *
+     * @param parentContext The context algorithm is executed within.
+     * @param deadline      Deadline in milliseconds or NO_DEADLINE.
+     */
+    public EvolutionaryContext(ExecutionContext parentContext, long deadline) {
         this.parentContext = parentContext;
+        this.deadline = deadline;
+
+        problemIndex = new ProblemIndex(parentContext.getProblem());
     }
 
     /**
@@ -20,7 +39,7 @@ public class EvolutionaryContext implements EvolutionaryExecutionContext {
      */
     @Override
     public double getOrderWidth(int index) {
-        return parentContext.getProblem().getOrders().get(index).getWidth();
+        return problemIndex.getOrderWidths()[index];
     }
 
     /**
@@ -28,7 +47,7 @@ public class EvolutionaryContext implements EvolutionaryExecutionContext {
      */
     @Override
     public double getOrderLength(int index) {
-        return parentContext.getProblem().getOrders().get(index).getLength();
+        return problemIndex.getOrderLengths()[index];
     }
 
     /**
@@ -36,7 +55,15 @@ public class EvolutionaryContext implements EvolutionaryExecutionContext {
      */
     @Override
     public int getOrdersSize() {
-        return parentContext.getProblem().getOrders().size();
+        return problemIndex.getOrdersSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProblemIndex getProblemIndex() {
+        return problemIndex;
     }
 
     /**
@@ -54,5 +81,12 @@ public class EvolutionaryContext implements EvolutionaryExecutionContext {
     public boolean isCancelled() {
         return parentContext.isCancelled();
     }
-}
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDeadline() {
+        return deadline;
+    }
+}
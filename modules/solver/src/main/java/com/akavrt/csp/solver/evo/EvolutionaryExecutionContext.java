@@ -11,7 +11,8 @@ import com.akavrt.csp.solver.ExecutionContext;
  * ExecutionContext.getProblem().getOrder(index).getWidth() or
  * ExecutionContext.getProblem().getOrders().size() with
  * EvolutionaryExecutionContext.getOrderWidth(index) and
- * EvolutionaryExecutionContext.getOrdersSize(), respectively.</p>
+ * EvolutionaryExecutionContext.getOrdersSize(), respectively. Sizes of all orders and rolls are
+ * available as plain arrays through ProblemIndex.</p>
  *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
@@ -38,4 +39,12 @@ public interface EvolutionaryExecutionContext extends ExecutionContext {
      * @return Number of orders defined within problem being solved.
      */
     int getOrdersSize();
+
+    /**
+     * <p>Returns index of the problem definition compiled into plain arrays, which should be used
+     * in performance critical code instead of the lists of orders and rolls.</p>
+     *
+     * @return Index of the problem being solved.
+     */
+    ProblemIndex getProblemIndex();
 }
@@ -26,11 +26,23 @@ import java.util.List;
  * patterns in a consistent way. This eliminates the need to deal with unique order ids and makes
  * enumeration of cuts associated with different orders a whole lot easier.</p>
  *
+ * <p>Gene is immutable: the same instance can be shared by a number of chromosomes (see
+ * Chromosome), so array representing cutting pattern mustn't be changed after gene was
+ * created.</p>
+ *
+ * <p>Each gene carries 64-bit fingerprint calculated on creation. Zobrist-style keys are derived
+ * for the roll and for each (order, multiplier) pair by applying 64-bit mixing function, key of the
+ * gene is a combination of these keys. Fingerprint of the chromosome is a sum of fingerprints of
+ * its genes (see Chromosome.getFingerprint()).</p>
+ *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class Gene {
-    private int[] pattern;
-    private Roll roll;
+    private static final long ROLL_SEED = 0x9E3779B97F4A7C15L;
+    private static final long CUT_SEED = 0x632BE59BD9B4E019L;
+    private final int[] pattern;
+    private final Roll roll;
+    private final long fingerprint;
 
     /**
      * <p>Creates an instance of Gene representing cutting pattern with roll attached to it.</p>
@@ -43,6 +55,7 @@ public class Gene {
     public Gene(int[] pattern, Roll roll) {
         this.pattern = pattern;
         this.roll = roll;
+        this.fingerprint = calculateFingerprint(pattern, roll);
     }
 
     /**
@@ -57,6 +70,7 @@ public class Gene {
         }
 
         roll = solutionPattern.getRoll();
+        fingerprint = calculateFingerprint(pattern, roll);
     }
 
     /**
@@ -90,7 +104,7 @@ public class Gene {
     }
 
     /**
-     * <p>Returns array representing cutting pattern.</p>
+     * <p>Returns array representing cutting pattern. Returned array mustn't be modified.</p>
      *
      * @return Pattern represented as an array of integers.
      */
@@ -98,15 +112,6 @@ public class Gene {
         return pattern;
     }
 
-    /**
-     * <p>Sets cutting pattern.</p>
-     *
-     * @param pattern Pattern represented as an array of integers.
-     */
-    public void setPattern(int[] pattern) {
-        this.pattern = pattern;
-    }
-
     /**
      * <p>Pattern will be applied to this roll when cutting plan is executed.</p>
      *
@@ -116,15 +121,6 @@ public class Gene {
         return roll;
     }
 
-    /**
-     * <p>Attach one of the stock rolls to the pattern.</p>
-     *
-     * @param roll The roll being attached to the pattern.
-     */
-    public void setRoll(Roll roll) {
-        this.roll = roll;
-    }
-
     /**
      * <p>Total width of the roll being used to cut orders when pattern is applied to it. Measured
      * in abstract units.</p>
@@ -137,9 +133,11 @@ public class Gene {
             return 0;
         }
 
+        double[] orderWidths = context.getProblemIndex().getOrderWidths();
+
         double totalWidth = 0;
         for (int i = 0; i < pattern.length; i++) {
-            totalWidth += pattern[i] * context.getOrderWidth(i);
+            totalWidth += pattern[i] * orderWidths[i];
         }
 
         return totalWidth;
@@ -234,6 +232,77 @@ public class Gene {
         return Arrays.hashCode(pattern);
     }
 
+    /**
+     * <p>64-bit content-based fingerprint of the gene. Just like hash code, fingerprint takes into
+     * account cutting pattern and textual id of the roll, so genes with the same pattern and rolls
+     * from the same group have the same fingerprint.</p>
+     *
+     * @return Fingerprint of the gene.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    private static long calculateFingerprint(int[] pattern, Roll roll) {
+        long key = 0;
+        if (roll != null) {
+            String id = roll.getId();
+            for (int i = 0; i < id.length(); i++) {
+                key = 31 * key + id.charAt(i);
+            }
+
+            key = mix(key + ROLL_SEED);
+        }
+
+        // each order is met once, so keys of the cuts can be combined with xor
+        for (int i = 0; i < pattern.length; i++) {
+            if (pattern[i] != 0) {
+                key ^= mix((((long) i << 32) | (pattern[i] & 0xFFFFFFFFL)) + CUT_SEED);
+            }
+        }
+
+        // genes can be repeated within chromosome and fingerprints of the genes are summed up,
+        // another round of mixing prevents keys of the cuts from being summed up directly
+        return mix(key);
+    }
+
+    /**
+     * <p>Finalization step of MurmurHash3, each bit of input affects each bit of output.</p>
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+
+    /**
+     * <p>Genes are equal if they define the same cutting pattern and rolls with the same textual
+     * id (or no rolls at all) are attached to them.</p>
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof Gene)) {
+            return false;
+        }
+
+        Gene lhs = (Gene) obj;
+
+        return fingerprint == lhs.fingerprint
+                && Arrays.equals(pattern, lhs.pattern)
+                && Objects.equal(roll == null ? null : roll.getId(),
+                                 lhs.roll == null ? null : lhs.roll.getId());
+    }
+
     /**
      * <p>Calculation of hash code takes into account cutting pattern and textual id of the roll
      * (only if there is any roll attached to a pattern).</p>
@@ -0,0 +1,442 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Plan;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.metrics.Metric;
+import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.ExecutionContexts;
+import com.akavrt.csp.solver.evo.migration.MigrationChannel;
+import com.akavrt.csp.utils.ParameterSet;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Island model runs a number of independent populations (islands) on separate threads and
+ * periodically exchanges the best chromosomes between them. Any evolutionary algorithm (genetic
+ * algorithm or evolution strategy) can be used to evolve islands, separate instance of the
+ * algorithm is created for each island using provided factory.</p>
+ *
+ * <p>Evolution is split into epochs: within an epoch islands are evolved concurrently for a
+ * fixed number of generations (migration interval), then migration is done on the calling thread.
+ * Each island sends copies of its best chromosomes to the islands defined by migration topology,
+ * migrants replace the worst chromosomes of the receiving island. Since migration is synchronous
+ * and each island uses its own seeded random number generator, results are reproducible when
+ * parameters of the island algorithm define fixed seed (generators of the islands are derived
+ * from it).</p>
+ *
+ * <p>Islands are initialized and evolved the same way evolutionary algorithm does it within a
+ * single run: population is seeded with solutions set to the island algorithm, termination
+ * criteria defined by its parameters are checked by each island independently. Evolution stops
+ * when all islands are terminated, or as soon as any island reaches the target objective value
+ * or the gap. Time limit of the island algorithm is applied to the whole model.</p>
+ *
+ * <p>Island models running in different processes can exchange migrants as well if migration
+ * channel is provided. During each migration the best chromosomes of one of the local islands
+ * (chosen in round-robin fashion) are sent through the channel and chromosomes received from
+ * remote islands are delivered to another local island. Remote migration isn't reproducible,
+ * since the moment when migrants arrive depends on the timing of remote processes.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class IslandModel implements Algorithm {
+    private static final Logger LOGGER = LogManager.getLogger(IslandModel.class);
+    private static final String METHOD_NAME = "Island model of evolutionary algorithm";
+    private static final String SHORT_METHOD_NAME = "IM";
+    private final AlgorithmFactory<? extends EvolutionaryAlgorithm> algorithmFactory;
+    private final Comparator<Plan> comparator;
+    private final IslandModelParameters parameters;
+    private MigrationChannel migrationChannel;
+    private List<ParameterSet> islandParameters;
+
+    /**
+     * <p>Creates island model.</p>
+     *
+     * @param algorithmFactory  Factory used to create independent instance of evolutionary
+     *                          algorithm for each island.
+     * @param objectiveFunction Metric used to select the best chromosomes.
+     * @param parameters        Parameters of the island model.
+     */
+    public IslandModel(AlgorithmFactory<? extends EvolutionaryAlgorithm> algorithmFactory,
+                       Metric objectiveFunction, IslandModelParameters parameters) {
+        this.algorithmFactory = algorithmFactory;
+        this.comparator = objectiveFunction.getReverseComparator();
+        this.parameters = parameters;
+    }
+
+    /**
+     * <p>Sets channel used to exchange migrants with island models running in other processes.
+     * Life cycle of the channel isn't managed by island model.</p>
+     *
+     * @param migrationChannel Migration channel or null if only local migration should be used.
+     */
+    public void setMigrationChannel(MigrationChannel migrationChannel) {
+        this.migrationChannel = migrationChannel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name() {
+        return METHOD_NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ParameterSet> getParameters() {
+        List<ParameterSet> params = Lists.newArrayList();
+
+        parameters.setDescription("Parameters of the island model.");
+        params.add(parameters);
+
+        // all islands are evolved by the same algorithm, parameters are taken from one instance
+        if (islandParameters == null) {
+            islandParameters = algorithmFactory.createAlgorithm().getParameters();
+        }
+
+        params.addAll(islandParameters);
+
+        return params;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Solution> execute(ExecutionContext context) {
+        if (context.getProblem() == null || parameters.getIslands() <= 0) {
+            return null;
+        }
+
+        List<EvolutionaryAlgorithm> algorithms = Lists.newArrayList();
+        for (int i = 0; i < parameters.getIslands(); i++) {
+            algorithms.add(algorithmFactory.createAlgorithm());
+        }
+
+        EvolutionaryAlgorithm first = algorithms.get(0);
+        if (islandParameters == null) {
+            islandParameters = first.getParameters();
+        }
+
+        // time limit defined by parameters of the island algorithm applies to the whole model
+        EvolutionaryContext evoContext = first.createContext(context);
+
+        List<Island> islands = Lists.newArrayList();
+        for (int i = 0; i < algorithms.size(); i++) {
+            islands.add(new Island(i, algorithms.get(i), evoContext));
+        }
+
+        EvolutionaryAlgorithmParameters algorithmParameters = first.getAlgorithmParameters();
+
+        Random previous = null;
+        if (algorithmParameters.isSeeded()) {
+            previous = ThreadConfinedRandom.bind(new Random(algorithmParameters.getSeed()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+        try {
+            Random rGen = ThreadConfinedRandom.getInstance();
+            for (Island island : islands) {
+                island.random = new Random(rGen.nextLong());
+            }
+
+            search(islands, executor, rGen);
+        } finally {
+            executor.shutdownNow();
+
+            for (Island island : islands) {
+                island.finish();
+            }
+
+            if (algorithmParameters.isSeeded()) {
+                ThreadConfinedRandom.bind(previous);
+            }
+        }
+
+        // collect content of all islands
+        List<Chromosome> chromosomes = Lists.newArrayList();
+        for (Island island : islands) {
+            chromosomes.addAll(island.population.getChromosomes());
+        }
+
+        Collections.sort(chromosomes, comparator);
+
+        List<Solution> solutions = Lists.newArrayList();
+        for (Chromosome chromosome : chromosomes) {
+            Solution solution = chromosome.convert();
+            solution.setMetadata(prepareMetadata());
+
+            solutions.add(solution);
+        }
+
+        return solutions;
+    }
+
+    private void search(List<Island> islands, ExecutorService executor, Random rGen) {
+        // initialization of islands is done concurrently as well
+        invokeAll(islands, executor, 0);
+
+        int epochLength = parameters.getMigrationInterval() > 0
+                ? parameters.getMigrationInterval()
+                : Integer.MAX_VALUE;
+
+        int epoch = 0;
+        while (!isFinished(islands)) {
+            if (epoch > 0) {
+                migrate(islands, rGen);
+
+                if (migrationChannel != null) {
+                    migrateRemotely(islands, epoch - 1);
+                }
+            }
+
+            invokeAll(islands, executor, epochLength);
+            epoch++;
+        }
+
+        LOGGER.debug("Island model stopped after {} epochs.", epoch);
+    }
+
+    /**
+     * <p>Model is stopped when none of the islands can be evolved any further, or as soon as any
+     * island reaches the target objective value or the gap (quality of the best chromosome found
+     * by the model is what matters).</p>
+     */
+    private boolean isFinished(List<Island> islands) {
+        boolean isFinished = true;
+        for (Island island : islands) {
+            TerminationReason reason = island.checkTermination();
+            if (reason == TerminationReason.TARGET || reason == TerminationReason.GAP) {
+                return true;
+            }
+
+            if (reason == null) {
+                isFinished = false;
+            }
+        }
+
+        return isFinished;
+    }
+
+    private void invokeAll(List<Island> islands, ExecutorService executor, int generations) {
+        List<Callable<Void>> tasks = Lists.newArrayList();
+        for (Island island : islands) {
+            tasks.add(island.createTask(generations));
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private void migrate(List<Island> islands, Random rGen) {
+        // migrants are selected before any island receives new chromosomes
+        List<List<Chromosome>> migrants = Lists.newArrayList();
+        for (Island island : islands) {
+            migrants.add(island.selectMigrants(parameters.getMigrationSize()));
+        }
+
+        int size = islands.size();
+        for (int i = 0; i < size; i++) {
+            switch (parameters.getTopology()) {
+                case RING:
+                    islands.get((i + 1) % size).immigrate(migrants.get(i));
+                    break;
+
+                case FULLY_CONNECTED:
+                    for (int j = 0; j < size; j++) {
+                        if (j != i) {
+                            islands.get(j).immigrate(migrants.get(i));
+                        }
+                    }
+                    break;
+
+                case RANDOM:
+                    if (size > 1) {
+                        // pick any island except the sending one
+                        int j = rGen.nextInt(size - 1);
+                        j = j >= i ? j + 1 : j;
+                        islands.get(j).immigrate(migrants.get(i));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void migrateRemotely(List<Island> islands, int epoch) {
+        int size = islands.size();
+
+        Island sender = islands.get(epoch % size);
+        migrationChannel.emigrate(sender.selectMigrants(parameters.getMigrationSize()));
+
+        Island receiver = islands.get((epoch + 1) % size);
+        List<Chromosome> immigrants = receiver.adopt(migrationChannel.drainImmigrants());
+        if (!immigrants.isEmpty()) {
+            // a number of batches may be received since the last migration,
+            // only the best ones are accepted
+            Collections.sort(immigrants, comparator);
+            int accepted = Math.min(parameters.getMigrationSize(), immigrants.size());
+            immigrants = immigrants.subList(0, accepted);
+
+            receiver.immigrate(immigrants);
+        }
+    }
+
+    private SolutionMetadata prepareMetadata() {
+        SolutionMetadata metadata = new SolutionMetadata();
+        metadata.setDescription("Solution obtained with " + SHORT_METHOD_NAME + ".");
+        metadata.setDate(new Date());
+        metadata.setParameters(getParameters());
+
+        return metadata;
+    }
+
+    /**
+     * <p>Island is evolved by a separate instance of evolutionary algorithm, run is split into
+     * steps (see EvolutionaryAlgorithm.startRun()). Population is touched only by tasks running on
+     * a single thread at a time, or by the calling thread between epochs.</p>
+     */
+    private class Island {
+        private final int index;
+        private final EvolutionaryAlgorithm algorithm;
+        private final EvolutionaryExecutionContext evoContext;
+        private Population population;
+        private Random random;
+
+        private Island(int index, EvolutionaryAlgorithm algorithm,
+                       EvolutionaryExecutionContext evoContext) {
+            this.index = index;
+            this.algorithm = algorithm;
+            this.evoContext = evoContext;
+        }
+
+        /**
+         * <p>Creates task which evolves island for a given number of generations or initializes
+         * island if zero is provided.</p>
+         */
+        private Callable<Void> createTask(final int generations) {
+            return new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Random previous = ThreadConfinedRandom.bind(random);
+                    try {
+                        if (generations == 0) {
+                            population = algorithm.startRun(evoContext);
+                            LOGGER.debug("Island #{} is initialized.", index);
+                        } else {
+                            int i = 0;
+                            while (i < generations && algorithm.evolve(evoContext, population)) {
+                                i++;
+                            }
+                        }
+                    } finally {
+                        ThreadConfinedRandom.bind(previous);
+                    }
+
+                    return null;
+                }
+            };
+        }
+
+        private TerminationReason checkTermination() {
+            TerminationMonitor monitor = algorithm.getTerminationMonitor();
+            monitor.isTerminated(evoContext, population);
+
+            return monitor.getReason();
+        }
+
+        private void immigrate(List<Chromosome> immigrants) {
+            population.immigrate(immigrants);
+
+            // immigrants may improve the best chromosome of the island
+            algorithm.getTerminationMonitor().update(population);
+        }
+
+        /**
+         * <p>Rebinds chromosomes received through migration channel to the context of the island:
+         * channel decodes them within its own context, which isn't the one built for the current
+         * run. Rolls are looked up in the problem of the island, chromosome referencing unknown
+         * roll is dropped.</p>
+         */
+        private List<Chromosome> adopt(List<Chromosome> immigrants) {
+            ProblemIndex index = evoContext.getProblemIndex();
+            List<Roll> rolls = evoContext.getProblem().getRolls();
+
+            List<Chromosome> adopted = Lists.newArrayList();
+            for (Chromosome immigrant : immigrants) {
+                if (immigrant.getContext() == evoContext) {
+                    adopted.add(immigrant);
+                    continue;
+                }
+
+                Chromosome chromosome = new Chromosome(evoContext);
+                for (Gene gene : immigrant.getGenes()) {
+                    Roll roll = gene.getRoll();
+                    if (roll != null) {
+                        int rollIndex = index.getRollIndex(roll);
+                        if (rollIndex < 0) {
+                            chromosome = null;
+                            break;
+                        }
+
+                        roll = rolls.get(rollIndex);
+                    }
+
+                    chromosome.addGene(new Gene(gene.getPattern(), roll));
+                }
+
+                if (chromosome != null) {
+                    adopted.add(chromosome);
+                }
+            }
+
+            return adopted;
+        }
+
+        private void finish() {
+            algorithm.finishRun();
+        }
+
+        private List<Chromosome> selectMigrants(int migrationSize) {
+            population.sort();
+
+            List<Chromosome> chromosomes = population.getChromosomes();
+            int size = Math.min(migrationSize, chromosomes.size());
+
+            List<Chromosome> migrants = Lists.newArrayList();
+            for (int i = 0; i < size; i++) {
+                migrants.add(new Chromosome(chromosomes.get(i)));
+            }
+
+            return migrants;
+        }
+    }
+
+}
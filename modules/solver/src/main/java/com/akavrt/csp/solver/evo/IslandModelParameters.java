@@ -0,0 +1,142 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.utils.BaseParameters;
+import com.akavrt.csp.utils.Utils;
+import com.akavrt.csp.xml.XmlUtils;
+import org.jdom2.Element;
+
+/**
+ * <p>Parameters of the island model: number of islands (populations evolving independently on
+ * separate threads), the way islands are connected with each other and the scheme of periodic
+ * exchange of the best chromosomes between islands.</p>
+ *
+ * <p>An instance of this class can be saved to XML and extracted from it using methods defined in
+ * XmlCompatible interface.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class IslandModelParameters extends BaseParameters {
+    private static final int DEFAULT_ISLANDS = 4;
+    private static final int DEFAULT_MIGRATION_SIZE = 2;
+    private static final int DEFAULT_MIGRATION_INTERVAL = 50;
+    private static final MigrationTopology DEFAULT_TOPOLOGY = MigrationTopology.RING;
+    private int islands = DEFAULT_ISLANDS;
+    private int migrationSize = DEFAULT_MIGRATION_SIZE;
+    private int migrationInterval = DEFAULT_MIGRATION_INTERVAL;
+    private MigrationTopology topology = DEFAULT_TOPOLOGY;
+
+    public int getIslands() {
+        return islands;
+    }
+
+    public void setIslands(int islands) {
+        this.islands = islands;
+    }
+
+    /**
+     * <p>Number of the best chromosomes sent by each island on migration.</p>
+     */
+    public int getMigrationSize() {
+        return migrationSize;
+    }
+
+    public void setMigrationSize(int migrationSize) {
+        this.migrationSize = migrationSize;
+    }
+
+    /**
+     * <p>Number of generations between two subsequent migrations.</p>
+     */
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    public void setMigrationInterval(int migrationInterval) {
+        this.migrationInterval = migrationInterval;
+    }
+
+    public MigrationTopology getTopology() {
+        return topology;
+    }
+
+    public void setTopology(MigrationTopology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Element save() {
+        Element paramsElm = new Element(getRootElementName());
+
+        // optional description
+        if (!Utils.isEmpty(getDescription())) {
+            Element descriptionElm = new Element(XmlTags.DESCRIPTION);
+            descriptionElm.setText(getDescription());
+            paramsElm.addContent(descriptionElm);
+        }
+
+        Element islandsElm = new Element(XmlTags.ISLANDS);
+        islandsElm.setText(Integer.toString(getIslands()));
+        paramsElm.addContent(islandsElm);
+
+        Element migrationSizeElm = new Element(XmlTags.MIGRATION_SIZE);
+        migrationSizeElm.setText(Integer.toString(getMigrationSize()));
+        paramsElm.addContent(migrationSizeElm);
+
+        Element migrationIntervalElm = new Element(XmlTags.MIGRATION_INTERVAL);
+        migrationIntervalElm.setText(Integer.toString(getMigrationInterval()));
+        paramsElm.addContent(migrationIntervalElm);
+
+        Element topologyElm = new Element(XmlTags.TOPOLOGY);
+        topologyElm.setText(getTopology().getName());
+        paramsElm.addContent(topologyElm);
+
+        return paramsElm;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void load(Element rootElm) {
+        String description = rootElm.getChildText(XmlTags.DESCRIPTION);
+        if (!Utils.isEmpty(description)) {
+            setDescription(description);
+        }
+
+        int islands = XmlUtils.getIntegerFromText(rootElm, XmlTags.ISLANDS, DEFAULT_ISLANDS);
+        setIslands(islands);
+
+        int migrationSize = XmlUtils.getIntegerFromText(rootElm, XmlTags.MIGRATION_SIZE,
+                                                        DEFAULT_MIGRATION_SIZE);
+        setMigrationSize(migrationSize);
+
+        int migrationInterval = XmlUtils.getIntegerFromText(rootElm, XmlTags.MIGRATION_INTERVAL,
+                                                            DEFAULT_MIGRATION_INTERVAL);
+        setMigrationInterval(migrationInterval);
+
+        MigrationTopology topology = MigrationTopology.fromName(
+                rootElm.getChildText(XmlTags.TOPOLOGY));
+        setTopology(topology != null ? topology : DEFAULT_TOPOLOGY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getRootElementName() {
+        return XmlTags.ISLAND_MODEL;
+    }
+
+    private interface XmlTags {
+        String ISLAND_MODEL = "island-model";
+        String ISLANDS = "islands";
+        String MIGRATION_SIZE = "migration-size";
+        String MIGRATION_INTERVAL = "migration-interval";
+        String TOPOLOGY = "topology";
+        String DESCRIPTION = "description";
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.akavrt.csp.solver.evo;
+
+/**
+ * <p>Defines which islands receive migrants sent by each island of the island model.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public enum MigrationTopology {
+    /**
+     * <p>Islands are arranged in a ring, each island sends migrants to the next one.</p>
+     */
+    RING("ring"),
+    /**
+     * <p>Each island sends migrants to all other islands.</p>
+     */
+    FULLY_CONNECTED("fully-connected"),
+    /**
+     * <p>Each island sends migrants to the randomly picked island, new destination is picked on
+     * every migration.</p>
+     */
+    RANDOM("random");
+    private final String name;
+
+    MigrationTopology(String name) {
+        this.name = name;
+    }
+
+    /**
+     * <p>Name of the topology used in XML export and import.</p>
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <p>Finds topology by its name.</p>
+     *
+     * @param name Name of the topology.
+     * @return Topology with the specified name or null, if nothing was found.
+     */
+    public static MigrationTopology fromName(String name) {
+        for (MigrationTopology topology : values()) {
+            if (topology.getName().equalsIgnoreCase(name)) {
+                return topology;
+            }
+        }
+
+        return null;
+    }
+}
@@ -2,6 +2,7 @@ package com.akavrt.csp.solver.evo;
 
 import com.akavrt.csp.core.Solution;
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
 
 import java.util.List;
 
@@ -56,6 +57,35 @@ public interface Population {
      */
     void initialize(Algorithm initializationProcedure, EvolutionProgressChangeListener listener);
 
+    /**
+     * <p>Fills in population with the provided seeds first and then fills in the rest of the
+     * population with chromosomes obtained with a help of auxiliary algorithm, resets age counter
+     * to zero. Seeds are expected to be solutions of the problem being solved (see
+     * SolutionRepair), duplicated seeds are ignored.</p>
+     *
+     * @param initializationProcedure Algorithm used to construct solutions. Conversion to
+     *                                chromosomes is handled by the population itself.
+     * @param seeds                   Solutions used to seed population.
+     * @param listener                An optional listener could be attached to the population to
+     *                                get feedback about progress of the initialization phase.
+     */
+    void initialize(Algorithm initializationProcedure, List<Solution> seeds,
+                    EvolutionProgressChangeListener listener);
+
+    /**
+     * <p>Same as initialize(Algorithm, List, EvolutionProgressChangeListener), but instances of
+     * the auxiliary algorithm are created on demand. Population is free to use a number of
+     * instances concurrently.</p>
+     *
+     * @param procedureFactory Factory used to create instances of the algorithm used to construct
+     *                         solutions.
+     * @param seeds            Solutions used to seed population.
+     * @param listener         An optional listener could be attached to the population to get
+     *                         feedback about progress of the initialization phase.
+     */
+    void initialize(AlgorithmFactory<? extends Algorithm> procedureFactory, List<Solution> seeds,
+                    EvolutionProgressChangeListener listener);
+
     /**
      * <p>Implements generational step used to produce next generation of chromosomes.</p>
      *
@@ -63,6 +93,15 @@ public interface Population {
      */
     void generation(EvolutionaryOperator... operators);
 
+    /**
+     * <p>Accepts chromosomes migrated from another population (used by island model). Migrants
+     * replace the worst chromosomes of the population, migrants which are already present in the
+     * population are ignored.</p>
+     *
+     * @param migrants List of chromosomes to be accepted.
+     */
+    void immigrate(List<Chromosome> migrants);
+
     /**
      * <p>Converts each chromosome stored within population into corresponding instance of Solution
      * and returns them in a list.</p>
@@ -0,0 +1,275 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Read-only view of the problem definition compiled into plain arrays. Sizes of orders and
+ * rolls are accessed in the innermost loops of the evolutionary algorithms (evaluation of pattern
+ * width, production metrics, demand calculation), so index is built once per run and then shared
+ * by all chromosomes and operators through EvolutionaryExecutionContext.</p>
+ *
+ * <p>Positions of the elements in arrays are the same as positions of the corresponding orders and
+ * rolls in the lists provided by problem definition. Arrays returned by getters are shared and
+ * mustn't be modified.</p>
+ *
+ * <p>Rolls are additionally indexed by width: positions of the rolls sorted in ascending order of
+ * width allow to find rolls within the specified range of widths in O(log n + k) time, where k is
+ * the number of rolls found. Availability of the rolls for a particular chromosome is expressed
+ * by the set of used rolls (see Chromosome.getUsedRolls()).</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ProblemIndex {
+    private final Problem problem;
+    private final double[] orderWidths;
+    private final double[] orderLengths;
+    private final double[] rollWidths;
+    private final double[] rollLengths;
+    private final double[] rollAreas;
+    private final int[] rollsByWidth;
+    private final double[] sortedRollWidths;
+    private final Map<Integer, Integer> rollIndices;
+    private final Map<String, int[]> groupIndices;
+
+    /**
+     * <p>Compiles index of the problem definition.</p>
+     *
+     * @param problem Problem definition.
+     */
+    public ProblemIndex(Problem problem) {
+        this.problem = problem;
+
+        List<Order> orders = problem.getOrders();
+        orderWidths = new double[orders.size()];
+        orderLengths = new double[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            orderWidths[i] = orders.get(i).getWidth();
+            orderLengths[i] = orders.get(i).getLength();
+        }
+
+        List<Roll> rolls = problem.getRolls();
+        rollWidths = new double[rolls.size()];
+        rollLengths = new double[rolls.size()];
+        rollAreas = new double[rolls.size()];
+        rollIndices = Maps.newHashMapWithExpectedSize(rolls.size());
+
+        Map<String, List<Integer>> groups = Maps.newLinkedHashMap();
+        for (int i = 0; i < rolls.size(); i++) {
+            Roll roll = rolls.get(i);
+            rollWidths[i] = roll.getWidth();
+            rollLengths[i] = roll.getLength();
+            rollAreas[i] = roll.getArea();
+
+            if (!rollIndices.containsKey(roll.getInternalId())) {
+                rollIndices.put(roll.getInternalId(), i);
+            }
+
+            List<Integer> group = groups.get(roll.getId());
+            if (group == null) {
+                group = Lists.newArrayList();
+                groups.put(roll.getId(), group);
+            }
+
+            group.add(i);
+        }
+
+        groupIndices = Maps.newHashMapWithExpectedSize(groups.size());
+        for (Map.Entry<String, List<Integer>> entry : groups.entrySet()) {
+            groupIndices.put(entry.getKey(), Ints.toArray(entry.getValue()));
+        }
+
+        // stable sort, rolls of the same width keep their relative order
+        List<Integer> sorted = Lists.newArrayList();
+        for (int i = 0; i < rolls.size(); i++) {
+            sorted.add(i);
+        }
+
+        Collections.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                return Double.compare(rollWidths[lhs], rollWidths[rhs]);
+            }
+        });
+
+        rollsByWidth = Ints.toArray(sorted);
+        sortedRollWidths = new double[rollsByWidth.length];
+        for (int i = 0; i < rollsByWidth.length; i++) {
+            sortedRollWidths[i] = rollWidths[rollsByWidth[i]];
+        }
+    }
+
+    /**
+     * <p>Returns problem definition the index was compiled for.</p>
+     *
+     * @return Problem definition.
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * <p>Returns the number of orders specified in the problem definition.</p>
+     *
+     * @return Number of orders.
+     */
+    public int getOrdersSize() {
+        return orderWidths.length;
+    }
+
+    /**
+     * <p>Returns widths of the orders indexed by position of the order in the list.</p>
+     *
+     * @return Shared array of widths, measured in abstract units.
+     */
+    public double[] getOrderWidths() {
+        return orderWidths;
+    }
+
+    /**
+     * <p>Returns lengths of the orders indexed by position of the order in the list.</p>
+     *
+     * @return Shared array of lengths, measured in abstract units.
+     */
+    public double[] getOrderLengths() {
+        return orderLengths;
+    }
+
+    /**
+     * <p>Returns the number of rolls specified in the problem definition.</p>
+     *
+     * @return Number of rolls.
+     */
+    public int getRollsSize() {
+        return rollWidths.length;
+    }
+
+    /**
+     * <p>Returns widths of the rolls indexed by position of the roll in the list.</p>
+     *
+     * @return Shared array of widths, measured in abstract units.
+     */
+    public double[] getRollWidths() {
+        return rollWidths;
+    }
+
+    /**
+     * <p>Returns lengths of the rolls indexed by position of the roll in the list.</p>
+     *
+     * @return Shared array of lengths, measured in abstract units.
+     */
+    public double[] getRollLengths() {
+        return rollLengths;
+    }
+
+    /**
+     * <p>Returns areas of the rolls indexed by position of the roll in the list.</p>
+     *
+     * @return Shared array of areas, measured in abstract square units.
+     */
+    public double[] getRollAreas() {
+        return rollAreas;
+    }
+
+    /**
+     * <p>Returns positions of the rolls in the list of rolls sorted in ascending order of width.
+     * Rolls of the same width are sorted by position.</p>
+     *
+     * @return Shared array of positions.
+     */
+    public int[] getRollsByWidth() {
+        return rollsByWidth;
+    }
+
+    /**
+     * <p>Returns the first rank in the width order (see getRollsByWidth()) at which width of the
+     * roll is equal to or greater than the specified one.</p>
+     *
+     * @param width Width of the roll, measured in abstract units.
+     * @return Rank of the narrowest roll which isn't narrower than specified width or the number of
+     *         rolls if there is no such roll.
+     */
+    public int getWidthRank(double width) {
+        int low = 0;
+        int high = sortedRollWidths.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedRollWidths[middle] < width) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * <p>Finds the narrowest available roll which isn't narrower than specified width, i.e. roll
+     * with minimal trim for the pattern of the specified width.</p>
+     *
+     * @param width     Minimal width of the roll, measured in abstract units.
+     * @param usedRolls Set of positions of the rolls which aren't available.
+     * @return Position of the roll in the list of rolls or -1 if there is no such roll.
+     */
+    public int findNarrowestRoll(double width, BitSet usedRolls) {
+        for (int rank = getWidthRank(width); rank < rollsByWidth.length; rank++) {
+            if (!usedRolls.get(rollsByWidth[rank])) {
+                return rollsByWidth[rank];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * <p>Returns position of the roll with specified internal id in the list of rolls.</p>
+     *
+     * @param internalId Internal identifier of the roll, see Roll.getInternalId().
+     * @return Position of the roll or -1 if there is no such roll in the problem.
+     */
+    public int getRollIndex(int internalId) {
+        Integer index = rollIndices.get(internalId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * <p>Returns position of the roll in the list of rolls. Dense index assigned to the roll is
+     * used if it's valid for the problem, so in most cases lookup doesn't involve hashing.</p>
+     *
+     * @param roll The roll.
+     * @return Position of the roll or -1 if there is no such roll in the problem.
+     */
+    public int getRollIndex(Roll roll) {
+        int index = roll.getIndex();
+        if (index >= 0 && index < rollWidths.length && problem.getRolls().get(index) == roll) {
+            return index;
+        }
+
+        // roll is shared with another problem or doesn't belong to this one
+        return getRollIndex(roll.getInternalId());
+    }
+
+    /**
+     * <p>Returns positions of all rolls with specified id (i.e. rolls from the same group, see
+     * Roll) in the list of rolls.</p>
+     *
+     * @param id Identifier of the group of rolls.
+     * @return Shared array of positions, empty array if there is no such group in the problem.
+     */
+    public int[] getRollIndices(String id) {
+        int[] indices = groupIndices.get(id);
+        return indices == null ? new int[0] : indices;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.metrics.Metric;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.ExecutionContexts;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * <p>Factory methods for the common termination criteria. Criteria can be combined in any order
+ * and any of them can be left out, create() assembles the ones configured through
+ * EvolutionaryAlgorithmParameters.</p>
+ *
+ * <p>Objective values are expected to be minimized. Target value and lower bound are checked only
+ * for chromosomes which fulfill all orders: objective functions such as ConstraintAwareMetric
+ * don't account for underproduction in the value returned by evaluate().</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public final class TerminationCriteria {
+    private static final double MIN_GAP_DENOMINATOR = 1e-9;
+
+    private TerminationCriteria() {
+    }
+
+    /**
+     * <p>Creates criteria defined by parameters: deadline of the context (which accounts for the
+     * time limit), target value, gap to the lower bound, number of generations and stagnation.
+     * Optional criteria are included only if set.</p>
+     *
+     * @param parameters        Parameters of the algorithm.
+     * @param objectiveFunction Objective function used to evaluate the best chromosome.
+     * @return List of criteria in the order they have to be checked.
+     */
+    public static List<TerminationCriterion> create(EvolutionaryAlgorithmParameters parameters,
+                                                    Metric objectiveFunction) {
+        List<TerminationCriterion> criteria = Lists.newArrayList();
+        criteria.add(deadline());
+
+        if (parameters.isTargetValueSet()) {
+            criteria.add(target(objectiveFunction, parameters.getTargetValue()));
+        }
+
+        if (parameters.isLowerBoundSet()) {
+            criteria.add(gap(objectiveFunction, parameters.getLowerBound(), parameters.getGap()));
+        }
+
+        criteria.add(generations(parameters.getRunSteps()));
+
+        if (parameters.getStagnationSteps() > 0) {
+            criteria.add(stagnation(parameters.getStagnationSteps()));
+        }
+
+        return criteria;
+    }
+
+    /**
+     * <p>Run is stopped when deadline of the context is passed.</p>
+     */
+    public static TerminationCriterion deadline() {
+        return new TerminationCriterion() {
+            @Override
+            public TerminationReason check(ExecutionContext context, Population population,
+                                           TerminationMonitor monitor) {
+                return ExecutionContexts.isDeadlinePassed(context)
+                        ? TerminationReason.TIME_LIMIT
+                        : null;
+            }
+        };
+    }
+
+    /**
+     * <p>Run is stopped when population reaches the given age.</p>
+     */
+    public static TerminationCriterion generations(final int runSteps) {
+        return new TerminationCriterion() {
+            @Override
+            public TerminationReason check(ExecutionContext context, Population population,
+                                           TerminationMonitor monitor) {
+                return population.getAge() >= runSteps ? TerminationReason.GENERATIONS : null;
+            }
+        };
+    }
+
+    /**
+     * <p>Run is stopped when the best objective value wasn't improved for the given number of
+     * generations.</p>
+     */
+    public static TerminationCriterion stagnation(final int stagnationSteps) {
+        return new TerminationCriterion() {
+            @Override
+            public TerminationReason check(ExecutionContext context, Population population,
+                                           TerminationMonitor monitor) {
+                return population.getAge() - monitor.getBestAge() >= stagnationSteps
+                        ? TerminationReason.STAGNATION
+                        : null;
+            }
+        };
+    }
+
+    /**
+     * <p>Run is stopped when the best objective value reaches the target one.</p>
+     */
+    public static TerminationCriterion target(final Metric objectiveFunction,
+                                              final double targetValue) {
+        return new TerminationCriterion() {
+            @Override
+            public TerminationReason check(ExecutionContext context, Population population,
+                                           TerminationMonitor monitor) {
+                Chromosome best = getFeasibleBest(monitor);
+
+                return best != null && objectiveFunction.evaluate(best) <= targetValue
+                        ? TerminationReason.TARGET
+                        : null;
+            }
+        };
+    }
+
+    /**
+     * <p>Run is stopped when the gap between the best objective value and the lower bound is
+     * closed, see getGap().</p>
+     */
+    public static TerminationCriterion gap(final Metric objectiveFunction,
+                                           final double lowerBound, final double gap) {
+        return new TerminationCriterion() {
+            @Override
+            public TerminationReason check(ExecutionContext context, Population population,
+                                           TerminationMonitor monitor) {
+                Chromosome best = getFeasibleBest(monitor);
+
+                return best != null && getGap(objectiveFunction.evaluate(best), lowerBound) <= gap
+                        ? TerminationReason.GAP
+                        : null;
+            }
+        };
+    }
+
+    /**
+     * <p>Relative gap between objective value and its lower bound. When objective value is close
+     * to zero relative gap is undefined, absolute difference is used instead.</p>
+     *
+     * @param value      Objective value.
+     * @param lowerBound Lower bound of the objective value.
+     * @return Non-negative gap.
+     */
+    public static double getGap(double value, double lowerBound) {
+        if (value <= lowerBound) {
+            return 0;
+        }
+
+        double denominator = Math.abs(value);
+        if (denominator < MIN_GAP_DENOMINATOR) {
+            return value - lowerBound;
+        }
+
+        return (value - lowerBound) / denominator;
+    }
+
+    private static Chromosome getFeasibleBest(TerminationMonitor monitor) {
+        Chromosome best = monitor.getBest();
+
+        return best != null && best.getMetricProvider().getAverageUnderProductionRatio() == 0
+                ? best
+                : null;
+    }
+
+}
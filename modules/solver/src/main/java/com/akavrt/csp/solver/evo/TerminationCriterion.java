@@ -0,0 +1,24 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.solver.ExecutionContext;
+
+/**
+ * <p>Single condition which stops the run of the evolutionary algorithm. Criteria are checked by
+ * TerminationMonitor after each generation in the order they were provided, the first one
+ * satisfied defines the reason of termination. See TerminationCriteria for the criteria
+ * configurable through EvolutionaryAlgorithmParameters.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public interface TerminationCriterion {
+    /**
+     * <p>Checks whether run have to be stopped.</p>
+     *
+     * @param context    The context algorithm is executed within.
+     * @param population Current state of the population.
+     * @param monitor    Monitor which keeps track of the best chromosome found so far.
+     * @return Reason of termination or null, if run may be continued.
+     */
+    TerminationReason check(ExecutionContext context, Population population,
+                            TerminationMonitor monitor);
+}
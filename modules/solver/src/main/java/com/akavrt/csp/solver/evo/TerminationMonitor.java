@@ -0,0 +1,142 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.metrics.Metric;
+import com.akavrt.csp.solver.ExecutionContext;
+
+import java.util.List;
+
+/**
+ * <p>Keeps track of the best chromosome found within the run of the evolutionary algorithm and
+ * decides when the run have to be stopped. Cancellation of the run is always checked first,
+ * other criteria are checked in the order they were provided (see TerminationCriterion). By
+ * default criteria are configured through EvolutionaryAlgorithmParameters, see
+ * TerminationCriteria.create().</p>
+ *
+ * <p>Single monitor is created for each run.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class TerminationMonitor {
+    private final List<TerminationCriterion> criteria;
+    private final Metric objectiveFunction;
+    private final long startTime;
+    private Chromosome best;
+    private int bestAge;
+    private long timeToBest = SolutionMetadata.UNKNOWN_TIME;
+    private TerminationReason reason;
+
+    /**
+     * <p>Creates monitor for the run which started at the specified moment.</p>
+     *
+     * @param parameters        Parameters of the algorithm defining termination criteria.
+     * @param objectiveFunction Objective function used to compare chromosomes.
+     * @param startTime         Wall-clock time in milliseconds the run started at.
+     */
+    public TerminationMonitor(EvolutionaryAlgorithmParameters parameters,
+                              Metric objectiveFunction, long startTime) {
+        this(TerminationCriteria.create(parameters, objectiveFunction), objectiveFunction,
+             startTime);
+    }
+
+    /**
+     * <p>Creates monitor with custom set of termination criteria.</p>
+     *
+     * @param criteria          Criteria checked in the given order.
+     * @param objectiveFunction Objective function used to compare chromosomes.
+     * @param startTime         Wall-clock time in milliseconds the run started at.
+     */
+    public TerminationMonitor(List<TerminationCriterion> criteria, Metric objectiveFunction,
+                              long startTime) {
+        this.criteria = criteria;
+        this.objectiveFunction = objectiveFunction;
+        this.startTime = startTime;
+    }
+
+    /**
+     * <p>Looks for the best chromosome of the population, should be called after each
+     * generation.</p>
+     *
+     * @param population Current state of the population.
+     * @return true if the best objective value was improved.
+     */
+    public boolean update(Population population) {
+        Chromosome candidate = null;
+        List<Chromosome> chromosomes = population.getChromosomes();
+        for (Chromosome chromosome : chromosomes) {
+            if (candidate == null || objectiveFunction.compare(chromosome, candidate) > 0) {
+                candidate = chromosome;
+            }
+        }
+
+        if (candidate == null || best != null && objectiveFunction.compare(candidate, best) <= 0) {
+            return false;
+        }
+
+        // copy shares chain of genes with the original one and isn't affected by its changes
+        best = new Chromosome(candidate);
+        bestAge = population.getAge();
+        timeToBest = System.currentTimeMillis() - startTime;
+
+        return true;
+    }
+
+    /**
+     * <p>Checks all termination criteria, reason of termination is kept if run have to be
+     * stopped.</p>
+     *
+     * @param context    The context algorithm is executed within.
+     * @param population Current state of the population.
+     * @return true if run have to be stopped.
+     */
+    public boolean isTerminated(ExecutionContext context, Population population) {
+        reason = check(context, population);
+
+        return reason != null;
+    }
+
+    private TerminationReason check(ExecutionContext context, Population population) {
+        if (context.isCancelled()) {
+            return TerminationReason.CANCELLED;
+        }
+
+        for (TerminationCriterion criterion : criteria) {
+            TerminationReason criterionReason = criterion.check(context, population, this);
+            if (criterionReason != null) {
+                return criterionReason;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * <p>Copy of the best chromosome found so far or null, if population is empty.</p>
+     */
+    public Chromosome getBest() {
+        return best;
+    }
+
+    /**
+     * <p>Age of the population at the moment when the best chromosome was found.</p>
+     */
+    public int getBestAge() {
+        return bestAge;
+    }
+
+    /**
+     * <p>Time in milliseconds elapsed from the start of the run to the moment when the best
+     * chromosome was found or SolutionMetadata.UNKNOWN_TIME.</p>
+     */
+    public long getTimeToBest() {
+        return timeToBest;
+    }
+
+    /**
+     * <p>Reason why the run was stopped or null, if termination criteria aren't satisfied yet.</p>
+     */
+    public TerminationReason getReason() {
+        return reason;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.akavrt.csp.solver.evo;
+
+/**
+ * <p>Defines why the run of the evolutionary algorithm was stopped. Name of the reason is stored
+ * in metadata of each solution found (see SolutionMetadata.getStopReason()).</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public enum TerminationReason {
+    /**
+     * <p>Number of generations defined by parameters was reached.</p>
+     */
+    GENERATIONS("generations"),
+    /**
+     * <p>Deadline set by context or time limit defined by parameters was reached.</p>
+     */
+    TIME_LIMIT("time-limit"),
+    /**
+     * <p>Best objective value wasn't improved for the number of generations defined by
+     * parameters.</p>
+     */
+    STAGNATION("stagnation"),
+    /**
+     * <p>Best objective value reached the target defined by parameters.</p>
+     */
+    TARGET("target"),
+    /**
+     * <p>Gap between the best objective value and the lower bound defined by parameters was
+     * closed.</p>
+     */
+    GAP("gap"),
+    /**
+     * <p>Run was cancelled by the solver.</p>
+     */
+    CANCELLED("cancelled");
+    private final String name;
+
+    TerminationReason(String name) {
+        this.name = name;
+    }
+
+    /**
+     * <p>Name of the reason used in XML export and import.</p>
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <p>Finds reason by its name.</p>
+     *
+     * @param name Name of the reason.
+     * @return Reason with the specified name or null, if nothing was found.
+     */
+    public static TerminationReason fromName(String name) {
+        for (TerminationReason reason : values()) {
+            if (reason.getName().equalsIgnoreCase(name)) {
+                return reason;
+            }
+        }
+
+        return null;
+    }
+}
@@ -1,11 +1,14 @@
 package com.akavrt.csp.solver.evo.es;
 
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
 import com.akavrt.csp.solver.evo.EvolutionaryComponentsFactory;
 import com.akavrt.csp.solver.evo.EvolutionaryOperator;
 import com.akavrt.csp.solver.evo.operators.CompositeMutation;
+import com.akavrt.csp.solver.evo.operators.RollGroupSelector;
 import com.akavrt.csp.solver.evo.operators.group.*;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
 import com.akavrt.csp.solver.sequential.SimplifiedProcedure;
 
 /**
@@ -15,11 +18,23 @@ import com.akavrt.csp.solver.sequential.SimplifiedProcedure;
  */
 public class BaseStrategyComponentsFactory  implements EvolutionaryComponentsFactory {
     private final PatternGenerator patternGenerator;
+    private RollGroupSelector groupSelector;
 
     public BaseStrategyComponentsFactory(PatternGenerator generator) {
         this.patternGenerator = generator;
     }
 
+    /**
+     * <p>Sets selector used by group mutations to pick rolls for new group, see
+     * PatternBasedMutation.setGroupSelector(). Applies to the mutation operators created
+     * afterwards, rolls are picked greedily by default.</p>
+     *
+     * @param groupSelector Selector of the rolls or null to pick rolls greedily.
+     */
+    public void setGroupSelector(RollGroupSelector groupSelector) {
+        this.groupSelector = groupSelector;
+    }
+
     @Override
     public EvolutionaryOperator createMutation() {
         CompositeMutation mutation = new CompositeMutation();
@@ -35,7 +50,11 @@ public class BaseStrategyComponentsFactory  implements EvolutionaryComponentsFac
         mutation.addOperator(new ReplaceRollMutation());
         mutation.addOperator(new DeleteRollMutation(patternGenerator));
         mutation.addOperator(new AdaptGroupMutation(patternGenerator));
-        mutation.addOperator(new ReplaceGroupMutation(patternGenerator));
+
+        ReplaceGroupMutation replaceGroupMutation = new ReplaceGroupMutation(patternGenerator);
+        replaceGroupMutation.setGroupSelector(groupSelector);
+        mutation.addOperator(replaceGroupMutation);
+
         mutation.addOperator(new MergeTwoGroupsMutation(patternGenerator));
     }
 
@@ -44,5 +63,20 @@ public class BaseStrategyComponentsFactory  implements EvolutionaryComponentsFac
         return new SimplifiedProcedure(patternGenerator);
     }
 
+    @Override
+    public AlgorithmFactory<Algorithm> createConcurrentInitializationFactory() {
+        // procedures initialize generator on every run, so each of them needs its own copy
+        if (!PatternGenerators.isCopyable(patternGenerator)) {
+            return null;
+        }
+
+        return new AlgorithmFactory<Algorithm>() {
+            @Override
+            public Algorithm createAlgorithm() {
+                return new SimplifiedProcedure(PatternGenerators.copy(patternGenerator));
+            }
+        };
+    }
+
 }
 
@@ -21,7 +21,7 @@ public class EvolutionStrategy extends EvolutionaryAlgorithm {
 
     public EvolutionStrategy(EvolutionaryComponentsFactory componentsFactory,
                              Metric objectiveFunction, EvolutionStrategyParameters parameters) {
-        super(componentsFactory.createInitializationProcedure(), parameters);
+        super(componentsFactory, parameters);
 
         this.parameters = parameters;
         this.objectiveFunction = objectiveFunction;
@@ -40,7 +40,8 @@ public class EvolutionStrategy extends EvolutionaryAlgorithm {
 
     @Override
     protected Population createPopulation(EvolutionaryExecutionContext evoContext) {
-        return new ModStrategyPopulation(evoContext, parameters, objectiveFunction);
+        return new ModStrategyPopulation(evoContext, parameters, objectiveFunction,
+                                         getExecutor());
     }
 
     /**
@@ -56,6 +57,11 @@ public class EvolutionStrategy extends EvolutionaryAlgorithm {
         return SHORT_METHOD_NAME;
     }
 
+    @Override
+    protected Metric getObjectiveFunction() {
+        return objectiveFunction;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -14,6 +14,7 @@ public class EvolutionStrategyParameters extends EvolutionaryAlgorithmParameters
     private static final int DEFAULT_TOUR_SIZE = 2;
     private int offspringCount = DEFAULT_OFFSPRING_COUNT;
     private int tourSize = DEFAULT_TOUR_SIZE;
+    private boolean isGroupSelectionEnabled;
 
     public int getOffspringCount() {
         return offspringCount;
@@ -31,6 +32,18 @@ public class EvolutionStrategyParameters extends EvolutionaryAlgorithmParameters
         this.tourSize = tourSize;
     }
 
+    /**
+     * <p>Whether group mutations pick rolls with knapsack selector instead of greedy pick (see
+     * PatternBasedMutation.setGroupSelector()), disabled by default.</p>
+     */
+    public boolean isGroupSelectionEnabled() {
+        return isGroupSelectionEnabled;
+    }
+
+    public void setGroupSelectionEnabled(boolean isGroupSelectionEnabled) {
+        this.isGroupSelectionEnabled = isGroupSelectionEnabled;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -46,6 +59,13 @@ public class EvolutionStrategyParameters extends EvolutionaryAlgorithmParameters
         tourSizeElm.setText(XmlUtils.formatDouble(getTourSize()));
         paramsElm.addContent(tourSizeElm);
 
+        // optional group selection
+        if (isGroupSelectionEnabled()) {
+            Element groupSelectionElm = new Element(XmlTags.GROUP_SELECTION);
+            groupSelectionElm.setText(Boolean.toString(true));
+            paramsElm.addContent(groupSelectionElm);
+        }
+
         return paramsElm;
     }
 
@@ -62,6 +82,9 @@ public class EvolutionStrategyParameters extends EvolutionaryAlgorithmParameters
 
         int tourSize = XmlUtils.getIntegerFromText(rootElm, XmlTags.TOUR_SIZE, DEFAULT_TOUR_SIZE);
         setTourSize(tourSize);
+
+        String groupSelection = rootElm.getChildText(XmlTags.GROUP_SELECTION);
+        setGroupSelectionEnabled(Boolean.parseBoolean(groupSelection));
     }
 
     /**
@@ -81,6 +104,7 @@ public class EvolutionStrategyParameters extends EvolutionaryAlgorithmParameters
         String POPULATION_SIZE = "mu";
         String OFFSPRING_COUNT = "lambda";
         String TOUR_SIZE = "tour-size";
+        String GROUP_SELECTION = "group-selection";
     }
 
 }
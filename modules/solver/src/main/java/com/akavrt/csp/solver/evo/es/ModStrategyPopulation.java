@@ -7,6 +7,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * User: akavrt
@@ -16,6 +17,7 @@ import java.util.List;
 public class ModStrategyPopulation extends DiversePopulation {
     private static final Logger LOGGER = LogManager.getLogger(ModStrategyPopulation.class);
     private final EvolutionStrategyParameters parameters;
+    private final ConcurrentOffspringGenerator offspringGenerator;
 
     /**
      * <p>Creates empty population. Initialization of the population has to be done separately by
@@ -28,9 +30,29 @@ public class ModStrategyPopulation extends DiversePopulation {
      */
     public ModStrategyPopulation(EvolutionaryExecutionContext context,
                                  EvolutionStrategyParameters parameters, Metric objectiveFunction) {
-        super(context, parameters, objectiveFunction);
+        this(context, parameters, objectiveFunction, null);
+    }
+
+    /**
+     * <p>Creates empty population which produces offspring concurrently. Initialization of the
+     * population has to be done separately by explicit call to initialize() method.</p>
+     *
+     * @param context           Context is needed to create context-aware chromosomes.
+     * @param parameters        Parameters of evolution strategy.
+     * @param objectiveFunction Metric used to evaluate fitness and compare chromosomes with each
+     *                          other.
+     * @param executor          Executor used to produce offspring, if null is provided offspring
+     *                          are produced sequentially. The same executor is used to
+     *                          run initialization procedure concurrently.
+     */
+    public ModStrategyPopulation(EvolutionaryExecutionContext context,
+                                 EvolutionStrategyParameters parameters, Metric objectiveFunction,
+                                 ExecutorService executor) {
+        super(context, parameters, objectiveFunction, executor);
 
         this.parameters = parameters;
+
+        offspringGenerator = executor == null ? null : new ConcurrentOffspringGenerator(executor);
     }
 
     /**
@@ -48,7 +70,10 @@ public class ModStrategyPopulation extends DiversePopulation {
 
         LOGGER.debug("*** GENERATION {} ***", getAge());
 
-        sort();
+        // the worst part of the population is replaced, so it isn't sorted: sorted head has to
+        // cover both survivors and chromosomes used to produce new ones
+        int exchangeSize = parameters.getOffspringCount();
+        select(chromosomes, Math.max(exchangeSize, chromosomes.size() - exchangeSize));
 
         // pick the first 'EvolutionStrategyParameters.getOffspringCount()' chromosomes (lambda,
         // the most fitted part of the population) and use them to produce new chromosomes
@@ -92,6 +117,20 @@ public class ModStrategyPopulation extends DiversePopulation {
     private List<Chromosome> prepareExchange(List<Chromosome> exchangeList,
                                              EvolutionaryOperator mutation,
                                              DiversityManager dm) {
+        if (offspringGenerator != null) {
+            List<Chromosome[]> operands = Lists.newArrayList();
+            for (Chromosome original : exchangeList) {
+                operands.add(new Chromosome[]{original});
+            }
+
+            List<Chromosome> offspring = offspringGenerator.generate(mutation, operands, dm);
+            for (int i = 0; i < offspring.size(); i++) {
+                exchangeList.set(i, offspring.get(i));
+            }
+
+            return exchangeList;
+        }
+
         for (int i = 0; i < exchangeList.size(); i++) {
             // pick chromosome from the exchange list and apply mutation to it,
             // then replace original chromosome with mutated one in the exchange list
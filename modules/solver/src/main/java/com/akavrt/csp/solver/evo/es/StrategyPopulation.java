@@ -2,12 +2,14 @@ package com.akavrt.csp.solver.evo.es;
 
 import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.solver.evo.*;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <p>Implementation of Population with simple diversity management used in evolution strategy.</p>
@@ -21,6 +23,7 @@ public class StrategyPopulation extends DiversePopulation {
     private final Metric objectiveFunction;
     private final List<Chromosome> offspringChromosomes;
     private final Random rGen;
+    private final ConcurrentOffspringGenerator offspringGenerator;
 
     /**
      * <p>Creates empty population. Initialization of the population has to be done separately by
@@ -33,13 +36,33 @@ public class StrategyPopulation extends DiversePopulation {
      */
     public StrategyPopulation(EvolutionaryExecutionContext context,
                               EvolutionStrategyParameters parameters, Metric objectiveFunction) {
-        super(context, parameters, objectiveFunction);
+        this(context, parameters, objectiveFunction, null);
+    }
+
+    /**
+     * <p>Creates empty population which produces offspring concurrently. Initialization of the
+     * population has to be done separately by explicit call to initialize() method.</p>
+     *
+     * @param context           Context is needed to create context-aware chromosomes.
+     * @param parameters        Parameters of evolution strategy.
+     * @param objectiveFunction Metric used to evaluate fitness and compare chromosomes with each
+     *                          other.
+     * @param executor          Executor used to produce offspring, if null is provided offspring
+     *                          are produced sequentially. The same executor is used to
+     *                          run initialization procedure concurrently.
+     */
+    public StrategyPopulation(EvolutionaryExecutionContext context,
+                              EvolutionStrategyParameters parameters, Metric objectiveFunction,
+                              ExecutorService executor) {
+        super(context, parameters, objectiveFunction, executor);
 
         this.parameters = parameters;
         this.objectiveFunction = objectiveFunction;
 
         offspringChromosomes = Lists.newArrayList();
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
+
+        offspringGenerator = executor == null ? null : new ConcurrentOffspringGenerator(executor);
     }
 
     /**
@@ -71,14 +94,27 @@ public class StrategyPopulation extends DiversePopulation {
         }
 
         offspringChromosomes.clear();
-        while (!getContext().isCancelled()
-                && offspringChromosomes.size() < parameters.getOffspringCount()) {
-            // select parent using tournament selection
-            Chromosome original = getParent();
-
-            Chromosome mutated = applyMutation(mutation, dm, original);
-            offspringChromosomes.add(mutated);
-            dm.add(mutated);
+        if (offspringGenerator != null) {
+            if (!getContext().isCancelled()) {
+                // parents are selected sequentially to keep results reproducible,
+                // then offspring are produced concurrently
+                List<Chromosome[]> operands = Lists.newArrayList();
+                for (int i = 0; i < parameters.getOffspringCount(); i++) {
+                    operands.add(new Chromosome[]{getParent()});
+                }
+
+                offspringChromosomes.addAll(offspringGenerator.generate(mutation, operands, dm));
+            }
+        } else {
+            while (!getContext().isCancelled()
+                    && offspringChromosomes.size() < parameters.getOffspringCount()) {
+                // select parent using tournament selection
+                Chromosome original = getParent();
+
+                Chromosome mutated = applyMutation(mutation, dm, original);
+                offspringChromosomes.add(mutated);
+                dm.add(mutated);
+            }
         }
 
         LOGGER.debug("Generation #{}, {} retries were done.", getAge(), dm.getRetryCount());
@@ -89,8 +125,8 @@ public class StrategyPopulation extends DiversePopulation {
             offspringChromosomes.addAll(chromosomes);
         }
 
-        // sort intermediate population
-        sort(offspringChromosomes);
+        // only the best part of intermediate population survives, so it is the only part sorted
+        select(offspringChromosomes, parameters.getPopulationSize());
 
         // truncate intermediate population to create new parent population
         chromosomes.clear();
@@ -1,6 +1,7 @@
 package com.akavrt.csp.solver.evo.ga;
 
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
 import com.akavrt.csp.solver.evo.EvolutionaryOperator;
 import com.akavrt.csp.solver.evo.operators.CompositeMutation;
 import com.akavrt.csp.solver.evo.operators.Crossover;
@@ -8,6 +9,7 @@ import com.akavrt.csp.solver.evo.operators.gene.ReplaceGenePatternMutation;
 import com.akavrt.csp.solver.evo.operators.gene.ReplaceGeneRollMutation;
 import com.akavrt.csp.solver.evo.operators.gene.SpreadGenePatternMutation;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
 import com.akavrt.csp.solver.sequential.SimplifiedProcedure;
 
 /**
@@ -43,4 +45,19 @@ public class BaseGeneticComponentsFactory implements GeneticComponentsFactory {
         return new SimplifiedProcedure(patternGenerator);
     }
 
+    @Override
+    public AlgorithmFactory<Algorithm> createConcurrentInitializationFactory() {
+        // procedures initialize generator on every run, so each of them needs its own copy
+        if (!PatternGenerators.isCopyable(patternGenerator)) {
+            return null;
+        }
+
+        return new AlgorithmFactory<Algorithm>() {
+            @Override
+            public Algorithm createAlgorithm() {
+                return new SimplifiedProcedure(PatternGenerators.copy(patternGenerator));
+            }
+        };
+    }
+
 }
@@ -26,7 +26,7 @@ public class GeneticAlgorithm extends EvolutionaryAlgorithm {
 
     public GeneticAlgorithm(GeneticComponentsFactory componentsFactory, Metric objectiveFunction,
                             GeneticAlgorithmParameters parameters) {
-        super(componentsFactory.createInitializationProcedure(), parameters);
+        super(componentsFactory, parameters);
 
         this.parameters = parameters;
         this.objectiveFunction = objectiveFunction;
@@ -47,7 +47,7 @@ public class GeneticAlgorithm extends EvolutionaryAlgorithm {
 
     @Override
     protected Population createPopulation(EvolutionaryExecutionContext evoContext) {
-        return new GeneticPopulation(evoContext, parameters, objectiveFunction);
+        return new GeneticPopulation(evoContext, parameters, objectiveFunction, getExecutor());
     }
 
     /**
@@ -63,6 +63,11 @@ public class GeneticAlgorithm extends EvolutionaryAlgorithm {
         return SHORT_METHOD_NAME;
     }
 
+    @Override
+    protected Metric getObjectiveFunction() {
+        return objectiveFunction;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2,12 +2,14 @@ package com.akavrt.csp.solver.evo.ga;
 
 import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.solver.evo.*;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <p>In genetic algorithm all operators including selection, reproduction and mutation are applied
@@ -26,6 +28,7 @@ public class GeneticPopulation extends DiversePopulation {
     private static final Logger LOGGER = LogManager.getLogger(GeneticPopulation.class);
     private final GeneticAlgorithmParameters parameters;
     private final Random rGen;
+    private final ConcurrentOffspringGenerator offspringGenerator;
 
     /**
      * <p>Creates empty population. Initialization of the population has to be done separately by
@@ -38,11 +41,31 @@ public class GeneticPopulation extends DiversePopulation {
      */
     public GeneticPopulation(EvolutionaryExecutionContext context,
                              GeneticAlgorithmParameters parameters, Metric objectiveFunction) {
-        super(context, parameters, objectiveFunction);
+        this(context, parameters, objectiveFunction, null);
+    }
+
+    /**
+     * <p>Creates empty population which produces new chromosomes concurrently. Initialization of
+     * the population has to be done separately by explicit call to initialize() method.</p>
+     *
+     * @param context           Context is needed to create context-aware chromosomes.
+     * @param parameters        Parameters of genetic algorithm.
+     * @param objectiveFunction Metric used to evaluate fitness and compare chromosomes with each
+     *                          other.
+     * @param executor          Executor used to apply mutation and crossover, if null is provided
+     *                          new chromosomes are produced sequentially. The same
+     *                          executor is used to run initialization procedure concurrently.
+     */
+    public GeneticPopulation(EvolutionaryExecutionContext context,
+                             GeneticAlgorithmParameters parameters, Metric objectiveFunction,
+                             ExecutorService executor) {
+        super(context, parameters, objectiveFunction, executor);
 
         this.parameters = parameters;
 
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
+
+        offspringGenerator = executor == null ? null : new ConcurrentOffspringGenerator(executor);
     }
 
     /**
@@ -61,7 +84,10 @@ public class GeneticPopulation extends DiversePopulation {
 
         LOGGER.debug("*** GENERATION {} ***", getAge());
 
-        sort();
+        // the worst part of the population is replaced, so it isn't sorted: sorted head has to
+        // cover both survivors and chromosomes used to produce new ones
+        int exchangeSize = parameters.getExchangeSize();
+        select(chromosomes, Math.max(exchangeSize, chromosomes.size() - exchangeSize));
 
         // pick the first 'GeneticAlgorithmParameters.getExchangeSize()' chromosomes
         // (the most fitted part of the population) and use them to produce new chromosomes
@@ -126,6 +152,10 @@ public class GeneticPopulation extends DiversePopulation {
             exchangeList.add(matingPool.remove(index));
         }
 
+        if (offspringGenerator != null) {
+            return prepareConcurrentExchange(exchangeList, matingPool, crossover, mutation, dm);
+        }
+
         for (int j = 0; j < exchangeList.size(); j++) {
             // pick chromosome from the exchange list and apply mutation to it,
             // then replace original chromosome with mutated one in the exchange list
@@ -155,6 +185,45 @@ public class GeneticPopulation extends DiversePopulation {
         return exchangeList;
     }
 
+    /**
+     * <p>Mutation candidates and mating pairs are dispatched as independent tasks, new chromosomes
+     * are merged back in the same order they are produced by sequential version: mutants first,
+     * then children of each mating pair.</p>
+     */
+    private List<Chromosome> prepareConcurrentExchange(List<Chromosome> exchangeList,
+                                                       List<Chromosome> matingPool,
+                                                       EvolutionaryOperator crossover,
+                                                       EvolutionaryOperator mutation,
+                                                       DiversityManager dm) {
+        List<EvolutionaryOperator> operators = Lists.newArrayList();
+        List<Chromosome[]> operands = Lists.newArrayList();
+
+        for (Chromosome original : exchangeList) {
+            operators.add(mutation);
+            operands.add(new Chromosome[]{original});
+        }
+
+        // mating pairs are formed sequentially to keep results reproducible
+        while (matingPool.size() > 0) {
+            int firstIndex = rGen.nextInt(matingPool.size());
+            Chromosome firstParent = matingPool.remove(firstIndex);
+
+            int secondIndex = rGen.nextInt(matingPool.size());
+            Chromosome secondParent = matingPool.remove(secondIndex);
+
+            operators.add(crossover);
+            operands.add(new Chromosome[]{firstParent, secondParent});
+
+            operators.add(crossover);
+            operands.add(new Chromosome[]{secondParent, firstParent});
+        }
+
+        exchangeList.clear();
+        exchangeList.addAll(offspringGenerator.generate(operators, operands, dm));
+
+        return exchangeList;
+    }
+
     private Chromosome applyMutation(EvolutionaryOperator mutation, DiversityManager dm,
                                      Chromosome original) {
         int stuck = 0;
@@ -0,0 +1,167 @@
+package com.akavrt.csp.solver.evo.migration;
+
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.binary.BinaryUtils;
+import com.akavrt.csp.core.binary.ProblemFingerprint;
+import com.akavrt.csp.solver.evo.Chromosome;
+import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
+import com.akavrt.csp.solver.evo.Gene;
+import com.akavrt.csp.solver.evo.ProblemIndex;
+import com.google.common.collect.Lists;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>Compact binary encoding of chromosomes used to transfer migrants between processes. Both
+ * sides have to be bound to the same problem: rolls are referenced by their internal ids and
+ * patterns are stored as plain arrays of multipliers in the order of orders defined by the
+ * problem.</p>
+ *
+ * <p>Batch of chromosomes is encoded as follows: magic number and version of the format,
+ * fingerprint of the problem (see ProblemFingerprint, batch encoded for another problem is
+ * rejected), number of chromosomes and then content of each chromosome - number of genes followed
+ * by the genes. Each gene is encoded as a single flag byte telling whether roll is attached,
+ * internal id of the roll (only if there is any) and multipliers of the pattern. Counts and
+ * multipliers are non-negative and usually small, they are written as variable length integers
+ * (see BinaryUtils), so typical gene takes only a few bytes more than the id of the roll.</p>
+ *
+ * <p>Input may come from untrusted peer, so malformed counts are rejected and no memory is
+ * allocated in advance based on them.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ChromosomeCodec {
+    private static final int MAGIC = 0x43535047;
+    private static final int VERSION = 2;
+    private static final int NO_ROLL = 0;
+    private static final int WITH_ROLL = 1;
+    private final EvolutionaryExecutionContext context;
+    private final ProblemIndex index;
+    private final long fingerprint;
+
+    /**
+     * <p>Creates codec bound to the problem provided by context.</p>
+     *
+     * @param context Context provides access to the problem definition.
+     */
+    public ChromosomeCodec(EvolutionaryExecutionContext context) {
+        this.context = context;
+
+        index = context.getProblemIndex();
+        fingerprint = ProblemFingerprint.calculate(context.getProblem());
+    }
+
+    /**
+     * <p>Encodes batch of chromosomes.</p>
+     *
+     * @param chromosomes List of chromosomes to encode.
+     * @param out         Output to write encoded batch to.
+     * @throws IOException If output can't be written.
+     */
+    public void write(List<Chromosome> chromosomes, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(fingerprint);
+
+        BinaryUtils.writeVarInt(chromosomes.size(), out);
+        for (Chromosome chromosome : chromosomes) {
+            BinaryUtils.writeVarInt(chromosome.size(), out);
+            for (Gene gene : chromosome.getGenes()) {
+                writeGene(gene, out);
+            }
+        }
+    }
+
+    /**
+     * <p>Decodes batch of chromosomes.</p>
+     *
+     * @param in Input to read encoded batch from.
+     * @return List of decoded chromosomes bound to the context of codec.
+     * @throws IOException If input can't be read, is malformed or was encoded for another problem.
+     */
+    public List<Chromosome> read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Stream doesn't contain encoded chromosomes.");
+        }
+
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version of encoding: " + version);
+        }
+
+        if (in.readLong() != fingerprint) {
+            throw new IOException("Chromosomes were encoded for another problem.");
+        }
+
+        int size = BinaryUtils.readVarInt(in);
+        List<Chromosome> chromosomes = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            Chromosome chromosome = new Chromosome(context);
+
+            int genes = BinaryUtils.readVarInt(in);
+            for (int j = 0; j < genes; j++) {
+                chromosome.addGene(readGene(in));
+            }
+
+            chromosomes.add(chromosome);
+        }
+
+        return chromosomes;
+    }
+
+    /**
+     * <p>Encodes single gene.</p>
+     *
+     * @param gene Gene to encode.
+     * @param out  Output to write encoded gene to.
+     * @throws IOException If output can't be written.
+     */
+    public void writeGene(Gene gene, DataOutput out) throws IOException {
+        if (gene.getRoll() == null) {
+            out.writeByte(NO_ROLL);
+        } else {
+            out.writeByte(WITH_ROLL);
+            out.writeInt(gene.getRoll().getInternalId());
+        }
+
+        int[] pattern = gene.getPattern();
+        for (int i = 0; i < context.getOrdersSize(); i++) {
+            BinaryUtils.writeVarInt(pattern[i], out);
+        }
+    }
+
+    /**
+     * <p>Decodes single gene.</p>
+     *
+     * @param in Input to read encoded gene from.
+     * @return Decoded gene, roll attached to it is taken from the problem.
+     * @throws IOException If input can't be read or references unknown roll.
+     */
+    public Gene readGene(DataInput in) throws IOException {
+        Roll roll = null;
+
+        int flag = in.readUnsignedByte();
+        if (flag == WITH_ROLL) {
+            int internalId = in.readInt();
+            int rollIndex = index.getRollIndex(internalId);
+            if (rollIndex < 0) {
+                throw new IOException("Unknown roll: " + internalId);
+            }
+
+            roll = context.getProblem().getRolls().get(rollIndex);
+        } else if (flag != NO_ROLL) {
+            throw new IOException("Malformed gene.");
+        }
+
+        int[] pattern = new int[context.getOrdersSize()];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = BinaryUtils.readVarInt(in);
+        }
+
+        return new Gene(pattern, roll);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.akavrt.csp.solver.evo.migration;
+
+import com.akavrt.csp.solver.evo.Chromosome;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * <p>Channel used to exchange migrants between island models running in different processes
+ * (JVMs). Island model emigrates copies of its best chromosomes through the channel and
+ * periodically collects chromosomes received from remote islands.</p>
+ *
+ * <p>Delivery is asynchronous and best effort: migration is a heuristic, so lost migrants don't
+ * affect correctness of the search.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public interface MigrationChannel extends Closeable {
+
+    /**
+     * <p>Sends migrants to remote islands. Chromosomes are encoded before method returns, so they
+     * can be safely modified afterwards. Method shouldn't block on the network.</p>
+     *
+     * @param migrants List of chromosomes to be sent.
+     */
+    void emigrate(List<Chromosome> migrants);
+
+    /**
+     * <p>Returns chromosomes received from remote islands since the last call. Method doesn't
+     * block, empty list is returned if there are no new immigrants. Chromosomes may be bound to
+     * the context of the channel rather than the one of the receiver.</p>
+     *
+     * @return List of received chromosomes.
+     */
+    List<Chromosome> drainImmigrants();
+
+}
@@ -0,0 +1,370 @@
+package com.akavrt.csp.solver.evo.migration;
+
+import com.akavrt.csp.solver.evo.Chromosome;
+import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Migration channel based on plain TCP sockets, no broker is needed: each process listens on
+ * its own port and connects directly to the list of peers. Topology of migration between
+ * processes is defined by the lists of peers, e.g. if each process knows only about the next one
+ * we get a ring.</p>
+ *
+ * <p>Batches of migrants are encoded with ChromosomeCodec and sent as length-prefixed frames.
+ * Emigration never blocks the calling thread: encoded frame is put into the bounded queue of each
+ * peer and written by the dedicated daemon thread of the peer, so slow or dead peer can't stall
+ * evolution of the islands. If queue is full, the oldest frame is dropped. Outgoing connections
+ * are established lazily, after failure to connect or to write peer is backed off for a growing
+ * period of time (frames queued meanwhile are dropped as well).</p>
+ *
+ * <p>Frames received from peers are decoded on the dedicated daemon threads and queued until island
+ * model collects them. Queue of immigrants is bounded too, the oldest immigrants are dropped when
+ * it's full. Immigrants are bound to the context channel was created with, receiver should rebind
+ * them to its own context before use.</p>
+ *
+ * <p>Endpoints of several channels can be bound to the loopback interface within a single
+ * process, which is handy for testing.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class SocketMigrationChannel implements MigrationChannel {
+    private static final Logger LOGGER = LogManager.getLogger(SocketMigrationChannel.class);
+    private static final int CONNECT_TIMEOUT = 1000;
+    private static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+    private static final int OUTBOUND_CAPACITY = 4;
+    private static final int INBOUND_CAPACITY = 1024;
+    private static final long MIN_BACKOFF = 1000;
+    private static final long MAX_BACKOFF = 60000;
+    private final ChromosomeCodec codec;
+    private final int port;
+    private final List<Sender> senders;
+    private final Set<Socket> inbound;
+    private final BlockingQueue<Chromosome> immigrants;
+    private final AtomicBoolean isStarted;
+    private volatile ServerSocket serverSocket;
+    private volatile boolean isClosed;
+
+    /**
+     * <p>Creates channel which is bound to the problem provided by context. Channel should be
+     * opened before use.</p>
+     *
+     * @param context Context provides access to the problem definition.
+     * @param port    Local port to listen on, ephemeral port is used if zero is provided.
+     * @param peers   Addresses of the peers migrants are sent to.
+     */
+    public SocketMigrationChannel(EvolutionaryExecutionContext context, int port,
+                                  List<? extends SocketAddress> peers) {
+        this.codec = new ChromosomeCodec(context);
+        this.port = port;
+
+        senders = Lists.newArrayList();
+        for (SocketAddress peer : peers) {
+            senders.add(new Sender(peer));
+        }
+
+        inbound = Sets.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+        immigrants = new ArrayBlockingQueue<Chromosome>(INBOUND_CAPACITY);
+        isStarted = new AtomicBoolean();
+    }
+
+    /**
+     * <p>Starts listening for connections from peers on the loopback interface.</p>
+     *
+     * @throws IOException If socket can't be bound.
+     */
+    public void open() throws IOException {
+        open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * <p>Starts listening for connections from peers on the specified local address.</p>
+     *
+     * @param endpoint Local address to bind to.
+     * @throws IOException If socket can't be bound.
+     */
+    public void open(InetSocketAddress endpoint) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(endpoint);
+        serverSocket = socket;
+
+        startDaemon("migration-acceptor-" + socket.getLocalPort(), new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        });
+    }
+
+    /**
+     * <p>Returns local port channel is listening on, can be used to discover ephemeral port.</p>
+     *
+     * @return Local port or -1 if channel isn't opened yet.
+     */
+    public int getLocalPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void emigrate(List<Chromosome> migrants) {
+        if (isClosed || migrants.isEmpty() || senders.isEmpty()) {
+            return;
+        }
+
+        byte[] frame;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.write(migrants, new DataOutputStream(bytes));
+            frame = bytes.toByteArray();
+        } catch (IOException e) {
+            // can't happen when writing into memory
+            throw new IllegalStateException(e);
+        }
+
+        if (isStarted.compareAndSet(false, true)) {
+            for (Sender sender : senders) {
+                startDaemon("migration-sender-" + sender.peer, sender);
+            }
+        }
+
+        for (Sender sender : senders) {
+            offer(sender.frames, frame);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Chromosome> drainImmigrants() {
+        List<Chromosome> result = Lists.newArrayList();
+        immigrants.drainTo(result);
+
+        return result;
+    }
+
+    /**
+     * <p>Stops listening and closes all connections.</p>
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+
+        closeQuietly(serverSocket);
+
+        for (Sender sender : senders) {
+            sender.stop();
+        }
+
+        for (Socket socket : inbound) {
+            closeQuietly(socket);
+        }
+        inbound.clear();
+    }
+
+    /**
+     * <p>Adds element to the bounded queue, the oldest elements are dropped to make room for the
+     * new one.</p>
+     */
+    private static <T> void offer(BlockingQueue<T> queue, T element) {
+        while (!queue.offer(element)) {
+            queue.poll();
+        }
+    }
+
+    private void accept() {
+        while (!isClosed) {
+            try {
+                final Socket socket = serverSocket.accept();
+                inbound.add(socket);
+
+                startDaemon("migration-reader-" + socket.getRemoteSocketAddress(),
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    receive(socket);
+                                }
+                            });
+            } catch (IOException e) {
+                if (!isClosed) {
+                    LOGGER.warn("Failed to accept connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void receive(Socket socket) {
+        try {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+
+            while (!isClosed) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_FRAME_LENGTH) {
+                    throw new IOException("Illegal length of frame: " + length);
+                }
+
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+
+                List<Chromosome> chromosomes =
+                        codec.read(new DataInputStream(new ByteArrayInputStream(frame)));
+                for (Chromosome chromosome : chromosomes) {
+                    offer(immigrants, chromosome);
+                }
+
+                LOGGER.debug("{} immigrants received from {}.", chromosomes.size(),
+                             socket.getRemoteSocketAddress());
+            }
+        } catch (IOException e) {
+            if (!isClosed) {
+                LOGGER.debug("Connection with {} is closed: {}", socket.getRemoteSocketAddress(),
+                             e.getMessage());
+            }
+        } finally {
+            inbound.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void startDaemon(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.catching(e);
+            }
+        }
+    }
+
+    private static void closeQuietly(ServerSocket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.catching(e);
+            }
+        }
+    }
+
+    /**
+     * <p>Writes frames queued for a single peer, connection is reestablished on demand.</p>
+     */
+    private class Sender implements Runnable {
+        private final SocketAddress peer;
+        private final BlockingQueue<byte[]> frames;
+        private volatile Socket socket;
+        private volatile Thread thread;
+        private long backoff;
+
+        private Sender(SocketAddress peer) {
+            this.peer = peer;
+
+            frames = new ArrayBlockingQueue<byte[]>(OUTBOUND_CAPACITY);
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+
+            DataOutputStream out = null;
+            while (!isClosed) {
+                try {
+                    byte[] frame = frames.take();
+                    if (out == null) {
+                        out = connect();
+                    }
+
+                    out.writeInt(frame.length);
+                    out.write(frame);
+                    out.flush();
+
+                    backoff = 0;
+                } catch (InterruptedException e) {
+                    break;
+                } catch (IOException e) {
+                    out = null;
+                    closeQuietly(socket);
+
+                    if (!isClosed && !backOff(e)) {
+                        break;
+                    }
+                }
+            }
+
+            closeQuietly(socket);
+        }
+
+        private DataOutputStream connect() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(peer, CONNECT_TIMEOUT);
+
+            return new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * <p>Waits before the next attempt to reach the peer, frames queued meanwhile are
+         * outdated and dropped.</p>
+         *
+         * @return false if sender was stopped while waiting.
+         */
+        private boolean backOff(IOException e) {
+            backoff = backoff == 0 ? MIN_BACKOFF : Math.min(2 * backoff, MAX_BACKOFF);
+            LOGGER.warn("Failed to send migrants to {}, next attempt in {} ms: {}", peer, backoff,
+                        e.getMessage());
+
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ie) {
+                return false;
+            }
+
+            frames.clear();
+
+            return true;
+        }
+
+        private void stop() {
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+
+            closeQuietly(socket);
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.solver.evo.Chromosome;
 import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
 import com.akavrt.csp.solver.evo.EvolutionaryOperator;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,7 +38,7 @@ public class CompositeMutation implements EvolutionaryOperator {
         successCounter = Lists.newArrayList();
         executionCounter = Lists.newArrayList();
 
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
     }
 
     public void addOperator(EvolutionaryOperator operator) {
@@ -63,14 +64,20 @@ public class CompositeMutation implements EvolutionaryOperator {
         Chromosome original = chromosomes[0];
         Chromosome mutated = operators.get(operatorIndex).apply(original);
 
-        int executions = executionCounter.get(operatorIndex);
-        executionCounter.set(operatorIndex, ++executions);
+        boolean isSuccessful = objectiveFunction != null && mutated != null
+                && objectiveFunction.compare(mutated, original) > 0;
 
-        if (objectiveFunction != null && mutated != null
-                && objectiveFunction.compare(mutated, original) > 0) {
-            // diagnostic comparison of the original one and mutated chromosomes
-            int successes = successCounter.get(operatorIndex);
-            successCounter.set(operatorIndex, ++successes);
+        // operator may be applied concurrently,
+        // diagnostic counters are shared by all threads
+        synchronized (executionCounter) {
+            int executions = executionCounter.get(operatorIndex);
+            executionCounter.set(operatorIndex, ++executions);
+
+            if (isSuccessful) {
+                // diagnostic comparison of the original one and mutated chromosomes
+                int successes = successCounter.get(operatorIndex);
+                successCounter.set(operatorIndex, ++successes);
+            }
         }
 
         return mutated;
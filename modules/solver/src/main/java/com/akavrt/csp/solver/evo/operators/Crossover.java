@@ -4,14 +4,15 @@ import com.akavrt.csp.solver.evo.Chromosome;
 import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
 import com.akavrt.csp.solver.evo.EvolutionaryOperator;
 import com.akavrt.csp.solver.evo.Gene;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
+import com.akavrt.csp.solver.evo.ProblemIndex;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * User: akavrt
@@ -23,7 +24,7 @@ public class Crossover implements EvolutionaryOperator {
     private final Random rGen;
 
     public Crossover() {
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
     }
 
     @Override
@@ -54,16 +55,22 @@ public class Crossover implements EvolutionaryOperator {
 
         double previousRatio;
         double currentRatio;
-        Set<Integer> rollIds = Sets.newHashSet();
+        ProblemIndex problemIndex = firstParent.getContext().getProblemIndex();
+        BitSet usedRolls = new BitSet(problemIndex.getRollsSize());
         do {
             previousRatio = getRatio(child);
 
             // randomly pick one of the genes in the pool
             int index = rGen.nextInt(pool.size());
             Gene gene = pool.remove(index);
-            if (gene.getRoll() == null || rollIds.add(gene.getRoll().getInternalId())) {
-                // create a copy of the gene and add it to the child
-                child.addGene(new Gene(gene));
+            int rollIndex = gene.getRoll() == null ? -1 : problemIndex.getRollIndex(gene.getRoll());
+            if (rollIndex < 0 || !usedRolls.get(rollIndex)) {
+                if (rollIndex >= 0) {
+                    usedRolls.set(rollIndex);
+                }
+
+                // genes are immutable, so gene can be shared with the parent
+                child.addGene(gene);
                 currentRatio = getRatio(child);
             } else {
                 // child left unchanged
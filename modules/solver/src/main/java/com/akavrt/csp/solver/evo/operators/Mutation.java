@@ -5,14 +5,15 @@ import com.akavrt.csp.solver.evo.Chromosome;
 import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
 import com.akavrt.csp.solver.evo.EvolutionaryOperator;
 import com.akavrt.csp.solver.evo.Gene;
+import com.akavrt.csp.solver.evo.ProblemIndex;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * User: akavrt
@@ -23,7 +24,7 @@ public abstract class Mutation implements EvolutionaryOperator {
     protected final Random rGen;
 
     public Mutation() {
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
     }
 
     @Override
@@ -32,35 +33,36 @@ public abstract class Mutation implements EvolutionaryOperator {
     }
 
     protected List<Roll> getSpareRolls(Chromosome chromosome) {
-        // mutable list of rolls
-        List<Roll> rolls = Lists.newArrayList(chromosome.getContext().getProblem().getRolls());
+        List<Roll> rolls = chromosome.getContext().getProblem().getRolls();
+        BitSet usedRolls = chromosome.getUsedRolls();
 
-        Set<Integer> usedRollIds = Sets.newHashSet();
-        for (Gene gene : chromosome.getGenes()) {
-            if (gene.getRoll() != null) {
-                usedRollIds.add(gene.getRoll().getInternalId());
-            }
-        }
+        // mutable list of rolls
+        int spareCount = rolls.size() - usedRolls.cardinality();
+        List<Roll> spareRolls = Lists.newArrayListWithCapacity(spareCount);
 
-        int i = 0;
-        while (i < rolls.size()) {
-            int id = rolls.get(i).getInternalId();
-            if (usedRollIds.contains(id)) {
-                rolls.remove(i);
-            } else {
-                i++;
-            }
+        int rollIndex = usedRolls.nextClearBit(0);
+        while (rollIndex < rolls.size()) {
+            spareRolls.add(rolls.get(rollIndex));
+            rollIndex = usedRolls.nextClearBit(rollIndex + 1);
         }
 
-        return rolls;
+        return spareRolls;
     }
 
     protected Roll pickRoll(Chromosome chromosome) {
-        List<Roll> rolls = getSpareRolls(chromosome);
+        List<Roll> rolls = chromosome.getContext().getProblem().getRolls();
+        BitSet usedRolls = chromosome.getUsedRolls();
 
         Roll picked = null;
-        if (rolls.size() > 0) {
-            int rollIndex = rGen.nextInt(rolls.size());
+        int spareCount = rolls.size() - usedRolls.cardinality();
+        if (spareCount > 0) {
+            // skip randomly chosen number of spare rolls
+            int skipped = rGen.nextInt(spareCount);
+            int rollIndex = usedRolls.nextClearBit(0);
+            while (skipped-- > 0) {
+                rollIndex = usedRolls.nextClearBit(rollIndex + 1);
+            }
+
             picked = rolls.get(rollIndex);
         }
 
@@ -68,18 +70,12 @@ public abstract class Mutation implements EvolutionaryOperator {
     }
 
     protected Roll pickRoll(double patternWidth, Chromosome chromosome) {
-        List<Roll> rolls = getSpareRolls(chromosome);
+        ProblemIndex index = chromosome.getContext().getProblemIndex();
 
-        // TODO here we can control trim and select roll with minimal trim
-        Roll picked = null;
-        for (Roll roll : rolls) {
-            if (roll.getWidth() >= patternWidth) {
-                picked = roll;
-                break;
-            }
-        }
+        // pick the narrowest spare roll to minimize trim
+        int rollIndex = index.findNarrowestRoll(patternWidth, chromosome.getUsedRolls());
 
-        return picked;
+        return rollIndex < 0 ? null : index.getProblem().getRolls().get(rollIndex);
     }
 
     protected List<GeneGroup> groupGenes(Chromosome chromosome) {
@@ -1,10 +1,14 @@
 package com.akavrt.csp.solver.evo.operators;
 
-import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Roll;
 import com.akavrt.csp.solver.evo.Chromosome;
 import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
+import com.akavrt.csp.solver.evo.ProblemIndex;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
+import com.google.common.collect.Lists;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -13,7 +17,9 @@ import java.util.List;
  * Time: 19:10
  */
 public abstract class PatternBasedMutation extends Mutation {
+    private static final int MAX_GROUP_SELECTIONS = 16;
     protected final PatternGenerator generator;
+    private volatile RollGroupSelector groupSelector;
 
     public PatternBasedMutation(PatternGenerator generator) {
         this.generator = generator;
@@ -25,12 +31,12 @@ public abstract class PatternBasedMutation extends Mutation {
     }
 
     protected int[] calcDemand(double stockLength, Chromosome chromosome) {
-        List<Order> orders = chromosome.getContext().getProblem().getOrders();
+        double[] orderLengths = chromosome.getContext().getProblemIndex().getOrderLengths();
 
-        int[] demand = new int[orders.size()];
-        for (int i = 0; i < orders.size(); i++) {
+        int[] demand = new int[orderLengths.length];
+        for (int i = 0; i < orderLengths.length; i++) {
             double produced = chromosome.getProductionLengthForOrder(i);
-            double orderLength = orders.get(i).getLength();
+            double orderLength = orderLengths[i];
 
             if (orderLength > produced) {
                 double ratio = (orderLength - produced) / stockLength;
@@ -42,4 +48,204 @@ public abstract class PatternBasedMutation extends Mutation {
         return demand;
     }
 
+    protected double getResidualDemandArea(Chromosome chromosome) {
+        ProblemIndex index = chromosome.getContext().getProblemIndex();
+        double[] orderWidths = index.getOrderWidths();
+        double[] orderLengths = index.getOrderLengths();
+
+        double area = 0;
+        for (int i = 0; i < orderLengths.length; i++) {
+            double produced = chromosome.getProductionLengthForOrder(i);
+            double required = orderLengths[i];
+
+            if (produced < required) {
+                area += (required - produced) * orderWidths[i];
+            }
+        }
+
+        return area;
+    }
+
+    protected List<Roll> searchForGroup(Chromosome chromosome, double toleranceRatio) {
+        List<Roll> group = null;
+
+        double residualDemandArea = getResidualDemandArea(chromosome);
+        if (residualDemandArea > 0) {
+            group = searchForGroup(residualDemandArea, chromosome, toleranceRatio);
+        }
+
+        return group;
+    }
+
+    /**
+     * <p>Sets selector used to pick the rolls within group of similar width. When selector is null
+     * (default), rolls are picked greedily in ascending order of width until target area is
+     * covered, which tends to overshoot the target by up to the area of the last roll added.
+     * Selector reduces over-production, but makes mutation slower and doesn't improve trim, so it
+     * isn't used unless explicitly set.</p>
+     *
+     * @param groupSelector Selector of the rolls or null to pick rolls greedily.
+     */
+    public void setGroupSelector(RollGroupSelector groupSelector) {
+        this.groupSelector = groupSelector;
+    }
+
+    /**
+     * <p>Searches for a group of spare rolls of similar width with total area sufficient to cover
+     * the target area. Each spare roll is tried as an anchor: group consists of spare rolls which
+     * aren't narrower than anchor and wider than anchor at most by the tolerance ratio. Rolls
+     * suited for the group are picked by the knapsack selector (see RollGroupSelector) to match
+     * the target area as close as possible, greedy pick (rolls are added in ascending order of
+     * width until target area is covered) is used when selector isn't set or can't do better.
+     * Group with the smallest total area is selected.</p>
+     *
+     * <p>Pattern generated for the group may leave up to the tolerance ratio of the roll width as
+     * trim, so group which covers the target area exactly would leave the same share of demand
+     * uncovered. Greedy pick overshoots the target anyway, while close match doesn't, hence target
+     * area is increased by the tolerance ratio when selector is used (without it over-production
+     * goes up instead of down, see GroupSelectionBenchmark).</p>
+     *
+     * <p>Rolls are enumerated using width index of the problem (see ProblemIndex), so the rolls
+     * suited for the group of the anchor are found in O(log n + k) time. Anchors of the same width
+     * produce the same group and are tried only once. Selector is invoked for at most
+     * MAX_GROUP_SELECTIONS anchors per search to keep mutation cheap on large problems.</p>
+     *
+     * @param targetGroupArea Area to be covered by the group.
+     * @param chromosome      Chromosome, rolls used by chromosome aren't included in group.
+     * @param toleranceRatio  Allowed relative difference between widths of the rolls in group.
+     * @return The best group found or null.
+     */
+    protected List<Roll> searchForGroup(double targetGroupArea, Chromosome chromosome,
+                                        double toleranceRatio) {
+        ProblemIndex index = chromosome.getContext().getProblemIndex();
+        int[] rollsByWidth = index.getRollsByWidth();
+        double[] rollWidths = index.getRollWidths();
+        double[] rollAreas = index.getRollAreas();
+        BitSet usedRolls = chromosome.getUsedRolls();
+        RollGroupSelector selector = groupSelector;
+        if (selector != null) {
+            // close match leaves no room for trim of the pattern generated for group,
+            // see above
+            targetGroupArea *= 1 + toleranceRatio;
+        }
+
+        int[] candidates = null;
+        double[] candidateAreas = null;
+        int selections = 0;
+
+        int[] bestGroup = null;
+        double bestGroupArea = 0;
+        double previousAnchorWidth = -1;
+        for (int anchorRank = 0; anchorRank < rollsByWidth.length; anchorRank++) {
+            int anchor = rollsByWidth[anchorRank];
+            double anchorWidth = rollWidths[anchor];
+            if (usedRolls.get(anchor) || anchorWidth == previousAnchorWidth) {
+                continue;
+            }
+
+            previousAnchorWidth = anchorWidth;
+
+            // all spare rolls which aren't narrower than anchor follow it in the width order
+            double currentGroupArea = 0;
+            int rank = anchorRank;
+            while (rank < rollsByWidth.length && currentGroupArea < targetGroupArea) {
+                int candidate = rollsByWidth[rank];
+                if (1 - anchorWidth / rollWidths[candidate] > toleranceRatio) {
+                    // the rest of the rolls are even wider
+                    break;
+                }
+
+                if (!usedRolls.get(candidate)) {
+                    currentGroupArea += rollAreas[candidate];
+                }
+
+                rank++;
+            }
+
+            if (currentGroupArea < targetGroupArea
+                    || bestGroup != null && bestGroupArea <= targetGroupArea) {
+                // anchor can't be used or exact match is already found
+                continue;
+            }
+
+            int[] currentGroup = null;
+            if (selector != null && selections < MAX_GROUP_SELECTIONS) {
+                if (candidates == null) {
+                    candidates = new int[selector.getMaxItems()];
+                    candidateAreas = new double[selector.getMaxItems()];
+                }
+
+                // narrowest rolls go first and are preferred when limit is reached
+                int size = 0;
+                int candidateRank = anchorRank;
+                while (candidateRank < rollsByWidth.length && size < candidates.length) {
+                    int candidate = rollsByWidth[candidateRank];
+                    if (1 - anchorWidth / rollWidths[candidate] > toleranceRatio) {
+                        break;
+                    }
+
+                    if (!usedRolls.get(candidate)) {
+                        candidates[size] = candidate;
+                        candidateAreas[size] = rollAreas[candidate];
+                        size++;
+                    }
+
+                    candidateRank++;
+                }
+
+                selections++;
+                int[] selected = selector.select(candidateAreas, size, targetGroupArea);
+                if (selected != null) {
+                    double selectedArea = 0;
+                    for (int position : selected) {
+                        selectedArea += candidateAreas[position];
+                    }
+
+                    if (selectedArea >= targetGroupArea && selectedArea < currentGroupArea) {
+                        currentGroup = new int[selected.length];
+                        for (int i = 0; i < selected.length; i++) {
+                            currentGroup[i] = candidates[selected[i]];
+                        }
+
+                        currentGroupArea = selectedArea;
+                    }
+                }
+            }
+
+            if (bestGroup == null || currentGroupArea < bestGroupArea) {
+                if (currentGroup == null) {
+                    currentGroup = collectSpareRolls(rollsByWidth, anchorRank, rank, usedRolls);
+                }
+
+                bestGroup = currentGroup;
+                bestGroupArea = currentGroupArea;
+            }
+        }
+
+        List<Roll> group = null;
+        if (bestGroup != null) {
+            List<Roll> rolls = chromosome.getContext().getProblem().getRolls();
+
+            group = Lists.newArrayListWithCapacity(bestGroup.length);
+            for (int roll : bestGroup) {
+                group.add(rolls.get(roll));
+            }
+        }
+
+        return group;
+    }
+
+    private static int[] collectSpareRolls(int[] rollsByWidth, int fromRank, int toRank,
+                                           BitSet usedRolls) {
+        int[] spareRolls = new int[toRank - fromRank];
+        int size = 0;
+        for (int rank = fromRank; rank < toRank; rank++) {
+            if (!usedRolls.get(rollsByWidth[rank])) {
+                spareRolls[size++] = rollsByWidth[rank];
+            }
+        }
+
+        return Arrays.copyOf(spareRolls, size);
+    }
+
 }
@@ -0,0 +1,226 @@
+package com.akavrt.csp.solver.evo.operators;
+
+import java.util.Arrays;
+
+/**
+ * <p>Selects subset of the rolls with total area sufficient to cover the target area and as close
+ * to it as possible (minimum cover form of the subset sum problem). Selection is done by dynamic
+ * programming over the areas scaled down to a fixed number of cells, so running time is bounded
+ * by O(n * resolution) regardless of the magnitude of the areas.</p>
+ *
+ * <p>Scaled area of each roll is rounded down, so scaled sum of any subset covering the target
+ * area isn't less than scaled target minus n cells, where n is the number of rolls taken into
+ * account. Reachable sums are checked in ascending order starting from this bound and subset is
+ * accepted only if its actual total area covers the target, hence selected rolls always cover the
+ * target area. Only one subset is tracked per sum, so the best subset may be missed: in the rare
+ * case when none of the tracked subsets covers the target, the first rolls which cover it are
+ * picked. Both n and resolution are capped to keep the selector within the budget of a single
+ * mutation: rolls beyond the limit are ignored, so the most preferable rolls should be passed
+ * first.</p>
+ *
+ * <p>Instances can be shared by a number of threads: scratch buffers are confined to the calling
+ * thread.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class RollGroupSelector {
+    public static final int DEFAULT_RESOLUTION = 256;
+    public static final int DEFAULT_MAX_ITEMS = 32;
+    private final int resolution;
+    private final int maxItems;
+    private final ThreadLocal<Workspace> workspace = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    /**
+     * <p>Creates selector with default resolution and limit on the number of rolls.</p>
+     */
+    public RollGroupSelector() {
+        this(DEFAULT_RESOLUTION, DEFAULT_MAX_ITEMS);
+    }
+
+    /**
+     * <p>Creates selector with specified resolution and limit on the number of rolls.</p>
+     *
+     * @param resolution Number of cells the target area is scaled to.
+     * @param maxItems   Maximum number of rolls taken into account by selector.
+     */
+    public RollGroupSelector(int resolution, int maxItems) {
+        if (resolution <= 0 || maxItems <= 0) {
+            throw new IllegalArgumentException("Resolution and number of items must be positive.");
+        }
+
+        this.resolution = resolution;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * <p>Maximum number of rolls taken into account by selector.</p>
+     *
+     * @return Maximum number of rolls.
+     */
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * <p>Selects subset of the rolls with total area equal to or greater than target area and
+     * minimal total area within the precision of scaling. Only the first getMaxItems() rolls are
+     * taken into account.</p>
+     *
+     * @param areas      Areas of the rolls, measured in abstract square units.
+     * @param size       Number of the rolls, i.e. the first size elements of areas are used.
+     * @param targetArea Area to be covered, measured in abstract square units.
+     * @return Positions of the rolls selected in ascending order or null if target area can't be
+     *         covered.
+     */
+    public int[] select(double[] areas, int size, double targetArea) {
+        size = Math.min(size, maxItems);
+        if (targetArea <= 0) {
+            return new int[0];
+        }
+
+        double unit = targetArea / resolution;
+
+        // rolls which cover target alone are never combined with other rolls in the best subset
+        Workspace ws = getWorkspace(size);
+        int bestSingle = -1;
+        int maxWeight = 0;
+        for (int i = 0; i < size; i++) {
+            if (areas[i] >= targetArea) {
+                ws.weights[i] = -1;
+                if (bestSingle < 0 || areas[i] < areas[bestSingle]) {
+                    bestSingle = i;
+                }
+            } else {
+                ws.weights[i] = (int) (areas[i] / unit);
+                maxWeight = Math.max(maxWeight, ws.weights[i]);
+            }
+        }
+
+        int[] best = null;
+        double bestArea = bestSingle >= 0 ? areas[bestSingle] : Double.MAX_VALUE;
+        if (maxWeight > 0) {
+            // sum of any minimal cover is less than target plus the area of the largest roll
+            int capacity = resolution + maxWeight + 1;
+            fillReachableSums(ws, size, capacity);
+
+            // rounding loses less than one cell per roll
+            int[] lastItem = ws.lastItem;
+            for (int cells = Math.max(resolution - size, 1); cells <= capacity; cells++) {
+                if (cells * unit >= bestArea) {
+                    // actual area of the subsets with larger sums is even greater
+                    break;
+                }
+
+                if (lastItem[cells] >= 0) {
+                    int[] subset = reconstruct(ws, cells);
+                    double area = sum(areas, subset);
+                    if (area >= targetArea && area < bestArea) {
+                        best = subset;
+                        bestArea = area;
+                    }
+                }
+            }
+        }
+
+        if (best == null) {
+            best = bestSingle >= 0 ? new int[]{bestSingle} : pickGreedily(areas, size, targetArea);
+        }
+
+        return best;
+    }
+
+    /**
+     * <p>Rounding may hide all covering subsets of the small rolls, the first rolls which cover the
+     * target area together are picked in this case.</p>
+     */
+    private int[] pickGreedily(double[] areas, int size, double targetArea) {
+        double area = 0;
+        int count = 0;
+        while (count < size && area < targetArea) {
+            area += areas[count++];
+        }
+
+        int[] selected = null;
+        if (area >= targetArea) {
+            selected = new int[count];
+            for (int i = 0; i < count; i++) {
+                selected[i] = i;
+            }
+        }
+
+        return selected;
+    }
+
+    private Workspace getWorkspace(int size) {
+        Workspace ws = workspace.get();
+        if (ws.weights == null || ws.weights.length < size) {
+            ws.weights = new int[size];
+        }
+
+        return ws;
+    }
+
+    /**
+     * <p>Fills table of reachable sums: for each reachable sum position of the last roll added to
+     * reach it is stored, -1 marks unreachable sums.</p>
+     */
+    private void fillReachableSums(Workspace ws, int size, int capacity) {
+        if (ws.lastItem == null || ws.lastItem.length <= capacity) {
+            ws.lastItem = new int[capacity + 1];
+        }
+
+        // sum 0 is reachable with empty subset
+        int[] lastItem = ws.lastItem;
+        Arrays.fill(lastItem, 0, capacity + 1, -1);
+        lastItem[0] = size;
+
+        for (int i = 0; i < size; i++) {
+            int weight = ws.weights[i];
+            if (weight <= 0) {
+                continue;
+            }
+
+            // descending order, so each roll is used at most once
+            for (int cells = capacity; cells >= weight; cells--) {
+                if (lastItem[cells] < 0 && lastItem[cells - weight] >= 0) {
+                    lastItem[cells] = i;
+                }
+            }
+        }
+    }
+
+    private int[] reconstruct(Workspace ws, int cells) {
+        int count = 0;
+        for (int rest = cells; rest > 0; rest -= ws.weights[ws.lastItem[rest]]) {
+            count++;
+        }
+
+        // roll recorded for the sum is the last one added, so positions go in descending order
+        int[] selected = new int[count];
+        for (int rest = cells; rest > 0; rest -= ws.weights[ws.lastItem[rest]]) {
+            selected[--count] = ws.lastItem[rest];
+        }
+
+        return selected;
+    }
+
+    private static double sum(double[] areas, int[] positions) {
+        double total = 0;
+        for (int position : positions) {
+            total += areas[position];
+        }
+
+        return total;
+    }
+
+    private static class Workspace {
+        private int[] weights;
+        private int[] lastItem;
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.akavrt.csp.solver.pattern;
+
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Decorator which keeps patterns produced by another pattern generator in bounded cache.
+ * Sequential procedures and mutation operators tend to request patterns for the same rolls and
+ * the same demand over and over again, such requests are served from cache.</p>
+ *
+ * <p>Request is identified by the width of the roll, demand and allowed trim ratio rounded to
+ * TRIM_RATIO_RESOLUTION. Width of the roll isn't rounded: problem defines small set of distinct
+ * roll widths and any rounding would make it possible to return pattern which doesn't fit into
+ * the roll. When the number of cached patterns reaches the limit defined by parameters (see
+ * PatternGeneratorParameters.getCacheSize()), least recently used patterns are evicted.</p>
+ *
+ * <p>Randomized procedure may produce different patterns for the same request, with cache in place
+ * the first one generated would be returned every time. To keep this source of diversity, a
+ * fraction of requests defined by PatternGeneratorParameters.getCacheBypassRate() is passed to
+ * the decorated generator anyway, pattern generated replaces the cached one.</p>
+ *
+ * <p>Cache is thread safe, so single instance can be shared by a number of threads as long as
+ * the decorated generator can be shared too (generators shipped with the solver can't, see
+ * PatternGenerators.copy()). Initialization with another problem swaps in a new empty cache, so
+ * it's safe to initialize generator while other threads are generating patterns: requests in
+ * progress are completed against the previous cache, which is discarded afterwards. Repeated
+ * initialization with the same problem (sequential procedures initialize generator on each run)
+ * keeps patterns already cached.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class CachingPatternGenerator implements PatternGenerator {
+    public static final double TRIM_RATIO_RESOLUTION = 1e-3;
+    // null can't be stored in cache, this marker is used instead
+    private static final int[] NO_PATTERN = new int[0];
+    private final PatternGenerator generator;
+    private final Random rGen;
+    private final int cacheSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+    // cache is replaced as a whole together with the problem it was filled for
+    private volatile Store store;
+
+    /**
+     * <p>Creates cache in front of the provided generator, the size of the cache and the rate of
+     * bypassed requests are taken from the parameters of the decorated generator.</p>
+     *
+     * @param generator Pattern generator to decorate.
+     */
+    public CachingPatternGenerator(PatternGenerator generator) {
+        this.generator = generator;
+        this.rGen = ThreadConfinedRandom.getInstance();
+
+        this.cacheSize = Math.max(generator.getParameters().getCacheSize(), 0);
+        this.store = new Store(null, cacheSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] generate(double rollWidth, int[] demand, double allowedTrimRatio) {
+        Request request = new Request(rollWidth, demand, allowedTrimRatio);
+        Cache<Request, int[]> cache = store.cache;
+
+        double bypassRate = getParameters().getCacheBypassRate();
+        if (bypassRate > 0 && rGen.nextDouble() < bypassRate) {
+            bypasses.incrementAndGet();
+        } else {
+            int[] cached = cache.getIfPresent(request);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached == NO_PATTERN ? null : cached.clone();
+            }
+
+            misses.incrementAndGet();
+        }
+
+        int[] pattern = generator.generate(rollWidth, demand, allowedTrimRatio);
+        cache.put(request, pattern == null ? NO_PATTERN : pattern.clone());
+
+        return pattern;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PatternGeneratorParameters getParameters() {
+        return generator.getParameters();
+    }
+
+    /**
+     * <p>Initializes decorated generator and drops patterns cached for the previous problem.</p>
+     *
+     * @param problem The problem which is being solved.
+     */
+    @Override
+    public synchronized void initialize(Problem problem) {
+        generator.initialize(problem);
+        if (problem == null || store.problem != problem) {
+            store = new Store(problem, cacheSize);
+        }
+    }
+
+    /**
+     * <p>Generator which produces patterns on cache misses.</p>
+     */
+    public PatternGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * <p>Number of requests served from cache.</p>
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * <p>Number of requests which weren't found in cache.</p>
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * <p>Number of requests passed to the decorated generator without cache lookup.</p>
+     */
+    public long getBypassCount() {
+        return bypasses.get();
+    }
+
+    /**
+     * <p>Fraction of all requests served from cache.</p>
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get() + bypasses.get();
+        return total == 0 ? 0 : hits.get() / (double) total;
+    }
+
+    /**
+     * <p>Approximate number of patterns currently cached.</p>
+     */
+    public long getCachedCount() {
+        return store.cache.size();
+    }
+
+    private static class Store {
+        private final Problem problem;
+        private final Cache<Request, int[]> cache;
+
+        private Store(Problem problem, int cacheSize) {
+            this.problem = problem;
+            this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        }
+    }
+
+    /**
+     * <p>Key of the cache: copy of the demand is kept, so callers are free to modify their
+     * arrays.</p>
+     */
+    private static class Request {
+        private final long rollWidthBits;
+        private final long trimRatioBucket;
+        private final int[] demand;
+        private final int hashCode;
+
+        public Request(double rollWidth, int[] demand, double allowedTrimRatio) {
+            this.rollWidthBits = Double.doubleToLongBits(rollWidth);
+            this.trimRatioBucket = Math.round(allowedTrimRatio / TRIM_RATIO_RESOLUTION);
+            this.demand = demand.clone();
+
+            int hash = Arrays.hashCode(this.demand);
+            hash = 31 * hash + (int) (rollWidthBits ^ (rollWidthBits >>> 32));
+            hash = 31 * hash + (int) (trimRatioBucket ^ (trimRatioBucket >>> 32));
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Request)) {
+                return false;
+            }
+
+            Request request = (Request) o;
+
+            return rollWidthBits == request.rollWidthBits
+                    && trimRatioBucket == request.trimRatioBucket
+                    && Arrays.equals(demand, request.demand);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package com.akavrt.csp.solver.pattern;
 
 import com.akavrt.csp.core.Order;
 import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
 
 import java.util.Arrays;
 import java.util.List;
@@ -12,18 +13,23 @@ import java.util.Random;
  * <a href="http://dx.doi.org/10.1016/0377-2217(95)00198-0">paper</a>. Constraint on the maximum
  * number of cuts allowed within one pattern can be imposed.</p>
  *
- * <p>This implementation is not thread safe.</p>
+ * <p>Once initialized, this implementation can be shared by a number of threads: scratch buffers
+ * used in generation process are confined to the calling thread. Initialization itself isn't
+ * thread safe and must not be done while generator is in use.</p>
  *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class ConstrainedPatternGenerator implements PatternGenerator {
     private final Random rGen;
-    private double[] widths;
+    private volatile double[] widths;
     private int allowedCutsNumber;
     private PatternGeneratorParameters params;
-    private int[] currPattern;
-    private int[] bestPattern;
-    private double currTrim;
+    private final ThreadLocal<Workspace> workspace = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
 
     /**
      * <p>Create instance of constrained pattern generator with default set of parameters.</p>
@@ -65,7 +71,7 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
         }
 
         this.params = params;
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
     }
 
     /**
@@ -81,8 +87,10 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
      */
     @Override
     public void initialize(Problem problem) {
-        setOrders(problem.getOrders());
+        // widths are published last, so threads already using
+        // generator observe consistent set of constraints
         setAllowedCutsNumber(problem.getAllowedCutsNumber());
+        setOrders(problem.getOrders());
     }
 
     /**
@@ -92,13 +100,12 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
      * @param orders The list of orders defined within problem.
      */
     private void setOrders(List<Order> orders) {
-        widths = new double[orders.size()];
+        double[] orderWidths = new double[orders.size()];
         for (int i = 0; i < orders.size(); i++) {
-            widths[i] = orders.get(i).getWidth();
+            orderWidths[i] = orders.get(i).getWidth();
         }
 
-        currPattern = new int[widths.length];
-        bestPattern = new int[widths.length];
+        widths = orderWidths;
     }
 
     /**
@@ -117,33 +124,47 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
      */
     @Override
     public int[] generate(double rollWidth, int[] demand, double allowedTrimRatio) {
+        double[] widths = this.widths;
         if (widths == null) {
             return null;
         }
 
-        int totalItems = 0;
-        double minUnfulfilledWidth = 0;
-        for (int i = 0; i < widths.length; i++) {
-            totalItems += demand[i];
+        // pattern is built in scratch buffer, so array is allocated only if pattern was generated
+        Workspace ws = getWorkspace(widths);
 
-            if ((minUnfulfilledWidth == 0 || widths[i] < minUnfulfilledWidth) && demand[i] > 0) {
-                minUnfulfilledWidth = widths[i];
-            }
-        }
+        return generate(widths, rollWidth, demand, allowedTrimRatio, ws)
+                ? Arrays.copyOf(ws.bestPattern, widths.length)
+                : null;
+    }
 
-        if (minUnfulfilledWidth == 0 || minUnfulfilledWidth > rollWidth || totalItems == 0) {
-            return null;
-        }
+    /**
+     * <p>Generated pattern is written into the scratch buffer of the workspace.</p>
+     *
+     * @return true if pattern was generated, false if not a single strip can be cut from the roll.
+     */
+    private boolean generate(double[] widths, double rollWidth, int[] demand,
+                             double allowedTrimRatio, Workspace ws) {
+        int[] pattern = ws.bestPattern;
 
-        // check whether simple greedy placement is possible
+        // orders which can be cut from the roll, each trial starts from this set
+        int candidatesCount = 0;
         double totalWidth = 0;
         for (int i = 0; i < widths.length; i++) {
             totalWidth += widths[i] * demand[i];
+
+            if (demand[i] > 0 && widths[i] <= rollWidth) {
+                ws.initialCandidates[candidatesCount++] = i;
+            }
         }
 
+        if (candidatesCount == 0) {
+            return false;
+        }
+
+        // check whether simple greedy placement is possible
         if (totalWidth <= rollWidth) {
             // use greedy placement
-            greedyPlacement(demand);
+            greedyPlacement(widths, demand, pattern);
         } else {
             // use randomized generation procedure
             int trialCounter = 0;
@@ -151,15 +172,13 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
             double allowedTrim = rollWidth * allowedTrimRatio;
 
             do {
-                trial(rollWidth, demand, totalItems);
+                double trim = trial(widths, rollWidth, demand, candidatesCount, ws);
 
                 // if new pattern is better than the current best,
                 // replace latter one with new pattern
-                if (getCurrentTrim() < bestTrim) {
-                    bestTrim = getCurrentTrim();
-
-                    int[] generatedPattern = getCurrentPattern();
-                    System.arraycopy(generatedPattern, 0, bestPattern, 0, bestPattern.length);
+                if (trim < bestTrim) {
+                    bestTrim = trim;
+                    System.arraycopy(ws.trialPattern, 0, pattern, 0, pattern.length);
                 }
 
                 trialCounter++;
@@ -167,7 +186,7 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
             while (trialCounter < params.getGenerationTrialsLimit() && bestTrim > allowedTrim);
         }
 
-        return bestPattern.clone();
+        return true;
     }
 
     /**
@@ -177,7 +196,7 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
      * Otherwise we should solve corresponding knapsack problem to get the best greedy placement
      * available.</p>
      */
-    private void greedyPlacement(int[] demand) {
+    private void greedyPlacement(double[] widths, int[] demand, int[] bestPattern) {
         Arrays.fill(bestPattern, 0);
         int addedItems = 0;
         boolean isCutsUnconstrained = allowedCutsNumber == 0;
@@ -198,59 +217,73 @@ public class ConstrainedPatternGenerator implements PatternGenerator {
         }
     }
 
-    private void trial(double rollWidth, int[] demand, int totalItems) {
-        // reuse pattern, no need to create a new one
-        int[] trialPattern = getCurrentPattern();
+    /**
+     * <p>Places randomly chosen strips until no more strips can be cut from the roll. Orders which
+     * still can be placed are kept in the set of candidates: order is swap-removed from the set
+     * as soon as its demand is fulfilled or it is drawn and turns out to be wider than the width
+     * remained. Width remained only decreases, so such order never fits again. Thus each draw
+     * either places a strip or shrinks the set of candidates, no draws are wasted and nothing is
+     * rescanned after placement.</p>
+     *
+     * @return Trim loss of the generated pattern, pattern itself is written to the workspace.
+     */
+    private double trial(double[] widths, double rollWidth, int[] demand, int candidatesCount,
+                         Workspace ws) {
+        int[] trialPattern = ws.trialPattern;
+        int[] candidates = ws.candidates;
 
         // reset pattern
         Arrays.fill(trialPattern, 0);
+        System.arraycopy(ws.initialCandidates, 0, candidates, 0, candidatesCount);
 
         int addedItems = 0;
         double trialUnusedWidth = rollWidth;
-        boolean cutCanBeMade = true;
 
         // generate pattern
-        do {
-            int index = rGen.nextInt(widths.length);
-            if (widths[index] <= trialUnusedWidth && demand[index] - trialPattern[index] > 0) {
+        while (candidatesCount > 0
+                && (allowedCutsNumber == 0 || addedItems < allowedCutsNumber)) {
+            int position = rGen.nextInt(candidatesCount);
+            int index = candidates[position];
+
+            if (widths[index] <= trialUnusedWidth) {
                 trialPattern[index]++;
                 trialUnusedWidth -= widths[index];
                 addedItems++;
 
-                // pattern was changed,
-                // check if any unfulfilled order can be cut from width remained
-                cutCanBeMade = false;
-                for (int i = 0; i < widths.length; i++) {
-                    if (demand[i] - trialPattern[i] > 0 && widths[i] <= trialUnusedWidth) {
-                        cutCanBeMade = true;
-                        break;
-                    }
+                if (trialPattern[index] < demand[index]) {
+                    continue;
                 }
             }
 
+            // order is either fulfilled or doesn't fit anymore
+            candidates[position] = candidates[--candidatesCount];
         }
-        while (cutCanBeMade && totalItems - addedItems > 0
-                && (allowedCutsNumber == 0 || addedItems < allowedCutsNumber));
 
         // no need to calculate trim twice
         // we can use this value when evaluation pattern quality
-        setCurrentTrim(trialUnusedWidth);
-        setCurrentPattern(trialPattern);
-    }
-
-    private double getCurrentTrim() {
-        return currTrim;
+        return trialUnusedWidth;
     }
 
-    private void setCurrentTrim(double unusedWidth) {
-        this.currTrim = unusedWidth;
-    }
+    /**
+     * <p>Returns scratch buffers confined to the calling thread, buffers are resized lazily if
+     * generator was reinitialized with a different list of orders.</p>
+     */
+    private Workspace getWorkspace(double[] widths) {
+        Workspace current = workspace.get();
+        if (current.trialPattern == null || current.trialPattern.length != widths.length) {
+            current.trialPattern = new int[widths.length];
+            current.bestPattern = new int[widths.length];
+            current.candidates = new int[widths.length];
+            current.initialCandidates = new int[widths.length];
+        }
 
-    private int[] getCurrentPattern() {
-        return currPattern;
+        return current;
     }
 
-    private void setCurrentPattern(int[] pattern) {
-        this.currPattern = pattern;
+    private static class Workspace {
+        private int[] trialPattern;
+        private int[] bestPattern;
+        private int[] candidates;
+        private int[] initialCandidates;
     }
 }
@@ -0,0 +1,383 @@
+package com.akavrt.csp.solver.pattern;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Deterministic pattern generation procedure which solves the bounded knapsack problem exactly:
+ * pattern with the maximum total width is generated for the given roll, number of strips cut for
+ * each order is limited by demand and total number of strips is limited by the maximum number of
+ * cuts allowed within one pattern. Among the patterns of the same width the one with the smallest
+ * number of cuts is preferred.</p>
+ *
+ * <p>Widths are scaled to an integer grid chosen once per problem. If widths of all orders and
+ * rolls are multiples of some decimal unit and the widest roll fits into the grid size specified
+ * in parameters, scaling is exact. Otherwise widths of the orders are rounded up to the grid, so
+ * patterns are always valid but could be slightly worse than optimal: each strip loses less than
+ * one cell of the grid.</p>
+ *
+ * <p>Dynamic programming is done over the cells of the grid: for each total width the minimal
+ * number of cuts needed to reach it is stored, demand is handled by splitting each order into
+ * items of 1, 2, 4, ... strips. Table is built for the width of the roll requested on each call,
+ * which takes O(r * m * log(d)) time, where r is the number of the widths reachable (at most the
+ * width of the roll in cells, usually much less when the number of cuts is limited), m is the
+ * number of orders and d is the maximum demand. Demand changes between calls made by
+ * evolutionary algorithm, so tables aren't reused, only the arrays they are kept in.</p>
+ *
+ * <p>Once initialized, this implementation can be shared by a number of threads: tables are
+ * confined to the calling thread. Initialization itself isn't thread safe and must not be done
+ * while generator is in use.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class KnapsackPatternGenerator implements PatternGenerator {
+    private static final int MAX_DECIMAL_PLACES = 9;
+    private static final double EPSILON = 1e-9;
+    private volatile Grid grid;
+    private PatternGeneratorParameters params;
+    private final ThreadLocal<Workspace> workspace = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    /**
+     * <p>Create instance of knapsack pattern generator with default set of parameters.</p>
+     */
+    public KnapsackPatternGenerator() {
+        this(null, new PatternGeneratorParameters());
+    }
+
+    /**
+     * <p>Create instance of knapsack pattern generator configured with a set of parameters
+     * provided.</p>
+     *
+     * @param params Parameters of pattern generator.
+     */
+    public KnapsackPatternGenerator(PatternGeneratorParameters params) {
+        this(null, params);
+    }
+
+    /**
+     * <p>Create instance of knapsack pattern generator configured with a set of parameters
+     * provided tied to specific problem.</p>
+     *
+     * @param problem Problem used to retrieve width of each order and set of constraints.
+     * @param params  Parameters of pattern generator.
+     */
+    public KnapsackPatternGenerator(Problem problem, PatternGeneratorParameters params) {
+        this.params = params;
+
+        if (problem != null) {
+            initialize(problem);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PatternGeneratorParameters getParameters() {
+        return params;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(Problem problem) {
+        grid = new Grid(problem, params.getGridSize());
+    }
+
+    /**
+     * <p>Generates pattern with the maximum total width. Acceptable level of trim loss isn't
+     * used: pattern found is the best one available within the precision of the grid.</p>
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] generate(double rollWidth, int[] demand, double allowedTrimRatio) {
+        Grid current = grid;
+        if (current == null) {
+            return null;
+        }
+
+        int[] cells = current.cells;
+        int maxCuts = current.allowedCutsNumber == 0 ? Integer.MAX_VALUE
+                                                     : current.allowedCutsNumber;
+
+        int capacity = (int) Math.floor(rollWidth / current.unit + EPSILON);
+        long demandedCells = 0;
+        int demandedCuts = 0;
+        for (int i = 0; i < cells.length; i++) {
+            demandedCells += (long) cells[i] * demand[i];
+            demandedCuts += demand[i];
+        }
+
+        int[] pattern = new int[cells.length];
+        if (demandedCells <= capacity && demandedCuts <= maxCuts) {
+            // all strips demanded fit into roll
+            System.arraycopy(demand, 0, pattern, 0, pattern.length);
+            return demandedCuts > 0 ? pattern : null;
+        }
+
+        Workspace ws = getWorkspace(cells.length, capacity);
+
+        // demand beyond the number of strips which fit into roll doesn't affect the table
+        for (int i = 0; i < cells.length; i++) {
+            ws.bounds[i] = Math.min(Math.min(demand[i], maxCuts), capacity / cells[i]);
+        }
+
+        ws.capacity = capacity;
+        ws.items = split(cells, ws);
+        solve(ws);
+
+        // skip unreachable widths and widths which require too many cuts
+        int[] minCuts = ws.minCuts;
+        int bestWidth = capacity;
+        while (bestWidth > 0
+                && (minCuts[bestWidth] == Integer.MAX_VALUE || minCuts[bestWidth] > maxCuts)) {
+            bestWidth--;
+        }
+
+        if (bestWidth == 0) {
+            return null;
+        }
+
+        // walk items backward restoring decisions made
+        int rest = bestWidth;
+        for (int item = ws.items - 1; item >= 0; item--) {
+            if (isChosen(ws, item, rest)) {
+                pattern[ws.itemOrders[item]] += ws.itemCuts[item];
+                rest -= ws.itemCells[item];
+            }
+        }
+
+        return pattern;
+    }
+
+    /**
+     * <p>Splits bounded number of strips of each order into items of 1, 2, 4, ... strips, so any
+     * number of strips within bound can be composed of distinct items.</p>
+     *
+     * @return Number of items.
+     */
+    private int split(int[] cells, Workspace ws) {
+        int items = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int remaining = ws.bounds[i];
+            int cuts = 1;
+            while (remaining > 0) {
+                int itemCuts = Math.min(cuts, remaining);
+                ws.ensureItems(items + 1);
+                ws.itemOrders[items] = i;
+                ws.itemCuts[items] = itemCuts;
+                ws.itemCells[items] = itemCuts * cells[i];
+                items++;
+
+                remaining -= itemCuts;
+                cuts <<= 1;
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * <p>Fills table of the minimal number of cuts for each total width up to the capacity of the
+     * table, decisions made for each item are recorded as well. Only widths already reached are
+     * extended with the next item, so the number of the widths reachable rather than the
+     * capacity of the table defines running time.</p>
+     */
+    private void solve(Workspace ws) {
+        int capacity = ws.capacity;
+        int[] minCuts = ws.minCuts;
+        int[] reached = ws.reached;
+
+        // only widths reached while building the previous table have to be reset
+        for (int i = 0; i < ws.reachedCount; i++) {
+            minCuts[reached[i]] = Integer.MAX_VALUE;
+        }
+
+        minCuts[0] = 0;
+        reached[0] = 0;
+        int reachedCount = 1;
+
+        ws.ensureChoices(ws.items, capacity);
+        int rowLength = ws.rowLength;
+        long[] choices = ws.choices;
+        for (int item = 0; item < ws.items; item++) {
+            int offset = item * rowLength;
+            Arrays.fill(choices, offset, offset + rowLength, 0);
+
+            int itemCells = ws.itemCells[item];
+            int itemCuts = ws.itemCuts[item];
+
+            // candidates are evaluated before table is updated, so each item is used at most once
+            int candidates = 0;
+            for (int i = 0; i < reachedCount; i++) {
+                int width = reached[i] + itemCells;
+                if (width <= capacity) {
+                    ws.candidateWidths[candidates] = width;
+                    ws.candidateCuts[candidates] = minCuts[reached[i]] + itemCuts;
+                    candidates++;
+                }
+            }
+
+            for (int i = 0; i < candidates; i++) {
+                int width = ws.candidateWidths[i];
+                int cuts = ws.candidateCuts[i];
+                if (cuts < minCuts[width]) {
+                    if (minCuts[width] == Integer.MAX_VALUE) {
+                        reached[reachedCount++] = width;
+                    }
+
+                    minCuts[width] = cuts;
+                    choices[offset + (width >>> 6)] |= 1L << width;
+                }
+            }
+        }
+
+        ws.reachedCount = reachedCount;
+    }
+
+    private boolean isChosen(Workspace ws, int item, int width) {
+        return (ws.choices[item * ws.rowLength + (width >>> 6)] & (1L << width)) != 0;
+    }
+
+    private Workspace getWorkspace(int orders, int capacity) {
+        Workspace ws = workspace.get();
+        if (ws.minCuts == null || ws.minCuts.length <= capacity) {
+            ws.minCuts = new int[capacity + 1];
+            Arrays.fill(ws.minCuts, Integer.MAX_VALUE);
+            ws.reached = new int[capacity + 1];
+            ws.reachedCount = 0;
+            ws.candidateWidths = new int[capacity + 1];
+            ws.candidateCuts = new int[capacity + 1];
+        }
+
+        if (ws.bounds == null || ws.bounds.length != orders) {
+            ws.bounds = new int[orders];
+        }
+
+        return ws;
+    }
+
+    /**
+     * <p>Widths of the orders scaled to the grid chosen for the problem.</p>
+     */
+    private static class Grid {
+        private final double unit;
+        private final int[] cells;
+        private final int allowedCutsNumber;
+
+        public Grid(Problem problem, int gridSize) {
+            List<Order> orders = problem.getOrders();
+            double[] widths = new double[orders.size()];
+            for (int i = 0; i < orders.size(); i++) {
+                widths[i] = orders.get(i).getWidth();
+            }
+
+            // the widest order is used as reference if problem has no rolls
+            double maxRollWidth = 0;
+            for (Roll roll : problem.getRolls()) {
+                maxRollWidth = Math.max(maxRollWidth, roll.getWidth());
+            }
+
+            for (int i = 0; i < widths.length && problem.getRolls().isEmpty(); i++) {
+                maxRollWidth = Math.max(maxRollWidth, widths[i]);
+            }
+
+            double decimalUnit = findDecimalUnit(widths, problem.getRolls(), maxRollWidth,
+                                                 gridSize);
+            unit = decimalUnit > 0 ? decimalUnit : maxRollWidth / gridSize;
+
+            cells = new int[widths.length];
+            for (int i = 0; i < widths.length; i++) {
+                // rounding up guarantees that pattern fits into roll
+                cells[i] = Math.max((int) Math.ceil(widths[i] / unit - EPSILON), 1);
+            }
+
+            allowedCutsNumber = problem.getAllowedCutsNumber();
+        }
+
+        /**
+         * <p>Finds the largest decimal unit all widths are multiples of, returns zero if there is
+         * no such unit or the widest roll doesn't fit into grid of the specified size.</p>
+         */
+        private static double findDecimalUnit(double[] widths, List<Roll> rolls,
+                                              double maxRollWidth, int gridSize) {
+            double scale = 1;
+            for (int places = 0; places <= MAX_DECIMAL_PLACES; places++) {
+                if (maxRollWidth * scale > gridSize) {
+                    break;
+                }
+
+                boolean isExact = true;
+                for (int i = 0; i < widths.length && isExact; i++) {
+                    isExact = isMultiple(widths[i], scale);
+                }
+
+                for (int i = 0; i < rolls.size() && isExact; i++) {
+                    isExact = isMultiple(rolls.get(i).getWidth(), scale);
+                }
+
+                if (isExact) {
+                    return 1 / scale;
+                }
+
+                scale *= 10;
+            }
+
+            return 0;
+        }
+
+        private static boolean isMultiple(double width, double scale) {
+            double scaled = width * scale;
+            return Math.abs(scaled - Math.rint(scaled)) < EPSILON * Math.max(scaled, 1);
+        }
+    }
+
+    /**
+     * <p>Tables used by dynamic programming, confined to the calling thread.</p>
+     */
+    private static class Workspace {
+        // capacity of the table and bounds on the number of strips it is built for
+        private int capacity;
+        private int[] bounds;
+        private int items;
+        private int[] minCuts;
+        private int[] reached;
+        private int reachedCount;
+        private int[] candidateWidths;
+        private int[] candidateCuts;
+        private long[] choices;
+        private int rowLength;
+        private int[] itemOrders = new int[0];
+        private int[] itemCuts = new int[0];
+        private int[] itemCells = new int[0];
+
+        private void ensureItems(int items) {
+            if (itemOrders.length < items) {
+                int length = Math.max(items, 2 * itemOrders.length);
+                itemOrders = Arrays.copyOf(itemOrders, length);
+                itemCuts = Arrays.copyOf(itemCuts, length);
+                itemCells = Arrays.copyOf(itemCells, length);
+            }
+        }
+
+        private void ensureChoices(int items, int capacity) {
+            rowLength = (capacity >>> 6) + 1;
+            long required = (long) items * rowLength;
+            if (choices == null || choices.length < required) {
+                choices = new long[(int) required];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.akavrt.csp.solver.pattern;
+
+/**
+ * <p>Defines which implementation of PatternGenerator is created from the set of parameters, see
+ * PatternGenerators.create().</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public enum PatternGenerationMethod {
+    /**
+     * <p>Randomized multistart procedure, see ConstrainedPatternGenerator.</p>
+     */
+    RANDOMIZED("randomized"),
+    /**
+     * <p>Exact solution of the bounded knapsack problem, see KnapsackPatternGenerator.</p>
+     */
+    KNAPSACK("knapsack");
+    private final String name;
+
+    PatternGenerationMethod(String name) {
+        this.name = name;
+    }
+
+    /**
+     * <p>Name of the method used in XML export and import.</p>
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <p>Finds method by its name.</p>
+     *
+     * @param name Name of the method.
+     * @return Method with the specified name or null, if nothing was found.
+     */
+    public static PatternGenerationMethod fromName(String name) {
+        for (PatternGenerationMethod method : values()) {
+            if (method.getName().equalsIgnoreCase(name)) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+}
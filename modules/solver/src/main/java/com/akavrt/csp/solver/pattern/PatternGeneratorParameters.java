@@ -6,8 +6,11 @@ import com.akavrt.csp.xml.XmlUtils;
 import org.jdom2.Element;
 
 /**
- * <p>Parameters of the randomized multistart pattern generation procedure, see
- * ConstrainedPatternGenerator for more details.</p>
+ * <p>Parameters of the pattern generation procedures. Method defines which procedure is used:
+ * randomized multistart procedure (see ConstrainedPatternGenerator) is limited by the number of
+ * trials while exact procedure (see KnapsackPatternGenerator) is limited by the size of the grid
+ * widths are scaled to. Generated patterns can be cached (see CachingPatternGenerator), cache
+ * is disabled by default.</p>
  *
  * <p>An instance of this class can be saved to XML and extracted from it using methods defined in
  * XmlCompatible interface.</p>
@@ -16,7 +19,16 @@ import org.jdom2.Element;
  */
 public class PatternGeneratorParameters extends BaseParameters {
     private static final int DEFAULT_GENERATION_TRIALS_LIMIT = 20;
+    private static final PatternGenerationMethod DEFAULT_METHOD =
+            PatternGenerationMethod.RANDOMIZED;
+    private static final int DEFAULT_GRID_SIZE = 1 << 15;
+    private static final int DEFAULT_CACHE_SIZE = 0;
+    private static final double DEFAULT_CACHE_BYPASS_RATE = 0;
     private int generationTrialsLimit = DEFAULT_GENERATION_TRIALS_LIMIT;
+    private PatternGenerationMethod method = DEFAULT_METHOD;
+    private int gridSize = DEFAULT_GRID_SIZE;
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private double cacheBypassRate = DEFAULT_CACHE_BYPASS_RATE;
 
     /**
      * <p>Maximum number of trials can be used by procedure while generating pattern.</p>
@@ -34,6 +46,91 @@ public class PatternGeneratorParameters extends BaseParameters {
         this.generationTrialsLimit = generationTrialsLimit;
     }
 
+    /**
+     * <p>Pattern generation method, randomized multistart procedure is used by default.</p>
+     */
+    public PatternGenerationMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * <p>Set the pattern generation method.</p>
+     *
+     * @param method Pattern generation method.
+     */
+    public void setMethod(PatternGenerationMethod method) {
+        this.method = method;
+    }
+
+    /**
+     * <p>Maximum number of cells the width of the widest roll is scaled to by exact procedure.</p>
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * <p>Set the maximum number of cells the width of the widest roll is scaled to by exact
+     * procedure. Finer grid gives better patterns but each pattern takes longer to generate.</p>
+     *
+     * @param gridSize Maximum number of cells.
+     */
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    /**
+     * <p>Maximum number of patterns kept in cache, zero means that cache isn't used.</p>
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * <p>Set the maximum number of patterns kept in cache. When cache is full, least recently used
+     * patterns are evicted.</p>
+     *
+     * @param cacheSize Maximum number of cached patterns, zero disables cache.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * <p>Fraction of requests which bypass cache even if suitable pattern was cached.</p>
+     */
+    public double getCacheBypassRate() {
+        return cacheBypassRate;
+    }
+
+    /**
+     * <p>Set the fraction of requests which bypass cache. Randomized procedure may produce
+     * different patterns for the same request, bypassing cache from time to time keeps this
+     * source of diversity available to the search.</p>
+     *
+     * @param cacheBypassRate Fraction of bypassed requests, value can vary from 0 to 1.
+     */
+    public void setCacheBypassRate(double cacheBypassRate) {
+        this.cacheBypassRate = cacheBypassRate;
+    }
+
+    /**
+     * <p>Creates independent copy of this set of parameters, including description.</p>
+     *
+     * @return New instance of parameters with the same values.
+     */
+    public PatternGeneratorParameters copy() {
+        PatternGeneratorParameters copy = new PatternGeneratorParameters();
+        copy.setDescription(getDescription());
+        copy.setGenerationTrialsLimit(generationTrialsLimit);
+        copy.setMethod(method);
+        copy.setGridSize(gridSize);
+        copy.setCacheSize(cacheSize);
+        copy.setCacheBypassRate(cacheBypassRate);
+
+        return copy;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -52,6 +149,28 @@ public class PatternGeneratorParameters extends BaseParameters {
         generationTrialsLimitElm.setText(Integer.toString(getGenerationTrialsLimit()));
         paramsElm.addContent(generationTrialsLimitElm);
 
+        // optional method
+        if (getMethod() != DEFAULT_METHOD) {
+            Element methodElm = new Element(XmlTags.METHOD);
+            methodElm.setText(getMethod().getName());
+            paramsElm.addContent(methodElm);
+        }
+
+        // optional grid size
+        if (getGridSize() != DEFAULT_GRID_SIZE) {
+            Element gridSizeElm = new Element(XmlTags.GRID_SIZE);
+            gridSizeElm.setText(Integer.toString(getGridSize()));
+            paramsElm.addContent(gridSizeElm);
+        }
+
+        Element cacheSizeElm = new Element(XmlTags.CACHE_SIZE);
+        cacheSizeElm.setText(Integer.toString(getCacheSize()));
+        paramsElm.addContent(cacheSizeElm);
+
+        Element cacheBypassRateElm = new Element(XmlTags.CACHE_BYPASS_RATE);
+        cacheBypassRateElm.setText(XmlUtils.formatDouble(getCacheBypassRate()));
+        paramsElm.addContent(cacheBypassRateElm);
+
         return paramsElm;
     }
 
@@ -70,6 +189,21 @@ public class PatternGeneratorParameters extends BaseParameters {
             int limit = XmlUtils.getIntegerFromText(limitElm, DEFAULT_GENERATION_TRIALS_LIMIT);
             setGenerationTrialsLimit(limit);
         }
+
+        PatternGenerationMethod method = PatternGenerationMethod.fromName(
+                rootElm.getChildText(XmlTags.METHOD));
+        setMethod(method != null ? method : DEFAULT_METHOD);
+
+        int gridSize = XmlUtils.getIntegerFromText(rootElm, XmlTags.GRID_SIZE, DEFAULT_GRID_SIZE);
+        setGridSize(gridSize);
+
+        int cacheSize = XmlUtils.getIntegerFromText(rootElm, XmlTags.CACHE_SIZE,
+                                                    DEFAULT_CACHE_SIZE);
+        setCacheSize(cacheSize);
+
+        double bypassRate = XmlUtils.getDoubleFromText(rootElm, XmlTags.CACHE_BYPASS_RATE,
+                                                       DEFAULT_CACHE_BYPASS_RATE);
+        setCacheBypassRate(bypassRate);
     }
 
     /**
@@ -83,6 +217,10 @@ public class PatternGeneratorParameters extends BaseParameters {
     private interface XmlTags {
         String PATTERN = "pattern";
         String GENERATION_TRIALS_LIMIT = "generation-trials-limit";
+        String METHOD = "method";
+        String GRID_SIZE = "grid-size";
+        String CACHE_SIZE = "cache-size";
+        String CACHE_BYPASS_RATE = "cache-bypass-rate";
         String DESCRIPTION = "description";
     }
 
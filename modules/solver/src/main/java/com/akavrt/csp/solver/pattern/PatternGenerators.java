@@ -0,0 +1,84 @@
+package com.akavrt.csp.solver.pattern;
+
+/**
+ * <p>Creates pattern generators from the set of parameters, implementation is defined by the
+ * method specified in parameters (see PatternGeneratorParameters.getMethod()). If cache is enabled
+ * by parameters, generator is wrapped into CachingPatternGenerator.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public final class PatternGenerators {
+
+    private PatternGenerators() {
+    }
+
+    /**
+     * <p>Creates pattern generator configured with a set of parameters provided, generator has
+     * to be initialized with the problem before use.</p>
+     *
+     * @param params Parameters of pattern generator, default set is used if null is provided.
+     * @return New instance of pattern generator.
+     */
+    public static PatternGenerator create(PatternGeneratorParameters params) {
+        if (params == null) {
+            params = new PatternGeneratorParameters();
+        }
+
+        PatternGenerator generator;
+        if (params.getMethod() == PatternGenerationMethod.KNAPSACK) {
+            generator = new KnapsackPatternGenerator(params);
+        } else {
+            generator = new ConstrainedPatternGenerator(params);
+        }
+
+        return params.getCacheSize() > 0 ? new CachingPatternGenerator(generator) : generator;
+    }
+
+    /**
+     * <p>Creates independent generator configured the same way as the provided one: parameters
+     * are copied and new instance doesn't share any state (including cache) with the original.
+     * Sequential procedures initialize generator on each run, so procedures executed concurrently
+     * have to use their own generators. Copy has to be initialized with the problem before use.</p>
+     *
+     * <p>Only generators shipped with the solver can be copied, see isCopyable().</p>
+     *
+     * @param generator Generator to copy.
+     * @return New instance of pattern generator or null if type of generator is unknown.
+     */
+    public static PatternGenerator copy(PatternGenerator generator) {
+        if (!isCopyable(generator)) {
+            return null;
+        }
+
+        if (generator.getClass() == CachingPatternGenerator.class) {
+            return new CachingPatternGenerator(
+                    copy(((CachingPatternGenerator) generator).getGenerator()));
+        }
+
+        PatternGeneratorParameters params = generator.getParameters().copy();
+
+        return generator.getClass() == KnapsackPatternGenerator.class
+                ? new KnapsackPatternGenerator(params)
+                : new ConstrainedPatternGenerator(params);
+    }
+
+    /**
+     * <p>Checks whether independent copy of the generator can be created with copy().</p>
+     *
+     * @param generator Generator to check.
+     * @return true if generator is one of the generators shipped with the solver.
+     */
+    public static boolean isCopyable(PatternGenerator generator) {
+        if (generator == null) {
+            return false;
+        }
+
+        if (generator.getClass() == CachingPatternGenerator.class) {
+            return isCopyable(((CachingPatternGenerator) generator).getGenerator());
+        }
+
+        return generator.getClass() == KnapsackPatternGenerator.class
+                || generator.getClass() == ConstrainedPatternGenerator.class;
+    }
+
+}
@@ -93,7 +93,7 @@ public class HaesslerProcedure extends SequentialProcedure {
     @Override
     protected Solution search() {
         Solution solution = new Solution(context.getProblem());
-        while (!context.isCancelled() &&
+        while (!isStopped() &&
                 !orderManager.isOrdersFulfilled() && rollManager.size() > 0) {
             BuildingBlock block = trimStep();
 
@@ -120,7 +120,7 @@ public class HaesslerProcedure extends SequentialProcedure {
 
         double allowedTrimRatio = params.getTrimRatioLowerBound();
 
-        while (!context.isCancelled() && allowedTrimRatio < 1 && block == null) {
+        while (!isStopped() && allowedTrimRatio < 1 && block == null) {
             LOGGER.debug("#TRIM_AL: %.2f", allowedTrimRatio);
 
             block = patternUsageStep(allowedTrimRatio);
@@ -138,7 +138,7 @@ public class HaesslerProcedure extends SequentialProcedure {
         // let's evaluate maximum possible pattern usage
         int patternUsage = evaluatePatternUsage(allowedTrimRatio);
 
-        while (!context.isCancelled() && patternUsage > 0 && block == null) {
+        while (!isStopped() && patternUsage > 0 && block == null) {
             LOGGER.debug("#TRIM_AL: %.2f  ##PU_AL: %d", allowedTrimRatio, patternUsage);
 
             block = rollGroupStep(allowedTrimRatio, patternUsage);
@@ -4,6 +4,7 @@ import com.akavrt.csp.core.*;
 import com.akavrt.csp.core.metadata.SolutionMetadata;
 import com.akavrt.csp.solver.Algorithm;
 import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.ExecutionContexts;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
 import com.akavrt.csp.utils.ParameterSet;
 import com.akavrt.csp.utils.Utils;
@@ -106,6 +107,14 @@ public abstract class SequentialProcedure implements Algorithm {
         return parameters;
     }
 
+    /**
+     * <p>Checks whether search have to be stopped either due to the cancel request or because
+     * the deadline set by context has passed.</p>
+     */
+    protected boolean isStopped() {
+        return ExecutionContexts.isStopped(context);
+    }
+
     /**
      * <p>Calculate maximum possible pattern usage level based on volume of ordered strip still to
      * be scheduled and characteristics of rolls left in stock.</p>
@@ -153,7 +162,7 @@ public abstract class SequentialProcedure implements Algorithm {
         BuildingBlock block = null;
 
         int anchorIndex = 0;
-        while (!context.isCancelled() && anchorIndex < rollManager.size() && block == null) {
+        while (!isStopped() && anchorIndex < rollManager.size() && block == null) {
             // check whether we can find group of sufficient size
             if (rollManager.getGroupSize(anchorIndex, allowedTrimRatio) >= patternUsage) {
                 // if suitable group exists, try to generate pattern
@@ -71,7 +71,7 @@ public class SimplifiedProcedure extends HaesslerProcedure {
         // in simplified version pattern usage is prefixed to 1
         int patternUsage = 1;
 
-        while (!context.isCancelled() && allowedTrimRatio < 1 && block == null) {
+        while (!isStopped() && allowedTrimRatio < 1 && block == null) {
             LOGGER.debug("#TRIM_AL: %.2f", allowedTrimRatio);
 
             block = rollGroupStep(allowedTrimRatio, patternUsage);
@@ -4,6 +4,7 @@ import com.akavrt.csp.core.Pattern;
 import com.akavrt.csp.core.Roll;
 import com.akavrt.csp.core.Solution;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
+import com.akavrt.csp.utils.ThreadConfinedRandom;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -48,7 +49,7 @@ public class VahrenkampProcedure extends SequentialProcedure {
         super(generator);
         this.params = params;
 
-        rGen = new Random();
+        rGen = ThreadConfinedRandom.getInstance();
     }
 
     /**
@@ -93,7 +94,7 @@ public class VahrenkampProcedure extends SequentialProcedure {
         double allowedTrimRatio = params.getTrimRatioLowerBound();
         int patternUsage = evaluatePatternUsage(allowedTrimRatio);
 
-        while (!context.isCancelled() &&
+        while (!isStopped() &&
                 !orderManager.isOrdersFulfilled() && rollManager.size() > 0) {
             LOGGER.debug("#TRIM_AL: %.2f  #PU_AL: %d", allowedTrimRatio, patternUsage);
 
@@ -0,0 +1,118 @@
+package com.akavrt.csp.utils;
+
+import java.util.Random;
+
+/**
+ * <p>Random number generator which delegates every draw to the generator bound to the calling
+ * thread. A single shared instance (see getInstance()) can be safely used by stateless components
+ * like evolutionary operators and pattern generators even if they are invoked from a number of
+ * threads at once: each thread draws numbers from its own generator.</p>
+ *
+ * <p>By default every thread is lazily associated with unseeded instance of Random. Explicit
+ * binding of a seeded generator makes the sequence of draws made by the current thread
+ * reproducible, this is used to get identical results for the same seed when evolutionary
+ * algorithms are executed in parallel.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ThreadConfinedRandom extends Random {
+    private static final ThreadLocal<Random> BOUND = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+    private static final ThreadConfinedRandom INSTANCE = new ThreadConfinedRandom();
+    private final boolean isConstructed;
+
+    private ThreadConfinedRandom() {
+        // Random constructor calls setSeed(), it shouldn't affect generator bound to the thread
+        isConstructed = true;
+    }
+
+    /**
+     * <p>Returns shared instance delegating draws to the generator bound to the calling
+     * thread.</p>
+     *
+     * @return Shared thread-aware instance of Random.
+     */
+    public static Random getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * <p>Returns generator currently bound to the calling thread.</p>
+     *
+     * @return Generator bound to the calling thread.
+     */
+    public static Random current() {
+        return BOUND.get();
+    }
+
+    /**
+     * <p>Binds generator to the calling thread. All subsequent draws made by the calling thread
+     * through the shared instance will be delegated to this generator.</p>
+     *
+     * @param random Generator to bind, if null is provided, new unseeded generator will be used.
+     * @return Generator previously bound to the calling thread, can be used to restore binding.
+     */
+    public static Random bind(Random random) {
+        Random previous = BOUND.get();
+        BOUND.set(random != null ? random : new Random());
+
+        return previous;
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        if (isConstructed) {
+            current().setSeed(seed);
+        }
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (current().nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        current().nextBytes(bytes);
+    }
+
+    @Override
+    public int nextInt() {
+        return current().nextInt();
+    }
+
+    @Override
+    public int nextInt(int n) {
+        return current().nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return current().nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return current().nextBoolean();
+    }
+
+    @Override
+    public float nextFloat() {
+        return current().nextFloat();
+    }
+
+    @Override
+    public double nextDouble() {
+        return current().nextDouble();
+    }
+
+    @Override
+    public double nextGaussian() {
+        return current().nextGaussian();
+    }
+
+}
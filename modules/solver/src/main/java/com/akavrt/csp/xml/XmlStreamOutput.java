@@ -0,0 +1,187 @@
+package com.akavrt.csp.xml;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * <p>Thin wrapper around XMLStreamWriter used to write XML incrementally. Large containers
+ * (like list of solutions) are opened and closed explicitly, while their content is prepared as a
+ * small org.jdom2.Element and written right away, so that full XML tree never has to be kept in
+ * memory.</p>
+ *
+ * <p>When whitespace beautification is used, output is formatted the same way as with
+ * org.jdom2.output.Format.getPrettyFormat(): each element starts on a new line, nested elements
+ * are indented with two spaces and text is trimmed.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class XmlStreamOutput {
+    private static final String ENCODING = "UTF-8";
+    private static final String VERSION = "1.0";
+    private static final String LINE_SEPARATOR = "\r\n";
+    private static final String INDENT = "  ";
+    private final XMLStreamWriter writer;
+    private final boolean prettyFormat;
+    // for each open element we keep whether it has nested elements
+    private final Deque<Boolean> openElements;
+
+    /**
+     * <p>Create output on top of the XMLStreamWriter.</p>
+     *
+     * @param writer       XMLStreamWriter to use.
+     * @param prettyFormat Use whitespace beautification.
+     */
+    public XmlStreamOutput(XMLStreamWriter writer, boolean prettyFormat) {
+        this.writer = writer;
+        this.prettyFormat = prettyFormat;
+        this.openElements = new ArrayDeque<Boolean>();
+    }
+
+    /**
+     * <p>Write XML declaration.</p>
+     *
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void startDocument() throws XMLStreamException {
+        writer.writeStartDocument(ENCODING, VERSION);
+        writer.writeCharacters(LINE_SEPARATOR);
+    }
+
+    /**
+     * <p>Close all elements which are still open and flush underlying writer.</p>
+     *
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void endDocument() throws XMLStreamException {
+        while (!openElements.isEmpty()) {
+            endElement();
+        }
+
+        writer.writeEndDocument();
+        writer.writeCharacters(LINE_SEPARATOR);
+        writer.flush();
+    }
+
+    /**
+     * <p>Open element, its content has to be written before element is closed with
+     * endElement().</p>
+     *
+     * @param name Name of the element.
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void startElement(String name) throws XMLStreamException {
+        indent();
+
+        writer.writeStartElement(name);
+        markChild();
+        openElements.push(false);
+    }
+
+    /**
+     * <p>Write attribute of the element which was just opened with startElement().</p>
+     *
+     * @param name  Name of the attribute.
+     * @param value Value of the attribute.
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void attribute(String name, String value) throws XMLStreamException {
+        writer.writeAttribute(name, value);
+    }
+
+    /**
+     * <p>Close the most recently opened element.</p>
+     *
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void endElement() throws XMLStreamException {
+        boolean hasChildren = openElements.pop();
+        if (hasChildren) {
+            newLine(openElements.size());
+        }
+
+        writer.writeEndElement();
+    }
+
+    /**
+     * <p>Write element along with its attributes and content.</p>
+     *
+     * @param element Element to write.
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void element(Element element) throws XMLStreamException {
+        List<Element> children = element.getChildren();
+        String text = prettyFormat ? element.getTextTrim() : element.getText();
+
+        if (children.isEmpty() && text.isEmpty()) {
+            indent();
+
+            writer.writeEmptyElement(element.getName());
+            writeAttributes(element);
+            markChild();
+
+            return;
+        }
+
+        startElement(element.getName());
+        writeAttributes(element);
+
+        if (!text.isEmpty()) {
+            writer.writeCharacters(text);
+        }
+
+        for (Element child : children) {
+            element(child);
+        }
+
+        endElement();
+    }
+
+    /**
+     * <p>Flush underlying writer.</p>
+     *
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void flush() throws XMLStreamException {
+        writer.flush();
+    }
+
+    private void writeAttributes(Element element) throws XMLStreamException {
+        for (Attribute attribute : element.getAttributes()) {
+            writer.writeAttribute(attribute.getName(), attribute.getValue());
+        }
+    }
+
+    private void markChild() {
+        if (!openElements.isEmpty()) {
+            openElements.pop();
+            openElements.push(true);
+        }
+    }
+
+    private void indent() throws XMLStreamException {
+        // root element follows XML declaration on a new line anyway
+        if (!openElements.isEmpty()) {
+            newLine(openElements.size());
+        }
+    }
+
+    private void newLine(int depth) throws XMLStreamException {
+        if (!prettyFormat) {
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder(LINE_SEPARATOR);
+        for (int i = 0; i < depth; i++) {
+            builder.append(INDENT);
+        }
+
+        writer.writeCharacters(builder.toString());
+    }
+
+}
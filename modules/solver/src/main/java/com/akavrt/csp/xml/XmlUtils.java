@@ -18,20 +18,29 @@ import java.util.Locale;
 public class XmlUtils {
     private static final Logger LOGGER = LogManager.getLogger(XmlUtils.class);
     private static final String DATE_FORMAT_PATTERN = "yyyy-MM-dd HH:mm";
-    private static final DecimalFormat DECIMAL_FORMAT;
-    private static DateFormat DATE_FORMAT;
-
-    static {
-        DecimalFormatSymbols formatSymbols = new DecimalFormatSymbols(Locale.ENGLISH);
-        formatSymbols.setDecimalSeparator('.');
-        formatSymbols.setGroupingSeparator(',');
-
-        DECIMAL_FORMAT = new DecimalFormat();
-        DECIMAL_FORMAT.setDecimalFormatSymbols(formatSymbols);
-        DECIMAL_FORMAT.setGroupingUsed(false);
-
-        DATE_FORMAT = new SimpleDateFormat(DATE_FORMAT_PATTERN, Locale.ENGLISH);
-    }
+    // formats aren't thread-safe, while problems and results may be read and written
+    // on a number of threads at once
+    private static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT =
+            new ThreadLocal<DecimalFormat>() {
+                @Override
+                protected DecimalFormat initialValue() {
+                    DecimalFormatSymbols formatSymbols = new DecimalFormatSymbols(Locale.ENGLISH);
+                    formatSymbols.setDecimalSeparator('.');
+                    formatSymbols.setGroupingSeparator(',');
+
+                    DecimalFormat format = new DecimalFormat();
+                    format.setDecimalFormatSymbols(formatSymbols);
+                    format.setGroupingUsed(false);
+
+                    return format;
+                }
+            };
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat(DATE_FORMAT_PATTERN, Locale.ENGLISH);
+        }
+    };
 
     /**
      * <p>Converts double value to String with special format applied. Dot is used as decimal
@@ -41,7 +50,7 @@ public class XmlUtils {
      * @return Formatted value.
      */
     public static String formatDouble(double value) {
-        return DECIMAL_FORMAT.format(value);
+        return DECIMAL_FORMAT.get().format(value);
     }
 
     /**
@@ -54,16 +63,7 @@ public class XmlUtils {
      * @return Double value parsed from textual content or default value, if conversion fails.
      */
     public static double getDoubleFromText(Element element, double defaultValue) {
-        double value = defaultValue;
-        String valueString = element.getText();
-        if (!Utils.isEmpty(valueString)) {
-            ParsePosition pp = new ParsePosition(0);
-            Number number = DECIMAL_FORMAT.parse(valueString, pp);
-            if (number != null && valueString.length() == pp.getIndex()) {
-                value = number.doubleValue();
-            }
-        }
-        return value;
+        return parseDouble(element.getText(), defaultValue);
     }
 
     /**
@@ -77,11 +77,23 @@ public class XmlUtils {
      * @return Double value parsed from textual content or default value, if conversion fails.
      */
     public static double getDoubleFromText(Element parent, String childName, double defaultValue) {
+        return parseDouble(parent.getChildText(childName), defaultValue);
+    }
+
+    /**
+     * <p>Convert text to double.</p>
+     *
+     * <p>Only dot can be used as decimal separator, group separator isn't allowed.</p>
+     *
+     * @param valueString  Text to convert, may be null.
+     * @param defaultValue If conversion fails, default value is returned.
+     * @return Double value parsed from text or default value, if conversion fails.
+     */
+    public static double parseDouble(String valueString, double defaultValue) {
         double value = defaultValue;
-        String valueString = parent.getChildText(childName);
         if (!Utils.isEmpty(valueString)) {
             ParsePosition pp = new ParsePosition(0);
-            Number number = DECIMAL_FORMAT.parse(valueString, pp);
+            Number number = DECIMAL_FORMAT.get().parse(valueString, pp);
             if (number != null && valueString.length() == pp.getIndex()) {
                 value = number.doubleValue();
             }
@@ -98,17 +110,7 @@ public class XmlUtils {
      * @return Integer value parsed from textual content or default value, if conversion fails.
      */
     public static int getIntegerFromText(Element element, int defaultValue) {
-        int value = defaultValue;
-        String valueString = element.getText();
-        if (!Utils.isEmpty(valueString)) {
-            try {
-                value = Integer.parseInt(valueString);
-            } catch (NumberFormatException e) {
-                LOGGER.catching(e);
-            }
-        }
-
-        return value;
+        return parseInteger(element.getText(), defaultValue);
     }
 
     /**
@@ -120,11 +122,23 @@ public class XmlUtils {
      * @return Integer value parsed from textual content or default value, if conversion fails.
      */
     public static int getIntegerFromText(Element parent, String childName, int defaultValue) {
-        int value = defaultValue;
+        return parseInteger(parent.getChildText(childName), defaultValue);
+    }
+
+    /**
+     * <p>Convert the textual content directly held under child element to long.</p>
+     *
+     * @param parent       Immediate parent for child element with textual content to convert.
+     * @param childName    Name of the child element.
+     * @param defaultValue If conversion fails, default value is returned.
+     * @return Long value parsed from textual content or default value, if conversion fails.
+     */
+    public static long getLongFromText(Element parent, String childName, long defaultValue) {
+        long value = defaultValue;
         String valueString = parent.getChildText(childName);
         if (!Utils.isEmpty(valueString)) {
             try {
-                value = Integer.parseInt(valueString);
+                value = Long.parseLong(valueString);
             } catch (NumberFormatException e) {
                 LOGGER.catching(e);
             }
@@ -143,8 +157,18 @@ public class XmlUtils {
      */
     public static int getIntegerFromAttribute(Element element, String attributeName,
                                               int defaultValue) {
+        return parseInteger(element.getAttributeValue(attributeName), defaultValue);
+    }
+
+    /**
+     * <p>Convert text to integer.</p>
+     *
+     * @param valueString  Text to convert, may be null.
+     * @param defaultValue If conversion fails, default value is returned.
+     * @return Integer value parsed from text or default value, if conversion fails.
+     */
+    public static int parseInteger(String valueString, int defaultValue) {
         int value = defaultValue;
-        String valueString = element.getAttributeValue(attributeName);
         if (!Utils.isEmpty(valueString)) {
             try {
                 value = Integer.parseInt(valueString);
@@ -165,7 +189,7 @@ public class XmlUtils {
      * @return Formatted date.
      */
     public static String formatDate(Date date) {
-        return DATE_FORMAT.format(date);
+        return DATE_FORMAT.get().format(date);
     }
 
     /**
@@ -183,7 +207,7 @@ public class XmlUtils {
         String valueString = element.getText();
         if (!Utils.isEmpty(valueString)) {
             ParsePosition pp = new ParsePosition(0);
-            date = DATE_FORMAT.parse(valueString, pp);
+            date = DATE_FORMAT.get().parse(valueString, pp);
             if (valueString.length() != pp.getIndex()) {
                 date = null;
             }
@@ -5,17 +5,30 @@ import org.jdom2.Element;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * <p>Utility class used to convert data to XML and write result into stream or file.</p>
  *
+ * <p>By default data is converted into a single org.jdom2.Element which is written afterwards.
+ * When streaming is enabled, data is written incrementally (see stream()) and the whole XML tree
+ * is never kept in memory. Output can be compressed with gzip in both modes.</p>
+ *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public abstract class XmlWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String ENCODING = "UTF-8";
+    private boolean isStreamingEnabled;
+    private boolean isCompressionEnabled;
 
     /**
      * <p>Convert data into XML represented as an instance of org.jdom2.Document.</p>
@@ -25,24 +38,63 @@ public abstract class XmlWriter {
     public abstract Element convert();
 
     /**
-     * <p>Convert data to XML and write it into stream.</p>
+     * <p>Write data into streaming output. Default implementation converts data into a single
+     * element first, subclasses dealing with large amounts of data should write it
+     * incrementally.</p>
+     *
+     * @param output Output to use.
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    public void stream(XmlStreamOutput output) throws XMLStreamException {
+        output.element(convert());
+    }
+
+    /**
+     * <p>Set whether data should be written incrementally with XMLStreamWriter instead of being
+     * converted into XML tree first. Disabled by default.</p>
+     *
+     * @param isStreamingEnabled true to enable streaming.
+     */
+    public void setStreamingEnabled(boolean isStreamingEnabled) {
+        this.isStreamingEnabled = isStreamingEnabled;
+    }
+
+    /**
+     * <p>Set whether output should be compressed with gzip. Disabled by default.</p>
+     *
+     * @param isCompressionEnabled true to enable compression.
+     */
+    public void setCompressionEnabled(boolean isCompressionEnabled) {
+        this.isCompressionEnabled = isCompressionEnabled;
+    }
+
+    /**
+     * <p>Convert data to XML and write it into stream. Stream isn't closed afterwards.</p>
      *
      * @param out          OutputStream to use.
      * @param prettyFormat Use whitespace beautification.
      * @throws java.io.IOException If any IO-related problem occurs while writing.
      */
     public void write(OutputStream out, boolean prettyFormat) throws IOException {
-        Element rootElm = convert();
-        Document doc = new Document(rootElm);
+        GZIPOutputStream compressed = null;
+        OutputStream target = out;
+        if (isCompressionEnabled) {
+            compressed = new GZIPOutputStream(out, BUFFER_SIZE);
+            target = compressed;
+        }
 
-        XMLOutputter outputter;
-        if (prettyFormat) {
-            outputter = new XMLOutputter(Format.getPrettyFormat());
+        if (isStreamingEnabled) {
+            // XMLStreamWriter doesn't buffer output on its own
+            target = new BufferedOutputStream(target, BUFFER_SIZE);
+            writeStreaming(target, prettyFormat);
+            target.flush();
         } else {
-            outputter = new XMLOutputter();
+            writeDocument(target, prettyFormat);
         }
 
-        outputter.output(doc, out);
+        if (compressed != null) {
+            compressed.finish();
+        }
     }
 
     /**
@@ -54,6 +106,16 @@ public abstract class XmlWriter {
      * @throws IOException If any IO-related problem occurs while writing.
      */
     public void write(File file, boolean prettyFormat) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file, false),
+                                                    BUFFER_SIZE);
+        try {
+            write(out, prettyFormat);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeDocument(OutputStream out, boolean prettyFormat) throws IOException {
         Element rootElm = convert();
         Document doc = new Document(rootElm);
 
@@ -64,8 +126,29 @@ public abstract class XmlWriter {
             outputter = new XMLOutputter();
         }
 
-        FileWriter writer = new FileWriter(file, false);
-        outputter.output(doc, writer);
+        outputter.output(doc, out);
+    }
+
+    private void writeStreaming(OutputStream out, boolean prettyFormat) throws IOException {
+        XMLStreamWriter writer = null;
+        try {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, ENCODING);
+
+            XmlStreamOutput output = new XmlStreamOutput(writer, prettyFormat);
+            output.startDocument();
+            stream(output);
+            output.endDocument();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error occurred while writing XML.", e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (XMLStreamException e) {
+                    // nothing to do here, underlying stream is managed by caller
+                }
+            }
+        }
     }
 
 }
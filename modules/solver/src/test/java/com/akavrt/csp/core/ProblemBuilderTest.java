@@ -49,6 +49,24 @@ public class ProblemBuilderTest {
         assertEquals("roll3", roll.getId());
     }
 
+    @Test
+    public void denseRollIndices() {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.setOrders(problemOrders);
+        builder.setRolls(problemRolls);
+        builder.addRolls(new Roll("roll4", 70, 15), 3);
+
+        assertEquals(-1, problemRolls.get(0).getIndex());
+
+        // indices follow the order of rolls in the problem, even if rolls were rearranged
+        Problem problem = builder.build(false, true);
+        for (int i = 0; i < problem.getRolls().size(); i++) {
+            assertEquals(i, problem.getRolls().get(i).getIndex());
+        }
+
+        assertEquals(5, problemRolls.get(0).getIndex());
+    }
+
     @Test
     public void extendedBuilderCapabilities() {
         Roll singleRoll = new Roll("roll1", 500, 300);
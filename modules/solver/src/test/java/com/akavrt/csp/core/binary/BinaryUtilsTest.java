@@ -0,0 +1,71 @@
+package com.akavrt.csp.core.binary;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class BinaryUtilsTest {
+
+    @Test
+    public void varInt() throws IOException {
+        int[] values = {0, 1, 127, 128, 300, 16383, 16384, 1 << 21, Integer.MAX_VALUE};
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : values) {
+            BinaryUtils.writeVarInt(value, out);
+        }
+
+        // 1 + 1 + 1 + 2 + 2 + 2 + 3 + 4 + 5
+        assertEquals(21, bytes.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int value : values) {
+            assertEquals(value, BinaryUtils.readVarInt(in));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeVarInt() throws IOException {
+        BinaryUtils.writeVarInt(-1, new DataOutputStream(new ByteArrayOutputStream()));
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedVarInt() throws IOException {
+        byte[] bytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        BinaryUtils.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test(expected = IOException.class)
+    public void overflowingVarInt() throws IOException {
+        // 5 bytes, but the value doesn't fit into non-negative int
+        byte[] bytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x08};
+        BinaryUtils.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void nullableValues() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryUtils.writeString(null, out);
+        BinaryUtils.writeString("", out);
+        BinaryUtils.writeString("Раскрой", out);
+        BinaryUtils.writeDate(null, out);
+        BinaryUtils.writeDate(new Date(0), out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertNull(BinaryUtils.readString(in));
+        assertEquals("", BinaryUtils.readString(in));
+        assertEquals("Раскрой", BinaryUtils.readString(in));
+        assertNull(BinaryUtils.readDate(in));
+        assertEquals(new Date(0), BinaryUtils.readDate(in));
+    }
+
+}
@@ -0,0 +1,301 @@
+package com.akavrt.csp.core.binary;
+
+import com.akavrt.csp.core.*;
+import com.akavrt.csp.core.metadata.ProblemMetadata;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.core.xml.CspParseException;
+import com.akavrt.csp.core.xml.CspReader;
+import com.akavrt.csp.core.xml.CspWriter;
+import com.akavrt.csp.utils.Unit;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class CspBinaryTest {
+    private static final double DELTA = 1e-15;
+    private static final String DATA_DIRECTORY = "../../data";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Problem problem;
+    private Solution solution;
+
+    @Before
+    public void setUp() {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.setAllowedCutsNumber(4);
+
+        builder.addOrder(new Order("order3", 300, 30));
+        builder.addOrder(new Order("order1", 500, 50.5));
+        builder.addOrder(new Order("order2", 400, 40));
+
+        builder.addRolls(new Roll("roll2", 500, 300), 3);
+        builder.addRoll(new Roll("roll1", 300, 200));
+
+        ProblemMetadata metadata = new ProblemMetadata();
+        metadata.setName("Binary test");
+        metadata.setAuthor("Victor Balabanov");
+        metadata.setDate(new Date(1362494520123L));
+        metadata.setUnits(Unit.MILLIMETER);
+        builder.setMetadata(metadata);
+
+        problem = builder.build();
+
+        List<Order> orders = problem.getOrders();
+        List<Roll> rolls = problem.getRolls();
+
+        solution = new Solution(problem);
+        for (int i = rolls.size() - 1; i >= 0; i--) {
+            Pattern pattern = new Pattern(problem);
+            pattern.addCut(orders.get(0), i % 2 == 0 ? 2 : 0);
+            pattern.addCut(orders.get(2), 1);
+            pattern.setRoll(rolls.get(i));
+            solution.addPattern(pattern);
+        }
+
+        // pattern without roll
+        Pattern pattern = new Pattern(problem);
+        pattern.addCut(orders.get(1), 130);
+        solution.addPattern(pattern);
+
+        SolutionMetadata solutionMetadata = new SolutionMetadata();
+        solutionMetadata.setDescription("Test solution");
+        solutionMetadata.setDate(new Date(1362494520456L));
+        solution.setMetadata(solutionMetadata);
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        CspBinaryReader reader = roundTrip(problem, Lists.newArrayList(solution, solution));
+
+        assertSameProblem(problem, reader.getProblem());
+
+        ProblemMetadata metadata = reader.getProblem().getMetadata();
+        assertEquals("Binary test", metadata.getName());
+        assertEquals("Victor Balabanov", metadata.getAuthor());
+        assertNull(metadata.getDescription());
+        assertEquals(new Date(1362494520123L), metadata.getDate());
+        assertEquals(Unit.MILLIMETER, metadata.getUnits());
+
+        List<Solution> solutions = reader.getSolutions();
+        assertEquals(2, solutions.size());
+        assertSameSolution(solution, solutions.get(0));
+        assertSameSolution(solution, solutions.get(1));
+
+        // rolls are shared by the problem
+        assertSame(reader.getProblem().getRolls().get(3),
+                   solutions.get(0).getPatterns().get(0).getRoll());
+        assertNull(solutions.get(0).getPatterns().get(4).getRoll());
+    }
+
+    @Test
+    public void rollsOfDifferentSizeInGroup() throws IOException {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.addOrder(new Order("order1", 500, 50));
+        builder.addRoll(new Roll("roll1", 1, 500, 300));
+        // partially used roll of the same group
+        builder.addRoll(new Roll("roll1", 2, 250, 300));
+        builder.addRoll(new Roll("roll2", 300, 200));
+        Problem mixed = builder.build();
+
+        CspBinaryReader reader = roundTrip(mixed, Lists.<Solution>newArrayList());
+
+        assertSameProblem(mixed, reader.getProblem());
+    }
+
+    @Test
+    public void fileRoundTrip() throws IOException {
+        File file = folder.newFile("binary-test.cspb");
+
+        CspBinaryWriter writer = new CspBinaryWriter();
+        writer.setProblem(problem);
+        writer.addSolution(solution);
+        writer.write(file);
+
+        CspBinaryReader reader = new CspBinaryReader();
+        reader.read(file);
+
+        assertSameProblem(problem, reader.getProblem());
+        assertEquals(1, reader.getSolutions().size());
+        assertSameSolution(solution, reader.getSolutions().get(0));
+    }
+
+    @Test
+    public void matchesXmlConverters() throws IOException, CspParseException {
+        CspWriter xmlWriter = new CspWriter();
+        xmlWriter.setProblem(problem);
+        xmlWriter.addSolution(solution);
+
+        ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+        xmlWriter.write(xmlOut, false);
+
+        CspReader xmlReader = new CspReader();
+        xmlReader.read(new ByteArrayInputStream(xmlOut.toByteArray()));
+
+        CspBinaryReader reader = roundTrip(xmlReader.getProblem(), xmlReader.getSolutions());
+
+        assertSameProblem(xmlReader.getProblem(), reader.getProblem());
+        assertSameSolution(xmlReader.getSolutions().get(0), reader.getSolutions().get(0));
+    }
+
+    @Test
+    public void matchesXmlOnDataFiles() throws IOException, CspParseException {
+        File root = new File(DATA_DIRECTORY);
+        assumeTrue(root.isDirectory());
+
+        List<File> files = Lists.newArrayList();
+        collectFiles(root, files);
+        assertFalse(files.isEmpty());
+
+        for (File file : files) {
+            CspReader xmlReader = new CspReader();
+            xmlReader.read(file);
+
+            CspBinaryReader reader = roundTrip(xmlReader.getProblem(), null);
+            assertSameProblem(xmlReader.getProblem(), reader.getProblem());
+            assertTrue(reader.getSolutions().isEmpty());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsForeignData() throws IOException {
+        CspBinaryReader reader = new CspBinaryReader();
+        reader.read(new ByteArrayInputStream("<csp></csp>".getBytes("UTF-8")));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedData() throws IOException {
+        CspBinaryWriter writer = new CspBinaryWriter();
+        writer.setProblem(problem);
+        writer.addSolution(solution);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+
+        byte[] bytes = out.toByteArray();
+        CspBinaryReader reader = new CspBinaryReader();
+        reader.read(new ByteArrayInputStream(bytes, 0, bytes.length - 3));
+    }
+
+    private CspBinaryReader roundTrip(Problem problem, List<Solution> solutions)
+            throws IOException {
+        CspBinaryWriter writer = new CspBinaryWriter();
+        writer.setProblem(problem);
+        writer.setSolutions(solutions);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+
+        CspBinaryReader reader = new CspBinaryReader();
+        reader.read(new ByteArrayInputStream(out.toByteArray()));
+
+        return reader;
+    }
+
+    private void collectFiles(File directory, List<File> files) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectFiles(child, files);
+            } else if (child.getName().endsWith(".xml")) {
+                files.add(child);
+            }
+        }
+    }
+
+    private void assertSameProblem(Problem expected, Problem actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getAllowedCutsNumber(), actual.getAllowedCutsNumber());
+
+        assertEquals(expected.getOrders().size(), actual.getOrders().size());
+        for (int i = 0; i < expected.getOrders().size(); i++) {
+            Order expectedOrder = expected.getOrders().get(i);
+            Order actualOrder = actual.getOrders().get(i);
+
+            assertEquals(expectedOrder.getId(), actualOrder.getId());
+            assertEquals(expectedOrder.getInternalId(), actualOrder.getInternalId());
+            assertEquals(expectedOrder.getLength(), actualOrder.getLength(), DELTA);
+            assertEquals(expectedOrder.getWidth(), actualOrder.getWidth(), DELTA);
+            assertEquals(expectedOrder.getMetadata() == null, actualOrder.getMetadata() == null);
+        }
+
+        assertEquals(expected.getRolls().size(), actual.getRolls().size());
+        for (int i = 0; i < expected.getRolls().size(); i++) {
+            Roll expectedRoll = expected.getRolls().get(i);
+            Roll actualRoll = actual.getRolls().get(i);
+
+            assertEquals(expectedRoll.getId(), actualRoll.getId());
+            assertEquals(expectedRoll.getInternalId(), actualRoll.getInternalId());
+            assertEquals(expectedRoll.getLength(), actualRoll.getLength(), DELTA);
+            assertEquals(expectedRoll.getWidth(), actualRoll.getWidth(), DELTA);
+            assertEquals(expectedRoll.getMetadata() == null, actualRoll.getMetadata() == null);
+        }
+
+        ProblemMetadata expectedMetadata = expected.getMetadata();
+        ProblemMetadata actualMetadata = actual.getMetadata();
+        assertEquals(expectedMetadata == null, actualMetadata == null);
+        if (expectedMetadata != null) {
+            assertEquals(expectedMetadata.getName(), actualMetadata.getName());
+            assertEquals(expectedMetadata.getAuthor(), actualMetadata.getAuthor());
+            assertEquals(expectedMetadata.getDescription(), actualMetadata.getDescription());
+            assertEquals(expectedMetadata.getDate(), actualMetadata.getDate());
+            assertEquals(expectedMetadata.getUnits(), actualMetadata.getUnits());
+        }
+    }
+
+    private void assertSameSolution(Solution expected, Solution actual) {
+        List<Pattern> expectedPatterns = expected.getPatterns();
+        List<Pattern> actualPatterns = actual.getPatterns();
+
+        assertEquals(expectedPatterns.size(), actualPatterns.size());
+        for (int i = 0; i < expectedPatterns.size(); i++) {
+            Pattern expectedPattern = expectedPatterns.get(i);
+            Pattern actualPattern = actualPatterns.get(i);
+
+            assertEquals(expectedPattern.getRoll() == null, actualPattern.getRoll() == null);
+            if (expectedPattern.getRoll() != null) {
+                assertEquals(expectedPattern.getRoll().getInternalId(),
+                             actualPattern.getRoll().getInternalId());
+            }
+
+            List<MultiCut> expectedCuts = expectedPattern.getCuts();
+            List<MultiCut> actualCuts = actualPattern.getCuts();
+            assertEquals(expectedCuts.size(), actualCuts.size());
+            for (int j = 0; j < expectedCuts.size(); j++) {
+                assertEquals(expectedCuts.get(j).getOrder().getId(),
+                             actualCuts.get(j).getOrder().getId());
+                assertEquals(expectedCuts.get(j).getQuantity(), actualCuts.get(j).getQuantity());
+            }
+        }
+
+        assertEquals(expected.getMetricProvider().getTrimArea(),
+                     actual.getMetricProvider().getTrimArea(), DELTA);
+
+        SolutionMetadata expectedMetadata = expected.getMetadata();
+        SolutionMetadata actualMetadata = actual.getMetadata();
+        assertEquals(expectedMetadata == null, actualMetadata == null);
+        if (expectedMetadata != null) {
+            assertEquals(expectedMetadata.getDescription(), actualMetadata.getDescription());
+            assertEquals(expectedMetadata.getDate(), actualMetadata.getDate());
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+package com.akavrt.csp.core.binary;
+
+import com.akavrt.csp.core.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class PlanArchiveTest {
+    private static final double DELTA = 1e-15;
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Problem problem1;
+    private Problem problem2;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        problem1 = createProblem(500);
+        problem2 = createProblem(600);
+        file = new File(folder.getRoot(), "plans.archive");
+    }
+
+    @Test
+    public void appendAndRead() throws IOException {
+        PlanArchive archive = PlanArchive.open(file);
+        try {
+            assertEquals(0, archive.append(problem1, createSolution(problem1, 1)));
+            assertEquals(1, archive.append(problem2, createSolution(problem2, 2)));
+            assertEquals(2, archive.append(problem1, createSolution(problem1, 3)));
+            assertEquals(3, archive.size());
+
+            PlanArchive.Record record = archive.read(1);
+            assertEquals(1, record.getIndex());
+            assertEquals(ProblemFingerprint.calculate(problem2), record.getFingerprint());
+            assertEquals(600, record.getProblem().getOrders().get(0).getLength(), DELTA);
+            assertEquals(2, record.getSolution().getPatterns().get(0).getCuts().get(0)
+                                                .getQuantity());
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void scanByFingerprint() throws IOException {
+        PlanArchive archive = PlanArchive.open(file);
+        try {
+            archive.append(problem1, createSolution(problem1, 1));
+            archive.append(problem2, createSolution(problem2, 2));
+            archive.append(problem1, createSolution(problem1, 3));
+
+            long fingerprint = ProblemFingerprint.calculate(problem1);
+            assertEquals(Arrays.asList(0, 2), archive.find(fingerprint));
+
+            List<PlanArchive.Record> records = archive.scan(problem1);
+            assertEquals(2, records.size());
+            assertEquals(1, records.get(0).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+            assertEquals(3, records.get(1).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+
+            assertTrue(archive.scan(createProblem(700)).isEmpty());
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        PlanArchive archive = PlanArchive.open(file);
+        archive.append(problem1, createSolution(problem1, 1));
+        archive.append(problem2, createSolution(problem2, 2));
+        archive.close();
+
+        archive = PlanArchive.open(file);
+        try {
+            assertEquals(2, archive.size());
+            assertEquals(2, archive.append(problem1, createSolution(problem1, 3)));
+            assertEquals(3, archive.read(2).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+            assertEquals(2, archive.read(1).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void restoreIndex() throws IOException {
+        PlanArchive archive = PlanArchive.open(file);
+        archive.append(problem1, createSolution(problem1, 1));
+        archive.append(problem2, createSolution(problem2, 2));
+        archive.append(problem1, createSolution(problem1, 3));
+        archive.close();
+
+        // index is lost and the last record is incomplete
+        assertTrue(new File(file.getPath() + ".idx").delete());
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 5);
+        raf.close();
+
+        archive = PlanArchive.open(file);
+        try {
+            assertEquals(2, archive.size());
+            assertEquals(Arrays.asList(0), archive.find(ProblemFingerprint.calculate(problem1)));
+            assertEquals(2, archive.read(1).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+
+            assertEquals(2, archive.append(problem1, createSolution(problem1, 4)));
+        } finally {
+            archive.close();
+        }
+
+        archive = PlanArchive.open(file);
+        try {
+            assertEquals(3, archive.size());
+            assertEquals(4, archive.read(2).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void problemIsStoredOnce() throws IOException {
+        PlanArchive archive = PlanArchive.open(file);
+        try {
+            archive.append(problem1, createSolution(problem1, 1));
+            long first = file.length();
+            archive.append(problem1, createSolution(problem1, 2));
+            long second = file.length() - first;
+
+            assertTrue(second < first / 2);
+            assertSame(archive.read(0).getProblem(), archive.read(1).getProblem());
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void reorderedProblem() throws IOException {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.addOrder(new Order("order2", 400, 40));
+        builder.addOrder(new Order("order1", 500, 50));
+        builder.addRolls(new Roll("roll1", 1000, 200), 2);
+        builder.setAllowedCutsNumber(5);
+        Problem reordered = builder.build();
+
+        Pattern pattern = new Pattern(reordered);
+        pattern.addCut(reordered.getOrders().get(0), 2);
+        pattern.addCut(reordered.getOrders().get(1), 3);
+        pattern.setRoll(reordered.getRolls().get(0));
+
+        Solution solution = new Solution(reordered);
+        solution.addPattern(pattern);
+
+        PlanArchive archive = PlanArchive.open(file);
+        try {
+            archive.append(problem1, createSolution(problem1, 1));
+            assertEquals(1, archive.append(reordered, solution));
+
+            PlanArchive.Record record = archive.read(1);
+            Pattern restored = record.getSolution().getPatterns().get(0);
+            for (MultiCut cut : restored.getCuts()) {
+                int expected = "order1".equals(cut.getOrder().getId()) ? 3 : 2;
+                assertEquals(expected, cut.getQuantity());
+            }
+
+            assertTrue(record.getProblem().getRolls().contains(restored.getRoll()));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void appendsOfOtherArchiveArePickedUp() throws IOException {
+        PlanArchive archive = PlanArchive.open(file);
+        PlanArchive other = PlanArchive.open(file);
+        try {
+            archive.append(problem1, createSolution(problem1, 1));
+            assertEquals(1, other.append(problem2, createSolution(problem2, 2)));
+            assertEquals(2, archive.append(problem2, createSolution(problem2, 3)));
+
+            assertEquals(2, archive.read(1).getSolution().getPatterns().get(0).getCuts().get(0)
+                                           .getQuantity());
+        } finally {
+            archive.close();
+            other.close();
+        }
+
+        archive = PlanArchive.open(file);
+        try {
+            assertEquals(3, archive.size());
+            assertEquals(Arrays.asList(1, 2),
+                         archive.find(ProblemFingerprint.calculate(problem2)));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsForeignFile() throws IOException {
+        File foreign = folder.newFile("foreign.xml");
+        RandomAccessFile raf = new RandomAccessFile(foreign, "rw");
+        raf.writeBytes("<csp></csp>");
+        raf.close();
+
+        PlanArchive.open(foreign);
+    }
+
+    @Test
+    public void fingerprintIgnoresEnumerationOrder() {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.addOrder(new Order("order2", 400, 40));
+        builder.addOrder(new Order("order1", 500, 50));
+        builder.addRolls(new Roll("roll1", 1000, 200), 2);
+        builder.setAllowedCutsNumber(5);
+
+        Problem reordered = builder.build();
+        assertEquals(ProblemFingerprint.calculate(problem1),
+                     ProblemFingerprint.calculate(reordered));
+        assertFalse(ProblemFingerprint.calculate(problem1)
+                            == ProblemFingerprint.calculate(problem2));
+    }
+
+    private Problem createProblem(double length) {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.addOrder(new Order("order1", length, 50));
+        builder.addOrder(new Order("order2", 400, 40));
+        builder.addRolls(new Roll("roll1", 1000, 200), 2);
+        builder.setAllowedCutsNumber(5);
+
+        return builder.build();
+    }
+
+    private Solution createSolution(Problem problem, int quantity) {
+        Pattern pattern = new Pattern(problem);
+        pattern.addCut(problem.getOrders().get(0), quantity);
+        pattern.setRoll(problem.getRolls().get(1));
+
+        Solution solution = new Solution(problem);
+        solution.addPattern(pattern);
+
+        return solution;
+    }
+
+}
@@ -45,6 +45,20 @@ public class SolutionMetadataTest {
         assertEquals(expected.getDate().getTime(), actual.getDate().getTime());
     }
 
+    @Test
+    public void conversionTermination() {
+        SolutionMetadata expected = new SolutionMetadata();
+        expected.setStopReason("stagnation");
+        expected.setTimeToBest(1234);
+
+        Element element = expected.save();
+        SolutionMetadata actual = new SolutionMetadata();
+        actual.load(element);
+
+        assertEquals(expected.getStopReason(), actual.getStopReason());
+        assertEquals(expected.getTimeToBest(), actual.getTimeToBest());
+    }
+
     @Test
     public void conversionParameters() {
         SolutionMetadata expected = new SolutionMetadata();
@@ -82,6 +96,8 @@ public class SolutionMetadataTest {
 
         assertNull(actual.getDescription());
         assertNull(actual.getDate());
+        assertNull(actual.getStopReason());
+        assertEquals(SolutionMetadata.UNKNOWN_TIME, actual.getTimeToBest());
     }
 
     private interface XmlTags {
@@ -10,11 +10,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Calendar;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 
@@ -236,5 +239,56 @@ public class CspConverterTest {
         }
     }
 
+    @Test
+    public void streamingWrite() throws IOException {
+        CspWriter writer = new CspWriter();
+        writer.setProblem(problem);
+        writer.addSolution(solution1);
+        writer.addSolution(solution2);
+
+        for (boolean prettyFormat : new boolean[]{true, false}) {
+            ByteArrayOutputStream treeOut = new ByteArrayOutputStream();
+            writer.setStreamingEnabled(false);
+            writer.write(treeOut, prettyFormat);
+
+            ByteArrayOutputStream streamOut = new ByteArrayOutputStream();
+            writer.setStreamingEnabled(true);
+            writer.write(streamOut, prettyFormat);
+
+            // empty elements are the only difference: '<roll />' vs. '<roll/>'
+            String expected = treeOut.toString("UTF-8").replace(" />", "/>");
+            assertEquals(expected, streamOut.toString("UTF-8"));
+        }
+    }
+
+    @Test
+    public void compressedStreamingWrite() throws IOException, CspParseException {
+        File file = folder.newFile("problem-write-test.xml.gz");
+
+        CspWriter writer = new CspWriter();
+        writer.setProblem(problem);
+        writer.addSolution(solution1);
+        writer.addSolution(solution2);
+        writer.setStreamingEnabled(true);
+        writer.setCompressionEnabled(true);
+
+        writer.write(file, true);
+
+        CspReader reader = new CspReader();
+        reader.read(new GZIPInputStream(new FileInputStream(file)));
+
+        Problem extractedProblem = reader.getProblem();
+        assertFalse(extractedProblem == null);
+        assertEquals(problem.getOrders().size(), extractedProblem.getOrders().size());
+        assertEquals(problem.getRolls().size(), extractedProblem.getRolls().size());
+
+        List<Solution> extractedSolutions = reader.getSolutions();
+        assertFalse(extractedSolutions == null);
+        assertEquals(2, extractedSolutions.size());
+        assertEquals(solution1.getMetricProvider().getTrimArea(),
+                     extractedSolutions.get(0).getMetricProvider().getTrimArea(), DELTA);
+        assertEquals(solution2.getMetricProvider().getTrimArea(),
+                     extractedSolutions.get(1).getMetricProvider().getTrimArea(), DELTA);
+    }
 
 }
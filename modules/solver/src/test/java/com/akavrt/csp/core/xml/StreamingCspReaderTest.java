@@ -0,0 +1,233 @@
+package com.akavrt.csp.core.xml;
+
+import com.akavrt.csp.core.*;
+import com.akavrt.csp.core.metadata.ProblemMetadata;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class StreamingCspReaderTest {
+    private static final double DELTA = 1e-15;
+    private static final String DATA_DIRECTORY = "../../data";
+    private static final String TEST_RESOURCE = "test-problem.xml";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void matchesReaderOnExternalFile() throws CspParseException {
+        CspReader reader = new CspReader();
+        reader.read(getResource());
+
+        StreamingCspReader streamingReader = new StreamingCspReader();
+        streamingReader.read(getResource());
+
+        assertSameProblem(reader.getProblem(), streamingReader.getProblem());
+        assertSameSolutions(reader.getSolutions(), streamingReader.getSolutions());
+    }
+
+    @Test
+    public void matchesReaderOnDataFiles() throws CspParseException {
+        File root = new File(DATA_DIRECTORY);
+        assumeTrue(root.isDirectory());
+
+        List<File> files = Lists.newArrayList();
+        collectFiles(root, files);
+        assertFalse(files.isEmpty());
+
+        StreamingCspReader streamingReader = new StreamingCspReader();
+        for (File file : files) {
+            CspReader reader = new CspReader();
+            reader.read(file);
+
+            streamingReader.read(file);
+
+            assertSameProblem(reader.getProblem(), streamingReader.getProblem());
+            assertSameSolutions(reader.getSolutions(), streamingReader.getSolutions());
+        }
+    }
+
+    @Test
+    public void roundTrip() throws CspParseException, IOException {
+        CspReader reader = new CspReader();
+        reader.read(getResource());
+
+        // duplicate solutions to obtain longer list
+        List<Solution> solutions = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            solutions.addAll(reader.getSolutions());
+        }
+
+        CspWriter writer = new CspWriter();
+        writer.setProblem(reader.getProblem());
+        writer.setSolutions(solutions);
+
+        File file = folder.newFile("streaming-test.xml");
+        writer.write(file, true);
+
+        StreamingCspReader streamingReader = new StreamingCspReader();
+        streamingReader.read(file);
+
+        assertSameProblem(reader.getProblem(), streamingReader.getProblem());
+
+        reader.read(file);
+        assertEquals(solutions.size(), streamingReader.getSolutions().size());
+        assertSameSolutions(reader.getSolutions(), streamingReader.getSolutions());
+    }
+
+    @Test
+    public void skipSolutions() throws CspParseException {
+        StreamingCspReader streamingReader = new StreamingCspReader();
+        streamingReader.setSolutionsSkipped(true);
+        streamingReader.read(getResource());
+
+        Problem problem = streamingReader.getProblem();
+        assertNotNull(problem);
+        assertEquals(3, problem.getOrders().size());
+        assertEquals(5, problem.getRolls().size());
+        assertEquals(10, problem.getAllowedCutsNumber());
+        assertNull(streamingReader.getSolutions());
+    }
+
+    @Test
+    public void iterateSolutions() throws CspParseException {
+        CspReader reader = new CspReader();
+        reader.read(getResource());
+
+        StreamingCspReader streamingReader = new StreamingCspReader();
+        StreamingCspReader.SolutionIterator it = streamingReader.iterate(getResource());
+        assertSameProblem(reader.getProblem(), streamingReader.getProblem());
+
+        List<Solution> solutions = Lists.newArrayList();
+        try {
+            while (it.hasNext()) {
+                solutions.add(it.next());
+            }
+        } finally {
+            it.close();
+        }
+
+        assertFalse(it.hasNext());
+        assertSameSolutions(reader.getSolutions(), solutions);
+
+        solutions = reader.getSolutions();
+        assertTrue(solutions.get(0).isFeasible());
+        assertFalse(solutions.get(1).isFeasible());
+    }
+
+    @Test
+    public void closeIteratorEarly() throws CspParseException {
+        StreamingCspReader streamingReader = new StreamingCspReader();
+        StreamingCspReader.SolutionIterator it = streamingReader.iterate(getResource());
+
+        assertTrue(it.hasNext());
+        assertNotNull(it.next());
+
+        it.close();
+        assertFalse(it.hasNext());
+    }
+
+    private InputStream getResource() {
+        return getClass().getClassLoader().getResourceAsStream(TEST_RESOURCE);
+    }
+
+    private void collectFiles(File directory, List<File> files) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectFiles(child, files);
+            } else if (child.getName().endsWith(".xml")) {
+                files.add(child);
+            }
+        }
+    }
+
+    private void assertSameProblem(Problem expected, Problem actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getAllowedCutsNumber(), actual.getAllowedCutsNumber());
+
+        assertEquals(expected.getOrders().size(), actual.getOrders().size());
+        for (int i = 0; i < expected.getOrders().size(); i++) {
+            Order expectedOrder = expected.getOrders().get(i);
+            Order actualOrder = actual.getOrders().get(i);
+
+            assertEquals(expectedOrder.getId(), actualOrder.getId());
+            assertEquals(expectedOrder.getLength(), actualOrder.getLength(), DELTA);
+            assertEquals(expectedOrder.getWidth(), actualOrder.getWidth(), DELTA);
+            assertEquals(expectedOrder.getMetadata() == null, actualOrder.getMetadata() == null);
+        }
+
+        assertEquals(expected.getRolls().size(), actual.getRolls().size());
+        for (int i = 0; i < expected.getRolls().size(); i++) {
+            Roll expectedRoll = expected.getRolls().get(i);
+            Roll actualRoll = actual.getRolls().get(i);
+
+            assertEquals(expectedRoll.getId(), actualRoll.getId());
+            assertEquals(expectedRoll.getInternalId(), actualRoll.getInternalId());
+            assertEquals(expectedRoll.getLength(), actualRoll.getLength(), DELTA);
+            assertEquals(expectedRoll.getWidth(), actualRoll.getWidth(), DELTA);
+            assertEquals(expectedRoll.getMetadata() == null, actualRoll.getMetadata() == null);
+        }
+
+        ProblemMetadata expectedMetadata = expected.getMetadata();
+        ProblemMetadata actualMetadata = actual.getMetadata();
+        assertEquals(expectedMetadata == null, actualMetadata == null);
+        if (expectedMetadata != null) {
+            assertEquals(expectedMetadata.getName(), actualMetadata.getName());
+            assertEquals(expectedMetadata.getAuthor(), actualMetadata.getAuthor());
+            assertEquals(expectedMetadata.getDescription(), actualMetadata.getDescription());
+            assertEquals(expectedMetadata.getDate(), actualMetadata.getDate());
+            assertEquals(expectedMetadata.getUnits(), actualMetadata.getUnits());
+        }
+    }
+
+    private void assertSameSolutions(List<Solution> expected, List<Solution> actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<Pattern> expectedPatterns = expected.get(i).getPatterns();
+            List<Pattern> actualPatterns = actual.get(i).getPatterns();
+
+            assertEquals(expectedPatterns.size(), actualPatterns.size());
+            for (int j = 0; j < expectedPatterns.size(); j++) {
+                Pattern expectedPattern = expectedPatterns.get(j);
+                Pattern actualPattern = actualPatterns.get(j);
+
+                assertEquals(expectedPattern.getRoll().getId(), actualPattern.getRoll().getId());
+                assertEquals(expectedPattern.getRoll().getInternalId(),
+                             actualPattern.getRoll().getInternalId());
+                assertEquals(expectedPattern.getCutsHashCode(), actualPattern.getCutsHashCode());
+            }
+
+            SolutionMetadata expectedMetadata = expected.get(i).getMetadata();
+            SolutionMetadata actualMetadata = actual.get(i).getMetadata();
+            assertEquals(expectedMetadata == null, actualMetadata == null);
+            if (expectedMetadata != null) {
+                assertEquals(expectedMetadata.getDescription(), actualMetadata.getDescription());
+                assertEquals(expectedMetadata.getDate(), actualMetadata.getDate());
+            }
+        }
+    }
+
+}
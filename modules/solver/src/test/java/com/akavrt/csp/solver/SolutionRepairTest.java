@@ -0,0 +1,148 @@
+package com.akavrt.csp.solver;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Pattern;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class SolutionRepairTest {
+
+    @Test
+    public void missingRollsAndOrders() {
+        List<Order> orders = Lists.newArrayList(new Order("order1", 1000, 50),
+                                                new Order("order2", 1000, 40));
+        List<Roll> rolls = Lists.newArrayList(new Roll("roll1", 500, 200),
+                                              new Roll("roll2", 500, 200));
+        Problem previous = new Problem(orders, rolls);
+
+        Solution solution = new Solution(previous);
+        solution.addPattern(createPattern(previous, rolls.get(0), 2, 2));
+        solution.addPattern(createPattern(previous, rolls.get(1), 1, 1));
+        // the same roll can't be used twice
+        solution.addPattern(createPattern(previous, rolls.get(0), 1, 1));
+
+        // second roll is consumed, first order is cancelled and new order is added
+        List<Order> newOrders = Lists.newArrayList(new Order("order2", 1000, 40),
+                                                   new Order("order3", 1000, 30));
+        List<Roll> newRolls = Lists.newArrayList(new Roll("roll1", 500, 200),
+                                                 new Roll("roll3", 500, 200));
+        Problem current = new Problem(newOrders, newRolls);
+
+        Solution repaired = new SolutionRepair(current).repair(solution);
+
+        assertEquals(1, repaired.getPatterns().size());
+        Pattern pattern = repaired.getPatterns().get(0);
+        assertSame(newRolls.get(0), pattern.getRoll());
+        assertEquals(2, pattern.getCuts().get(0).getQuantity());
+        assertEquals(0, pattern.getCuts().get(1).getQuantity());
+        assertTrue(repaired.isPatternsFeasible());
+        assertTrue(repaired.isRollUsageFeasible());
+    }
+
+    @Test
+    public void changedOrders() {
+        List<Order> orders = Lists.newArrayList(new Order("order1", 1000, 50),
+                                                new Order("order2", 1000, 40));
+        List<Roll> rolls = Lists.newArrayList(new Roll("roll1", 500, 200),
+                                              new Roll("roll2", 500, 200));
+        Problem previous = new Problem(orders, rolls, 4);
+
+        Solution solution = new Solution(previous);
+        solution.addPattern(createPattern(previous, rolls.get(0), 2, 2));
+        solution.addPattern(createPattern(previous, rolls.get(1), 2, 2));
+        assertTrue(solution.isFeasible());
+
+        // first order is wider now, second order is shorter
+        List<Order> newOrders = Lists.newArrayList(new Order("order1", 1000, 70),
+                                                   new Order("order2", 500, 40));
+        Problem current = new Problem(newOrders, rolls, 4);
+
+        Solution repaired = new SolutionRepair(current).repair(solution);
+
+        // 2 * 70 + 2 * 40 exceeds the width of the roll, one strip of the widest order is removed,
+        // the only strip of the second order needed is cut from the first roll
+        assertEquals(2, repaired.getPatterns().size());
+        assertArrayEquals(new int[]{1, 1}, getMultipliers(repaired.getPatterns().get(0)));
+        assertArrayEquals(new int[]{1, 0}, getMultipliers(repaired.getPatterns().get(1)));
+        assertTrue(repaired.isPatternsFeasible());
+        assertEquals(500, repaired.getProductionLengthForOrder(newOrders.get(1)), 1e-9);
+
+        // solution provided isn't changed
+        assertArrayEquals(new int[]{2, 2}, getMultipliers(solution.getPatterns().get(0)));
+    }
+
+    @Test
+    public void allowedCuts() {
+        List<Order> orders = Lists.newArrayList(new Order("order1", 5000, 50),
+                                                new Order("order2", 5000, 20));
+        List<Roll> rolls = Lists.newArrayList(new Roll("roll1", 500, 200));
+        Problem previous = new Problem(orders, rolls, 5);
+
+        Solution solution = new Solution(previous);
+        solution.addPattern(createPattern(previous, rolls.get(0), 2, 3));
+
+        // narrowest strips are removed first
+        Problem current = new Problem(orders, rolls, 3);
+        Solution repaired = new SolutionRepair(current).repair(solution);
+
+        assertArrayEquals(new int[]{2, 1}, getMultipliers(repaired.getPatterns().get(0)));
+    }
+
+    @Test
+    public void rollsMatchedByGroupAndSize() {
+        List<Order> orders = Lists.newArrayList(new Order("order1", 1000, 50));
+        List<Roll> rolls = Lists.newArrayList(new Roll("roll1", 5, 500, 200),
+                                              new Roll("roll1", 6, 500, 200),
+                                              new Roll("roll2", 500, 200));
+        Problem previous = new Problem(orders, rolls);
+
+        Solution solution = new Solution(previous);
+        solution.addPattern(createPattern(previous, rolls.get(0), 1));
+        solution.addPattern(createPattern(previous, rolls.get(1), 2));
+        solution.addPattern(createPattern(previous, rolls.get(2), 3));
+
+        // rolls of the group are numbered anew, the second group was partially used
+        List<Roll> newRolls = Lists.newArrayList(new Roll("roll1", 1, 500, 200),
+                                                 new Roll("roll1", 2, 500, 200),
+                                                 new Roll("roll2", 300, 200));
+        Problem current = new Problem(orders, newRolls);
+
+        Solution repaired = new SolutionRepair(current).repair(solution);
+
+        assertEquals(2, repaired.getPatterns().size());
+        assertSame(newRolls.get(0), repaired.getPatterns().get(0).getRoll());
+        assertSame(newRolls.get(1), repaired.getPatterns().get(1).getRoll());
+        assertTrue(repaired.isRollUsageFeasible());
+    }
+
+    private Pattern createPattern(Problem problem, Roll roll, int... multipliers) {
+        Pattern pattern = new Pattern(problem);
+        for (int i = 0; i < multipliers.length; i++) {
+            pattern.setCut(problem.getOrders().get(i), multipliers[i]);
+        }
+
+        pattern.setRoll(roll);
+
+        return pattern;
+    }
+
+    private int[] getMultipliers(Pattern pattern) {
+        int[] multipliers = new int[pattern.getCuts().size()];
+        for (int i = 0; i < multipliers.length; i++) {
+            multipliers[i] = pattern.getCuts().get(i).getQuantity();
+        }
+
+        return multipliers;
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.utils.Constants;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ChromosomeMetricProviderTest {
+    private GeneticTestContext context;
+    private List<Roll> rolls;
+
+    @Before
+    public void setUpContext() {
+        List<Order> orders = Lists.newArrayList();
+        orders.add(new Order("order1", 5000.5, 50.3));
+        orders.add(new Order("order2", 4000, 40.7));
+        orders.add(new Order("order3", 3000.25, 30.1));
+        orders.add(new Order("order4", 1000, 12.9));
+
+        rolls = Lists.newArrayList();
+        for (int i = 0; i < 40; i++) {
+            rolls.add(new Roll("roll" + (i % 7), i, 300.3 + 10 * (i % 7), 200.1 + 5 * (i % 5)));
+        }
+
+        Problem problem = new Problem(orders, rolls);
+        context = new GeneticTestContext(problem);
+    }
+
+    @Test
+    public void emptyChromosome() {
+        Chromosome chromosome = new Chromosome(context);
+        assertMetrics(chromosome);
+    }
+
+    @Test
+    public void inactiveGenes() {
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(new int[]{1, 0, 2, 0}, null));
+        chromosome.addGene(new Gene(new int[]{1, 1, 1, 1}, rolls.get(0)));
+        assertMetrics(chromosome);
+
+        chromosome.removeGene(1);
+        assertMetrics(chromosome);
+        assertEquals(0, chromosome.getMetricProvider().getTrimArea(), 0);
+    }
+
+    @Test
+    public void randomChanges() {
+        Random rGen = new Random(42);
+
+        List<Chromosome> lineage = Lists.newArrayList();
+        Chromosome chromosome = new Chromosome(context);
+        for (int step = 0; step < 3000; step++) {
+            if (step % 10 == 0) {
+                // continue with a copy, totals are inherited
+                lineage.add(chromosome);
+                chromosome = new Chromosome(chromosome);
+            }
+
+            int action = rGen.nextInt(4);
+            if (action == 0 && chromosome.size() > 0) {
+                chromosome.removeGene(rGen.nextInt(chromosome.size()));
+            } else if (action == 1 && chromosome.size() > 0) {
+                chromosome.setGene(rGen.nextInt(chromosome.size()), createGene(rGen));
+            } else if (action == 2) {
+                chromosome.addGene(rGen.nextInt(chromosome.size() + 1), createGene(rGen));
+            } else {
+                chromosome.addGene(createGene(rGen));
+            }
+
+            // values are read between changes to test cached values as well
+            if (rGen.nextBoolean()) {
+                assertMetrics(chromosome);
+            }
+        }
+
+        assertMetrics(chromosome);
+        for (Chromosome ancestor : lineage) {
+            assertMetrics(ancestor);
+        }
+    }
+
+    @Test
+    public void feasibilityIsStable() {
+        // demand is met exactly, lengths of the rolls aren't representable as binary fractions
+        List<Order> orders = Lists.newArrayList(new Order("order1", 0.3, 10));
+        List<Roll> fractionalRolls = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            fractionalRolls.add(new Roll("roll" + i, i, 0.1 * (i + 1), 100));
+        }
+
+        GeneticTestContext fractionalContext = new GeneticTestContext(
+                new Problem(orders, fractionalRolls));
+
+        Chromosome chromosome = new Chromosome(fractionalContext);
+        chromosome.addGene(new Gene(new int[]{1}, fractionalRolls.get(0)));
+        chromosome.addGene(new Gene(new int[]{1}, fractionalRolls.get(1)));
+
+        Random rGen = new Random(42);
+        for (int step = 0; step < 200; step++) {
+            // running totals drift while genes are added and removed
+            int added = 1 + rGen.nextInt(5);
+            for (int i = 0; i < added; i++) {
+                Roll roll = fractionalRolls.get(2 + rGen.nextInt(fractionalRolls.size() - 2));
+                chromosome.addGene(new Gene(new int[]{1}, roll));
+            }
+
+            while (chromosome.size() > 2) {
+                chromosome.removeGene(chromosome.size() - 1);
+            }
+
+            ChromosomeMetricProvider provider = chromosome.getMetricProvider();
+            assertTrue(chromosome.isOrdersFulfilled());
+            assertEquals(0, provider.getAverageUnderProductionRatio(), 0);
+            assertEquals(0, provider.getMaximumUnderProductionRatio(), 0);
+            assertEquals(0, provider.getAverageOverProductionRatio(), 0);
+        }
+    }
+
+    private Gene createGene(Random rGen) {
+        int[] pattern = new int[context.getOrdersSize()];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = rGen.nextInt(3);
+        }
+
+        Roll roll = rGen.nextInt(5) == 0 ? null : rolls.get(rGen.nextInt(rolls.size()));
+
+        return new Gene(pattern, roll);
+    }
+
+    private void assertMetrics(Chromosome chromosome) {
+        ChromosomeMetricProvider provider = chromosome.getMetricProvider();
+
+        // straightforward evaluation over all genes and orders
+        double trimArea = 0;
+        double rollArea = 0;
+        int activePatterns = 0;
+        Set<Integer> uniquePatterns = Sets.newHashSet();
+        double[] production = new double[context.getOrdersSize()];
+        for (Gene gene : chromosome.getGenes()) {
+            if (gene.getRoll() != null) {
+                trimArea += gene.getTrimArea(context);
+                rollArea += gene.getRoll().getArea();
+                activePatterns++;
+                uniquePatterns.add(gene.getPatternHashCode());
+            }
+
+            for (int i = 0; i < production.length; i++) {
+                production[i] += gene.getProductionLengthForOrder(i);
+            }
+        }
+
+        double underRatio = 0;
+        double maxUnderRatio = 0;
+        double overRatio = 0;
+        double maxOverRatio = 0;
+        double overProducedArea = 0;
+        for (int i = 0; i < production.length; i++) {
+            double demand = context.getOrderLength(i);
+            assertEquals(production[i], chromosome.getProductionLengthForOrder(i),
+                         Constants.TOLERANCE);
+
+            double under = production[i] < demand ? 1 - production[i] / demand : 0;
+            double over = production[i] > demand ? production[i] / demand - 1 : 0;
+            underRatio += under;
+            overRatio += over;
+            maxUnderRatio = Math.max(maxUnderRatio, under);
+            maxOverRatio = Math.max(maxOverRatio, over);
+            if (production[i] > demand) {
+                overProducedArea += (production[i] - demand) * context.getOrderWidth(i);
+            }
+        }
+
+        assertEquals(trimArea, provider.getTrimArea(), Constants.TOLERANCE);
+        assertEquals(rollArea == 0 ? 0 : trimArea / rollArea, provider.getTrimRatio(),
+                     Constants.TOLERANCE);
+        assertEquals(activePatterns, provider.getActivePatternsCount());
+        assertEquals(uniquePatterns.size(), provider.getUniquePatternsCount());
+        assertEquals(underRatio / production.length, provider.getAverageUnderProductionRatio(),
+                     Constants.TOLERANCE);
+        assertEquals(maxUnderRatio, provider.getMaximumUnderProductionRatio(),
+                     Constants.TOLERANCE);
+        assertEquals(overRatio / production.length, provider.getAverageOverProductionRatio(),
+                     Constants.TOLERANCE);
+        assertEquals(maxOverRatio, provider.getMaximumOverProductionRatio(),
+                     Constants.TOLERANCE);
+        assertEquals(trimArea + overProducedArea, provider.getAggregatedTrimArea(),
+                     Constants.TOLERANCE);
+        assertEquals(rollArea == 0 ? 0 : (trimArea + overProducedArea) / rollArea,
+                     provider.getAggregatedTrimRatio(), Constants.TOLERANCE);
+    }
+
+}
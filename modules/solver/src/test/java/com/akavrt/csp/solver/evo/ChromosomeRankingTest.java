@@ -0,0 +1,158 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Plan;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.metrics.Metric;
+import com.akavrt.csp.metrics.complex.ConstraintAwareMetric;
+import com.akavrt.csp.metrics.complex.ScalarMetric;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ChromosomeRankingTest {
+    private GeneticTestContext context;
+    private List<Roll> rolls;
+
+    @Before
+    public void setUpContext() {
+        List<Order> orders = Lists.newArrayList();
+        // short orders, so feasible and infeasible plans are mixed
+        orders.add(new Order("order1", 100, 50));
+        orders.add(new Order("order2", 120, 40));
+        orders.add(new Order("order3", 150, 30));
+
+        rolls = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            rolls.add(new Roll("roll" + (i % 3), i, 100 + 50 * (i % 3), 150 + 20 * (i % 2)));
+        }
+
+        context = new GeneticTestContext(new Problem(orders, rolls));
+    }
+
+    @Test
+    public void sameOrderAsStableSort() {
+        Random rGen = new Random(42);
+        for (Metric metric : new Metric[]{new ScalarMetric(), new ConstraintAwareMetric()}) {
+            ChromosomeRanking ranking = new ChromosomeRanking(metric);
+
+            for (int test = 0; test < 20; test++) {
+                List<Chromosome> chromosomes = createChromosomes(rGen, 10 + test * 3);
+
+                List<Chromosome> expected = Lists.newArrayList(chromosomes);
+                Collections.sort(expected, metric.getReverseComparator());
+
+                for (int count : new int[]{1, 5, chromosomes.size() / 2, chromosomes.size()}) {
+                    List<Chromosome> actual = Lists.newArrayList(chromosomes);
+                    ranking.select(actual, count);
+
+                    for (int i = 0; i < count; i++) {
+                        assertSame(expected.get(i), actual.get(i));
+                    }
+
+                    // the rest of the list contains the same chromosomes
+                    assertEquals(countIdentities(expected), countIdentities(actual));
+                }
+
+                List<Chromosome> sorted = Lists.newArrayList(chromosomes);
+                ranking.sort(sorted);
+                for (int i = 0; i < sorted.size(); i++) {
+                    assertSame(expected.get(i), sorted.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void metricWithoutKeys() {
+        final ScalarMetric scalar = new ScalarMetric();
+        Metric metric = new Metric() {
+            @Override
+            public double evaluate(Plan plan) {
+                return scalar.evaluate(plan);
+            }
+
+            @Override
+            public int compare(Plan p1, Plan p2) {
+                return scalar.compare(p1, p2);
+            }
+
+            @Override
+            public String abbreviation() {
+                return scalar.abbreviation();
+            }
+
+            @Override
+            public String name() {
+                return scalar.name();
+            }
+
+            @Override
+            public Comparator<Plan> getComparator() {
+                return scalar.getComparator();
+            }
+
+            @Override
+            public Comparator<Plan> getReverseComparator() {
+                return scalar.getReverseComparator();
+            }
+        };
+
+        List<Chromosome> chromosomes = createChromosomes(new Random(7), 30);
+        List<Chromosome> expected = Lists.newArrayList(chromosomes);
+        Collections.sort(expected, metric.getReverseComparator());
+
+        new ChromosomeRanking(metric).select(chromosomes, 10);
+        for (int i = 0; i < 10; i++) {
+            assertSame(expected.get(i), chromosomes.get(i));
+        }
+    }
+
+    private List<Chromosome> createChromosomes(Random rGen, int size) {
+        List<Chromosome> chromosomes = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && rGen.nextInt(4) == 0) {
+                // copies have the same keys, so ties have to be broken by position
+                Chromosome original = chromosomes.get(rGen.nextInt(chromosomes.size()));
+                chromosomes.add(new Chromosome(original));
+                continue;
+            }
+
+            Chromosome chromosome = new Chromosome(context);
+            int genes = 1 + rGen.nextInt(3);
+            for (int j = 0; j < genes; j++) {
+                int[] pattern = {rGen.nextInt(3), rGen.nextInt(3), rGen.nextInt(3)};
+                chromosome.addGene(new Gene(pattern, rolls.get(rGen.nextInt(rolls.size()))));
+            }
+
+            chromosomes.add(chromosome);
+        }
+
+        return chromosomes;
+    }
+
+    private Map<Chromosome, Integer> countIdentities(List<Chromosome> chromosomes) {
+        Map<Chromosome, Integer> counts = new IdentityHashMap<Chromosome, Integer>();
+        for (Chromosome chromosome : chromosomes) {
+            Integer count = counts.get(chromosome);
+            counts.put(chromosome, count == null ? 1 : count + 1);
+        }
+
+        return counts;
+    }
+
+}
@@ -8,6 +8,7 @@ import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
@@ -239,4 +240,150 @@ public class ChromosomeTest {
         // only 2 unique plans were added to the set
         assertEquals(2, unique.size());
     }
+
+    @Test
+    public void copiesAreIndependent() {
+        Gene gene1 = new Gene(new int[] {0, 1, 1}, roll1);
+        Gene gene2 = new Gene(new int[] {2, 1, 1}, roll2_1);
+        Gene gene3 = new Gene(new int[] {2, 0, 0}, roll3);
+
+        Chromosome original = new Chromosome(context);
+        original.addGene(gene1);
+        original.addGene(gene2);
+        int originalHashCode = original.hashCode();
+
+        Chromosome copy1 = new Chromosome(original);
+        Chromosome copy2 = new Chromosome(original);
+        assertEquals(originalHashCode, copy1.hashCode());
+
+        // changes of the copy aren't visible to the original chromosome and other copies
+        copy1.removeGene(0);
+        copy1.addGene(gene3);
+        copy2.setGene(1, gene3);
+
+        assertEquals(2, original.size());
+        assertTrue(gene1 == original.getGene(0));
+        assertTrue(gene2 == original.getGene(1));
+        assertEquals(originalHashCode, original.hashCode());
+
+        assertEquals(2, copy1.size());
+        assertTrue(gene2 == copy1.getGene(0));
+        assertTrue(gene3 == copy1.getGene(1));
+
+        assertTrue(gene1 == copy2.getGene(0));
+        assertTrue(gene3 == copy2.getGene(1));
+
+        // and vice versa
+        original.addGene(0, gene3);
+        assertEquals(3, original.size());
+        assertTrue(gene3 == original.getGene(0));
+        assertEquals(2, copy1.size());
+        assertEquals(2, copy2.size());
+        assertTrue(gene1 == copy2.getGene(0));
+    }
+
+    @Test
+    public void fingerprintIsUpdatedWithChain() {
+        Gene gene1 = new Gene(new int[] {0, 1, 1}, roll1);
+        Gene gene2 = new Gene(new int[] {2, 1, 1}, roll2_1);
+        Gene gene3 = new Gene(new int[] {2, 0, 0}, roll3);
+
+        Chromosome changed = new Chromosome(context);
+        changed.addGene(gene1);
+        changed.addGene(gene2);
+        changed.addGene(0, gene3);
+        changed.setGene(1, gene2);
+        changed.removeGene(2);
+
+        Chromosome built = new Chromosome(context);
+        built.addGene(gene2);
+        built.addGene(gene3);
+
+        assertEquals(built.getFingerprint(), changed.getFingerprint());
+        assertTrue(built.equals(changed));
+
+        // repeated genes don't cancel each other
+        Chromosome repeated = new Chromosome(context);
+        repeated.addGene(gene1);
+        repeated.addGene(gene1);
+        assertFalse(repeated.getFingerprint() == 0);
+
+        Chromosome another = new Chromosome(context);
+        another.addGene(gene2);
+        another.addGene(gene2);
+        assertFalse(repeated.getFingerprint() == another.getFingerprint());
+
+        repeated.removeGene(0);
+        repeated.removeGene(0);
+        assertEquals(0, repeated.getFingerprint());
+    }
+
+    @Test
+    public void genesView() {
+        Chromosome chromosome = new Chromosome(context);
+        List<Gene> genes = chromosome.getGenes();
+        assertTrue(genes.isEmpty());
+
+        for (int i = 0; i < 15; i++) {
+            chromosome.addGene(new Gene(new int[] {i, 0, 0}, null));
+        }
+        chromosome.removeGene(3);
+
+        assertEquals(14, genes.size());
+        assertEquals(4, genes.get(3).getPattern()[0]);
+        assertEquals(14, genes.get(13).getPattern()[0]);
+        assertTrue(chromosome.getGene(14) == null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void genesViewIsUnmodifiable() {
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.getGenes().add(new Gene(new int[] {0, 1, 1}, roll1));
+    }
+
+    @Test
+    public void usedRolls() {
+        Chromosome chromosome = new Chromosome(context);
+        assertTrue(chromosome.getUsedRolls().isEmpty());
+
+        chromosome.addGene(new Gene(new int[] {0, 1, 1}, roll1));
+        chromosome.addGene(new Gene(new int[] {2, 0, 0}, null));
+        chromosome.addGene(new Gene(new int[] {2, 1, 1}, roll2_2));
+        assertEquals(bits(0, 2), chromosome.getUsedRolls());
+
+        // set is updated along with the chain
+        chromosome.setGene(0, new Gene(new int[] {0, 1, 1}, roll3));
+        assertEquals(bits(2, 3), chromosome.getUsedRolls());
+
+        Chromosome copy = new Chromosome(chromosome);
+        copy.removeGene(2);
+        assertEquals(bits(3), copy.getUsedRolls());
+        assertEquals(bits(2, 3), chromosome.getUsedRolls());
+    }
+
+    @Test
+    public void repeatedRoll() {
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(new int[] {1, 1, 1}, roll2_1));
+        chromosome.addGene(new Gene(new int[] {1, 1, 1}, roll1));
+        assertTrue(chromosome.isFeasible());
+        assertEquals(bits(0, 1), chromosome.getUsedRolls());
+
+        chromosome.addGene(new Gene(new int[] {1, 1, 1}, roll2_1));
+        assertFalse(chromosome.isFeasible());
+
+        chromosome.removeGene(0);
+        assertTrue(chromosome.isFeasible());
+        assertEquals(bits(0, 1), chromosome.getUsedRolls());
+    }
+
+    private BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int index : indices) {
+            bits.set(index);
+        }
+
+        return bits;
+    }
+
 }
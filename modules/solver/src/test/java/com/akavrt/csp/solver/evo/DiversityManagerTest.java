@@ -0,0 +1,96 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class DiversityManagerTest {
+    private GeneticTestContext context;
+    private Roll roll1;
+    private Roll roll2;
+
+    @Before
+    public void setUpContext() {
+        List<Order> orders = Lists.newArrayList();
+        orders.add(new Order("order1", 500, 50));
+        orders.add(new Order("order2", 400, 40));
+        orders.add(new Order("order3", 300, 30));
+
+        List<Roll> rolls = Lists.newArrayList();
+        roll1 = new Roll("roll1", 300, 200);
+        roll2 = new Roll("roll2", 500, 300);
+        rolls.add(roll1);
+        rolls.add(roll2);
+
+        context = new GeneticTestContext(new Problem(orders, rolls));
+    }
+
+    @Test
+    public void repeatedPlans() {
+        DiversityManager dm = new DiversityManager();
+
+        Chromosome ch1 = createChromosome(new int[]{0, 1, 1}, new int[]{2, 1, 1});
+        // same plan, different order of genes
+        Chromosome ch2 = new Chromosome(context);
+        ch2.addGene(new Gene(new int[]{2, 1, 1}, roll2));
+        ch2.addGene(new Gene(new int[]{0, 1, 1}, roll1));
+        Chromosome ch3 = createChromosome(new int[]{0, 1, 1}, new int[]{2, 1, 0});
+
+        assertFalse(dm.isAdded(ch1));
+        dm.add(ch1);
+        dm.add(ch1);
+        assertTrue(dm.isAdded(ch1));
+        assertTrue(dm.isAdded(ch2));
+        assertFalse(dm.isAdded(ch3));
+        assertEquals(1, dm.getMeasure());
+
+        dm.add(ch3);
+        assertTrue(dm.isAdded(ch3));
+        assertEquals(2, dm.getMeasure());
+
+        dm.reset();
+        assertFalse(dm.isAdded(ch1));
+        assertEquals(0, dm.getMeasure());
+    }
+
+    @Test
+    public void manyPlans() {
+        DiversityManager dm = new DiversityManager();
+
+        List<Chromosome> chromosomes = Lists.newArrayList();
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                chromosomes.add(createChromosome(new int[]{i, j, 0}, new int[]{0, j, i}));
+            }
+        }
+
+        for (Chromosome chromosome : chromosomes) {
+            assertFalse(dm.isAdded(chromosome));
+            dm.add(chromosome);
+        }
+
+        assertEquals(chromosomes.size(), dm.getMeasure());
+        for (Chromosome chromosome : chromosomes) {
+            assertTrue(dm.isAdded(chromosome));
+        }
+    }
+
+    private Chromosome createChromosome(int[] pattern1, int[] pattern2) {
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(pattern1, roll1));
+        chromosome.addGene(new Gene(pattern2, roll2));
+
+        return chromosome;
+    }
+
+}
@@ -13,6 +13,7 @@ public class GeneticTestContext implements EvolutionaryExecutionContext {
     private final Problem problem;
     private final double[] orderWidth;
     private final double[] orderLength;
+    private final ProblemIndex problemIndex;
 
     public GeneticTestContext(Problem problem) {
         this.problem = problem;
@@ -24,6 +25,8 @@ public class GeneticTestContext implements EvolutionaryExecutionContext {
             orderWidth[i] = order.getWidth();
             orderLength[i] = order.getLength();
         }
+
+        problemIndex = new ProblemIndex(problem);
     }
 
     @Override
@@ -41,6 +44,11 @@ public class GeneticTestContext implements EvolutionaryExecutionContext {
         return orderWidth.length;
     }
 
+    @Override
+    public ProblemIndex getProblemIndex() {
+        return problemIndex;
+    }
+
     @Override
     public Problem getProblem() {
         return problem;
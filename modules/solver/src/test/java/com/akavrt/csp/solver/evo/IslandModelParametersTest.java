@@ -0,0 +1,50 @@
+package com.akavrt.csp.solver.evo;
+
+import org.jdom2.Element;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * User: akavrt
+ * Date: 05.05.13
+ * Time: 18:12
+ */
+public class IslandModelParametersTest {
+
+    @Test
+    public void defaults() {
+        // no custom values were provided,
+        // default values should be converted to XML and then retrieved back
+        Element element = new IslandModelParameters().save();
+        IslandModelParameters actual = new IslandModelParameters();
+        actual.load(element);
+
+        IslandModelParameters expected = new IslandModelParameters();
+        assertEquals(expected.getIslands(), actual.getIslands());
+        assertEquals(expected.getMigrationSize(), actual.getMigrationSize());
+        assertEquals(expected.getMigrationInterval(), actual.getMigrationInterval());
+        assertEquals(expected.getTopology(), actual.getTopology());
+    }
+
+    @Test
+    public void conversion() {
+        for (MigrationTopology topology : MigrationTopology.values()) {
+            IslandModelParameters expected = new IslandModelParameters();
+            expected.setIslands(8);
+            expected.setMigrationSize(3);
+            expected.setMigrationInterval(25);
+            expected.setTopology(topology);
+
+            Element element = expected.save();
+            IslandModelParameters actual = new IslandModelParameters();
+            actual.load(element);
+
+            assertEquals(expected.getIslands(), actual.getIslands());
+            assertEquals(expected.getMigrationSize(), actual.getMigrationSize());
+            assertEquals(expected.getMigrationInterval(), actual.getMigrationInterval());
+            assertEquals(expected.getTopology(), actual.getTopology());
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Pattern;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.metrics.complex.ScalarMetric;
+import com.akavrt.csp.solver.AlgorithmFactory;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.SolutionRepair;
+import com.akavrt.csp.solver.evo.es.BaseStrategyComponentsFactory;
+import com.akavrt.csp.solver.evo.es.EvolutionStrategy;
+import com.akavrt.csp.solver.evo.es.EvolutionStrategyParameters;
+import com.akavrt.csp.solver.evo.migration.MigrationChannel;
+import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: akavrt
+ * Date: 05.05.13
+ * Time: 18:30
+ */
+public class IslandModelTest {
+    private Problem problem;
+    private ExecutionContext context;
+
+    @Before
+    public void setUpProblem() {
+        problem = createProblem();
+        context = new ExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return problem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        };
+    }
+
+    @Test
+    public void solutionsAreCollectedFromAllIslands() {
+        IslandModelParameters parameters = new IslandModelParameters();
+        parameters.setIslands(3);
+        parameters.setMigrationInterval(4);
+
+        List<Solution> solutions = createModel(parameters).execute(context);
+        assertNotNull(solutions);
+        assertEquals(3 * 8, solutions.size());
+    }
+
+    @Test
+    public void seededRunIsReproducible() {
+        for (MigrationTopology topology : MigrationTopology.values()) {
+            IslandModelParameters parameters = new IslandModelParameters();
+            parameters.setIslands(3);
+            parameters.setMigrationInterval(4);
+            parameters.setTopology(topology);
+
+            List<Solution> first = createModel(parameters).execute(context);
+            List<Solution> second = createModel(parameters).execute(context);
+
+            assertEquals(first.size(), second.size());
+            for (int i = 0; i < first.size(); i++) {
+                assertEquals(hash(first.get(i)), hash(second.get(i)));
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void terminationCriteriaOfIslands() {
+        IslandModelParameters parameters = new IslandModelParameters();
+        parameters.setIslands(2);
+        parameters.setMigrationInterval(4);
+
+        // any solution which fulfills all orders is good enough
+        EvolutionStrategyParameters strategyParameters = createStrategyParameters();
+        strategyParameters.setRunSteps(Integer.MAX_VALUE);
+        strategyParameters.setTargetValue(Double.MAX_VALUE);
+
+        List<Solution> solutions = createModel(parameters, strategyParameters, null)
+                .execute(context);
+        assertEquals(2 * 8, solutions.size());
+
+        strategyParameters.setTargetValue(Double.NaN);
+        strategyParameters.setStagnationSteps(5);
+
+        solutions = createModel(parameters, strategyParameters, null).execute(context);
+        assertEquals(2 * 8, solutions.size());
+    }
+
+    @Test
+    public void seededIslands() {
+        IslandModelParameters parameters = new IslandModelParameters();
+        parameters.setIslands(2);
+
+        List<Solution> previous = createModel(parameters).execute(context).subList(0, 2);
+
+        // without generations islands hold seeds and constructed solutions only
+        EvolutionStrategyParameters strategyParameters = createStrategyParameters();
+        strategyParameters.setRunSteps(0);
+        strategyParameters.setSeed(7);
+
+        List<Solution> solutions = createModel(parameters, strategyParameters, previous)
+                .execute(context);
+
+        Set<Integer> hashes = Sets.newHashSet();
+        for (Solution solution : solutions) {
+            hashes.add(hash(solution));
+        }
+
+        SolutionRepair repair = new SolutionRepair(problem);
+        for (Solution solution : previous) {
+            assertTrue(hashes.contains(hash(repair.repair(solution))));
+        }
+    }
+
+    @Test
+    public void remoteImmigrantsAreBoundToIsland() {
+        IslandModelParameters parameters = new IslandModelParameters();
+        parameters.setIslands(2);
+        parameters.setMigrationInterval(5);
+
+        EvolutionStrategyParameters strategyParameters = createStrategyParameters();
+        strategyParameters.setRunSteps(100);
+        final List<Solution> best = createModel(parameters, strategyParameters, null)
+                .execute(context).subList(0, 2);
+
+        // the same problem read by another process, channel decodes immigrants within it
+        final Problem remoteProblem = createProblem();
+        final EvolutionaryContext remoteContext = new EvolutionaryContext(new ExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return remoteProblem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+
+        IslandModel model = createModel(parameters);
+        model.setMigrationChannel(new MigrationChannel() {
+            @Override
+            public void emigrate(List<Chromosome> migrants) {
+            }
+
+            @Override
+            public List<Chromosome> drainImmigrants() {
+                List<Chromosome> immigrants = Lists.newArrayList();
+                for (Solution solution : best) {
+                    Chromosome chromosome = new Chromosome(remoteContext);
+                    for (Pattern pattern : solution.getPatterns()) {
+                        int index = problem.getRolls().indexOf(pattern.getRoll());
+                        Roll roll = remoteProblem.getRolls().get(index);
+                        chromosome.addGene(new Gene(new Gene(pattern).getPattern(), roll));
+                    }
+
+                    immigrants.add(chromosome);
+                }
+
+                return immigrants;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        Set<Roll> rolls = Sets.newIdentityHashSet();
+        rolls.addAll(problem.getRolls());
+        for (Solution solution : model.execute(context)) {
+            for (Pattern pattern : solution.getPatterns()) {
+                assertTrue(rolls.contains(pattern.getRoll()));
+            }
+        }
+    }
+
+    private IslandModel createModel(IslandModelParameters parameters) {
+        return createModel(parameters, createStrategyParameters(), null);
+    }
+
+    private IslandModel createModel(IslandModelParameters parameters,
+                                    final EvolutionStrategyParameters strategyParameters,
+                                    final List<Solution> seeds) {
+        AlgorithmFactory<EvolutionStrategy> factory = new AlgorithmFactory<EvolutionStrategy>() {
+            @Override
+            public EvolutionStrategy createAlgorithm() {
+                BaseStrategyComponentsFactory componentsFactory =
+                        new BaseStrategyComponentsFactory(new ConstrainedPatternGenerator());
+
+                EvolutionStrategy strategy = new EvolutionStrategy(componentsFactory,
+                                                                   new ScalarMetric(),
+                                                                   strategyParameters);
+                strategy.setSeedSolutions(seeds);
+
+                return strategy;
+            }
+        };
+
+        return new IslandModel(factory, new ScalarMetric(), parameters);
+    }
+
+    private Problem createProblem() {
+        List<Order> orders = Lists.newArrayList();
+        orders.add(new Order("order1", 2000, 50));
+        orders.add(new Order("order2", 1500, 40));
+        orders.add(new Order("order3", 1800, 30));
+        orders.add(new Order("order4", 1200, 25));
+
+        List<Roll> rolls = Lists.newArrayList();
+        for (int i = 0; i < 30; i++) {
+            rolls.add(new Roll("roll", i, 200 + 10 * (i % 5), 150 + 5 * (i % 7)));
+        }
+
+        return new Problem(orders, rolls, 5);
+    }
+
+    private EvolutionStrategyParameters createStrategyParameters() {
+        EvolutionStrategyParameters strategyParameters = new EvolutionStrategyParameters();
+        strategyParameters.setPopulationSize(8);
+        strategyParameters.setOffspringCount(6);
+        strategyParameters.setRunSteps(10);
+        strategyParameters.setSeed(42);
+
+        return strategyParameters;
+    }
+
+    private int hash(Solution solution) {
+        return new Chromosome(new EvolutionaryContext(context), solution).hashCode();
+    }
+
+}
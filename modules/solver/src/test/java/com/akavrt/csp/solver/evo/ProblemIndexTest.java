@@ -0,0 +1,92 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.ProblemBuilder;
+import com.akavrt.csp.core.Roll;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class ProblemIndexTest {
+    private static final double DELTA = 1e-15;
+    private Problem problem;
+    private ProblemIndex index;
+
+    @Before
+    public void setUp() {
+        ProblemBuilder builder = new ProblemBuilder();
+        builder.addOrder(new Order("order1", 500, 50));
+        builder.addOrder(new Order("order2", 400, 40));
+        builder.addRolls(new Roll("roll1", 1000, 200), 2);
+        builder.addRoll(new Roll("roll2", 800, 150));
+
+        problem = builder.build();
+        index = new ProblemIndex(problem);
+    }
+
+    @Test
+    public void orders() {
+        assertEquals(2, index.getOrdersSize());
+        assertArrayEquals(new double[]{50, 40}, index.getOrderWidths(), DELTA);
+        assertArrayEquals(new double[]{500, 400}, index.getOrderLengths(), DELTA);
+    }
+
+    @Test
+    public void rolls() {
+        assertEquals(3, index.getRollsSize());
+        assertArrayEquals(new double[]{200, 200, 150}, index.getRollWidths(), DELTA);
+        assertArrayEquals(new double[]{1000, 1000, 800}, index.getRollLengths(), DELTA);
+        assertArrayEquals(new double[]{200000, 200000, 120000}, index.getRollAreas(), DELTA);
+
+        for (int i = 0; i < problem.getRolls().size(); i++) {
+            Roll roll = problem.getRolls().get(i);
+            assertEquals(i, index.getRollIndex(roll));
+            assertEquals(i, index.getRollIndex(roll.getInternalId()));
+        }
+
+        assertEquals(-1, index.getRollIndex(new Roll("roll3", 100, 100)));
+    }
+
+    @Test
+    public void groups() {
+        assertArrayEquals(new int[]{0, 1}, index.getRollIndices("roll1"));
+        assertArrayEquals(new int[]{2}, index.getRollIndices("roll2"));
+        assertEquals(0, index.getRollIndices("roll3").length);
+    }
+
+    @Test
+    public void widthOrder() {
+        // rolls of the same width keep relative order
+        assertArrayEquals(new int[]{2, 0, 1}, index.getRollsByWidth());
+
+        assertEquals(0, index.getWidthRank(100));
+        assertEquals(0, index.getWidthRank(150));
+        assertEquals(1, index.getWidthRank(150.5));
+        assertEquals(1, index.getWidthRank(200));
+        assertEquals(3, index.getWidthRank(201));
+    }
+
+    @Test
+    public void narrowestRoll() {
+        BitSet usedRolls = new BitSet();
+        assertEquals(2, index.findNarrowestRoll(100, usedRolls));
+        assertEquals(0, index.findNarrowestRoll(160, usedRolls));
+        assertEquals(-1, index.findNarrowestRoll(250, usedRolls));
+
+        usedRolls.set(2);
+        usedRolls.set(0);
+        assertEquals(1, index.findNarrowestRoll(100, usedRolls));
+
+        usedRolls.set(1);
+        assertEquals(-1, index.findNarrowestRoll(100, usedRolls));
+    }
+
+}
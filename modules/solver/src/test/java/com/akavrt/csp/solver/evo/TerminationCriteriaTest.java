@@ -0,0 +1,46 @@
+package com.akavrt.csp.solver.evo;
+
+import com.akavrt.csp.metrics.complex.ScalarMetric;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class TerminationCriteriaTest {
+    private static final double DELTA = 1e-12;
+
+    @Test
+    public void relativeGap() {
+        assertEquals(0.5, TerminationCriteria.getGap(2, 1), DELTA);
+        assertEquals(0.5, TerminationCriteria.getGap(-2, -3), DELTA);
+        assertEquals(0, TerminationCriteria.getGap(1, 1), DELTA);
+        assertEquals(0, TerminationCriteria.getGap(1, 2), DELTA);
+    }
+
+    @Test
+    public void gapNearZero() {
+        assertEquals(0, TerminationCriteria.getGap(0, 0), DELTA);
+        assertEquals(0.1, TerminationCriteria.getGap(0, -0.1), DELTA);
+
+        double gap = TerminationCriteria.getGap(1e-12, 0);
+        assertFalse(Double.isNaN(gap) || Double.isInfinite(gap));
+        assertTrue(gap <= 1e-12);
+    }
+
+    @Test
+    public void optionalCriteriaAreLeftOut() {
+        EvolutionaryAlgorithmParameters parameters = new EvolutionaryAlgorithmParameters();
+        // deadline and generations
+        assertEquals(2, TerminationCriteria.create(parameters, new ScalarMetric()).size());
+
+        parameters.setStagnationSteps(10);
+        parameters.setTargetValue(0.1);
+        parameters.setLowerBound(0);
+        assertEquals(5, TerminationCriteria.create(parameters, new ScalarMetric()).size());
+    }
+
+}
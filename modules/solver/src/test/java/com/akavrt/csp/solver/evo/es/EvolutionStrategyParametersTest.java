@@ -0,0 +1,79 @@
+package com.akavrt.csp.solver.evo.es;
+
+import org.jdom2.Element;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: akavrt
+ * Date: 26.04.13
+ * Time: 00:25
+ */
+public class EvolutionStrategyParametersTest {
+
+    @Test
+    public void defaults() {
+        // no custom values were provided,
+        // default values should be converted to XML and then retrieved back
+        Element element = new EvolutionStrategyParameters().save();
+        EvolutionStrategyParameters actual = new EvolutionStrategyParameters();
+        actual.load(element);
+
+        EvolutionStrategyParameters expected = new EvolutionStrategyParameters();
+        assertEquals(expected.getPopulationSize(), actual.getPopulationSize());
+        assertEquals(expected.getRunSteps(), actual.getRunSteps());
+        assertEquals(expected.getOffspringCount(), actual.getOffspringCount());
+        assertEquals(expected.getTourSize(), actual.getTourSize());
+        assertEquals(expected.getWorkers(), actual.getWorkers());
+        assertFalse(actual.isSeeded());
+        assertEquals(expected.getTimeLimit(), actual.getTimeLimit());
+        assertEquals(expected.getStagnationSteps(), actual.getStagnationSteps());
+        assertFalse(actual.isTargetValueSet());
+        assertFalse(actual.isLowerBoundSet());
+        assertFalse(actual.isGroupSelectionEnabled());
+
+        // optional parameters aren't saved unless custom values were provided
+        assertNull(element.getChild("workers"));
+        assertNull(element.getChild("seed"));
+        assertNull(element.getChild("group-selection"));
+    }
+
+    @Test
+    public void conversion() {
+        EvolutionStrategyParameters expected = new EvolutionStrategyParameters();
+        expected.setPopulationSize(50);
+        expected.setRunSteps(2000);
+        expected.setOffspringCount(45);
+        expected.setTourSize(3);
+        expected.setWorkers(8);
+        expected.setSeed(-7091235L);
+        expected.setTimeLimit(60000);
+        expected.setStagnationSteps(150);
+        expected.setTargetValue(0.0123456789);
+        expected.setLowerBound(-0.00001);
+        expected.setGap(0.005);
+        expected.setGroupSelectionEnabled(true);
+
+        Element element = expected.save();
+        EvolutionStrategyParameters actual = new EvolutionStrategyParameters();
+        actual.load(element);
+
+        assertEquals(expected.getPopulationSize(), actual.getPopulationSize());
+        assertEquals(expected.getRunSteps(), actual.getRunSteps());
+        assertEquals(expected.getOffspringCount(), actual.getOffspringCount());
+        assertEquals(expected.getTourSize(), actual.getTourSize());
+        assertEquals(expected.getWorkers(), actual.getWorkers());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.getTimeLimit(), actual.getTimeLimit());
+        assertEquals(expected.getStagnationSteps(), actual.getStagnationSteps());
+        assertEquals(expected.getTargetValue(), actual.getTargetValue(), 0);
+        assertEquals(expected.getLowerBound(), actual.getLowerBound(), 0);
+        assertEquals(expected.getGap(), actual.getGap(), 0);
+        assertTrue(actual.isGroupSelectionEnabled());
+    }
+
+}
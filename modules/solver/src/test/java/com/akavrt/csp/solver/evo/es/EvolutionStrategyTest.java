@@ -0,0 +1,301 @@
+package com.akavrt.csp.solver.evo.es;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.metadata.SolutionMetadata;
+import com.akavrt.csp.metrics.complex.ScalarMetric;
+import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.SolutionRepair;
+import com.akavrt.csp.solver.TimedExecutionContext;
+import com.akavrt.csp.solver.evo.Chromosome;
+import com.akavrt.csp.solver.evo.EvolutionProgressChangeListener;
+import com.akavrt.csp.solver.evo.EvolutionaryContext;
+import com.akavrt.csp.solver.evo.Population;
+import com.akavrt.csp.solver.evo.TerminationMonitor;
+import com.akavrt.csp.solver.evo.TerminationReason;
+import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
+import com.akavrt.csp.solver.pattern.KnapsackPatternGenerator;
+import com.akavrt.csp.solver.pattern.PatternGenerator;
+import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.akavrt.csp.solver.TimedExecutionContext.NO_DEADLINE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: akavrt
+ * Date: 26.04.13
+ * Time: 00:40
+ */
+public class EvolutionStrategyTest {
+    private Problem problem;
+
+    @Before
+    public void setUpProblem() {
+        List<Order> orders = Lists.newArrayList();
+        orders.add(new Order("order1", 2000, 50));
+        orders.add(new Order("order2", 1500, 40));
+        orders.add(new Order("order3", 1800, 30));
+        orders.add(new Order("order4", 1200, 25));
+
+        List<Roll> rolls = Lists.newArrayList();
+        for (int i = 0; i < 30; i++) {
+            rolls.add(new Roll("roll", i, 200 + 10 * (i % 5), 150 + 5 * (i % 7)));
+        }
+
+        problem = new Problem(orders, rolls, 5);
+    }
+
+    @Test
+    public void parallelRunIsReproducible() {
+        List<Solution> first = solve(3, 42);
+        List<Solution> second = solve(3, 42);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(first.size(), second.size());
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(hash(first.get(i)), hash(second.get(i)));
+        }
+    }
+
+    @Test
+    public void parallelInitialization() {
+        final List<Integer> progress = Lists.newArrayList();
+        EvolutionProgressChangeListener listener = new EvolutionProgressChangeListener() {
+            @Override
+            public void onInitializationProgressChanged(int value) {
+                progress.add(value);
+            }
+
+            @Override
+            public void onGenerationProgressChanged(int value, Population population) {
+            }
+        };
+
+        // without generations population holds constructed solutions only
+        List<List<Solution>> runs = Lists.newArrayList();
+        for (int workers = 2; workers <= 3; workers++) {
+            EvolutionStrategyParameters parameters = createParameters(workers, 42);
+            parameters.setRunSteps(0);
+
+            EvolutionStrategy strategy = createStrategy(parameters);
+            strategy.setProgressChangeListener(listener);
+            runs.add(strategy.execute(createContext(NO_DEADLINE)));
+
+            assertEquals(parameters.getPopulationSize(), runs.get(runs.size() - 1).size());
+            assertEquals(100, (int) progress.get(progress.size() - 1));
+        }
+
+        // results don't depend on the number of workers
+        List<Solution> first = runs.get(0);
+        List<Solution> second = runs.get(1);
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(hash(first.get(i)), hash(second.get(i)));
+        }
+    }
+
+    @Test
+    public void parallelInitializationWithBareGenerators() {
+        // generators without cache, each worker initializes its own generator on every run
+        List<PatternGenerator> generators = Lists.newArrayList();
+        generators.add(new ConstrainedPatternGenerator());
+        generators.add(new KnapsackPatternGenerator());
+
+        for (PatternGenerator generator : generators) {
+            List<List<Solution>> runs = Lists.newArrayList();
+            for (int workers = 2; workers <= 4; workers += 2) {
+                EvolutionStrategyParameters parameters = createParameters(workers, 42);
+                parameters.setPopulationSize(40);
+                parameters.setRunSteps(0);
+
+                EvolutionStrategy strategy = createStrategy(generator, parameters);
+                runs.add(strategy.execute(createContext(NO_DEADLINE)));
+
+                assertEquals(parameters.getPopulationSize(), runs.get(runs.size() - 1).size());
+            }
+
+            List<Solution> first = runs.get(0);
+            List<Solution> second = runs.get(1);
+            for (int i = 0; i < first.size(); i++) {
+                assertEquals(hash(first.get(i)), hash(second.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void initializationProcedures() {
+        PatternGeneratorParameters params = new PatternGeneratorParameters();
+        params.setCacheSize(100);
+        PatternGenerator generator = PatternGenerators.create(params);
+        BaseStrategyComponentsFactory factory = new BaseStrategyComponentsFactory(generator);
+
+        // sequential procedure shares generator (and its cache) with mutation operators
+        assertSame(params, factory.createInitializationProcedure().getParameters().get(1));
+
+        // each concurrent procedure gets its own copy
+        AlgorithmFactory<? extends Algorithm> procedureFactory =
+                factory.createConcurrentInitializationFactory();
+        assertNotNull(procedureFactory);
+        assertNotSame(params, procedureFactory.createAlgorithm().getParameters().get(1));
+
+        // generators of unknown types can't be copied, population is initialized sequentially
+        generator = new ConstrainedPatternGenerator() {
+        };
+        factory = new BaseStrategyComponentsFactory(generator);
+        assertNull(factory.createConcurrentInitializationFactory());
+
+        EvolutionStrategyParameters parameters = createParameters(3, 42);
+        parameters.setRunSteps(0);
+        List<Solution> solutions = createStrategy(generator, parameters)
+                .execute(createContext(NO_DEADLINE));
+        assertEquals(parameters.getPopulationSize(), solutions.size());
+    }
+
+    @Test
+    public void stagnation() {
+        EvolutionStrategyParameters parameters = createParameters(1, 42);
+        parameters.setRunSteps(100000);
+        parameters.setStagnationSteps(5);
+
+        EvolutionStrategy strategy = createStrategy(parameters);
+        List<Solution> solutions = strategy.execute(createContext(NO_DEADLINE));
+
+        TerminationMonitor monitor = strategy.getTerminationMonitor();
+        assertEquals(TerminationReason.STAGNATION, monitor.getReason());
+        assertTrue(monitor.getTimeToBest() >= 0);
+
+        assertFalse(solutions.isEmpty());
+        SolutionMetadata metadata = solutions.get(0).getMetadata();
+        assertEquals(TerminationReason.STAGNATION.getName(), metadata.getStopReason());
+        assertEquals(monitor.getTimeToBest(), metadata.getTimeToBest());
+    }
+
+    @Test
+    public void targetValue() {
+        EvolutionStrategyParameters parameters = createParameters(1, 42);
+        parameters.setRunSteps(100000);
+        // any solution which fulfills all orders is good enough
+        parameters.setTargetValue(Double.MAX_VALUE);
+
+        EvolutionStrategy strategy = createStrategy(parameters);
+        strategy.execute(createContext(NO_DEADLINE));
+
+        assertEquals(TerminationReason.TARGET, strategy.getTerminationMonitor().getReason());
+    }
+
+    @Test
+    public void deadline() {
+        EvolutionStrategyParameters parameters = createParameters(1, 42);
+        parameters.setRunSteps(100000);
+
+        // initialization is stopped as well
+        EvolutionStrategy strategy = createStrategy(parameters);
+        List<Solution> solutions = strategy.execute(createContext(System.currentTimeMillis()));
+
+        assertEquals(TerminationReason.TIME_LIMIT, strategy.getTerminationMonitor().getReason());
+        assertTrue(solutions.size() < parameters.getPopulationSize());
+
+        // time limit defined by parameters
+        parameters.setTimeLimit(50);
+        strategy.execute(createContext(NO_DEADLINE));
+
+        assertEquals(TerminationReason.TIME_LIMIT, strategy.getTerminationMonitor().getReason());
+    }
+
+    @Test
+    public void seededPopulation() {
+        List<Solution> previous = solve(1, 42);
+
+        // without generations population holds seeds and constructed solutions only
+        EvolutionStrategyParameters parameters = createParameters(1, 7);
+        parameters.setRunSteps(0);
+
+        EvolutionStrategy strategy = createStrategy(parameters);
+        strategy.setSeedSolutions(previous);
+        List<Solution> solutions = strategy.execute(createContext(NO_DEADLINE));
+
+        assertEquals(parameters.getPopulationSize(), solutions.size());
+
+        Set<Integer> hashes = Sets.newHashSet();
+        for (Solution solution : solutions) {
+            hashes.add(hash(solution));
+        }
+
+        SolutionRepair repair = new SolutionRepair(problem);
+        for (Solution solution : previous) {
+            assertTrue(hashes.contains(hash(repair.repair(solution))));
+        }
+    }
+
+    private List<Solution> solve(int workers, long seed) {
+        EvolutionStrategy strategy = createStrategy(createParameters(workers, seed));
+        return strategy.execute(createContext(NO_DEADLINE));
+    }
+
+    private EvolutionStrategyParameters createParameters(int workers, long seed) {
+        EvolutionStrategyParameters parameters = new EvolutionStrategyParameters();
+        parameters.setPopulationSize(8);
+        parameters.setOffspringCount(6);
+        parameters.setRunSteps(15);
+        parameters.setWorkers(workers);
+        parameters.setSeed(seed);
+
+        return parameters;
+    }
+
+    private EvolutionStrategy createStrategy(EvolutionStrategyParameters parameters) {
+        return createStrategy(new ConstrainedPatternGenerator(), parameters);
+    }
+
+    private EvolutionStrategy createStrategy(PatternGenerator generator,
+                                             EvolutionStrategyParameters parameters) {
+        BaseStrategyComponentsFactory factory = new BaseStrategyComponentsFactory(generator);
+
+        return new EvolutionStrategy(factory, new ScalarMetric(), parameters);
+    }
+
+    private ExecutionContext createContext(final long deadline) {
+        return new TimedExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return problem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public long getDeadline() {
+                return deadline;
+            }
+        };
+    }
+
+    private int hash(Solution solution) {
+        ExecutionContext context = createContext(NO_DEADLINE);
+
+        return new Chromosome(new EvolutionaryContext(context), solution).hashCode();
+    }
+
+}
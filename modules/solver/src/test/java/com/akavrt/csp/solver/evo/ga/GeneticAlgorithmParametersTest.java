@@ -0,0 +1,52 @@
+package com.akavrt.csp.solver.evo.ga;
+
+import org.jdom2.Element;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * User: akavrt
+ * Date: 13.04.13
+ * Time: 19:05
+ */
+public class GeneticAlgorithmParametersTest {
+    private static final double DELTA = 1e-15;
+
+    @Test
+    public void defaults() {
+        // no custom values were provided,
+        // default values should be converted to XML and then retrieved back
+        Element element = new GeneticAlgorithmParameters().save();
+        GeneticAlgorithmParameters actual = new GeneticAlgorithmParameters();
+        actual.load(element);
+
+        GeneticAlgorithmParameters expected = new GeneticAlgorithmParameters();
+        assertEquals(expected.getPopulationSize(), actual.getPopulationSize());
+        assertEquals(expected.getRunSteps(), actual.getRunSteps());
+        assertEquals(expected.getExchangeSize(), actual.getExchangeSize());
+        assertEquals(expected.getCrossoverRate(), actual.getCrossoverRate(), DELTA);
+        assertEquals(expected.getWorkers(), actual.getWorkers());
+    }
+
+    @Test
+    public void conversion() {
+        GeneticAlgorithmParameters expected = new GeneticAlgorithmParameters();
+        expected.setPopulationSize(60);
+        expected.setRunSteps(500);
+        expected.setExchangeSize(40);
+        expected.setCrossoverRate(0.75);
+        expected.setWorkers(16);
+
+        Element element = expected.save();
+        GeneticAlgorithmParameters actual = new GeneticAlgorithmParameters();
+        actual.load(element);
+
+        assertEquals(expected.getPopulationSize(), actual.getPopulationSize());
+        assertEquals(expected.getRunSteps(), actual.getRunSteps());
+        assertEquals(expected.getExchangeSize(), actual.getExchangeSize());
+        assertEquals(expected.getCrossoverRate(), actual.getCrossoverRate(), DELTA);
+        assertEquals(expected.getWorkers(), actual.getWorkers());
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.akavrt.csp.solver.evo.ga;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.metrics.complex.ScalarMetric;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.evo.Chromosome;
+import com.akavrt.csp.solver.evo.EvolutionaryContext;
+import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * User: akavrt
+ * Date: 13.04.13
+ * Time: 19:20
+ */
+public class GeneticAlgorithmTest {
+    private Problem problem;
+
+    @Before
+    public void setUpProblem() {
+        List<Order> orders = Lists.newArrayList();
+        orders.add(new Order("order1", 2000, 50));
+        orders.add(new Order("order2", 1500, 40));
+        orders.add(new Order("order3", 1800, 30));
+        orders.add(new Order("order4", 1200, 25));
+
+        List<Roll> rolls = Lists.newArrayList();
+        for (int i = 0; i < 30; i++) {
+            rolls.add(new Roll("roll", i, 200 + 10 * (i % 5), 150 + 5 * (i % 7)));
+        }
+
+        problem = new Problem(orders, rolls, 5);
+    }
+
+    @Test
+    public void parallelRunIsReproducible() {
+        List<Solution> first = solve(3, 42);
+        List<Solution> second = solve(3, 42);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(first.size(), second.size());
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(hash(first.get(i)), hash(second.get(i)));
+        }
+    }
+
+    private List<Solution> solve(int workers, long seed) {
+        GeneticAlgorithmParameters parameters = new GeneticAlgorithmParameters();
+        parameters.setPopulationSize(10);
+        parameters.setExchangeSize(8);
+        parameters.setRunSteps(15);
+        parameters.setWorkers(workers);
+        parameters.setSeed(seed);
+
+        BaseGeneticComponentsFactory factory =
+                new BaseGeneticComponentsFactory(new ConstrainedPatternGenerator());
+        GeneticAlgorithm algorithm = new GeneticAlgorithm(factory, new ScalarMetric(), parameters);
+
+        return algorithm.execute(new ExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return problem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+    }
+
+    private int hash(Solution solution) {
+        ExecutionContext context = new ExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return problem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        };
+
+        return new Chromosome(new EvolutionaryContext(context), solution).hashCode();
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.akavrt.csp.solver.evo.migration;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.solver.evo.Chromosome;
+import com.akavrt.csp.solver.evo.EvolutionaryContext;
+import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
+import com.akavrt.csp.solver.evo.Gene;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * User: akavrt
+ * Date: 06.05.13
+ * Time: 15:40
+ */
+public class ChromosomeCodecTest {
+    private EvolutionaryExecutionContext context;
+
+    @Before
+    public void setUp() {
+        context = createContext(3);
+    }
+
+    @Test
+    public void emptyBatch() throws IOException {
+        List<Chromosome> decoded = roundTrip(new ChromosomeCodec(context),
+                                             Lists.<Chromosome>newArrayList());
+
+        assertEquals(0, decoded.size());
+    }
+
+    @Test
+    public void genes() throws IOException {
+        ChromosomeCodec codec = new ChromosomeCodec(context);
+        List<Roll> rolls = context.getProblem().getRolls();
+
+        Gene gene = new Gene(new int[]{0, 300, 2}, rolls.get(5));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.writeGene(gene, new DataOutputStream(bytes));
+
+        // flag, id of the roll and three multipliers (the second one takes two bytes)
+        assertEquals(1 + 4 + 1 + 2 + 1, bytes.size());
+
+        Gene decoded = codec.readGene(input(bytes));
+        assertArrayEquals(gene.getPattern(), decoded.getPattern());
+        assertSame(rolls.get(5), decoded.getRoll());
+
+        Gene withoutRoll = new Gene(new int[]{1, 2, 3}, null);
+        bytes = new ByteArrayOutputStream();
+        codec.writeGene(withoutRoll, new DataOutputStream(bytes));
+
+        decoded = codec.readGene(input(bytes));
+        assertArrayEquals(withoutRoll.getPattern(), decoded.getPattern());
+        assertNull(decoded.getRoll());
+    }
+
+    @Test
+    public void chromosomes() throws IOException {
+        List<Roll> rolls = context.getProblem().getRolls();
+        List<Chromosome> chromosomes = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            Chromosome chromosome = new Chromosome(context);
+            for (int j = 0; j <= i; j++) {
+                chromosome.addGene(new Gene(new int[]{i, j, i + j}, rolls.get(i + j)));
+            }
+
+            chromosomes.add(chromosome);
+        }
+
+        List<Chromosome> decoded = roundTrip(new ChromosomeCodec(context), chromosomes);
+
+        assertEquals(chromosomes.size(), decoded.size());
+        for (int i = 0; i < chromosomes.size(); i++) {
+            assertEquals(chromosomes.get(i).size(), decoded.get(i).size());
+            assertEquals(chromosomes.get(i).hashCode(), decoded.get(i).hashCode());
+            assertSame(context, decoded.get(i).getContext());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void problemMismatch() throws IOException {
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(new int[]{1, 1, 1}, context.getProblem().getRolls().get(0)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ChromosomeCodec(context).write(Lists.newArrayList(chromosome),
+                                           new DataOutputStream(bytes));
+
+        new ChromosomeCodec(createContext(4)).read(input(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void problemWithTheSameSizesMismatch() throws IOException {
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(new int[]{1, 1, 1}, context.getProblem().getRolls().get(0)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ChromosomeCodec(context).write(Lists.newArrayList(chromosome),
+                                           new DataOutputStream(bytes));
+
+        // the same number of orders and rolls, but orders are longer
+        new ChromosomeCodec(createContext(3, 2000)).read(input(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void hostileCount() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ChromosomeCodec(context).write(Lists.<Chromosome>newArrayList(),
+                                           new DataOutputStream(bytes));
+
+        // the last byte holds count of chromosomes, which is replaced with huge value
+        byte[] frame = bytes.toByteArray();
+        byte[] hostile = Arrays.copyOf(frame, frame.length + 4);
+        hostile[frame.length - 1] = (byte) 0xFF;
+        hostile[frame.length] = (byte) 0xFF;
+        hostile[frame.length + 1] = (byte) 0xFF;
+        hostile[frame.length + 2] = (byte) 0xFF;
+        hostile[frame.length + 3] = (byte) 0x07;
+
+        // input ends before the first chromosome, nothing is allocated in advance
+        new ChromosomeCodec(context).read(
+                new DataInputStream(new ByteArrayInputStream(hostile)));
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedStream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(42);
+
+        new ChromosomeCodec(context).read(input(bytes));
+    }
+
+    private List<Chromosome> roundTrip(ChromosomeCodec codec,
+                                       List<Chromosome> chromosomes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(chromosomes, new DataOutputStream(bytes));
+
+        return codec.read(input(bytes));
+    }
+
+    private DataInputStream input(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private EvolutionaryExecutionContext createContext(int ordersSize) {
+        return createContext(ordersSize, 1000);
+    }
+
+    private EvolutionaryExecutionContext createContext(int ordersSize, double orderLength) {
+        List<Order> orders = Lists.newArrayList();
+        for (int i = 0; i < ordersSize; i++) {
+            orders.add(new Order("order" + i, orderLength, 20 + i * 10));
+        }
+
+        List<Roll> rolls = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            rolls.add(new Roll("roll", i, 200, 150));
+        }
+
+        final Problem problem = new Problem(orders, rolls);
+
+        return new EvolutionaryContext(new ExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return problem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+    }
+
+}
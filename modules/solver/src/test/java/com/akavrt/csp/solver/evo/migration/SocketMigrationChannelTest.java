@@ -0,0 +1,154 @@
+package com.akavrt.csp.solver.evo.migration;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.solver.ExecutionContext;
+import com.akavrt.csp.solver.evo.Chromosome;
+import com.akavrt.csp.solver.evo.EvolutionaryContext;
+import com.akavrt.csp.solver.evo.EvolutionaryExecutionContext;
+import com.akavrt.csp.solver.evo.Gene;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: akavrt
+ * Date: 06.05.13
+ * Time: 16:25
+ */
+public class SocketMigrationChannelTest {
+    private static final long TIMEOUT = 5000;
+    private EvolutionaryExecutionContext context;
+    private SocketMigrationChannel receiver;
+    private SocketMigrationChannel sender;
+
+    @Before
+    public void setUp() throws IOException {
+        List<Order> orders = Lists.newArrayList();
+        orders.add(new Order("order1", 1000, 50));
+        orders.add(new Order("order2", 1500, 40));
+
+        List<Roll> rolls = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            rolls.add(new Roll("roll", i, 200, 150));
+        }
+
+        final Problem problem = new Problem(orders, rolls);
+        context = new EvolutionaryContext(new ExecutionContext() {
+            @Override
+            public Problem getProblem() {
+                return problem;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+
+        receiver = new SocketMigrationChannel(context, 0,
+                                              Collections.<InetSocketAddress>emptyList());
+        receiver.open();
+
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                                          receiver.getLocalPort());
+        sender = new SocketMigrationChannel(context, 0, Lists.newArrayList(address));
+        sender.open();
+    }
+
+    @After
+    public void tearDown() {
+        sender.close();
+        receiver.close();
+    }
+
+    @Test
+    public void loopback() throws InterruptedException {
+        List<Chromosome> migrants = Lists.newArrayList();
+        for (int i = 0; i < 3; i++) {
+            Chromosome chromosome = new Chromosome(context);
+            chromosome.addGene(new Gene(new int[]{i, 1}, context.getProblem().getRolls().get(i)));
+            chromosome.addGene(new Gene(new int[]{1, i}, context.getProblem().getRolls().get(9)));
+
+            migrants.add(chromosome);
+        }
+
+        sender.emigrate(migrants.subList(0, 2));
+        sender.emigrate(migrants.subList(2, 3));
+
+        List<Chromosome> received = awaitImmigrants(receiver, migrants.size());
+
+        assertEquals(migrants.size(), received.size());
+        for (int i = 0; i < migrants.size(); i++) {
+            assertEquals(migrants.get(i).hashCode(), received.get(i).hashCode());
+        }
+
+        assertTrue(receiver.drainImmigrants().isEmpty());
+        assertTrue(sender.drainImmigrants().isEmpty());
+    }
+
+    @Test
+    public void unreachablePeerIsSkipped() throws IOException {
+        int port = receiver.getLocalPort();
+        receiver.close();
+
+        SocketMigrationChannel channel = new SocketMigrationChannel(
+                context, 0, Lists.newArrayList(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(new int[]{1, 1}, context.getProblem().getRolls().get(0)));
+
+        // no exception is expected
+        channel.emigrate(Lists.newArrayList(chromosome));
+        channel.close();
+    }
+
+    @Test
+    public void unreachablePeerDoesNotBlockEmigration() throws IOException {
+        int port = receiver.getLocalPort();
+        receiver.close();
+
+        SocketMigrationChannel channel = new SocketMigrationChannel(
+                context, 0, Lists.newArrayList(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+
+        Chromosome chromosome = new Chromosome(context);
+        chromosome.addGene(new Gene(new int[]{1, 1}, context.getProblem().getRolls().get(0)));
+
+        // frames are sent on the dedicated thread, failed attempts to connect aren't repeated
+        // on every call
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            channel.emigrate(Lists.newArrayList(chromosome));
+        }
+        channel.close();
+
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT / 10);
+    }
+
+    private List<Chromosome> awaitImmigrants(MigrationChannel channel,
+                                             int expected) throws InterruptedException {
+        List<Chromosome> received = Lists.newArrayList();
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (received.size() < expected && System.currentTimeMillis() < deadline) {
+            received.addAll(channel.drainImmigrants());
+            Thread.sleep(10);
+        }
+
+        return received;
+    }
+
+}
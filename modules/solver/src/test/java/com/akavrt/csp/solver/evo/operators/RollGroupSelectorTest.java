@@ -0,0 +1,93 @@
+package com.akavrt.csp.solver.evo.operators;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class RollGroupSelectorTest {
+
+    @Test
+    public void exactMatch() {
+        RollGroupSelector selector = new RollGroupSelector();
+        double[] areas = {500, 300, 400, 250};
+
+        // greedy pick in the given order would take 500 + 300 + 400
+        assertArrayEquals(new int[]{0, 2}, selector.select(areas, areas.length, 900));
+        assertArrayEquals(new int[]{2, 3}, selector.select(areas, areas.length, 600));
+    }
+
+    @Test
+    public void singleRoll() {
+        RollGroupSelector selector = new RollGroupSelector();
+        double[] areas = {700, 300, 250, 2000};
+
+        assertArrayEquals(new int[]{0}, selector.select(areas, areas.length, 600));
+        assertArrayEquals(new int[]{0, 1, 2}, selector.select(areas, areas.length, 1200));
+        assertArrayEquals(new int[]{3}, selector.select(areas, areas.length, 1300));
+    }
+
+    @Test
+    public void targetCantBeCovered() {
+        RollGroupSelector selector = new RollGroupSelector();
+        double[] areas = {500, 300, 400};
+
+        assertNull(selector.select(areas, areas.length, 1201));
+        // rolls beyond specified size aren't used
+        assertNull(selector.select(areas, 2, 900));
+        // as well as rolls beyond the limit
+        assertNull(new RollGroupSelector(64, 2).select(areas, areas.length, 900));
+    }
+
+    @Test
+    public void coverageIsGuaranteed() {
+        Random rGen = new Random(42);
+        RollGroupSelector selector = new RollGroupSelector(64, 16);
+        for (int test = 0; test < 1000; test++) {
+            int size = 1 + rGen.nextInt(16);
+            double[] areas = new double[size];
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                areas[i] = 100 + 1000 * rGen.nextDouble();
+                total += areas[i];
+            }
+
+            double target = total * rGen.nextDouble();
+            int[] selected = selector.select(areas, size, target);
+            assertNotNull(selected);
+
+            double selectedArea = 0;
+            for (int i = 0; i < selected.length; i++) {
+                assertTrue(i == 0 || selected[i] > selected[i - 1]);
+                selectedArea += areas[selected[i]];
+            }
+
+            assertTrue(selectedArea >= target);
+            // scaling error is bounded by one cell per roll
+            assertTrue(selectedArea <= findMinimalCover(areas, target) + size * target / 64);
+        }
+    }
+
+    private double findMinimalCover(double[] areas, double target) {
+        double best = Double.MAX_VALUE;
+        for (int mask = 1; mask < 1 << areas.length; mask++) {
+            double area = 0;
+            for (int i = 0; i < areas.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    area += areas[i];
+                }
+            }
+
+            if (area >= target && area < best) {
+                best = area;
+            }
+        }
+
+        return best;
+    }
+
+}
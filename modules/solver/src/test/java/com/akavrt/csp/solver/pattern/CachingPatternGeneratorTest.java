@@ -0,0 +1,241 @@
+package com.akavrt.csp.solver.pattern;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class CachingPatternGeneratorTest {
+    private PatternGeneratorParameters params;
+    private CountingGenerator generator;
+
+    @Before
+    public void setUp() {
+        params = new PatternGeneratorParameters();
+        params.setCacheSize(2);
+        generator = new CountingGenerator(params);
+    }
+
+    @Test
+    public void repeatedRequests() {
+        CachingPatternGenerator cache = new CachingPatternGenerator(generator);
+
+        int[] demand = {3, 1};
+        int[] first = cache.generate(1, demand, 0);
+        int[] second = cache.generate(1, new int[]{3, 1}, 0);
+
+        assertArrayEquals(first, second);
+        assertEquals(1, generator.calls);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio(), 1e-9);
+
+        // caller is free to modify both demand and pattern
+        demand[0] = 0;
+        second[0] = 100;
+        assertArrayEquals(first, cache.generate(1, new int[]{3, 1}, 0));
+        assertEquals(1, generator.calls);
+
+        // another roll, demand or trim ratio means another request
+        cache.generate(0.5, new int[]{3, 1}, 0);
+        cache.generate(1, new int[]{3, 2}, 0);
+        cache.generate(1, new int[]{3, 2}, 0.01);
+        assertEquals(4, generator.calls);
+
+        // trim ratio is rounded
+        double delta = CachingPatternGenerator.TRIM_RATIO_RESOLUTION / 10;
+        cache.generate(1, new int[]{3, 2}, 0.01 + delta);
+        assertEquals(4, generator.calls);
+    }
+
+    @Test
+    public void missingPattern() {
+        CachingPatternGenerator cache = new CachingPatternGenerator(generator);
+
+        assertNull(cache.generate(1, new int[]{0, 0}, 0));
+        assertNull(cache.generate(1, new int[]{0, 0}, 0));
+        assertEquals(1, generator.calls);
+    }
+
+    @Test
+    public void eviction() {
+        CachingPatternGenerator cache = new CachingPatternGenerator(generator);
+
+        for (int i = 1; i <= 10; i++) {
+            cache.generate(1, new int[]{i, 0}, 0);
+        }
+
+        assertEquals(10, generator.calls);
+        assertTrue(cache.getCachedCount() <= 2);
+
+        // the most recent request is still cached
+        cache.generate(1, new int[]{10, 0}, 0);
+        assertEquals(10, generator.calls);
+
+        // at least some of the earlier requests were evicted
+        for (int i = 1; i <= 10; i++) {
+            cache.generate(1, new int[]{i, 0}, 0);
+        }
+
+        assertTrue(generator.calls >= 18);
+    }
+
+    @Test
+    public void bypass() {
+        params.setCacheBypassRate(1);
+        CachingPatternGenerator cache = new CachingPatternGenerator(generator);
+
+        for (int i = 0; i < 5; i++) {
+            cache.generate(1, new int[]{1, 1}, 0);
+        }
+
+        assertEquals(5, generator.calls);
+        assertEquals(5, cache.getBypassCount());
+        assertEquals(0, cache.getHitCount());
+
+        // patterns produced while bypassing are still cached
+        params.setCacheBypassRate(0);
+        cache.generate(1, new int[]{1, 1}, 0);
+        assertEquals(5, generator.calls);
+    }
+
+    @Test
+    public void initialization() {
+        CachingPatternGenerator cache = new CachingPatternGenerator(generator);
+
+        cache.generate(1, new int[]{1, 1}, 0);
+        cache.initialize(null);
+        cache.generate(1, new int[]{1, 1}, 0);
+
+        assertEquals(2, generator.calls);
+        assertEquals(1, generator.initializations);
+    }
+
+    @Test
+    public void repeatedInitialization() {
+        CachingPatternGenerator cache = new CachingPatternGenerator(generator);
+        Problem problem = new Problem(Lists.<Order>newArrayList(), Lists.<Roll>newArrayList());
+
+        cache.initialize(problem);
+        cache.generate(1, new int[]{1, 1}, 0);
+
+        // patterns cached for the same problem are kept
+        cache.initialize(problem);
+        cache.generate(1, new int[]{1, 1}, 0);
+        assertEquals(1, generator.calls);
+        assertEquals(2, generator.initializations);
+
+        cache.initialize(new Problem(problem.getOrders(), problem.getRolls()));
+        cache.generate(1, new int[]{1, 1}, 0);
+        assertEquals(2, generator.calls);
+    }
+
+    @Test(timeout = 60000)
+    public void initializationWhileGenerating() throws Exception {
+        // stateless generator, pattern depends on request only
+        final CachingPatternGenerator cache = new CachingPatternGenerator(new PatternGenerator() {
+            @Override
+            public int[] generate(double rollWidth, int[] demand, double allowedTrimRatio) {
+                return new int[]{demand[0], demand[1] + 1};
+            }
+
+            @Override
+            public PatternGeneratorParameters getParameters() {
+                return params;
+            }
+
+            @Override
+            public void initialize(Problem problem) {
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = Lists.newArrayList();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 20000; j++) {
+                            int[] pattern = cache.generate(1, new int[]{j % 3, j % 5}, 0);
+                            if (pattern[0] != j % 3 || pattern[1] != j % 5 + 1) {
+                                return false;
+                            }
+                        }
+
+                        return true;
+                    }
+                }));
+            }
+
+            List<Order> orders = Lists.newArrayList();
+            List<Roll> rolls = Lists.newArrayList();
+            for (int i = 0; i < 2000; i++) {
+                cache.initialize(new Problem(orders, rolls));
+            }
+
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void createdThroughParameters() {
+        PatternGenerator created = PatternGenerators.create(params);
+        assertTrue(created instanceof CachingPatternGenerator);
+        assertTrue(((CachingPatternGenerator) created).getGenerator()
+                           instanceof ConstrainedPatternGenerator);
+
+        params.setCacheSize(0);
+        assertTrue(PatternGenerators.create(params) instanceof ConstrainedPatternGenerator);
+    }
+
+    private static class CountingGenerator implements PatternGenerator {
+        private final PatternGeneratorParameters params;
+        private int calls;
+        private int initializations;
+
+        public CountingGenerator(PatternGeneratorParameters params) {
+            this.params = params;
+        }
+
+        @Override
+        public int[] generate(double rollWidth, int[] demand, double allowedTrimRatio) {
+            calls++;
+
+            int total = 0;
+            for (int value : demand) {
+                total += value;
+            }
+
+            return total == 0 ? null : new int[]{demand[0], calls};
+        }
+
+        @Override
+        public PatternGeneratorParameters getParameters() {
+            return params;
+        }
+
+        @Override
+        public void initialize(Problem problem) {
+            initializations++;
+        }
+    }
+
+}
@@ -6,7 +6,7 @@ import com.akavrt.csp.core.ProblemBuilder;
 import org.junit.Before;
 import org.junit.Test;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * User: akavrt
@@ -100,4 +100,38 @@ public class ConstrainedPatternGeneratorTest {
             assertTrue(trimLoss >= 100);
         }
     }
+
+    @Test
+    public void maximalPatterns() {
+        ConstrainedPatternGenerator generator = new ConstrainedPatternGenerator(problem);
+        int[] demand = {9, 6, 7, 5, 11, 2, 9, 4, 7, 3};
+        double rollWidth = 1000;
+
+        for (int i = 0; i < 100; i++) {
+            int[] pattern = generator.generate(rollWidth, demand, 0);
+            assertNotNull(pattern);
+
+            int totalCuts = 0;
+            double totalWidth = 0;
+            for (int j = 0; j < pattern.length; j++) {
+                assertTrue(pattern[j] <= demand[j]);
+
+                totalCuts += pattern[j];
+                totalWidth += pattern[j] * problem.getOrders().get(j).getWidth();
+            }
+            assertTrue(totalCuts <= problem.getAllowedCutsNumber());
+            assertTrue(totalWidth <= rollWidth);
+
+            // trial stops only when no more strips can be added
+            if (totalCuts < problem.getAllowedCutsNumber()) {
+                for (int j = 0; j < pattern.length; j++) {
+                    double width = problem.getOrders().get(j).getWidth();
+                    assertTrue(pattern[j] == demand[j] || totalWidth + width > rollWidth);
+                }
+            }
+        }
+
+        // narrowest order is wider than the roll
+        assertNull(generator.generate(5, demand, 0));
+    }
 }
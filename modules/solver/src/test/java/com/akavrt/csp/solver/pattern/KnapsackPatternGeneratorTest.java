@@ -0,0 +1,156 @@
+package com.akavrt.csp.solver.pattern;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.ProblemBuilder;
+import com.akavrt.csp.core.Roll;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class KnapsackPatternGeneratorTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void bestPattern() {
+        Problem problem = createProblem(new double[]{0.35, 0.3, 0.22}, 1, 0);
+        PatternGeneratorParameters params = new PatternGeneratorParameters();
+        PatternGenerator generator = new KnapsackPatternGenerator(problem, params);
+
+        // 0.35 + 0.35 + 0.3 fills roll completely
+        assertArrayEquals(new int[]{2, 1, 0}, generator.generate(1, new int[]{5, 5, 5}, 0));
+        // demand limits the number of strips: 0.3 + 0.22 + 0.22 + 0.22
+        assertArrayEquals(new int[]{0, 1, 3}, generator.generate(1, new int[]{1, 1, 5}, 0));
+        // all strips fit into roll
+        assertArrayEquals(new int[]{1, 0, 1}, generator.generate(1, new int[]{1, 0, 1}, 0));
+        // nothing to cut
+        assertNull(generator.generate(1, new int[]{0, 0, 0}, 0));
+        assertNull(generator.generate(0.2, new int[]{5, 5, 5}, 0));
+    }
+
+    @Test
+    public void numberOfCuts() {
+        Problem problem = createProblem(new double[]{0.5, 0.1}, 1, 3);
+        PatternGeneratorParameters params = new PatternGeneratorParameters();
+        PatternGenerator generator = new KnapsackPatternGenerator(problem, params);
+
+        // ten strips of 0.1 would fill roll, but only three cuts are allowed
+        assertArrayEquals(new int[]{1, 2}, generator.generate(1, new int[]{1, 10}, 0));
+        assertArrayEquals(new int[]{0, 3}, generator.generate(1, new int[]{0, 10}, 0));
+    }
+
+    @Test
+    public void bruteForce() {
+        Random rGen = new Random(42);
+        for (int test = 0; test < 50; test++) {
+            double[] widths = new double[3];
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = 0.05 + 0.001 * rGen.nextInt(300);
+            }
+
+            int allowedCuts = rGen.nextInt(8);
+            Problem problem = createProblem(widths, 1.5, allowedCuts);
+
+            // fine grid: exact scaling, coarse grid: widths are rounded up
+            PatternGeneratorParameters exact = new PatternGeneratorParameters();
+            PatternGeneratorParameters coarse = new PatternGeneratorParameters();
+            coarse.setGridSize(97);
+
+            int[] demand = {rGen.nextInt(10), rGen.nextInt(10), rGen.nextInt(10)};
+            double best = findBestWidth(widths, 1.5, demand, allowedCuts);
+
+            PatternGenerator generator = new KnapsackPatternGenerator(problem, exact);
+            int[] pattern = generator.generate(1.5, demand, 0);
+            assertValid(pattern, widths, 1.5, demand, allowedCuts);
+            assertEquals(best, getWidth(pattern, widths), DELTA);
+
+            // buffers allocated for the wider roll are reused by the same thread
+            pattern = generator.generate(0.9, demand, 0);
+            assertValid(pattern, widths, 0.9, demand, allowedCuts);
+            assertEquals(findBestWidth(widths, 0.9, demand, allowedCuts),
+                         getWidth(pattern, widths), DELTA);
+
+            // widths are rounded up, so pattern is still valid
+            pattern = new KnapsackPatternGenerator(problem, coarse).generate(1.5, demand, 0);
+            assertValid(pattern, widths, 1.5, demand, allowedCuts);
+            assertTrue(getWidth(pattern, widths) <= best + DELTA);
+        }
+    }
+
+    @Test
+    public void selectedThroughParameters() {
+        PatternGeneratorParameters params = new PatternGeneratorParameters();
+        assertTrue(PatternGenerators.create(params) instanceof ConstrainedPatternGenerator);
+
+        params.setMethod(PatternGenerationMethod.KNAPSACK);
+        assertTrue(PatternGenerators.create(params) instanceof KnapsackPatternGenerator);
+    }
+
+    private Problem createProblem(double[] widths, double rollWidth, int allowedCuts) {
+        ProblemBuilder builder = new ProblemBuilder();
+        for (int i = 0; i < widths.length; i++) {
+            builder.addOrder(new Order("order" + i, 100, widths[i]));
+        }
+
+        builder.addRoll(new Roll("roll", 1000, rollWidth));
+        builder.setAllowedCutsNumber(allowedCuts);
+
+        return builder.build();
+    }
+
+    private double findBestWidth(double[] widths, double rollWidth, int[] demand,
+                                 int allowedCuts) {
+        double best = 0;
+        for (int i = 0; i <= demand[0]; i++) {
+            for (int j = 0; j <= demand[1]; j++) {
+                for (int k = 0; k <= demand[2]; k++) {
+                    double width = i * widths[0] + j * widths[1] + k * widths[2];
+                    boolean isCutsValid = allowedCuts == 0 || i + j + k <= allowedCuts;
+                    if (isCutsValid && width <= rollWidth + DELTA && width > best) {
+                        best = width;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private void assertValid(int[] pattern, double[] widths, double rollWidth, int[] demand,
+                             int allowedCuts) {
+        if (pattern == null) {
+            return;
+        }
+
+        for (int i = 0; i < pattern.length; i++) {
+            assertTrue(pattern[i] <= demand[i]);
+        }
+
+        assertTrue(allowedCuts == 0 || getCuts(pattern) <= allowedCuts);
+        assertTrue(getWidth(pattern, widths) <= rollWidth + DELTA);
+    }
+
+    private double getWidth(int[] pattern, double[] widths) {
+        double width = 0;
+        for (int i = 0; pattern != null && i < pattern.length; i++) {
+            width += pattern[i] * widths[i];
+        }
+
+        return width;
+    }
+
+    private int getCuts(int[] pattern) {
+        int cuts = 0;
+        for (int i = 0; pattern != null && i < pattern.length; i++) {
+            cuts += pattern[i];
+        }
+
+        return cuts;
+    }
+
+}
@@ -4,6 +4,8 @@ import org.jdom2.Element;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 
 /**
  * User: akavrt
@@ -22,18 +24,72 @@ public class PatternGeneratorParametersTest {
 
         PatternGeneratorParameters expected = new PatternGeneratorParameters();
         assertEquals(expected.getGenerationTrialsLimit(), actual.getGenerationTrialsLimit());
+        assertEquals(expected.getMethod(), actual.getMethod());
+        assertEquals(expected.getGridSize(), actual.getGridSize());
+        assertEquals(expected.getCacheSize(), actual.getCacheSize());
+        assertEquals(expected.getCacheBypassRate(), actual.getCacheBypassRate(), 1e-9);
+
+        // optional
+        assertNull(element.getChild("method"));
+        assertNull(element.getChild("grid-size"));
     }
 
     @Test
     public void conversion() {
         PatternGeneratorParameters expected = new PatternGeneratorParameters();
         expected.setGenerationTrialsLimit(500);
+        expected.setMethod(PatternGenerationMethod.KNAPSACK);
+        expected.setGridSize(4096);
+        expected.setCacheSize(1000);
+        expected.setCacheBypassRate(0.1);
 
         Element element = expected.save();
         PatternGeneratorParameters actual = new PatternGeneratorParameters();
         actual.load(element);
 
         assertEquals(expected.getGenerationTrialsLimit(), actual.getGenerationTrialsLimit());
+        assertEquals(expected.getMethod(), actual.getMethod());
+        assertEquals(expected.getGridSize(), actual.getGridSize());
+        assertEquals(expected.getCacheSize(), actual.getCacheSize());
+        assertEquals(expected.getCacheBypassRate(), actual.getCacheBypassRate(), 1e-9);
+    }
+
+    @Test
+    public void copy() {
+        PatternGeneratorParameters expected = new PatternGeneratorParameters();
+        expected.setDescription("Knapsack with cache");
+        expected.setGenerationTrialsLimit(500);
+        expected.setMethod(PatternGenerationMethod.KNAPSACK);
+        expected.setGridSize(4096);
+        expected.setCacheSize(1000);
+        expected.setCacheBypassRate(0.1234);
+
+        PatternGeneratorParameters actual = expected.copy();
+
+        assertNotSame(expected, actual);
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getGenerationTrialsLimit(), actual.getGenerationTrialsLimit());
+        assertEquals(expected.getMethod(), actual.getMethod());
+        assertEquals(expected.getGridSize(), actual.getGridSize());
+        assertEquals(expected.getCacheSize(), actual.getCacheSize());
+        assertEquals(expected.getCacheBypassRate(), actual.getCacheBypassRate(), 0);
+    }
+
+    @Test
+    public void copyOfGenerator() {
+        PatternGeneratorParameters params = new PatternGeneratorParameters();
+        params.setCacheSize(100);
+        PatternGenerator generator = PatternGenerators.create(params);
+
+        PatternGenerator copy = PatternGenerators.copy(generator);
+
+        assertNotSame(generator, copy);
+        assertEquals(CachingPatternGenerator.class, copy.getClass());
+        PatternGenerator inner = ((CachingPatternGenerator) copy).getGenerator();
+        assertNotSame(((CachingPatternGenerator) generator).getGenerator(), inner);
+        assertEquals(ConstrainedPatternGenerator.class, inner.getClass());
+        assertNotSame(params, inner.getParameters());
+        assertEquals(params.getCacheSize(), inner.getParameters().getCacheSize());
     }
 
 }
@@ -5,11 +5,13 @@ import com.akavrt.csp.core.Solution;
 import com.akavrt.csp.core.xml.CspWriter;
 import com.akavrt.csp.solver.Algorithm;
 import com.akavrt.csp.utils.ParameterSet;
+import com.akavrt.csp.xml.XmlStreamOutput;
 import com.akavrt.csp.xml.XmlUtils;
 import com.akavrt.csp.xml.XmlWriter;
 import com.google.common.collect.Lists;
 import org.jdom2.Element;
 
+import javax.xml.stream.XMLStreamException;
 import java.util.Date;
 import java.util.List;
 
@@ -17,6 +19,10 @@ import java.util.List;
  * <p>Results of the test run could be converted to XML and written into stream or file. This
  * utility class helps to accomplish these tasks.</p>
  *
+ * <p>When all solutions obtained in a run are archived, streaming mode should be preferred:
+ * solutions are converted and written one by one instead of being kept in memory as a single
+ * XML tree.</p>
+ *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class RunResultWriter extends XmlWriter {
@@ -123,6 +129,36 @@ public class RunResultWriter extends XmlWriter {
      * @return Run results converted to XML.
      */
     public Element convert() {
+        Element rootElm = new Element(XmlTags.RESULTS);
+        rootElm.addContent(prepareRun());
+
+        if (problem != null) {
+            rootElm.addContent(prepareCspWriter().convert());
+        }
+
+        return rootElm;
+    }
+
+    /**
+     * <p>Write run results incrementally, problem definition and solutions are streamed with
+     * CspWriter.</p>
+     *
+     * @param output Output to use.
+     * @throws XMLStreamException If any problem occurs while writing.
+     */
+    @Override
+    public void stream(XmlStreamOutput output) throws XMLStreamException {
+        output.startElement(XmlTags.RESULTS);
+        output.element(prepareRun());
+
+        if (problem != null) {
+            prepareCspWriter().stream(output);
+        }
+
+        output.endElement();
+    }
+
+    private Element prepareRun() {
         Element runElm = new Element(XmlTags.RUN);
 
         Element dateElm = new Element(XmlTags.DATE);
@@ -173,19 +209,15 @@ public class RunResultWriter extends XmlWriter {
             runElm.addContent(metrics);
         }
 
-        Element rootElm = new Element(XmlTags.RESULTS);
-        rootElm.addContent(runElm);
-
-        if (problem != null) {
-            CspWriter cspWriter = new CspWriter();
-            cspWriter.setProblem(problem);
-            cspWriter.setSolutions(solutions);
+        return runElm;
+    }
 
-            Element cspElm = cspWriter.convert();
-            rootElm.addContent(cspElm);
-        }
+    private CspWriter prepareCspWriter() {
+        CspWriter cspWriter = new CspWriter();
+        cspWriter.setProblem(problem);
+        cspWriter.setSolutions(solutions);
 
-        return rootElm;
+        return cspWriter;
     }
 
     /**
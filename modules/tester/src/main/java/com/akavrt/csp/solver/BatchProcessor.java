@@ -1,28 +1,69 @@
 package com.akavrt.csp.solver;
 
+import com.akavrt.csp.analyzer.Collector;
 import com.akavrt.csp.analyzer.xml.RunResultWriter;
 import com.akavrt.csp.analyzer.xml.XmlEnabledCollector;
 import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.binary.PlanArchive;
 import com.akavrt.csp.core.xml.CspParseException;
 import com.akavrt.csp.core.xml.CspReader;
 import com.akavrt.csp.tester.utils.Utils;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * User: akavrt
- * Date: 03.04.13
- * Time: 16:24
+ * <p>Batch processor solves a number of problems with the same solver and writes results for each
+ * problem along with aggregated results for the whole batch.</p>
+ *
+ * <p>By default problems are solved one after another. If parallelism is greater than one and
+ * solver is forkable (see MultistartSolver.fork()), a number of problems is solved at once, each
+ * one with its own solver and collector. Largest problems (estimated as number of orders times
+ * number of rolls) are scheduled first, this way the whole batch takes approximately as much time
+ * as its largest instance. Results for each problem are written and passed to the aggregating
+ * collector on the calling thread as soon as the problem is solved, after that the problem and its
+ * solutions are released. This way no more than parallelism problems are kept in memory while the
+ * remaining ones are still being solved.</p>
+ *
+ * <p>By default all problems are loaded before solving starts. Huge batches can be processed with
+ * lazy loading enabled: each problem is parsed just before it's solved and released afterwards,
+ * parsing is done on a background thread a couple of problems ahead, so solver doesn't wait for
+ * I/O. In this mode size of the problem is estimated using length of the file.</p>
+ *
+ * <p>Results for each problem are written in streaming mode and can optionally be compressed with
+ * gzip, which is handy when large batches are archived.</p>
+ *
+ * <p>Alternatively solutions obtained for each problem can be appended to the archive of plans
+ * (see PlanArchive) instead of writing separate XML file for each problem. Aggregated results are
+ * written as usual.</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class BatchProcessor {
     private static final Logger LOGGER = LogManager.getLogger(BatchProcessor.class);
@@ -30,9 +71,15 @@ public class BatchProcessor {
     private static final String RESULTS_DIRECTORY_PREFIX = "csp-run_";
     private static final String RESULTS_SUFFIX = "_run";
     private static final String RESULTS_EXTENSION = "xml";
+    private static final String COMPRESSED_EXTENSION = "gz";
     private static final String RUN_RESULTS_FILE_NAME = "csp-run-results" + "." + RESULTS_EXTENSION;
+    private static final int PREFETCH_SIZE = 2;
     private final List<String> problemPaths;
     private final MultistartSolver solver;
+    private int parallelism = 1;
+    private boolean isLazyLoading;
+    private boolean isOutputCompressed;
+    private PlanArchive archive;
 
     public BatchProcessor(MultistartSolver solver) {
         this(solver, null);
@@ -59,6 +106,51 @@ public class BatchProcessor {
         problemPaths.clear();
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * <p>Sets maximum number of problems solved at once.</p>
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isLazyLoading() {
+        return isLazyLoading;
+    }
+
+    /**
+     * <p>Enables loading of each problem just before it's solved.</p>
+     */
+    public void setLazyLoading(boolean isLazyLoading) {
+        this.isLazyLoading = isLazyLoading;
+    }
+
+    public boolean isOutputCompressed() {
+        return isOutputCompressed;
+    }
+
+    /**
+     * <p>Enables gzip compression of the results written for each problem.</p>
+     */
+    public void setOutputCompressed(boolean isOutputCompressed) {
+        this.isOutputCompressed = isOutputCompressed;
+    }
+
+    public PlanArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * <p>Sets archive used to store solutions of each problem instead of per-problem XML files.
+     * Life cycle of the archive isn't managed by batch processor.</p>
+     */
+    public void setArchive(PlanArchive archive) {
+        this.archive = archive;
+    }
+
     public void process(XmlEnabledCollector globalCollector, String outputPath) {
         process(globalCollector, null, outputPath);
     }
@@ -70,17 +162,56 @@ public class BatchProcessor {
         }
 
         long start = System.currentTimeMillis();
-        List<LoadedProblem> loadedProblems = loadProblems();
-        if (loadedProblems.size() == 0) {
-            LOGGER.info("This batch is empty, halting batch processing.");
-            return;
+        boolean isConcurrent = parallelism > 1 && solver.isForkable();
+
+        Iterator<LoadedProblem> problems;
+        if (isLazyLoading) {
+            problems = new LazyProblemIterator(isConcurrent ? sortByFileLength(problemPaths)
+                                                            : problemPaths);
+        } else {
+            List<LoadedProblem> loadedProblems = loadProblems();
+            if (isConcurrent) {
+                Collections.sort(loadedProblems, LARGEST_FIRST);
+            }
+
+            problems = loadedProblems.iterator();
         }
 
-        File outputDirectory = createOutputDirectory(outputPath);
-        if (outputDirectory == null) {
-            return;
+        try {
+            if (!problems.hasNext()) {
+                LOGGER.info("This batch is empty, halting batch processing.");
+                return;
+            }
+
+            File outputDirectory = createOutputDirectory(outputPath);
+            if (outputDirectory == null) {
+                return;
+            }
+
+            int numberOfProblemsSolved;
+            if (isConcurrent) {
+                numberOfProblemsSolved = processConcurrently(problems, globalCollector,
+                                                             problemCollector, outputDirectory);
+            } else {
+                numberOfProblemsSolved = processSequentially(problems, globalCollector,
+                                                             problemCollector, outputDirectory);
+            }
+
+            long end = System.currentTimeMillis();
+            if (globalCollector != null) {
+                writeGlobalResults(outputDirectory,
+                                   globalCollector, numberOfProblemsSolved, end - start);
+            }
+        } finally {
+            if (problems instanceof LazyProblemIterator) {
+                ((LazyProblemIterator) problems).close();
+            }
         }
+    }
 
+    private int processSequentially(Iterator<LoadedProblem> problems,
+                                    XmlEnabledCollector globalCollector,
+                                    XmlEnabledCollector problemCollector, File outputDirectory) {
         solver.clearCollectors();
 
         if (globalCollector != null) {
@@ -93,7 +224,9 @@ public class BatchProcessor {
             solver.addCollector(problemCollector);
         }
 
-        for (LoadedProblem loadedProblem : loadedProblems) {
+        int numberOfProblemsSolved = 0;
+        while (problems.hasNext()) {
+            LoadedProblem loadedProblem = problems.next();
             if (problemCollector != null) {
                 // reset problem (local) collector
                 // before each execution of the solver
@@ -105,41 +238,154 @@ public class BatchProcessor {
             solver.setProblem(loadedProblem.problem);
             solver.solve();
 
-            if (problemCollector != null) {
+            if (archive != null) {
+                archiveProblemResults(loadedProblem, solver.getSolutions());
+            } else if (problemCollector != null) {
                 writeProblemResults(outputDirectory, loadedProblem, problemCollector);
             }
+
+            numberOfProblemsSolved++;
         }
 
-        long end = System.currentTimeMillis();
+        return numberOfProblemsSolved;
+    }
+
+    private int processConcurrently(Iterator<LoadedProblem> problems,
+                                    XmlEnabledCollector globalCollector,
+                                    XmlEnabledCollector problemCollector, File outputDirectory) {
         if (globalCollector != null) {
-            writeGlobalResults(outputDirectory,
-                               globalCollector, loadedProblems.size(), end - start);
+            globalCollector.clear();
+        }
+
+        ExecutorService solvers = Executors.newFixedThreadPool(parallelism);
+        try {
+            CompletionService<ProblemResults> completionService =
+                    new ExecutorCompletionService<ProblemResults>(solvers);
+
+            // problem is taken from the queue only when one of the solvers is free and results
+            // are released as soon as they are written, this way no more than necessary problems
+            // are kept in memory
+            int numberOfProblemsSolved = 0;
+            int running = 0;
+            while (running > 0 || problems.hasNext()) {
+                while (running < parallelism && problems.hasNext()) {
+                    completionService.submit(createSolveTask(problems.next(), problemCollector));
+                    running++;
+                }
+
+                ProblemResults results = await(completionService.take());
+                running--;
+
+                if (globalCollector != null) {
+                    results.buffer.replay(globalCollector);
+                }
+
+                if (archive != null) {
+                    archiveProblemResults(results.loadedProblem, results.solutions);
+                } else if (results.problemCollector != null) {
+                    writeProblemResults(outputDirectory, results.loadedProblem,
+                                        results.problemCollector);
+                }
+
+                numberOfProblemsSolved++;
+            }
+
+            return numberOfProblemsSolved;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } finally {
+            solvers.shutdownNow();
+        }
+    }
+
+    private Callable<ProblemResults> createSolveTask(final LoadedProblem loadedProblem,
+                                                     final XmlEnabledCollector prototype) {
+        return new Callable<ProblemResults>() {
+            @Override
+            public ProblemResults call() throws Exception {
+                return solve(loadedProblem, prototype);
+            }
+        };
+    }
+
+    private ProblemResults solve(LoadedProblem loadedProblem, XmlEnabledCollector prototype) {
+        MultistartSolver problemSolver = solver.fork(loadedProblem.problem);
+
+        BufferingCollector buffer = new BufferingCollector();
+        problemSolver.addCollector(buffer);
+
+        XmlEnabledCollector problemCollector = null;
+        if (prototype != null) {
+            problemCollector = new XmlEnabledCollector();
+            problemCollector.setMeasures(prototype.getMeasures());
+            problemCollector.setMetrics(prototype.getMetrics());
+            problemSolver.addCollector(problemCollector);
+        }
+
+        LOGGER.info("Solving problem {} loaded from '{}'",
+                    extractProblemName(loadedProblem), loadedProblem.path);
+        List<Solution> solutions = problemSolver.solve();
+
+        return new ProblemResults(loadedProblem, solutions, buffer, problemCollector);
+    }
+
+    private ProblemResults await(Future<ProblemResults> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
         }
     }
 
     private List<LoadedProblem> loadProblems() {
-        CspReader reader = new CspReader();
         List<LoadedProblem> problems = Lists.newArrayList();
         for (String problemPath : problemPaths) {
-            File file = new File(problemPath);
+            LoadedProblem loadedProblem = loadProblem(problemPath);
+            if (loadedProblem != null) {
+                problems.add(loadedProblem);
+            }
+        }
 
-            if (file.exists() && file.isFile() && file.canRead()) {
-                try {
-                    reader.read(file);
+        return problems;
+    }
 
-                    Problem problem = reader.getProblem();
-                    if (problem == null) {
-                        LOGGER.error("Couldn't load problem using path '{}'", problemPath);
-                    } else {
-                        problems.add(new LoadedProblem(problemPath, problem));
-                    }
-                } catch (CspParseException e) {
-                    LOGGER.catching(e);
+    private static LoadedProblem loadProblem(String problemPath) {
+        File file = new File(problemPath);
+
+        LoadedProblem loadedProblem = null;
+        if (file.exists() && file.isFile() && file.canRead()) {
+            try {
+                CspReader reader = new CspReader();
+                reader.read(file);
+
+                Problem problem = reader.getProblem();
+                if (problem == null) {
+                    LOGGER.error("Couldn't load problem using path '{}'", problemPath);
+                } else {
+                    loadedProblem = new LoadedProblem(problemPath, problem);
                 }
+            } catch (CspParseException e) {
+                LOGGER.catching(e);
             }
         }
 
-        return problems;
+        return loadedProblem;
+    }
+
+    private static List<String> sortByFileLength(List<String> paths) {
+        List<String> sorted = Lists.newArrayList(paths);
+        Collections.sort(sorted, new Comparator<String>() {
+            @Override
+            public int compare(String lhs, String rhs) {
+                return Long.compare(new File(rhs).length(), new File(lhs).length());
+            }
+        });
+
+        return sorted;
     }
 
     private File createOutputDirectory(String outputPath) {
@@ -167,6 +413,9 @@ public class BatchProcessor {
 
         // and suffix and extension
         String resultsFileName = problemFileName + RESULTS_SUFFIX + "." + RESULTS_EXTENSION;
+        if (isOutputCompressed) {
+            resultsFileName += "." + COMPRESSED_EXTENSION;
+        }
 
         File resultsFile = new File(outputDirectory, resultsFileName);
         try {
@@ -180,6 +429,8 @@ public class BatchProcessor {
             writer.setCollector(problemCollector);
             writer.setProblem(loadedProblem.problem);
 
+            writer.setStreamingEnabled(true);
+            writer.setCompressionEnabled(isOutputCompressed);
             writer.write(resultsFile, true);
         } catch (IOException e) {
             LOGGER.catching(e);
@@ -189,6 +440,28 @@ public class BatchProcessor {
         return true;
     }
 
+    private boolean archiveProblemResults(LoadedProblem loadedProblem, List<Solution> solutions) {
+        if (solutions == null) {
+            return true;
+        }
+
+        try {
+            LOGGER.info("Archiving {} solutions of the problem {}",
+                        solutions.size(), extractProblemName(loadedProblem));
+
+            for (Solution solution : solutions) {
+                if (solution != null) {
+                    archive.append(loadedProblem.problem, solution);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.catching(e);
+            return false;
+        }
+
+        return true;
+    }
+
     private boolean writeGlobalResults(File outputDirectory, XmlEnabledCollector globalCollector,
                                        int numberOfProblemsSolved, long totalProcessTimeInMillis) {
         File resultsFile = new File(outputDirectory, RUN_RESULTS_FILE_NAME);
@@ -216,6 +489,17 @@ public class BatchProcessor {
         return Utils.extractProblemName(loadedProblem.problem, loadedProblem.path);
     }
 
+    private static final Comparator<LoadedProblem> LARGEST_FIRST = new Comparator<LoadedProblem>() {
+        @Override
+        public int compare(LoadedProblem lhs, LoadedProblem rhs) {
+            return Long.compare(estimateSize(rhs.problem), estimateSize(lhs.problem));
+        }
+
+        private long estimateSize(Problem problem) {
+            return (long) problem.getOrders().size() * problem.getRolls().size();
+        }
+    };
+
     private static class LoadedProblem {
         public final String path;
         public final Problem problem;
@@ -226,4 +510,125 @@ public class BatchProcessor {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * <p>Everything obtained for a single problem solved concurrently, passed to the calling
+     * thread to be written.</p>
+     */
+    private static class ProblemResults {
+        public final LoadedProblem loadedProblem;
+        public final List<Solution> solutions;
+        public final BufferingCollector buffer;
+        public final XmlEnabledCollector problemCollector;
+
+        public ProblemResults(LoadedProblem loadedProblem, List<Solution> solutions,
+                              BufferingCollector buffer, XmlEnabledCollector problemCollector) {
+            this.loadedProblem = loadedProblem;
+            this.solutions = solutions;
+            this.buffer = buffer;
+            this.problemCollector = problemCollector;
+        }
+    }
+
+    /**
+     * <p>Keeps results of the runs until they are passed to the global collector on the calling
+     * thread.</p>
+     */
+    private static class BufferingCollector implements Collector {
+        private final List<Solution> solutions = Lists.newArrayList();
+        private final List<Long> executionTimeInMillis = Lists.newArrayList();
+
+        @Override
+        public void collect(Solution solution) {
+            collect(solution, 0);
+        }
+
+        @Override
+        public void collect(Solution solution, long millis) {
+            solutions.add(solution);
+            executionTimeInMillis.add(millis);
+        }
+
+        @Override
+        public void clear() {
+            solutions.clear();
+            executionTimeInMillis.clear();
+        }
+
+        @Override
+        public void process() {
+        }
+
+        public void replay(Collector collector) {
+            for (int i = 0; i < solutions.size(); i++) {
+                collector.collect(solutions.get(i), executionTimeInMillis.get(i));
+            }
+        }
+    }
+
+    /**
+     * <p>Iterates over problems parsing each one on a background thread, no more than a couple of
+     * problems are parsed ahead. Problems which can't be loaded are skipped.</p>
+     */
+    private static class LazyProblemIterator extends AbstractIterator<LoadedProblem>
+            implements Closeable {
+        private final Iterator<String> paths;
+        private final Queue<Future<LoadedProblem>> pending;
+        private final ExecutorService loader;
+
+        public LazyProblemIterator(List<String> paths) {
+            this.paths = Lists.newArrayList(paths).iterator();
+            this.pending = new LinkedList<Future<LoadedProblem>>();
+            this.loader = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true)
+                                              .setNameFormat("problem-loader-%d").build());
+
+            prefetch();
+        }
+
+        @Override
+        protected LoadedProblem computeNext() {
+            while (!pending.isEmpty()) {
+                Future<LoadedProblem> future = pending.poll();
+                prefetch();
+
+                LoadedProblem loadedProblem = await(future);
+                if (loadedProblem != null) {
+                    return loadedProblem;
+                }
+            }
+
+            close();
+
+            return endOfData();
+        }
+
+        @Override
+        public void close() {
+            loader.shutdownNow();
+        }
+
+        private void prefetch() {
+            while (pending.size() < PREFETCH_SIZE && paths.hasNext()) {
+                final String path = paths.next();
+                pending.add(loader.submit(new Callable<LoadedProblem>() {
+                    @Override
+                    public LoadedProblem call() throws Exception {
+                        return loadProblem(path);
+                    }
+                }));
+            }
+        }
+
+        private LoadedProblem await(Future<LoadedProblem> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+    }
+
+}
@@ -3,19 +3,42 @@ package com.akavrt.csp.solver;
 import com.akavrt.csp.analyzer.Collector;
 import com.akavrt.csp.core.Problem;
 import com.akavrt.csp.core.Solution;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * <p>Solver executes algorithm a number of times and passes the best solution obtained in each run
+ * along with execution time to the collectors.</p>
+ *
+ * <p>If factory of the algorithm is provided and parallelism is greater than one, runs are
+ * executed concurrently on a bounded pool of threads, each run uses its own instance of the
+ * algorithm created with factory. Execution time of each run is measured within the thread
+ * executing it, i.e. time spent waiting in the queue isn't taken into account. Results are passed
+ * to collectors on the calling thread in the order of runs, so collectors don't need to be
+ * thread-safe.</p>
+ *
+ * <p>Time limit of the solver (see SimpleSolver.setTimeLimit()) is applied to each run separately,
+ * deadline of the run is set when run starts.</p>
+ *
  * @author Victor Balabanov <akavrt@gmail.com>
  */
 public class MultistartSolver extends SimpleSolver {
     private static final Logger LOGGER = LogManager.getLogger(MultistartSolver.class);
     private static final int DEFAULT_NUMBER_OF_RUNS = 1;
+    private static final int DEFAULT_PARALLELISM = 1;
+    private final AlgorithmFactory<? extends Algorithm> algorithmFactory;
     private int numberOfRuns = DEFAULT_NUMBER_OF_RUNS;
+    private int parallelism = DEFAULT_PARALLELISM;
     private List<Collector> collectors;
 
     public MultistartSolver(Algorithm algorithm, int numberOfRuns) {
@@ -23,8 +46,37 @@ public class MultistartSolver extends SimpleSolver {
     }
 
     public MultistartSolver(Problem problem, Algorithm algorithm, int numberOfRuns) {
+        this(problem, algorithm, null, numberOfRuns, DEFAULT_PARALLELISM);
+    }
+
+    public MultistartSolver(AlgorithmFactory<? extends Algorithm> algorithmFactory,
+                            int numberOfRuns, int parallelism) {
+        this(null, algorithmFactory, numberOfRuns, parallelism);
+    }
+
+    /**
+     * <p>Creates solver which executes runs concurrently. Instance of the algorithm created first
+     * is used to describe algorithm (e.g. to write its parameters along with results), separate
+     * instance is created for each run.</p>
+     *
+     * @param problem          Problem to solve.
+     * @param algorithmFactory Factory used to create instance of the algorithm for each run.
+     * @param numberOfRuns     Number of runs.
+     * @param parallelism      Maximum number of runs executed at once.
+     */
+    public MultistartSolver(Problem problem, AlgorithmFactory<? extends Algorithm> algorithmFactory,
+                            int numberOfRuns, int parallelism) {
+        this(problem, algorithmFactory.createAlgorithm(), algorithmFactory, numberOfRuns,
+             parallelism);
+    }
+
+    private MultistartSolver(Problem problem, Algorithm algorithm,
+                             AlgorithmFactory<? extends Algorithm> algorithmFactory,
+                             int numberOfRuns, int parallelism) {
         super(problem, algorithm);
+        this.algorithmFactory = algorithmFactory;
         this.numberOfRuns = numberOfRuns;
+        this.parallelism = parallelism;
         collectors = Lists.newArrayList();
     }
 
@@ -36,6 +88,47 @@ public class MultistartSolver extends SimpleSolver {
         this.numberOfRuns = numberOfRuns;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * <p>Sets maximum number of runs executed at once. Has no effect unless solver was created
+     * with factory of the algorithm.</p>
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * <p>Checks whether independent solvers can be created with fork(). It's possible only if
+     * solver was created with factory of the algorithm.</p>
+     */
+    public boolean isForkable() {
+        return algorithmFactory != null;
+    }
+
+    /**
+     * <p>Creates new solver bound to another problem. New solver shares factory of the algorithm
+     * with this one and inherits its time limit, but uses its own instance of the algorithm and
+     * doesn't have any collectors attached. Solvers created this way can be used to solve a number
+     * of problems at once.</p>
+     *
+     * @param problem Problem to solve.
+     * @return New solver or null if solver wasn't created with factory of the algorithm.
+     */
+    public MultistartSolver fork(Problem problem) {
+        if (!isForkable()) {
+            return null;
+        }
+
+        MultistartSolver solver = new MultistartSolver(problem, algorithmFactory, numberOfRuns,
+                                                       parallelism);
+        solver.setTimeLimit(getTimeLimit());
+
+        return solver;
+    }
+
     public List<Collector> getCollectors() {
         return collectors;
     }
@@ -50,6 +143,14 @@ public class MultistartSolver extends SimpleSolver {
 
     @Override
     protected List<Solution> run() {
+        if (algorithmFactory == null || parallelism <= 1 || numberOfRuns <= 1) {
+            return runSequentially();
+        }
+
+        return runConcurrently();
+    }
+
+    private List<Solution> runSequentially() {
         List<Solution> solutions = Lists.newArrayList();
 
         for (int i = 1; i <= numberOfRuns; i++) {
@@ -59,18 +160,87 @@ public class MultistartSolver extends SimpleSolver {
             List<Solution> runResult = super.run();
             long end = System.currentTimeMillis();
 
-            if (runResult.size() > 0 && runResult.get(0) != null) {
-                Solution solution = runResult.get(0);
+            collect(runResult, end - start);
+
+            solutions.addAll(runResult);
+        }
+
+        return solutions;
+    }
+
+    private List<Solution> runConcurrently() {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism,
+                                                                         numberOfRuns));
+        try {
+            List<Future<RunResult>> futures = Lists.newArrayList();
+            for (int i = 1; i <= numberOfRuns; i++) {
+                futures.add(executor.submit(createRun(i)));
+            }
 
-                for (Collector collector : collectors) {
-                    collector.collect(solution, end - start);
+            List<Solution> solutions = Lists.newArrayList();
+            for (Future<RunResult> future : futures) {
+                RunResult runResult = await(future);
+
+                collect(runResult.solutions, runResult.millis);
+
+                if (runResult.solutions != null) {
+                    solutions.addAll(runResult.solutions);
                 }
             }
 
-            solutions.addAll(runResult);
+            return solutions;
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        return solutions;
+    private Callable<RunResult> createRun(final int index) {
+        return new Callable<RunResult>() {
+            @Override
+            public RunResult call() throws Exception {
+                LOGGER.info("*** run #{}", index);
+
+                Algorithm algorithm = algorithmFactory.createAlgorithm();
+
+                // time spent waiting in the queue doesn't count towards the time limit of the run
+                long start = System.nanoTime();
+                List<Solution> solutions = algorithm.execute(createContext());
+                long end = System.nanoTime();
+
+                return new RunResult(solutions, TimeUnit.NANOSECONDS.toMillis(end - start));
+            }
+        };
+    }
+
+    private RunResult await(Future<RunResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private void collect(List<Solution> runResult, long millis) {
+        if (runResult != null && runResult.size() > 0 && runResult.get(0) != null) {
+            Solution solution = runResult.get(0);
+
+            for (Collector collector : collectors) {
+                collector.collect(solution, millis);
+            }
+        }
+    }
+
+    private static class RunResult {
+        private final List<Solution> solutions;
+        private final long millis;
+
+        private RunResult(List<Solution> solutions, long millis) {
+            this.solutions = solutions;
+            this.millis = millis;
+        }
     }
 
 }
@@ -1,6 +1,5 @@
 package com.akavrt.csp.solver.local;
 
-import com.akavrt.csp.core.Order;
 import com.akavrt.csp.core.Roll;
 import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.solver.evo.Chromosome;
@@ -87,70 +86,4 @@ public class SearchStepOperator extends PatternBasedMutation {
         return result != null ? result : original;
     }
 
-    private double getResidualDemandArea(Chromosome chromosome) {
-        List<Order> orders = chromosome.getContext().getProblem().getOrders();
-
-        double area = 0;
-        for (int i = 0; i < orders.size(); i++) {
-            Order order = orders.get(i);
-
-            double produced = chromosome.getProductionLengthForOrder(i);
-            double required = order.getLength();
-
-            if (produced < required) {
-                area += (required - produced) * order.getWidth();
-            }
-        }
-
-        return area;
-    }
-
-    private List<Roll> searchForGroup(Chromosome chromosome, double toleranceRatio) {
-        List<Roll> group = null;
-
-        double residualDemandArea = getResidualDemandArea(chromosome);
-        if (residualDemandArea > 0) {
-            List<Roll> spareRolls = getSpareRolls(chromosome);
-            group = searchForGroup(residualDemandArea, spareRolls, toleranceRatio);
-        }
-
-        return group;
-    }
-
-    private List<Roll> searchForGroup(double targetGroupArea, List<Roll> rolls,
-                                      double toleranceRatio) {
-        List<Roll> bestGroup = null;
-
-        double bestGroupArea = 0;
-        for (int i = 0; i < rolls.size(); i++) {
-            double anchorWidth = rolls.get(i).getWidth();
-
-            List<Roll> currentGroup = Lists.newArrayList();
-            double currentGroupArea = 0;
-
-            // TODO collect all rolls suited for inclusion to the current group,
-            // TODO then solve knapsack problem to get best match in terms of area
-            int j = 0;
-            while (j < rolls.size() && currentGroupArea < targetGroupArea) {
-                Roll roll = rolls.get(j);
-
-                double delta = 1 - anchorWidth / roll.getWidth();
-                if (delta >= 0 && delta <= toleranceRatio) {
-                    currentGroup.add(roll);
-                    currentGroupArea += roll.getArea();
-                }
-
-                j++;
-            }
-
-            if (currentGroupArea >= targetGroupArea
-                    && (bestGroup == null || currentGroupArea < bestGroupArea)) {
-                bestGroup = currentGroup;
-                bestGroupArea = currentGroupArea;
-            }
-        }
-
-        return bestGroup;
-    }
-
-}
\ No newline at end of file
+}
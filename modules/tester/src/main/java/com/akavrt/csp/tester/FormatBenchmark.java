@@ -0,0 +1,123 @@
+package com.akavrt.csp.tester;
+
+import com.akavrt.csp.core.binary.CspBinaryReader;
+import com.akavrt.csp.core.binary.CspBinaryWriter;
+import com.akavrt.csp.core.xml.CspParseException;
+import com.akavrt.csp.core.xml.CspReader;
+import com.akavrt.csp.core.xml.StreamingCspReader;
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>Compares load time of the problems stored in XML (parsed with CspReader and
+ * StreamingCspReader) and in binary format (parsed with CspBinaryReader). All files are kept in
+ * memory, so only parsing and conversion are measured.</p>
+ *
+ * <p>Usage: FormatBenchmark [directory with problems] [number of iterations]</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class FormatBenchmark {
+    private static final Logger LOGGER = LogManager.getLogger(FormatBenchmark.class);
+    private static final String DEFAULT_DIRECTORY = "data";
+    private static final int DEFAULT_ITERATIONS = 200;
+    private static final int WARM_UP_ITERATIONS = 50;
+
+    public static void main(String[] args) throws IOException, CspParseException {
+        File directory = new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+        if (!directory.isDirectory()) {
+            LOGGER.error("Directory '{}' wasn't found.", directory.getPath());
+            return;
+        }
+
+        Collection<File> files = FileUtils.listFiles(directory, new String[]{"xml"}, true);
+
+        List<byte[]> xmlData = Lists.newArrayList();
+        List<byte[]> binaryData = Lists.newArrayList();
+        long xmlSize = 0;
+        long binarySize = 0;
+        for (File file : files) {
+            byte[] xml = FileUtils.readFileToByteArray(file);
+
+            CspReader reader = new CspReader();
+            reader.read(new ByteArrayInputStream(xml));
+
+            CspBinaryWriter writer = new CspBinaryWriter();
+            writer.setProblem(reader.getProblem());
+            writer.setSolutions(reader.getSolutions());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.write(out);
+            byte[] binary = out.toByteArray();
+
+            xmlData.add(xml);
+            binaryData.add(binary);
+            xmlSize += xml.length;
+            binarySize += binary.length;
+        }
+
+        LOGGER.info("{} files loaded: {} bytes of XML, {} bytes in binary format.",
+                    files.size(), xmlSize, binarySize);
+
+        measure(xmlData, binaryData, WARM_UP_ITERATIONS);
+
+        long[] times = measure(xmlData, binaryData, iterations);
+        LOGGER.info("Average time to load all files, ms: CspReader = {}, " +
+                            "StreamingCspReader = {}, CspBinaryReader = {}",
+                    format(times[0], iterations), format(times[1], iterations),
+                    format(times[2], iterations));
+    }
+
+    private static long[] measure(List<byte[]> xmlData, List<byte[]> binaryData, int iterations)
+            throws IOException, CspParseException {
+        long[] times = new long[3];
+        // results are consumed to prevent elimination of the work done
+        int checksum = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            for (byte[] xml : xmlData) {
+                CspReader reader = new CspReader();
+                reader.read(new ByteArrayInputStream(xml));
+                checksum += reader.getProblem().getRolls().size();
+            }
+            times[0] += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (byte[] xml : xmlData) {
+                StreamingCspReader reader = new StreamingCspReader();
+                reader.read(new ByteArrayInputStream(xml));
+                checksum += reader.getProblem().getRolls().size();
+            }
+            times[1] += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (byte[] binary : binaryData) {
+                CspBinaryReader reader = new CspBinaryReader();
+                reader.read(new ByteArrayInputStream(binary));
+                checksum += reader.getProblem().getRolls().size();
+            }
+            times[2] += System.nanoTime() - start;
+        }
+
+        LOGGER.debug("Checksum: {}", checksum);
+
+        return times;
+    }
+
+    private static String format(long totalNanos, int iterations) {
+        return String.format("%.3f", totalNanos / 1e6 / iterations);
+    }
+
+}
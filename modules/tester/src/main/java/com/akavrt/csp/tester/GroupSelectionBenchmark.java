@@ -0,0 +1,122 @@
+package com.akavrt.csp.tester;
+
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.core.xml.CspParseException;
+import com.akavrt.csp.core.xml.CspReader;
+import com.akavrt.csp.metrics.Metric;
+import com.akavrt.csp.metrics.MetricProvider;
+import com.akavrt.csp.metrics.complex.ConstraintAwareMetric;
+import com.akavrt.csp.metrics.complex.ConstraintAwareMetricParameters;
+import com.akavrt.csp.solver.SimpleSolver;
+import com.akavrt.csp.solver.evo.es.BaseStrategyComponentsFactory;
+import com.akavrt.csp.solver.evo.es.EvolutionStrategy;
+import com.akavrt.csp.solver.evo.es.EvolutionStrategyParameters;
+import com.akavrt.csp.solver.evo.operators.RollGroupSelector;
+import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
+import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>Compares greedy and knapsack-based selection of the rolls (see RollGroupSelector) used by
+ * group mutations of the evolution strategy. Both variants are run with the same seeds on each
+ * problem found in directory, trim loss, over-production and aggregated trim loss of the best
+ * solutions are averaged over runs and problems.</p>
+ *
+ * <p>Usage: GroupSelectionBenchmark [directory with problems] [number of runs]</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class GroupSelectionBenchmark {
+    private static final Logger LOGGER = LogManager.getLogger(GroupSelectionBenchmark.class);
+    private static final String DEFAULT_DIRECTORY = "data/production";
+    private static final int DEFAULT_RUNS = 10;
+    private static final int RUN_STEPS = 300;
+
+    public static void main(String[] args) throws CspParseException {
+        File directory = new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+
+        if (!directory.isDirectory()) {
+            LOGGER.error("Directory '{}' wasn't found.", directory.getPath());
+            return;
+        }
+
+        Collection<File> files = FileUtils.listFiles(directory, new String[]{"xml"}, false);
+
+        // trim ratio, average over-production ratio, aggregated trim ratio, time in ms
+        double[] greedyTotals = new double[4];
+        double[] knapsackTotals = new double[4];
+        for (File file : files) {
+            CspReader reader = new CspReader();
+            reader.read(file);
+            Problem problem = reader.getProblem();
+
+            double[] greedy = measure(problem, null, runs);
+            double[] knapsack = measure(problem, new RollGroupSelector(), runs);
+
+            LOGGER.info("{}: greedy {}, knapsack {}", file.getName(), format(greedy, 1),
+                        format(knapsack, 1));
+
+            for (int i = 0; i < greedyTotals.length; i++) {
+                greedyTotals[i] += greedy[i];
+                knapsackTotals[i] += knapsack[i];
+            }
+        }
+
+        LOGGER.info("Average over {} problems: greedy {}, knapsack {}", files.size(),
+                    format(greedyTotals, files.size()), format(knapsackTotals, files.size()));
+    }
+
+    private static double[] measure(Problem problem, RollGroupSelector selector, int runs) {
+        double[] values = new double[4];
+        for (int seed = 1; seed <= runs; seed++) {
+            PatternGeneratorParameters patternParameters = new PatternGeneratorParameters();
+            patternParameters.setGenerationTrialsLimit(5);
+
+            BaseStrategyComponentsFactory factory = new BaseStrategyComponentsFactory(
+                    new ConstrainedPatternGenerator(patternParameters));
+            factory.setGroupSelector(selector);
+
+            Metric objectiveFunction = new ConstraintAwareMetric(
+                    new ConstraintAwareMetricParameters());
+
+            EvolutionStrategyParameters strategyParameters = new EvolutionStrategyParameters();
+            strategyParameters.setPopulationSize(50);
+            strategyParameters.setOffspringCount(45);
+            strategyParameters.setRunSteps(RUN_STEPS);
+            strategyParameters.setSeed(seed);
+
+            EvolutionStrategy strategy = new EvolutionStrategy(factory, objectiveFunction,
+                                                               strategyParameters);
+
+            long start = System.nanoTime();
+            List<Solution> solutions = new SimpleSolver(problem, strategy).solve();
+            values[3] += (System.nanoTime() - start) / 1e6;
+
+            MetricProvider provider = solutions.get(0).getMetricProvider();
+            values[0] += provider.getTrimRatio();
+            values[1] += provider.getAverageOverProductionRatio();
+            values[2] += provider.getAggregatedTrimRatio();
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] /= runs;
+        }
+
+        return values;
+    }
+
+    private static String format(double[] values, int count) {
+        return String.format("[trim = %.4f, over = %.4f, aggregated = %.4f, time = %.1f ms]",
+                             values[0] / count, values[1] / count, values[2] / count,
+                             values[3] / count);
+    }
+
+}
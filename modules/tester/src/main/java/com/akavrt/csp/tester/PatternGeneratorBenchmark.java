@@ -0,0 +1,129 @@
+package com.akavrt.csp.tester;
+
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.xml.CspParseException;
+import com.akavrt.csp.core.xml.CspReader;
+import com.akavrt.csp.solver.pattern.PatternGenerationMethod;
+import com.akavrt.csp.solver.pattern.PatternGenerator;
+import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>Compares randomized multistart pattern generation procedure with exact knapsack-based one.
+ * The same sequence of requests (roll picked from the problem, random demand) is sent to each
+ * generator, average trim loss ratio of the generated patterns and average time per pattern are
+ * reported for each directory with problems.</p>
+ *
+ * <p>Usage: PatternGeneratorBenchmark [directory with problems] [number of patterns]</p>
+ *
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class PatternGeneratorBenchmark {
+    private static final Logger LOGGER = LogManager.getLogger(PatternGeneratorBenchmark.class);
+    private static final String DEFAULT_DIRECTORY = "data";
+    private static final int DEFAULT_PATTERNS = 20000;
+    private static final int MAX_DEMAND = 20;
+
+    public static void main(String[] args) throws CspParseException {
+        File directory = new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        int patterns = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PATTERNS;
+
+        if (!directory.isDirectory()) {
+            LOGGER.error("Directory '{}' wasn't found.", directory.getPath());
+            return;
+        }
+
+        List<File> directories = Lists.newArrayList(directory);
+        File[] children = directory.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    directories.add(child);
+                }
+            }
+        }
+
+        List<PatternGeneratorParameters> variants = Lists.newArrayList();
+        variants.add(new PatternGeneratorParameters());
+
+        PatternGeneratorParameters knapsack = new PatternGeneratorParameters();
+        knapsack.setMethod(PatternGenerationMethod.KNAPSACK);
+        variants.add(knapsack);
+
+        PatternGeneratorParameters coarseKnapsack = new PatternGeneratorParameters();
+        coarseKnapsack.setMethod(PatternGenerationMethod.KNAPSACK);
+        coarseKnapsack.setGridSize(4096);
+        variants.add(coarseKnapsack);
+
+        for (File current : directories) {
+            Collection<File> files = FileUtils.listFiles(current, new String[]{"xml"}, false);
+            if (files.isEmpty()) {
+                continue;
+            }
+
+            List<Problem> problems = Lists.newArrayList();
+            for (File file : files) {
+                CspReader reader = new CspReader();
+                reader.read(file);
+                problems.add(reader.getProblem());
+            }
+
+            for (PatternGeneratorParameters params : variants) {
+                // warm up
+                measure(problems, params, patterns / 10);
+
+                double[] values = measure(problems, params, patterns);
+                LOGGER.info("{}, {} (grid size = {}): trim = {}, time per pattern = {} us",
+                            current.getName(), params.getMethod().getName(), params.getGridSize(),
+                            String.format("%.5f", values[0]), String.format("%.2f", values[1]));
+            }
+        }
+    }
+
+    private static double[] measure(List<Problem> problems, PatternGeneratorParameters params,
+                                    int patterns) {
+        double trimRatio = 0;
+        long time = 0;
+        for (Problem problem : problems) {
+            PatternGenerator generator = PatternGenerators.create(params);
+            generator.initialize(problem);
+
+            // the same requests for each generator
+            Random rGen = new Random(42);
+            List<Roll> rolls = problem.getRolls();
+            int[] demand = new int[problem.getOrders().size()];
+            for (int i = 0; i < patterns; i++) {
+                double rollWidth = rolls.get(rGen.nextInt(rolls.size())).getWidth();
+                for (int j = 0; j < demand.length; j++) {
+                    demand[j] = rGen.nextInt(MAX_DEMAND + 1);
+                }
+
+                long start = System.nanoTime();
+                int[] pattern = generator.generate(rollWidth, demand, 0);
+                time += System.nanoTime() - start;
+
+                double width = 0;
+                for (int j = 0; pattern != null && j < pattern.length; j++) {
+                    width += pattern[j] * problem.getOrders().get(j).getWidth();
+                }
+
+                trimRatio += 1 - width / rollWidth;
+            }
+        }
+
+        int total = patterns * problems.size();
+
+        return new double[]{trimRatio / total, time / 1e3 / total};
+    }
+
+}
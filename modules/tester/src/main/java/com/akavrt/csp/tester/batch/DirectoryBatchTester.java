@@ -10,6 +10,7 @@ import com.akavrt.csp.metrics.complex.ProductDeviationMetric;
 import com.akavrt.csp.metrics.complex.ScalarMetric;
 import com.akavrt.csp.metrics.simple.*;
 import com.akavrt.csp.solver.Algorithm;
+import com.akavrt.csp.solver.AlgorithmFactory;
 import com.akavrt.csp.solver.BatchProcessor;
 import com.akavrt.csp.solver.MultistartSolver;
 import com.akavrt.csp.utils.Utils;
@@ -29,12 +30,34 @@ public abstract class DirectoryBatchTester {
     public static final int DEFAULT_NUMBER_OF_RUNS = 10;
     private final String targetDirectory;
     private final int numberOfRuns;
+    private int parallelism = 1;
+    private int problemParallelism = 1;
 
     public DirectoryBatchTester(String directory, int numberOfRuns) {
         this.targetDirectory = directory;
         this.numberOfRuns = numberOfRuns;
     }
 
+    /**
+     * <p>Sets maximum number of runs executed at once for each problem. Runs are executed one
+     * after another by default.</p>
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * <p>Sets maximum number of problems solved at once. Problems are solved one after another by
+     * default.</p>
+     */
+    public void setProblemParallelism(int problemParallelism) {
+        this.problemParallelism = problemParallelism;
+    }
+
+    /**
+     * <p>Creates new instance of the algorithm, it's called once per run when runs are executed
+     * concurrently, so instances must not share mutable state.</p>
+     */
     protected abstract Algorithm createAlgorithm();
 
     protected abstract Logger getLogger();
@@ -64,10 +87,16 @@ public abstract class DirectoryBatchTester {
             getLogger().info("Problem files wasn't found.");
         }
 
-        Algorithm method = createAlgorithm();
+        AlgorithmFactory<Algorithm> factory = new AlgorithmFactory<Algorithm>() {
+            @Override
+            public Algorithm createAlgorithm() {
+                return DirectoryBatchTester.this.createAlgorithm();
+            }
+        };
 
-        MultistartSolver solver = new MultistartSolver(method, numberOfRuns);
+        MultistartSolver solver = new MultistartSolver(factory, numberOfRuns, parallelism);
         BatchProcessor processor = new BatchProcessor(solver);
+        processor.setParallelism(problemParallelism);
 
         for (File problemFile : problemFiles) {
             getLogger().info("Adding problem file '{}'", problemFile.getPath());
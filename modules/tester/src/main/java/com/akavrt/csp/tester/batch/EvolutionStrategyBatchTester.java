@@ -4,13 +4,13 @@ import com.akavrt.csp.metrics.Metric;
 import com.akavrt.csp.metrics.complex.ConstraintAwareMetric;
 import com.akavrt.csp.metrics.complex.ConstraintAwareMetricParameters;
 import com.akavrt.csp.solver.Algorithm;
-import com.akavrt.csp.solver.evo.EvolutionaryComponentsFactory;
 import com.akavrt.csp.solver.evo.es.BaseStrategyComponentsFactory;
 import com.akavrt.csp.solver.evo.es.EvolutionStrategy;
 import com.akavrt.csp.solver.evo.es.EvolutionStrategyParameters;
-import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
+import com.akavrt.csp.solver.evo.operators.RollGroupSelector;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
 import com.akavrt.csp.tester.config.EvolutionStrategyBatchConfiguration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,7 +47,7 @@ public class EvolutionStrategyBatchTester extends DirectoryBatchTester {
             patternParameters = new PatternGeneratorParameters();
         }
 
-        return new ConstrainedPatternGenerator(patternParameters);
+        return PatternGenerators.create(patternParameters);
     }
 
     private Metric createConstrainedObjectiveFunction() {
@@ -62,7 +62,7 @@ public class EvolutionStrategyBatchTester extends DirectoryBatchTester {
     @Override
     protected Algorithm createAlgorithm() {
         PatternGenerator generator = createPatternGenerator();
-        EvolutionaryComponentsFactory factory = new BaseStrategyComponentsFactory(generator);
+        BaseStrategyComponentsFactory factory = new BaseStrategyComponentsFactory(generator);
         Metric objectiveFunction = createConstrainedObjectiveFunction();
 
         EvolutionStrategyParameters strategyParameters = config.getAlgorithmParameters();
@@ -70,6 +70,10 @@ public class EvolutionStrategyBatchTester extends DirectoryBatchTester {
             strategyParameters = new EvolutionStrategyParameters();
         }
 
+        if (strategyParameters.isGroupSelectionEnabled()) {
+            factory.setGroupSelector(new RollGroupSelector());
+        }
+
         return new EvolutionStrategy(factory, objectiveFunction, strategyParameters);
     }
 
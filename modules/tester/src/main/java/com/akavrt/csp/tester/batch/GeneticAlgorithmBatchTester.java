@@ -8,9 +8,9 @@ import com.akavrt.csp.solver.evo.ga.BaseGeneticComponentsFactory;
 import com.akavrt.csp.solver.evo.ga.GeneticAlgorithm;
 import com.akavrt.csp.solver.evo.ga.GeneticAlgorithmParameters;
 import com.akavrt.csp.solver.evo.ga.GeneticComponentsFactory;
-import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
 import com.akavrt.csp.tester.config.GeneticAlgorithmBatchConfiguration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,7 +47,7 @@ public class GeneticAlgorithmBatchTester extends DirectoryBatchTester {
             patternParameters = new PatternGeneratorParameters();
         }
 
-        return new ConstrainedPatternGenerator(patternParameters);
+        return PatternGenerators.create(patternParameters);
     }
 
     private Metric createConstrainedObjectiveFunction() {
@@ -1,9 +1,9 @@
 package com.akavrt.csp.tester.batch;
 
 import com.akavrt.csp.solver.Algorithm;
-import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
 import com.akavrt.csp.solver.sequential.HaesslerProcedure;
 import com.akavrt.csp.solver.sequential.SequentialProcedureParameters;
 import com.akavrt.csp.tester.config.SequentialProcedureBatchConfiguration;
@@ -42,7 +42,7 @@ public class HaesslerProcedureBatchTester extends DirectoryBatchTester {
             patternParameters = new PatternGeneratorParameters();
         }
 
-        return new ConstrainedPatternGenerator(patternParameters);
+        return PatternGenerators.create(patternParameters);
     }
 
     @Override
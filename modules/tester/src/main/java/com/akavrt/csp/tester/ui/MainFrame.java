@@ -8,9 +8,9 @@ import com.akavrt.csp.solver.evo.EvolutionPhase;
 import com.akavrt.csp.solver.evo.EvolutionaryAlgorithm;
 import com.akavrt.csp.solver.evo.es.EvolutionStrategy;
 import com.akavrt.csp.solver.evo.es.EvolutionStrategyParameters;
-import com.akavrt.csp.solver.pattern.ConstrainedPatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGenerator;
 import com.akavrt.csp.solver.pattern.PatternGeneratorParameters;
+import com.akavrt.csp.solver.pattern.PatternGenerators;
 import com.akavrt.csp.tester.tracer.ScalarTracer;
 import com.akavrt.csp.tester.tracer.TraceableStrategyComponentsFactory;
 import com.akavrt.csp.tester.ui.content.ContentPanel;
@@ -282,7 +282,7 @@ public class MainFrame extends JFrame implements MainToolBar.OnActionPerformedLi
             generatorParams = new PatternGeneratorParameters();
         }
 
-        PatternGenerator generator = new ConstrainedPatternGenerator(generatorParams);
+        PatternGenerator generator = PatternGenerators.create(generatorParams);
 
         ConstraintAwareMetricParameters objectiveParams = presetsPanel
                 .getObjectiveFunctionParameters();
@@ -0,0 +1,102 @@
+package com.akavrt.csp.solver;
+
+import com.akavrt.csp.core.Order;
+import com.akavrt.csp.core.Problem;
+import com.akavrt.csp.core.Roll;
+import com.akavrt.csp.core.Solution;
+import com.akavrt.csp.utils.ParameterSet;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Victor Balabanov <akavrt@gmail.com>
+ */
+public class MultistartSolverTest {
+    private static final long TIME_LIMIT = 300;
+    private static final long RUN_TIME = 200;
+    private Problem problem;
+    private List<Long> budgets;
+    private AlgorithmFactory<Algorithm> factory;
+
+    @Before
+    public void setUp() {
+        problem = new Problem(Lists.<Order>newArrayList(), Lists.<Roll>newArrayList());
+        budgets = Collections.synchronizedList(Lists.<Long>newArrayList());
+
+        // each run records time left before its deadline and takes a fixed amount of time
+        factory = new AlgorithmFactory<Algorithm>() {
+            @Override
+            public Algorithm createAlgorithm() {
+                return new Algorithm() {
+                    @Override
+                    public String name() {
+                        return "Sleeping algorithm";
+                    }
+
+                    @Override
+                    public List<ParameterSet> getParameters() {
+                        return Lists.newArrayList();
+                    }
+
+                    @Override
+                    public List<Solution> execute(ExecutionContext context) {
+                        long deadline = ExecutionContexts.getDeadline(context);
+                        budgets.add(deadline - System.currentTimeMillis());
+
+                        try {
+                            Thread.sleep(RUN_TIME);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        return Lists.newArrayList();
+                    }
+                };
+            }
+        };
+    }
+
+    @Test
+    public void eachSequentialRunGetsWholeTimeLimit() {
+        MultistartSolver solver = new MultistartSolver(problem, factory.createAlgorithm(), 3);
+        solver.setTimeLimit(TIME_LIMIT);
+        solver.solve();
+
+        assertBudgets(3);
+    }
+
+    @Test
+    public void eachConcurrentRunGetsWholeTimeLimit() {
+        // the last runs wait in the queue until the first ones are finished
+        MultistartSolver solver = new MultistartSolver(problem, factory, 4, 2);
+        solver.setTimeLimit(TIME_LIMIT);
+        solver.solve();
+
+        assertBudgets(4);
+    }
+
+    @Test
+    public void forkInheritsTimeLimit() {
+        MultistartSolver solver = new MultistartSolver(problem, factory, 2, 2);
+        solver.setTimeLimit(TIME_LIMIT);
+
+        assertEquals(TIME_LIMIT, solver.fork(problem).getTimeLimit());
+    }
+
+    private void assertBudgets(int runs) {
+        assertEquals(runs, budgets.size());
+        for (long budget : budgets) {
+            // deadline set once per solve() would leave less than TIME_LIMIT - RUN_TIME
+            assertTrue(budget > TIME_LIMIT - RUN_TIME / 2);
+            assertTrue(budget <= TIME_LIMIT);
+        }
+    }
+
+}